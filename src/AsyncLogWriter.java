@@ -0,0 +1,238 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The AsyncLogWriter class appends log lines to a file from a single background
+ * thread, so logging threads never touch the file.
+ *
+ * - Producers put lines into a bounded, lock-free ring buffer (see RingWriter), so
+ * many threads can append at once without locks.
+ * - When the ring is full a line is either dropped and counted (`Overflow.DROP`) or
+ * the producer waits for room (`Overflow.BLOCK`). If the writer has stopped, e.g.
+ * after a failed write, lines are dropped either way instead of waiting forever.
+ * - The writer drains the ring in batches into one direct buffer and appends it
+ * through a FileChannel; only new lines are written, never the whole log.
+ * - The file is forced to disk never, after every batch, or at most once per
+ * interval (`Fsync`), and rotated once it exceeds `maxBytes`: logs.txt becomes
+ * logs.txt.1, logs.txt.1 becomes logs.txt.2 and so on, keeping `maxFiles`.
+ *
+ * TimeStampDaemon builds one from the `log.*` system properties (see
+ * fromSystemProperties).
+ */
+public class AsyncLogWriter extends RingWriter {
+    /**
+     * What a producer does when the ring is full.
+     */
+    public enum Overflow {
+        DROP, BLOCK
+    }
+
+    /**
+     * When written lines are forced to disk.
+     */
+    public enum Fsync {
+        NEVER, BATCH, INTERVAL
+    }
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Overflow overflow;
+    private final Fsync fsync;
+    private final long fsyncIntervalNanos;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    private final String[] slots; // The ring's lines, indexed like its sequences
+
+    // Writer thread only
+    private FileChannel channel;
+    private long fileSize;
+    private long lastFsync = System.nanoTime();
+    private boolean dirty;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+    /**
+     * Constructs an AsyncLogWriter and starts its writer thread.
+     *
+     * @param path               The log file.
+     * @param append             true to keep what the file already holds, false to start it empty.
+     * @param capacity           Lines the ring holds; rounded up to a power of two.
+     * @param overflow           What to do with a line when the ring is full.
+     * @param fsync              When to force the file to disk.
+     * @param fsyncIntervalMillis The interval for `Fsync.INTERVAL`.
+     * @param maxBytes           Size at which the file is rotated; 0 never rotates.
+     * @param maxFiles           Rotated files kept besides the live one.
+     */
+    public AsyncLogWriter(Path path, boolean append, int capacity, Overflow overflow, Fsync fsync,
+                          long fsyncIntervalMillis, long maxBytes, int maxFiles) throws IOException {
+        super(capacity, "AsyncLogWriter");
+        this.path = path;
+        this.overflow = overflow;
+        this.fsync = fsync;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+
+        this.slots = new String[size()];
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = open(append);
+        this.fileSize = channel.size();
+        start();
+    }
+
+    /**
+     * Builds a writer from system properties:
+     * - `-Dlog.file` (default src/logs.txt), `-Dlog.append` (false)
+     * - `-Dlog.capacity` lines in the ring (65536), `-Dlog.overflow=block|drop` (block)
+     * - `-Dlog.fsync=never|batch|interval` (interval), `-Dlog.fsyncInterval` ms (1000)
+     * - `-Dlog.maxBytes` (64 MB, 0 for no rotation), `-Dlog.maxFiles` (3)
+     */
+    public static AsyncLogWriter fromSystemProperties() throws IOException {
+        return new AsyncLogWriter(
+                Paths.get(System.getProperty("log.file", "src/logs.txt")),
+                Boolean.parseBoolean(System.getProperty("log.append", "false")),
+                Integer.getInteger("log.capacity", 65536),
+                Overflow.valueOf(System.getProperty("log.overflow", "block").toUpperCase()),
+                Fsync.valueOf(System.getProperty("log.fsync", "interval").toUpperCase()),
+                Long.getLong("log.fsyncInterval", 1000),
+                Long.getLong("log.maxBytes", 64L * 1024 * 1024),
+                Integer.getInteger("log.maxFiles", 3));
+    }
+
+    // ========== PRODUCERS ==========
+
+    /**
+     * Queues a line (without its newline) for the file.
+     *
+     * @return false if the line was dropped because the ring was full or the writer stopped.
+     */
+    public boolean append(String line) {
+        long position = claim(overflow == Overflow.BLOCK);
+        if (position < 0) {
+            return false;
+        }
+        slots[index(position)] = line;
+        publish(position);
+        return true;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // ========== WRITER ==========
+
+    @Override
+    protected void write(int index) throws IOException {
+        String line = slots[index];
+        slots[index] = null;
+        put((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    protected void endBatch() throws IOException {
+        writeBuffer();
+        maybeFsync(false);
+    }
+
+    @Override
+    protected void idle() throws IOException {
+        maybeFsync(false);
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        maybeFsync(true);
+    }
+
+    @Override
+    protected void release() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+        }
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (maxBytes > 0 && fileSize + buffer.position() + bytes.length > maxBytes && fileSize + buffer.position() > 0) {
+            writeBuffer();
+            rotate();
+        }
+        if (bytes.length > buffer.remaining()) {
+            writeBuffer();
+            if (bytes.length > buffer.capacity()) {
+                write(ByteBuffer.wrap(bytes));
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            fileSize += channel.write(data);
+            dirty = true;
+        }
+    }
+
+    private void maybeFsync(boolean force) throws IOException {
+        if (!dirty || (fsync == Fsync.NEVER && !force)) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (force || fsync == Fsync.BATCH || now - lastFsync >= fsyncIntervalNanos) {
+            channel.force(false);
+            lastFsync = now;
+            dirty = false;
+        }
+    }
+
+    /**
+     * Moves logs.txt to logs.txt.1 (and each older file one number up) and starts a
+     * new, empty logs.txt.
+     */
+    private void rotate() throws IOException {
+        maybeFsync(true);
+        channel.close();
+        if (maxFiles > 0) {
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path older = rotated(i);
+                if (Files.exists(older)) {
+                    Files.move(older, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = open(false);
+        fileSize = 0;
+    }
+
+    private Path rotated(int generation) {
+        return path.resolveSibling(path.getFileName() + "." + generation);
+    }
+
+    private FileChannel open(boolean append) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The BatchDispatcher class plans the dispatch of several free drones to several
+ * queued fires at once, as a min-cost assignment, instead of sending drones one by
+ * one to the top event.
+ *
+ * - Each event is split into slots, one per drone it still needs given the largest
+ * load any free drone carries.
+ * - Sending a drone to a slot costs its travel distance per unit of agent it would
+ * actually drop there, multiplied by a severity weight, so high severity fires are
+ * served first when there are fewer drones than slots.
+ * - An AssignmentSolver picks the pairs with the lowest total cost.
+ *
+ * The Scheduler uses it with `-Dscheduler.dispatch=batch`, collecting ready events
+ * and drones for `-Dscheduler.batchWindow` milliseconds (default 20) before planning.
+ */
+public class BatchDispatcher {
+    public static final long DEFAULT_WINDOW_MS = 20;
+
+    private static final double EPSILON = 0.0001;
+
+    /**
+     * One planned dispatch.
+     */
+    public static final class Assignment {
+        private final int droneId;
+        private final int eventId;
+
+        Assignment(int droneId, int eventId) {
+            this.droneId = droneId;
+            this.eventId = eventId;
+        }
+
+        public int getDroneId() { return droneId; }
+        public int getEventId() { return eventId; }
+
+        @Override
+        public String toString() {
+            return "Drone " + droneId + " -> Event " + eventId;
+        }
+    }
+
+    private final AssignmentSolver solver = new AssignmentSolver();
+
+    /**
+     * Plans which free drone goes to which event.
+     *
+     * @param events The events still needing drones.
+     * @param drones The free drones, with their position and the agent they carry.
+     * @return The planned dispatches, at most one per drone.
+     */
+    public List<Assignment> plan(List<Event> events, List<DroneRegistry.Snapshot> drones) {
+        List<Assignment> plan = new ArrayList<>();
+        if (events.isEmpty() || drones.isEmpty()) {
+            return plan;
+        }
+
+        double load = 0;
+        for (DroneRegistry.Snapshot drone : drones) {
+            load = Math.max(load, drone.getVolume());
+        }
+        if (load < EPSILON) {
+            return plan;
+        }
+
+        // One slot per drone each event still needs; no event needs more slots than there are drones
+        List<Event> slotEvents = new ArrayList<>();
+        List<Double> slotNeeds = new ArrayList<>();
+        for (Event event : events) {
+            double remaining = event.getAgentRequired() - event.getAgentSent();
+            for (int slot = 0; remaining > EPSILON && slot < drones.size(); slot++) {
+                slotEvents.add(event);
+                slotNeeds.add(remaining);
+                remaining -= load;
+            }
+        }
+        if (slotEvents.isEmpty()) {
+            return plan;
+        }
+
+        double[][] cost = new double[slotEvents.size()][drones.size()];
+        for (int i = 0; i < cost.length; i++) {
+            Event event = slotEvents.get(i);
+            Zone zone = event.getZone();
+            for (int j = 0; j < drones.size(); j++) {
+                cost[i][j] = cost(event.getSeverity(), slotNeeds.get(i), zone.getCenterX(), zone.getCenterY(),
+                        drones.get(j));
+            }
+        }
+
+        int[] matched = solver.solve(cost);
+        for (int i = 0; i < matched.length; i++) {
+            if (matched[i] >= 0) {
+                plan.add(new Assignment(drones.get(matched[i]).getId(), slotEvents.get(i).getId()));
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Computes the cost of sending a drone to fill one slot of an event.
+     *
+     * @param need The agent the slot still needs.
+     */
+    static double cost(Event.Severity severity, double need, double centerX, double centerY,
+                       DroneRegistry.Snapshot drone) {
+        double dx = drone.getX() - centerX;
+        double dy = drone.getY() - centerY;
+        double useful = Math.max(Math.min(drone.getVolume(), need), EPSILON);
+        return severityWeight(severity) * (Math.sqrt(dx * dx + dy * dy) + 1.0) / useful;
+    }
+
+    private static double severityWeight(Event.Severity severity) {
+        switch (severity) {
+            case HIGH:
+                return 1.0;
+            case MODERATE:
+                return 2.0;
+            case LOW:
+                return 4.0;
+            default:
+                return 8.0;
+        }
+    }
+}
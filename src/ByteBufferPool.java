@@ -0,0 +1,67 @@
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ByteBufferPool class hands out direct ByteBuffers of a fixed size and takes
+ * them back for reuse.
+ *
+ * Direct buffers are expensive to allocate and are only freed by the garbage
+ * collector, so the Scheduler's event loop borrows them from here instead of
+ * allocating one per datagram. The pool is lock-free and may be shared between
+ * threads; it grows on demand and keeps at most `maxPooled` idle buffers.
+ */
+public class ByteBufferPool {
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> free;
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * Constructs a ByteBufferPool.
+     *
+     * @param bufferSize The capacity of every buffer.
+     * @param preallocate How many buffers to allocate up front.
+     * @param maxPooled  The most idle buffers kept; extra released buffers are dropped.
+     */
+    public ByteBufferPool(int bufferSize, int preallocate, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.free = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < preallocate; i++) {
+            free.offer(ByteBuffer.allocateDirect(bufferSize));
+        }
+        pooled.set(preallocate);
+    }
+
+    /**
+     * Borrows a cleared buffer, allocating a new one if the pool is empty.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. The caller must not use it afterwards.
+     */
+    public void release(ByteBuffer buffer) {
+        if (!buffer.isDirect() || buffer.capacity() != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
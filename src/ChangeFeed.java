@@ -0,0 +1,89 @@
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * The ChangeFeed class tells one reader (a Subscription) which drones and events have
+ * changed since it last looked, and wakes it when something does, so the reader
+ * neither polls nor rescans everything.
+ *
+ * - Writers mark a drone or event id as changed. An id already marked is not
+ * added again, so a burst of LOCATION updates collapses to one entry per drone.
+ * - The reader blocks in await() until anything is marked or signal() is called
+ * (e.g. for a new log line), then takes the marked ids with drainDrones() and
+ * drainEvents(). Ids marked while it drains are kept for the next drain.
+ * - Marking never blocks the Scheduler: it is a set insert and, for the first
+ * change after a drain, an unpark.
+ */
+public class ChangeFeed {
+    private final Set<Integer> drones = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> events = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private volatile Thread reader;
+
+    public void droneChanged(int droneId) {
+        drones.add(droneId);
+        signal();
+    }
+
+    public void eventChanged(int eventId) {
+        events.add(eventId);
+        signal();
+    }
+
+    /**
+     * Wakes the reader without marking anything.
+     */
+    public void signal() {
+        if (!pending.get() && !pending.getAndSet(true)) {
+            Thread waiting = reader;
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        }
+    }
+
+    /**
+     * Blocks the calling thread, the feed's only reader, until something changes.
+     *
+     * @return true if something changed, false if the timeout passed first.
+     */
+    public boolean await(long timeout, TimeUnit unit) {
+        reader = Thread.currentThread();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!pending.getAndSet(false)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || Thread.interrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Passes each drone marked since the last drain to `action` and unmarks it.
+     */
+    public void drainDrones(IntConsumer action) {
+        drain(drones, action);
+    }
+
+    /**
+     * Passes each event marked since the last drain to `action` and unmarks it.
+     */
+    public void drainEvents(IntConsumer action) {
+        drain(events, action);
+    }
+
+    private static void drain(Set<Integer> ids, IntConsumer action) {
+        for (Iterator<Integer> it = ids.iterator(); it.hasNext(); ) {
+            int id = it.next();
+            it.remove(); // Before reading its state, so a change made after the read is marked again
+            action.accept(id);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * The DispatchBenchmark class compares greedy dispatch (the top event gets the
+ * nearest free drone, as in Scheduler.dispatchNext) with batched min-cost dispatch
+ * (BatchDispatcher) on the same simulated workload.
+ *
+ * Drones fly at the Drone class's travel speed, drop at its flow rate, carry 15
+ * units and refill at base (0,0) in 20 seconds. Fires arrive in bursts at random
+ * spots on the map and need 10/20/30 units by severity. Agent accounting goes
+ * through an EventStore exactly as in the Scheduler. Time is simulated, so a run
+ * takes well under a second and every policy sees the same fires.
+ *
+ * For each policy the benchmark prints the mean and p99 time-to-extinguish (from a
+ * fire being reported to it being out, in simulated seconds), the distance flown,
+ * and how long planning took. It also times the solver on a 500 x 500 matrix.
+ *
+ * Usage: java DispatchBenchmark [drones] [fires] [batch window seconds]
+ */
+public class DispatchBenchmark {
+    private static final double MAP_SIZE = 3000.0;
+    private static final double ZONE_SIZE = 100.0;
+    private static final double TRAVEL_SPEED = 12.0; // Units per second, as Drone
+    private static final double FLOW_RATE = 1.25;    // Units dropped per second, as Drone
+    private static final double CAPACITY = 15.0;
+    private static final double REFILL_SECONDS = 20.0;
+    private static final double BURST_INTERVAL = 40.0; // Mean seconds between bursts of fires
+    private static final int MAX_BURST = 10;
+    private static final double EPSILON = 0.0001;
+    private static final long SEED = 3303;
+
+    public static void main(String[] args) {
+        int drones = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int fires = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+        double window = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+
+        timeSolver(500, 20);
+
+        System.out.println(String.format("%d drones, %d fires, batch window %.1f s", drones, fires, window));
+        System.out.println(String.format("%-8s %10s %10s %12s %10s %10s",
+                "policy", "mean s", "p99 s", "flown", "plan ms", "max ms"));
+        new Simulation(drones, fires, 0).run("greedy");
+        new Simulation(drones, fires, window).run("batch");
+    }
+
+    /**
+     * Prints the mean time to solve random square matrices of the given size.
+     */
+    private static void timeSolver(int size, int runs) {
+        Random random = new Random(SEED);
+        AssignmentSolver solver = new AssignmentSolver();
+        double[][] cost = new double[size][size];
+        long total = 0;
+        for (int run = -5; run < runs; run++) { // The first few runs warm up the JIT
+            for (double[] row : cost) {
+                for (int j = 0; j < size; j++) {
+                    row[j] = random.nextDouble() * MAP_SIZE;
+                }
+            }
+            long start = System.nanoTime();
+            solver.solve(cost);
+            if (run >= 0) {
+                total += System.nanoTime() - start;
+            }
+        }
+        System.out.println(String.format("AssignmentSolver %dx%d: %.2f ms mean over %d runs",
+                size, size, total / 1e6 / runs, runs));
+    }
+
+    /**
+     * A discrete-event simulation of one policy; a batch window of 0 means greedy.
+     */
+    private static class Simulation {
+        private static final int FIRE_REPORTED = 0, ARRIVED = 1, DROPPED = 2, REFILLED = 3, BATCH = 4;
+
+        private final double window;
+        private final Random random = new Random(SEED);
+        // Entries are {time, type, subject, sequence}; ties go in scheduling order
+        private final PriorityQueue<double[]> calendar = new PriorityQueue<>((a, b) ->
+                a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[3], b[3]));
+        private final EventStore store = new EventStore();
+        private final FreeDroneIndex free = new FreeDroneIndex();
+        private final BatchDispatcher batchDispatcher = new BatchDispatcher();
+
+        private final double[] x, y, volume, dropAmount;
+        private final int[] target; // Event id each drone is flying to or dropping on
+        private final Event[] fires;
+        private final double[] reportedAt;
+        private final double[] extinguishIn;
+        private int extinguished;
+        private double now, flown;
+        private boolean batchPending;
+        private long planNanos, maxPlanNanos;
+        private int plans;
+        private long scheduled;
+
+        Simulation(int drones, int fires, double window) {
+            this.window = window;
+            x = new double[drones];
+            y = new double[drones];
+            volume = new double[drones];
+            dropAmount = new double[drones];
+            target = new int[drones];
+            for (int id = 0; id < drones; id++) {
+                volume[id] = CAPACITY;
+                free.add(id, 0, 0);
+            }
+
+            // Bursts of fires; the same seed gives every policy the same fires
+            this.fires = new Event[fires];
+            reportedAt = new double[fires];
+            extinguishIn = new double[fires];
+            double time = 0;
+            for (int id = 0; id < fires; ) {
+                time += -Math.log(1 - random.nextDouble()) * BURST_INTERVAL;
+                int burst = 1 + random.nextInt(MAX_BURST);
+                for (int i = 0; i < burst && id < fires; i++, id++) {
+                    this.fires[id] = newFire(id);
+                    schedule(time, FIRE_REPORTED, id);
+                }
+            }
+        }
+
+        void run(String name) {
+            while (!calendar.isEmpty()) {
+                double[] next = calendar.poll();
+                now = next[0];
+                int subject = (int) next[2];
+                switch ((int) next[1]) {
+                    case FIRE_REPORTED:
+                        store.add(fires[subject]);
+                        reportedAt[subject] = now;
+                        break;
+                    case ARRIVED:
+                        arrive(subject);
+                        break;
+                    case DROPPED:
+                        dropped(subject);
+                        break;
+                    case REFILLED:
+                        volume[subject] = CAPACITY;
+                        free.add(subject, 0, 0);
+                        break;
+                    case BATCH:
+                        batchPending = false;
+                        dispatchBatch();
+                        break;
+                }
+                if (window <= 0) {
+                    dispatchGreedy();
+                } else if (!batchPending && store.hasQueued() && !free.isEmpty()) {
+                    batchPending = true;
+                    schedule(now + window, BATCH, 0);
+                }
+            }
+
+            double[] times = Arrays.copyOf(extinguishIn, extinguished);
+            Arrays.sort(times);
+            System.out.println(String.format("%-8s %10.1f %10.1f %12.0f %10.3f %10.3f", name,
+                    Arrays.stream(times).average().orElse(0), percentile(times, 0.99), flown,
+                    plans == 0 ? 0 : planNanos / 1e6 / plans, maxPlanNanos / 1e6));
+        }
+
+        private Event newFire(int id) {
+            Event.Severity severity = Event.Severity.values()[random.nextInt(3)];
+            double startX = random.nextDouble() * (MAP_SIZE - ZONE_SIZE);
+            double startY = random.nextDouble() * (MAP_SIZE - ZONE_SIZE);
+            Zone zone = new Zone(id, (int) startX, (int) startY, (int) (startX + ZONE_SIZE), (int) (startY + ZONE_SIZE));
+            double required = severity == Event.Severity.HIGH ? 30.0 : severity == Event.Severity.MODERATE ? 20.0 : 10.0;
+            return new Event(id, LocalTime.MIDNIGHT, zone, Event.Type.FIRE_DETECTED, severity, required, 0.0, 0.0);
+        }
+
+        private void dispatchGreedy() {
+            long start = System.nanoTime();
+            while (store.hasQueued() && !free.isEmpty()) {
+                Event event = store.peekNext();
+                Zone zone = event.getZone();
+                int droneId = free.nearest(zone.getCenterX(), zone.getCenterY());
+                free.remove(droneId);
+                send(droneId, event);
+            }
+            recordPlan(start);
+        }
+
+        private void dispatchBatch() {
+            long start = System.nanoTime();
+            List<DroneRegistry.Snapshot> drones = new ArrayList<>();
+            for (int id : free.ids()) {
+                drones.add(new DroneRegistry.Snapshot(id, (int) x[id], (int) y[id], volume[id], 0,
+                        DroneRegistry.Status.IDLE, 0));
+            }
+            for (BatchDispatcher.Assignment assignment : batchDispatcher.plan(store.queuedEvents(), drones)) {
+                free.remove(assignment.getDroneId());
+                send(assignment.getDroneId(), store.get(assignment.getEventId()));
+            }
+            recordPlan(start);
+        }
+
+        private void send(int droneId, Event event) {
+            store.assign(event.getId(), volume[droneId]);
+            target[droneId] = event.getId();
+            Zone zone = event.getZone();
+            schedule(now + fly(droneId, zone.getCenterX(), zone.getCenterY()), ARRIVED, droneId);
+        }
+
+        private void arrive(int droneId) {
+            dropAmount[droneId] = store.reserveDrop(target[droneId], volume[droneId]);
+            schedule(now + dropAmount[droneId] / FLOW_RATE, DROPPED, droneId);
+        }
+
+        private void dropped(int droneId) {
+            int eventId = target[droneId];
+            volume[droneId] -= dropAmount[droneId];
+            if (store.recordDrop(eventId, dropAmount[droneId])) {
+                extinguishIn[extinguished++] = now - reportedAt[eventId];
+            }
+            if (volume[droneId] > EPSILON) {
+                free.add(droneId, (int) x[droneId], (int) y[droneId]);
+            } else {
+                schedule(now + fly(droneId, 0, 0) + REFILL_SECONDS, REFILLED, droneId);
+            }
+        }
+
+        /**
+         * Moves a drone and returns the flight time.
+         */
+        private double fly(int droneId, double toX, double toY) {
+            double distance = Math.hypot(toX - x[droneId], toY - y[droneId]);
+            x[droneId] = toX;
+            y[droneId] = toY;
+            flown += distance;
+            return distance / TRAVEL_SPEED;
+        }
+
+        private void schedule(double time, int type, int subject) {
+            calendar.add(new double[]{time, type, subject, scheduled++});
+        }
+
+        private void recordPlan(long start) {
+            long elapsed = System.nanoTime() - start;
+            planNanos += elapsed;
+            maxPlanNanos = Math.max(maxPlanNanos, elapsed);
+            plans++;
+        }
+    }
+
+    private static double percentile(double[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
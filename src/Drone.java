@@ -3,11 +3,14 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.*;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
-public class Drone extends Thread {
+public class Drone extends Thread implements DroneContext {
 
     private static int idCounter = 0;
     private int id;
@@ -24,22 +27,52 @@ public class Drone extends Thread {
     private DroneFSM droneFSM;
 
     private DatagramSocket socket;
+    private ReliableChannel channel;
+    private final DroneHost host; // Null unless sharing a DroneHost's socket
+    private BlockingQueue<DatagramPacket> mailbox; // This drone's datagrams, when hosted
+    private int receiveTimeout;
     private InetAddress schedulerAddress;
     private int schedulerPort;
+    private ZoneCatalog zones; // The Scheduler's zone catalog, once loaded (see WireFormat.zoneReferences)
 
     private boolean finish;
 
     private double[] currentLocation;
 
+    // Messages and packet buffer are reused for every exchange with the scheduler
+    private final DroneMessage inbound = new DroneMessage();
+    private final DroneMessage outbound = new DroneMessage();
+    private final DatagramPacket receivePacket = new DatagramPacket(new byte[2048], 2048);
+    private int sequence;
+
     private Map<String, FaultEvent.Type> faultInstructions = new HashMap<>();
 
+    private final TelemetryLog telemetry = TelemetryLog.get();
+
 
     //variables used for logging
-    private ArrayList<Long> messageTimes, moveTimes, restTimes;
+    private final LatencyHistogram messageTimes = new LatencyHistogram(); // Round trips to the scheduler, in us
+    private final LatencyHistogram moveTimes = new LatencyHistogram();    // Travel to each target, in us
+    private final LatencyHistogram restTimes = new LatencyHistogram();    // Idle waits for an assignment, in us
     private long droneStartTime, droneEndTime;
     private long inactiveTime;
 
     public Drone(int schedulerPort) {
+        this(schedulerPort, (DroneHost) null);
+    }
+
+    /**
+     * Constructs a drone that talks to the scheduler through a DroneHost's shared
+     * socket instead of opening its own.
+     */
+    Drone(DroneHost host, String faultFileName) {
+        this(host.getSchedulerPort(), host);
+        if (faultFileName != null && !faultFileName.isEmpty()) {
+            loadFaultInstructions(faultFileName);
+        }
+    }
+
+    private Drone(int schedulerPort, DroneHost host) {
         droneStartTime = System.nanoTime() / 1000;
         this.id = idCounter++;
 
@@ -59,15 +92,20 @@ public class Drone extends Thread {
         this.droneFSM.initialize(this);
         this.currentState = DroneFSM.getState("StartUp");
 
-        this.messageTimes = new ArrayList<>();
-        this.moveTimes = new ArrayList<>();
-        this.restTimes = new ArrayList<>();
         this.inactiveTime = 0;
 
-        try {
-            this.socket = new DatagramSocket();
-        } catch (IOException e) {
-            e.printStackTrace();
+        this.host = host;
+        if (host != null) {
+            this.channel = host.getChannel();
+            this.socket = this.channel.getSocket();
+            this.mailbox = host.register(this.id);
+        } else {
+            try {
+                this.socket = new DatagramSocket();
+                this.channel = new ReliableChannel(this.socket);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
         this.schedulerPort = schedulerPort;
 
@@ -125,7 +163,10 @@ public class Drone extends Thread {
     }
 
     public void setState(String stateName) {
+        DroneState previous = this.currentState;
         this.currentState = DroneFSM.getState(stateName);
+        FlightEvents.droneTransition(id, previous, currentState);
+        telemetry.state(TelemetryLog.Source.DRONE, id, DroneRegistry.Status.of(currentState.getStateString()));
     }
 
     public String getStateAsString() {
@@ -152,12 +193,10 @@ public class Drone extends Thread {
         }
 
         //Signal scheduler that the drone is finished
-        String sendMessage = "FINISHED:"+this.id;
+        DroneMessage sendMessage = newMessage(DroneMessage.Opcode.FINISHED);
         System.out.println("[Drone " + id + "], Sent: " + sendMessage);
-        DatagramPacket sendPacket = new DatagramPacket(sendMessage.getBytes(), sendMessage.getBytes().length,
-                schedulerAddress, this.schedulerPort);
         try {
-            socket.send(sendPacket);
+            send(sendMessage, schedulerAddress);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -179,19 +218,33 @@ public class Drone extends Thread {
     }
 
     // ========== STATE HANDLING FUNCTIONS ==========
-    protected void sendWakeupMessage() {
+    public void sendWakeupMessage() {
         try {
-            String sendMessage = "ONLINE:" + this.id;
+            DroneMessage sendMessage = newMessage(DroneMessage.Opcode.ONLINE).catalog(WireFormat.zoneReferences ? 1 : 0);
             System.out.println("[Drone " + id + "], Sent: " + sendMessage);
-            DatagramPacket sendPacket = new DatagramPacket(sendMessage.getBytes(), sendMessage.getBytes().length,
-                    InetAddress.getByName("255.255.255.255"), this.schedulerPort);
-            socket.send(sendPacket);
-
-            DatagramPacket receivePacket = new DatagramPacket(new byte[2048], 2048);
-            socket.receive(receivePacket);
-            String receiveMessage = new String(receivePacket.getData(), 0, receivePacket.getLength());
-            System.out.println("[Drone " + id + "], Received: " + receiveMessage);
+            byte[] online = sendMessage.toBytes();
+            InetAddress broadcast = InetAddress.getByName("255.255.255.255");
+            if (channel.isReliable()) {
+                // A broadcast has no single peer to acknowledge it, so repeat it until the scheduler answers
+                setReceiveTimeout(500);
+                while (true) {
+                    channel.sendUnreliable(online, broadcast, this.schedulerPort);
+                    try {
+                        receive();
+                        break;
+                    } catch (SocketTimeoutException e) {
+                    }
+                }
+                setReceiveTimeout(0);
+            } else {
+                channel.sendUnreliable(online, broadcast, this.schedulerPort);
+                receive();
+            }
+            System.out.println("[Drone " + id + "], Received: " + new String(receivePacket.getData(), receivePacket.getOffset(), receivePacket.getLength()));
             schedulerAddress = receivePacket.getAddress();
+            if (WireFormat.zoneReferences) {
+                loadZones();
+            }
 
             currentState.goNextState(this);
 
@@ -200,27 +253,57 @@ public class Drone extends Thread {
         }
     }
 
+    /**
+     * Fetches the Scheduler's zone catalog a chunk at a time (only the first chunk
+     * when another drone in this process already has it), then confirms it, which
+     * also tells the Scheduler the drone is ready for work. Events sent to the drone
+     * from then on name their zone by id.
+     */
+    private void loadZones() {
+        ZoneCatalog.Download download = new ZoneCatalog.Download();
+        while (!download.isComplete()) {
+            DroneMessage response = sendReceive(newMessage(DroneMessage.Opcode.ZONES_REQUEST)
+                    .catalog(download.getReceived()));
+            if (responseOpcode(response) == DroneMessage.Opcode.FINISH) {
+                this.finish = true;
+                break;
+            }
+            if (responseOpcode(response) != DroneMessage.Opcode.ZONES || !response.getZones(download)) {
+                System.out.println("Invalid message: " + response);
+                break;
+            }
+        }
+        int version = 0;
+        if (download.isComplete()) {
+            try {
+                this.zones = ZoneCatalog.register(download.toCatalog());
+                version = zones.getVersion();
+                System.out.println("[Drone " + id + "], Loaded zone catalog " + version + " (" + zones.size() + " zones)");
+            } catch (IllegalStateException e) {
+                System.out.println("[Drone " + id + "], Zone catalog not loaded: " + e.getMessage());
+            }
+        }
+        // Sent even without a catalog, so the Scheduler frees the drone and sends it whole zones
+        sendReceive(newMessage(DroneMessage.Opcode.ZONES_LOADED).catalog(version));
+    }
+
     public void sleepMode() {
         System.out.println("[Drone " + id + "], IDLE Waiting for assignment...");
-        DatagramPacket packet = new DatagramPacket(new byte[2048], 2048);
         try {
-            long restStartTime = System.nanoTime() / 1000;
-            socket.receive(packet);
-            long restEndTime = System.nanoTime() / 1000;
-            System.out.println(String.format("Drone %d slept for %d us.", id, (restEndTime - restStartTime)));
-            restTimes.add(restEndTime - restStartTime);
-
-            String message = new String(packet.getData(), 0, packet.getLength());
-            String[] splitMessage = message.split(":");
-
-            switch (splitMessage[0].toUpperCase()) {
-                case "NEW_EVENT":
-                    Event event = Event.deserializeEvent(Arrays.copyOfRange(packet.getData(), 10, packet.getLength()));
+            long restStartTime = System.nanoTime();
+            DroneMessage message = receive();
+            long restTime = System.nanoTime() - restStartTime;
+            telemetry.idle(id, restTime);
+            restTimes.record(restTime / 1000);
+
+            switch (responseOpcode(message)) {
+                case NEW_EVENT:
+                    Event event = message.getEvent();
                     System.out.println("[Drone " + this.id + "], Received: " + event);
                     this.assignFire(event);
                     currentState.goNextState(this);
                     break;
-                case "FINISH":
+                case FINISH:
                     System.out.println("[Drone " + this.id + "], Received: FINISH");
                     this.finish = true;
                     break;
@@ -235,12 +318,13 @@ public class Drone extends Thread {
     }
 
     //function to move to [x,y] position. Home base is at 0,0
-    public void moveTo(double[] targetLocation) {
-        System.out.println(String.format("Drone %d, moving to (%.2f,%.2f)", this.id, targetLocation[0], targetLocation[1]));
-
+    public void moveTo(double targetX, double targetY) {
         if(currentState == DroneFSM.getState("EnRoute")){
             FaultEvent.Type faultToInject = getFaultForStage(DroneFSM.getState("EnRoute").getStateString());
-            if (faultToInject != null) {
+            if (faultToInject == FaultEvent.Type.PACKET_LOSS && canLoseNextDatagram()) {
+                System.out.println("[Drone " + id + "], Fault injection triggered for TRAVEL: " + faultToInject);
+                channel.getLossInjector().dropNext();
+            } else if (faultToInject != null) {
                 System.out.println("[Drone " + id + "], Fault injection triggered for TRAVEL: " + faultToInject);
                 injectFault(faultToInject);
                 return;
@@ -248,8 +332,8 @@ public class Drone extends Thread {
         }
 
         //Get x and y distance from target
-        double xDistance = targetLocation[0] - this.currentLocation[0];
-        double yDistance = targetLocation[1] - this.currentLocation[1];
+        double xDistance = targetX - this.currentLocation[0];
+        double yDistance = targetY - this.currentLocation[1];
 
         //Get the x and y ratios
         double totalDistance = Math.sqrt(xDistance * xDistance + yDistance * yDistance);
@@ -259,7 +343,7 @@ public class Drone extends Thread {
         //Calculate number of seconds it would take to reach zone
         int secondsRequired = (int) Math.floor(totalDistance / this.attributes.get("travelSpeed"));
 
-        long moveStartTime = System.nanoTime() / 1000;
+        long moveStartTime = System.nanoTime();
 
         if(secondsRequired == 0){
             return;
@@ -269,44 +353,37 @@ public class Drone extends Thread {
         for (int i = 0; i < secondsRequired; i++) {
             this.currentLocation[0] += this.attributes.get("travelSpeed") * xRatio;
             this.currentLocation[1] += this.attributes.get("travelSpeed") * yRatio;
-            String s = String.format("LOCATION:%d:%d:%d", this.id, (int)this.currentLocation[0], (int)this.currentLocation[1]);
+            DroneMessage location = newMessage(DroneMessage.Opcode.LOCATION)
+                    .location((int) this.currentLocation[0], (int) this.currentLocation[1]);
             if(i == (secondsRequired-1)){
-                s = String.format("LOCATION:%d:%d:%d", this.id, (int)targetLocation[0], (int)targetLocation[1]);
+                location.location((int) targetX, (int) targetY);
             }
-            DatagramPacket packet = new DatagramPacket(s.getBytes(), s.getBytes().length, schedulerAddress, schedulerPort);
+            telemetry.location(TelemetryLog.Source.DRONE, id, location.getX(), location.getY());
             try {
-                socket.send(packet);
+                send(location, schedulerAddress);
                 sleep(SLEEPMULTIPLIER);
-                DatagramPacket receivePacket = new DatagramPacket(new byte[2048], 2048);
-                socket.setSoTimeout(10);
-                socket.receive(receivePacket);
-                socket.setSoTimeout(0);
-
-                String message = new String(receivePacket.getData(), 0, receivePacket.getLength());
-                String[] splitMessage = message.split(":");
-
-                switch (splitMessage[0].toUpperCase()) {
-                    case "NEW_EVENT": {
-                        currentState.handleNewEvent(this);
-                        Event event = Event.deserializeEvent(Arrays.copyOfRange(receivePacket.getData(), 10, receivePacket.getLength()));
-                        System.out.println("[Drone " + this.id + "], Received: " + event);
-                        this.assignFire(event);
-                        return;
-                    }
+                setReceiveTimeout(10);
+                DroneMessage message = receive();
+                setReceiveTimeout(0);
 
-                    case "FINISH":
-                        this.finish = true;
-                        break;
+                if (message.getOpcode() == DroneMessage.Opcode.NEW_EVENT) {
+                    currentState.handleNewEvent(this);
+                    Event event = message.getEvent();
+                    System.out.println("[Drone " + this.id + "], Received: " + event);
+                    this.assignFire(event);
+                    return;
+                } else if (message.getOpcode() == DroneMessage.Opcode.FINISH) {
+                    this.finish = true;
                 }
             } catch (SocketTimeoutException e) {
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         }
-        long moveEndTime = System.nanoTime() / 1000;
+        long moveTime = System.nanoTime() - moveStartTime;
 
-        System.out.println(String.format("Drone %d moved from (%f, %f) to (%f, %f) in %d us.",  id, this.currentLocation[0], this.currentLocation[1], targetLocation[0], targetLocation[1], (moveEndTime - moveStartTime)));
-        moveTimes.add(moveEndTime - moveStartTime);
+        telemetry.move(id, (int) targetX, (int) targetY, moveTime);
+        moveTimes.record(moveTime / 1000);
 
     }
 
@@ -314,22 +391,21 @@ public class Drone extends Thread {
         // System.out.println("[Drone " + id + "], Traveling to fire at Zone: " +
         // assignedFire.getZone().getId());
 
-        double[] center = assignedFire.getZone().getCenter();
-        moveTo(center);
+        Zone zone = assignedFire.getZone();
+        moveTo(zone.getCenterX(), zone.getCenterY());
 
-        String response = sendReceive(String.format("%s:%d:%d:%.2f", this.getStateAsString(), this.id,
-                this.assignedFire.getId(), this.carryingVolume));
-        String[] splitMessage = response.split(":");
+        DroneMessage response = sendReceive(stateMessage().eventId(this.assignedFire.getId())
+                .volume(this.carryingVolume));
 
-        switch (splitMessage[0].toUpperCase()) {
-            case "FINISH":
+        switch (responseOpcode(response)) {
+            case FINISH:
                 this.finish = true;
                 break;
-            case "FAULT":
+            case FAULT_COMMAND:
                 currentState.handleFault(this);
                 break;
-            case "DROP":
-                this.agentDropAmount = Double.parseDouble(splitMessage[1]);
+            case DROP:
+                this.agentDropAmount = response.getAmount();
                 currentState.goNextState(this);
                 break;
             default:
@@ -337,13 +413,25 @@ public class Drone extends Thread {
         }
     }
 
+    /**
+     * A PACKET_LOSS fault loses the drone's next datagram only when the reliability
+     * layer will resend it and the socket is the drone's own; otherwise the drone
+     * would wait forever for a reply (or lose another hosted drone's datagram), so
+     * the fault is reported to the Scheduler like the others.
+     */
+    private boolean canLoseNextDatagram() {
+        return channel.isReliable() && host == null;
+    }
+
     private void injectFault(FaultEvent.Type faultType) {
+        telemetry.fault(TelemetryLog.Source.DRONE, id, faultType, this.assignedFire.getId());
         FaultEvent faultEvent = new FaultEvent(LocalTime.now(), faultType, this.id, this.assignedFire);
-        byte[] faultData = faultEvent.createMessage("FAULT_EVENT:" +this.id+ ":"+ this.carryingVolume + ":");
+        DroneMessage faultMessage = newMessage(DroneMessage.Opcode.FAULT_EVENT)
+                .eventId(this.assignedFire.getId())
+                .volume(this.carryingVolume)
+                .payload(faultEvent.serializeFaultEvent(this.zones));
         try {
-            DatagramPacket faultPacket = new DatagramPacket(faultData, faultData.length, schedulerAddress,
-                    schedulerPort);
-            socket.send(faultPacket);
+            send(faultMessage, schedulerAddress);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -353,7 +441,11 @@ public class Drone extends Thread {
     public void extinguishFire() {
         // System.out.println("[Drone " + id + "], Dropping firefighting agent...");
         FaultEvent.Type faultToInject = getFaultForStage(DroneFSM.getState("DroppingAgent").getStateString());
-        if (faultToInject != null) {
+        if (faultToInject == FaultEvent.Type.PACKET_LOSS && canLoseNextDatagram()) {
+            // The drop report is lost on its first transmission; only the reliability layer can recover it
+            System.out.println("[Drone " + id + "], Fault injection triggered for ExtinguishFire: " + faultToInject);
+            channel.getLossInjector().dropNext();
+        } else if (faultToInject != null) {
             System.out.println("[Drone " + id + "], Fault injection triggered for ExtinguishFire: " + faultToInject);
             injectFault(faultToInject);
             return;
@@ -371,20 +463,18 @@ public class Drone extends Thread {
 
         this.carryingVolume -= this.agentDropAmount;
 
-        String response = sendReceive(String.format("%s:%d:%d:%.2f:%.2f", this.getStateAsString(), this.id,
-                this.assignedFire.getId(), this.agentDropAmount, this.carryingVolume));
+        DroneMessage response = sendReceive(stateMessage().eventId(this.assignedFire.getId())
+                .amount(this.agentDropAmount).volume(this.carryingVolume));
         this.agentDropAmount = 0.0;
 
-        String[] splitMessage = response.split(":");
-
-        switch (splitMessage[0].toUpperCase()) {
-            case "FINISH":
+        switch (responseOpcode(response)) {
+            case FINISH:
                 this.finish = true;
                 break;
-            case "FAULT":
+            case FAULT_COMMAND:
                 currentState.handleFault(this);
                 break;
-            case "OK":
+            case OK:
                 currentState.goNextState(this);
                 this.assignedFire = null;
                 break;
@@ -395,19 +485,18 @@ public class Drone extends Thread {
 
     public void returnToBase() {
         // System.out.println("[Drone " + id + "], Returning to base...");
-        moveTo(new double[]{0.0, 0.0});
+        moveTo(0.0, 0.0);
         // System.out.println("[Drone " + id + "], Reached base.");
         if(this.assignedFire == null){
-            String response = sendReceive(String.format("%s:%d", this.getStateAsString(), this.id));
-            String[] splitMessage = response.split(":");
-            switch (splitMessage[0].toUpperCase()) {
-                case "FINISH":
+            DroneMessage response = sendReceive(stateMessage());
+            switch (responseOpcode(response)) {
+                case FINISH:
                     this.finish = true;
                     break;
-                case "FAULT":
+                case FAULT_COMMAND:
                     currentState.handleFault(this);
                     break;
-                case "OK":
+                case OK:
                     currentState.goNextState(this);
                     break;
                 default:
@@ -426,16 +515,15 @@ public class Drone extends Thread {
             e.printStackTrace();
         }
 
-        String response = sendReceive(String.format("%s:%d", this.getStateAsString(), this.id));
-        String[] splitMessage = response.split(":");
-        switch (splitMessage[0].toUpperCase()) {
-            case "FINISH":
+        DroneMessage response = sendReceive(stateMessage());
+        switch (responseOpcode(response)) {
+            case FINISH:
                 this.finish = true;
                 break;
-            case "FAULT":
+            case FAULT_COMMAND:
                 currentState.handleFault(this);
                 break;
-            case "OK":
+            case OK:
                 currentState.goNextState(this);
                 break;
             default:
@@ -446,14 +534,13 @@ public class Drone extends Thread {
     public void handleFault() {
         System.out.println("[Drone " + id + "], FAULT detected. Returning to base...");
 
-        String response = sendReceive(String.format("%s:%d:%d:%.2f", this.getStateAsString(), this.id,
-                this.assignedFire.getId(), this.carryingVolume));
-        String[] splitMessage = response.split(":");
-        switch (splitMessage[0].toUpperCase()) {
-            case "FINISH":
+        DroneMessage response = sendReceive(stateMessage().eventId(this.assignedFire.getId())
+                .volume(this.carryingVolume));
+        switch (responseOpcode(response)) {
+            case FINISH:
                 this.finish = true;
                 break;
-            case "OK":
+            case OK:
                 currentState.goNextState(this);
                 break;
             default:
@@ -462,27 +549,34 @@ public class Drone extends Thread {
         this.assignedFire = null;
     }
 
-    private String sendReceive(String sendMessage) {
+    private DroneMessage sendReceive(DroneMessage sendMessage) {
         try {
-            socket.setSoTimeout(0);
+            setReceiveTimeout(0);
             System.out.println("[Drone " + id + "], Sent: " + sendMessage);
-            DatagramPacket sendPacket = new DatagramPacket(sendMessage.getBytes(), sendMessage.getBytes().length,
-                    schedulerAddress, this.schedulerPort);
-            long messageSendTime = System.nanoTime() / 1000;
-            socket.send(sendPacket);
+            FlightEvents.RoundTrip flight = new FlightEvents.RoundTrip();
+            flight.begin();
+            long messageSendTime = System.nanoTime();
+            int bytesSent = send(sendMessage, schedulerAddress);
 
-            DatagramPacket receivePacket = new DatagramPacket(new byte[2048], 2048); //this is erroneous, because it allocates too much space in the byte array, which causes excess garbage data to be assigned to the response - should be fixed eventually
             long inactiveStartTime = System.nanoTime() / 1000;
-            socket.receive(receivePacket);
+            DroneMessage receiveMessage = receive();
             inactiveTime += (System.nanoTime() / 1000) - inactiveStartTime;
 
-            long messageGetTime = System.nanoTime() / 1000;
-
-            String receiveMessage = new String(receivePacket.getData(), 0, receivePacket.getLength());
+            long messageTime = System.nanoTime() - messageSendTime;
+            flight.end();
+            if (flight.shouldCommit()) {
+                flight.droneId = id;
+                flight.sent = sendMessage.getOpcode().name();
+                flight.received = String.valueOf(receiveMessage.getOpcode());
+                flight.eventId = sendMessage.getEventId();
+                flight.bytesSent = bytesSent;
+                flight.bytesReceived = receiveMessage.getLength();
+                flight.commit();
+            }
 
             System.out.println("[Drone " + id + "] Received: " + receiveMessage);
-            System.out.println(String.format("Drone %d sent '%s' and received '%s' in %d us.", id, sendMessage, receiveMessage, (messageGetTime - messageSendTime)));
-            messageTimes.add(messageGetTime - messageSendTime);
+            telemetry.roundTrip(id, sendMessage.getOpcode(), receiveMessage.getOpcode(), sendMessage.getEventId(), messageTime);
+            messageTimes.record(messageTime / 1000);
 
             return receiveMessage;
         } catch (IOException e) {
@@ -490,11 +584,89 @@ public class Drone extends Thread {
         }
     }
 
+    /**
+     * Starts a new outbound message from this drone, numbered and framed per WireFormat.
+     */
+    private DroneMessage newMessage(DroneMessage.Opcode opcode) {
+        // Hosted drones share a socket, so replies must carry the drone id of binary framing
+        return outbound.reset(opcode, this.id).sequence(++sequence).binary(host != null || WireFormat.binaryFraming);
+    }
+
+    /**
+     * Starts the message reporting the drone's current state (e.g. "En Route").
+     */
+    private DroneMessage stateMessage() {
+        return newMessage(DroneMessage.Opcode.fromText(this.getStateAsString()));
+    }
+
+    /**
+     * @return The number of bytes sent.
+     */
+    private int send(DroneMessage message, InetAddress address) throws IOException {
+        byte[] bytes = message.toBytes();
+        channel.send(bytes, address, this.schedulerPort);
+        return bytes.length;
+    }
+
+    /**
+     * Blocks for the next datagram and decodes it into the reusable inbound message.
+     * Messages that cannot be decoded come back with a null opcode.
+     */
+    private DroneMessage receive() throws IOException {
+        if (host != null) {
+            takeFromMailbox();
+        } else {
+            channel.receive(receivePacket);
+        }
+        if (!inbound.decode(receivePacket.getData(), receivePacket.getOffset(), receivePacket.getLength())) {
+            inbound.reset(null, this.id);
+        }
+        return inbound;
+    }
+
+    /**
+     * Waits for the next datagram the host routed to this drone, honouring the
+     * receive timeout as a socket would.
+     */
+    private void takeFromMailbox() throws IOException {
+        DatagramPacket packet;
+        try {
+            packet = receiveTimeout > 0 ? mailbox.poll(receiveTimeout, TimeUnit.MILLISECONDS) : mailbox.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (packet == null) {
+            throw new SocketTimeoutException();
+        }
+        receivePacket.setData(packet.getData(), packet.getOffset(), packet.getLength());
+        receivePacket.setSocketAddress(packet.getSocketAddress());
+    }
+
+    /**
+     * Sets how long receive() waits, in milliseconds; 0 waits forever.
+     */
+    private void setReceiveTimeout(int timeout) throws SocketException {
+        receiveTimeout = timeout;
+        if (host == null) {
+            socket.setSoTimeout(timeout);
+        }
+    }
+
+    // Undecodable replies fall through to each switch's "Invalid message" branch
+    private static DroneMessage.Opcode responseOpcode(DroneMessage response) {
+        return response.getOpcode() == null ? DroneMessage.Opcode.ONLINE : response.getOpcode();
+    }
+
     @Override
     public String toString() {
         return "Drone " + id + " (State: " + currentState + ")";
     }
 
+    public int getDroneId() {
+        return id;
+    }
+
     public Event getAssignedFire() {
         return assignedFire;
     }
@@ -505,41 +677,37 @@ public class Drone extends Thread {
     }
 
     /**
-     * handles the various logging arrays and adds related data to the logs. Should only be called when drones are done.
+     * @return The drone's message round trips so far, in us; snapshot() it to read
+     * while the drone runs.
      */
-    public void formatLogging(){
-        float averageMessage, averageMove, averageRest;
-        long totalMessage, totalMove, totalRest;
-
-        class Helper{
-            public float getAverage(ArrayList<Long> arr){
-                float avg = -1;
-                avg = getSum(arr);
-                return avg / arr.size();
-            }
-
-            public long getSum(ArrayList<Long> arr){
-                long sum = 0;
-                for(int i = 0; i<arr.size(); i++){
-                    sum += arr.get(i);
-                }
-                return sum;
-            }
-        }
-
-        Helper helper = new Helper();
+    public LatencyHistogram getMessageTimes() {
+        return messageTimes;
+    }
 
-        totalMessage = helper.getSum(messageTimes);
-        totalMove = helper.getSum(moveTimes);
-        totalRest = helper.getSum(restTimes);
+    /**
+     * @return The drone's travel times so far, in us.
+     */
+    public LatencyHistogram getMoveTimes() {
+        return moveTimes;
+    }
 
-        averageMessage = helper.getAverage(messageTimes);
-        averageMove = helper.getAverage(moveTimes);
-        averageRest = helper.getAverage(restTimes);
+    /**
+     * @return The drone's idle waits so far, in us.
+     */
+    public LatencyHistogram getRestTimes() {
+        return restTimes;
+    }
 
-        System.out.println(String.format("Drone %d spent a total of %dus waiting on messages, for an average of %.2fus across %d messages.", id, totalMessage, averageMessage, messageTimes.size()));
-        System.out.println(String.format("Drone %d spent a total of %dus moving, for an average of %.2fus across %d movements.", id, totalMove, averageMove, moveTimes.size()));
-        System.out.println(String.format("Drone %d spent a total of %dus resting, for an average of %.2fus across %d fires.", id, totalRest, averageRest, restTimes.size()));
+    /**
+     * Logs the drone's timing totals and percentiles. Should only be called when drones are done.
+     */
+    public void formatLogging(){
+        System.out.println(String.format("Drone %d spent a total of %dus waiting on messages, for an average of %.2fus across %d messages.", id, messageTimes.getTotal(), messageTimes.getMean(), messageTimes.getCount()));
+        System.out.println(String.format("Drone %d message round trips: %s", id, messageTimes.percentiles("us")));
+        System.out.println(String.format("Drone %d spent a total of %dus moving, for an average of %.2fus across %d movements.", id, moveTimes.getTotal(), moveTimes.getMean(), moveTimes.getCount()));
+        System.out.println(String.format("Drone %d movements: %s", id, moveTimes.percentiles("us")));
+        System.out.println(String.format("Drone %d spent a total of %dus resting, for an average of %.2fus across %d fires.", id, restTimes.getTotal(), restTimes.getMean(), restTimes.getCount()));
+        System.out.println(String.format("Drone %d idle waits: %s", id, restTimes.percentiles("us")));
         System.out.println(String.format("Drone %d was active for %.2f%% of the time.", id, (1 - (float)inactiveTime / (droneEndTime - droneStartTime)) * 100));
         System.out.println(String.format("Drone %d finished in %d us.", id, (droneEndTime - droneStartTime)));
     }
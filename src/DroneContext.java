@@ -0,0 +1,25 @@
+/**
+ * The DroneContext interface is what the DroneFSM states drive: a state change and
+ * one action per state.
+ *
+ * Drone implements it with blocking UDP exchanges in real time. SimDrone implements
+ * it inside a Simulation, where an action schedules its work on the virtual clock
+ * and returns, and the reply picks up where the action left off.
+ */
+public interface DroneContext {
+    void setState(String stateName);
+
+    void sendWakeupMessage();
+
+    void sleepMode();
+
+    void travelToFire();
+
+    void extinguishFire();
+
+    void returnToBase();
+
+    void refillTank();
+
+    void handleFault();
+}
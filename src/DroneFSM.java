@@ -1,32 +1,14 @@
 import java.util.HashMap;
 import java.util.Map;
 
-interface DroneState {
-
-    public void goNextState(Drone drone);
-
-    public void action(Drone drone);
-
-    public String getStateString();
-
-    // by default, this event should not change state
-    default public void handleFault(Drone drone) {
-        drone.setState("ReturningToBase");
-    };
-
-    // by default, this event should not change state
-    default public void handleNewEvent(Drone drone) {};
-
-}
-
 class DroneIdle implements DroneState {
     @Override
-    public void goNextState(Drone drone) {
+    public void goNextState(DroneContext drone) {
         drone.setState("EnRoute");
     }
 
     @Override
-    public void action(Drone drone) {
+    public void action(DroneContext drone) {
         drone.sleepMode();
     }
 
@@ -37,7 +19,7 @@ class DroneIdle implements DroneState {
 }
 
 abstract class DroneActive implements DroneState {
-    public void handleFault(Drone drone) {
+    public void handleFault(DroneContext drone) {
         drone.setState("Fault");
     };
 }
@@ -45,12 +27,12 @@ abstract class DroneActive implements DroneState {
 class DroneStartUp extends DroneActive {
 
     @Override
-    public void goNextState(Drone drone) {
+    public void goNextState(DroneContext drone) {
         drone.setState("Idle");
     }
 
     @Override
-    public void action(Drone drone) {
+    public void action(DroneContext drone) {
         drone.sendWakeupMessage();
     }
 
@@ -62,12 +44,12 @@ class DroneStartUp extends DroneActive {
 
 class DroneEnRoute extends DroneActive {
     @Override
-    public void goNextState(Drone drone) {
+    public void goNextState(DroneContext drone) {
         drone.setState("DroppingAgent");
     }
 
     @Override
-    public void action(Drone drone) {
+    public void action(DroneContext drone) {
         drone.travelToFire();
     }
 
@@ -79,12 +61,12 @@ class DroneEnRoute extends DroneActive {
 
 class DroneDroppingAgent extends DroneActive {
     @Override
-    public void goNextState(Drone drone) {
+    public void goNextState(DroneContext drone) {
         drone.setState("ReturningToBase");
     }
 
     @Override
-    public void action(Drone drone) {
+    public void action(DroneContext drone) {
         drone.extinguishFire();
     }
 
@@ -96,15 +78,15 @@ class DroneDroppingAgent extends DroneActive {
 
 class DroneReturningToBase extends DroneActive {
     @Override
-    public void goNextState(Drone drone) {
+    public void goNextState(DroneContext drone) {
         drone.setState("FillingTank");
     }
 
     @Override
-    public void handleNewEvent(Drone drone){drone.setState("EnRoute");}
+    public void handleNewEvent(DroneContext drone){drone.setState("EnRoute");}
 
     @Override
-    public void action(Drone drone) {
+    public void action(DroneContext drone) {
         drone.returnToBase();
     }
 
@@ -116,12 +98,12 @@ class DroneReturningToBase extends DroneActive {
 
 class DroneFillingTank extends DroneActive {
     @Override
-    public void goNextState(Drone drone) {
+    public void goNextState(DroneContext drone) {
         drone.setState("Idle");
     }
 
     @Override
-    public void action(Drone drone) {
+    public void action(DroneContext drone) {
         drone.refillTank();
     }
 
@@ -133,12 +115,12 @@ class DroneFillingTank extends DroneActive {
 
 class DroneFault implements DroneState {
     @Override
-    public void goNextState(Drone drone) {
+    public void goNextState(DroneContext drone) {
         drone.setState("ReturningToBase");
     }
 
     @Override
-    public void action(Drone drone) {
+    public void action(DroneContext drone) {
         drone.handleFault();
     }
 
@@ -151,7 +133,7 @@ class DroneFault implements DroneState {
 public class DroneFSM {
     public static final Map<String, DroneState> stateTable = new HashMap<>();
 
-    public void initialize(Drone drone) {
+    public void initialize(DroneContext drone) {
         stateTable.put("StartUp", new DroneStartUp());
         stateTable.put("Idle", new DroneIdle());
         stateTable.put("EnRoute", new DroneEnRoute());
@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * The DroneHost class runs many Drones in one process over a single shared socket,
+ * so the Scheduler can be load tested with thousands of drones from one machine.
+ *
+ * - One receiver thread reads every datagram from the Scheduler and routes it by
+ * drone id to that drone's in-memory mailbox.
+ * - Each drone's FSM loop runs on its own thread and blocks on its mailbox instead
+ * of a socket. Virtual threads are used when the runtime has them (JDK 21+);
+ * otherwise platform threads with a small stack.
+ * - Hosted drones always use binary framing, since only its header carries the
+ * drone id of the Scheduler's replies. Reliable mode works as usual: the shared
+ * socket is one peer of the Scheduler's ReliableChannel.
+ *
+ * Injected PACKET_LOSS faults are reported to the Scheduler as faults rather than
+ * dropping a datagram, since the next datagram on the shared socket may belong to
+ * another drone. The Scheduler stops once every registered drone has finished, so
+ * start the host before the incidents run out.
+ *
+ * Usage: java DroneHost [drones] [scheduler port] [fault file]
+ */
+public class DroneHost {
+    private static final long STACK_SIZE = 256 * 1024; // Platform thread stacks, when virtual threads are unavailable
+    private static final int STARTUP_BATCH = 50;      // Drones started together; their ONLINE broadcasts
+    private static final long STARTUP_PAUSE_MS = 10;  // must not overflow the Scheduler's receive buffer
+    private static final int RECEIVE_BUFFER = 4 * 1024 * 1024; // Room for a reply to every drone at once, e.g. FINISH
+
+    private final int schedulerPort;
+    private final DatagramSocket socket;
+    private final ReliableChannel channel;
+    private final Map<Integer, BlockingQueue<DatagramPacket>> mailboxes = new ConcurrentHashMap<>();
+    private final List<Drone> drones = new ArrayList<>();
+    private final List<Thread> droneThreads = new ArrayList<>();
+    private Thread receiver;
+
+    /**
+     * Constructs a DroneHost.
+     *
+     * @param schedulerPort The Scheduler's drone port.
+     */
+    public DroneHost(int schedulerPort) throws IOException {
+        this(schedulerPort, LossInjector.none());
+    }
+
+    /**
+     * Constructs a DroneHost whose outbound datagrams go through a LossInjector,
+     * e.g. to test the fleet over a lossy link in reliable mode.
+     */
+    DroneHost(int schedulerPort, LossInjector lossInjector) throws IOException {
+        this.schedulerPort = schedulerPort;
+        this.socket = new DatagramSocket();
+        this.socket.setReceiveBufferSize(RECEIVE_BUFFER); // The OS may grant less
+        this.channel = new ReliableChannel(this.socket, WireFormat.reliable, lossInjector);
+    }
+
+    public int getSchedulerPort() {
+        return schedulerPort;
+    }
+
+    ReliableChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Creates a mailbox for a drone's datagrams; called by the hosted Drone.
+     */
+    BlockingQueue<DatagramPacket> register(int droneId) {
+        BlockingQueue<DatagramPacket> mailbox = new LinkedBlockingQueue<>();
+        mailboxes.put(droneId, mailbox);
+        return mailbox;
+    }
+
+    /**
+     * Adds a drone to this host. Drones added after start() are not run.
+     *
+     * @param faultFileName Fault injection file for the drone, or null.
+     */
+    public Drone addDrone(String faultFileName) {
+        Drone drone = new Drone(this, faultFileName);
+        drones.add(drone);
+        droneThreads.add(newThread(drone, drone.getName()));
+        return drone;
+    }
+
+    public int size() {
+        return droneThreads.size();
+    }
+
+    /**
+     * Starts routing datagrams and runs every drone added so far, a batch at a time.
+     */
+    public void start() throws InterruptedException {
+        receiver = new Thread(this::receiveLoop, "DroneHost-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+        for (int i = 0; i < droneThreads.size(); i++) {
+            if (i > 0 && i % STARTUP_BATCH == 0) {
+                Thread.sleep(STARTUP_PAUSE_MS);
+            }
+            droneThreads.get(i).start();
+        }
+    }
+
+    /**
+     * Waits for every drone to finish, then closes the shared socket.
+     */
+    public void join() throws InterruptedException {
+        for (Thread thread : droneThreads) {
+            thread.join();
+        }
+        channel.flush(1000); // Let reliable mode deliver the last FINISHED messages
+        channel.close();
+        socket.close();
+    }
+
+    /**
+     * @return Every hosted drone's message round trips so far, in one histogram (us).
+     */
+    public LatencyHistogram getMessageTimes() {
+        return merge(Drone::getMessageTimes);
+    }
+
+    public LatencyHistogram getMoveTimes() {
+        return merge(Drone::getMoveTimes);
+    }
+
+    public LatencyHistogram getRestTimes() {
+        return merge(Drone::getRestTimes);
+    }
+
+    private LatencyHistogram merge(Function<Drone, LatencyHistogram> times) {
+        LatencyHistogram fleet = new LatencyHistogram();
+        for (Drone drone : drones) {
+            fleet.add(times.apply(drone));
+        }
+        return fleet;
+    }
+
+    /**
+     * Routes each datagram from the Scheduler to the mailbox of the drone it names.
+     */
+    private void receiveLoop() {
+        DatagramPacket packet = new DatagramPacket(new byte[2048], 2048);
+        DroneMessage message = new DroneMessage();
+        while (!socket.isClosed()) {
+            try {
+                channel.receive(packet);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    e.printStackTrace();
+                }
+                continue;
+            }
+            int offset = packet.getOffset();
+            int length = packet.getLength();
+            if (!message.decode(packet.getData(), offset, length) || !message.isBinary()) {
+                System.out.println("[DroneHost], Dropped unroutable message: " + new String(packet.getData(), offset, length));
+                continue;
+            }
+            BlockingQueue<DatagramPacket> mailbox = mailboxes.get(message.getDroneId());
+            if (mailbox == null) {
+                System.out.println("[DroneHost], Dropped message for unknown drone: " + message);
+                continue;
+            }
+            byte[] data = Arrays.copyOfRange(packet.getData(), offset, offset + length);
+            mailbox.add(new DatagramPacket(data, data.length, packet.getSocketAddress()));
+        }
+    }
+
+    // ========== THREADS ==========
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method UNSTARTED = findMethod(builderClass(), "unstarted", Runnable.class);
+
+    /**
+     * Creates an unstarted virtual thread where supported, looked up reflectively so
+     * the project still builds on JDK 17.
+     */
+    static Thread newThread(Runnable task, String name) {
+        if (OF_VIRTUAL != null && UNSTARTED != null) {
+            try {
+                Thread thread = (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(null), task);
+                thread.setName(name);
+                return thread;
+            } catch (ReflectiveOperationException e) {
+                // Fall back to a platform thread
+            }
+        }
+        return new Thread(null, task, name, STACK_SIZE);
+    }
+
+    static boolean hasVirtualThreads() {
+        return OF_VIRTUAL != null && UNSTARTED != null;
+    }
+
+    private static Class<?> builderClass() {
+        try {
+            return Class.forName("java.lang.Thread$Builder");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>... parameters) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return type.getMethod(name, parameters);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int drones = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int schedulerPort = args.length > 1 ? Integer.parseInt(args[1]) : 6000;
+        String faultFile = args.length > 2 ? args[2] : null;
+
+        DroneHost host = new DroneHost(schedulerPort);
+        for (int i = 0; i < drones; i++) {
+            host.addDrone(i == 0 ? faultFile : null);
+        }
+        System.out.println("[DroneHost], Running " + drones + " drones on "
+                + (hasVirtualThreads() ? "virtual" : "platform") + " threads");
+        host.start();
+        host.join();
+        System.out.println("[DroneHost], Fleet message round trips: " + host.getMessageTimes().percentiles("us"));
+        System.out.println("[DroneHost], Fleet movements: " + host.getMoveTimes().percentiles("us"));
+        System.out.println("[DroneHost], Fleet idle waits: " + host.getRestTimes().percentiles("us"));
+    }
+}
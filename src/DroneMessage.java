@@ -0,0 +1,678 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * The DroneMessage class is the typed message exchanged between the Scheduler
+ * and its Drones.
+ *
+ * A message has a one byte opcode, fixed header fields (drone id, event id and
+ * sequence number) and primitive payload fields. It can be framed two ways:
+ * - Binary → MAGIC, opcode, droneId, eventId, sequence, then the opcode's
+ *   primitive fields, then (for NEW_EVENT / FAULT_EVENT) the encoded event, or
+ *   (for ZONES) a zone catalog chunk.
+ * - Text   → The original colon-delimited strings (e.g. "En Route:0:3:15.00"),
+ *   kept so drones that have not been upgraded keep working.
+ *
+ * A drone that loads the zone catalog says so in its ONLINE message, fetches the
+ * catalog with ZONES_REQUEST (answered by ZONES chunks) and confirms it with
+ * ZONES_LOADED before it is given work (see WireFormat#zoneReferences). The zone
+ * opcodes come last so the ordinals of the others are unchanged.
+ *
+ * Instances are mutable and meant to be reused: a receive loop owns one
+ * DroneMessage and decodes every packet into it straight from the packet buffer.
+ * The binary path never allocates; the text path only parses primitives.
+ */
+public class DroneMessage {
+    public static final byte MAGIC = (byte) 0xD6;
+    public static final int HEADER_SIZE = 2 + 3 * Integer.BYTES;
+
+    public static enum Opcode {
+        // Drone → Scheduler
+        ONLINE("ONLINE"),
+        LOCATION("LOCATION"),
+        EN_ROUTE("En Route"),
+        DROPPING_AGENT("Dropping Agent"),
+        RETURNING_TO_BASE("Returning To Base"),
+        FILLING_TANK("Filling Tank"),
+        FAULT_EVENT("FAULT_EVENT"),
+        FAULT("Fault"),
+        FINISHED("FINISHED"),
+        // Scheduler → Drone
+        OK("OK"),
+        DROP("DROP"),
+        NEW_EVENT("NEW_EVENT"),
+        FINISH("FINISH"),
+        FAULT_COMMAND("FAULT"),
+        // Zone catalog
+        ZONES_REQUEST("ZONES_REQUEST"), // Drone → Scheduler
+        ZONES_LOADED("ZONES_LOADED"), // Drone → Scheduler
+        ZONES("ZONES"); // Scheduler → Drone
+
+        private final String text;
+        private final byte[] textBytes;
+
+        Opcode(String text) {
+            this.text = text;
+            this.textBytes = text.getBytes();
+        }
+
+        /**
+         * Retrieves the legacy text token for this opcode.
+         *
+         * @return The token used by text framing, e.g. "En Route".
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Finds the opcode whose text token is the given drone state string.
+         *
+         * @param text A drone state string such as "Dropping Agent".
+         * @return The matching opcode, or null if there is none.
+         */
+        public static Opcode fromText(String text) {
+            for (Opcode opcode : OPCODES) {
+                if (opcode.text.equals(text)) {
+                    return opcode;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final Opcode[] OPCODES = Opcode.values();
+
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(2048));
+
+    private Opcode opcode;
+    private int droneId;
+    private int eventId;
+    private int sequence;
+    private int x;
+    private int y;
+    private double amount;
+    private double volume;
+    private int catalog; // ONLINE: 1 to load the zone catalog; ZONES_REQUEST: first zone wanted; ZONES_LOADED: version
+    private boolean binary;
+    private int length; // Bytes decoded from, 0 for a message built to send
+
+    // Encoded event/fault/zones carried by NEW_EVENT, FAULT_EVENT and ZONES; points into the packet when decoded
+    private byte[] payload;
+    private int payloadOffset;
+    private int payloadLength;
+
+    // Read position while parsing text framing
+    private int cursor;
+
+    /**
+     * Clears the message and sets its opcode and drone id, ready to be filled in and sent.
+     *
+     * @return This message, for chaining.
+     */
+    public DroneMessage reset(Opcode opcode, int droneId) {
+        this.opcode = opcode;
+        this.droneId = droneId;
+        this.eventId = 0;
+        this.sequence = 0;
+        this.x = 0;
+        this.y = 0;
+        this.amount = 0.0;
+        this.volume = 0.0;
+        this.catalog = 0;
+        this.binary = false;
+        this.payload = null;
+        this.payloadOffset = 0;
+        this.payloadLength = 0;
+        this.length = 0;
+        return this;
+    }
+
+    public DroneMessage eventId(int eventId) {
+        this.eventId = eventId;
+        return this;
+    }
+
+    public DroneMessage sequence(int sequence) {
+        this.sequence = sequence;
+        return this;
+    }
+
+    public DroneMessage location(int x, int y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public DroneMessage amount(double amount) {
+        this.amount = amount;
+        return this;
+    }
+
+    public DroneMessage volume(double volume) {
+        this.volume = volume;
+        return this;
+    }
+
+    /**
+     * Sets the zone catalog field: for ONLINE, 1 if the drone loads the catalog
+     * before taking work; for ZONES_REQUEST, the first zone wanted; for
+     * ZONES_LOADED, the version loaded.
+     */
+    public DroneMessage catalog(int catalog) {
+        this.catalog = catalog;
+        return this;
+    }
+
+    public DroneMessage binary(boolean binary) {
+        this.binary = binary;
+        return this;
+    }
+
+    public DroneMessage payload(byte[] payload) {
+        this.payload = payload;
+        this.payloadOffset = 0;
+        this.payloadLength = payload == null ? 0 : payload.length;
+        return this;
+    }
+
+    // Getters
+    public Opcode getOpcode() { return opcode; }
+    public int getDroneId() { return droneId; }
+    public int getEventId() { return eventId; }
+    public int getSequence() { return sequence; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public double getAmount() { return amount; }
+    public double getVolume() { return volume; }
+    public int getCatalog() { return catalog; }
+    public boolean isBinary() { return binary; }
+    public int getLength() { return length; }
+
+    /**
+     * @return true if this kind of message is about a particular event, so
+     * getEventId() means something. Text-framed FAULT_EVENT carries its event
+     * only inside the fault (see getFaultEvent()).
+     */
+    public boolean hasEventId() {
+        switch (opcode) {
+            case FAULT_EVENT:
+                return binary;
+            case EN_ROUTE:
+            case DROPPING_AGENT:
+            case FAULT:
+            case DROP:
+            case NEW_EVENT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Decodes the event carried by a NEW_EVENT message.
+     *
+     * @return The event, or null if the message carries none.
+     */
+    public Event getEvent() {
+        return payloadLength == 0 ? null : Event.deserializeEvent(payload, payloadOffset, payloadLength);
+    }
+
+    /**
+     * Decodes the fault carried by a FAULT_EVENT message.
+     *
+     * @return The fault, or null if the message carries none.
+     */
+    public FaultEvent getFaultEvent() {
+        return payloadLength == 0 ? null : FaultEvent.deserializeFaultEvent(payload, payloadOffset, payloadLength);
+    }
+
+    /**
+     * Reads the catalog chunk carried by a ZONES message into a download.
+     *
+     * @return true if the chunk was the next one the download expects.
+     */
+    public boolean getZones(ZoneCatalog.Download download) {
+        try {
+            return payloadLength > 0 && EventCodec.decodeZones(payload, payloadOffset, payloadLength, download);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Deserialization error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ========== ENCODING ==========
+
+    /**
+     * Writes this message in binary framing at the buffer's position.
+     */
+    public void encode(ByteBuffer out) {
+        out.put(MAGIC).put((byte) opcode.ordinal());
+        out.putInt(droneId).putInt(eventId).putInt(sequence);
+        switch (opcode) {
+            case ONLINE:
+                if (catalog != 0) {
+                    out.putInt(catalog); // Older schedulers ignore it
+                }
+                break;
+            case LOCATION:
+                out.putInt(x).putInt(y);
+                break;
+            case ZONES_REQUEST:
+            case ZONES_LOADED:
+                out.putInt(catalog);
+                break;
+            case EN_ROUTE:
+            case FAULT:
+                out.putDouble(volume);
+                break;
+            case DROPPING_AGENT:
+                out.putDouble(amount).putDouble(volume);
+                break;
+            case DROP:
+                out.putDouble(amount);
+                break;
+            case FAULT_EVENT:
+                out.putDouble(volume);
+                putPayload(out);
+                break;
+            case NEW_EVENT:
+            case ZONES:
+                putPayload(out);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Writes this message in text framing, byte for byte what older drones and
+     * schedulers send.
+     */
+    public void encodeText(ByteBuffer out) {
+        String text;
+        switch (opcode) {
+            case ONLINE:
+                text = catalog == 0 ? opcode.text + ":" + droneId : opcode.text + ":" + droneId + ":" + catalog;
+                break;
+            case ZONES_REQUEST:
+            case ZONES_LOADED:
+                text = opcode.text + ":" + droneId + ":" + catalog;
+                break;
+            case RETURNING_TO_BASE:
+            case FILLING_TANK:
+            case FINISHED:
+                text = opcode.text + ":" + droneId;
+                break;
+            case LOCATION:
+                text = opcode.text + ":" + droneId + ":" + x + ":" + y;
+                break;
+            case EN_ROUTE:
+            case FAULT:
+                text = String.format("%s:%d:%d:%.2f", opcode.text, droneId, eventId, volume);
+                break;
+            case DROPPING_AGENT:
+                text = String.format("%s:%d:%d:%.2f:%.2f", opcode.text, droneId, eventId, amount, volume);
+                break;
+            case DROP:
+                text = String.format("DROP:%.2f", amount);
+                break;
+            case FAULT_EVENT:
+                text = opcode.text + ":" + droneId + ":" + volume + ":";
+                break;
+            case NEW_EVENT:
+            case ZONES:
+                text = opcode.text + ":";
+                break;
+            default:
+                text = opcode.text;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            out.put((byte) text.charAt(i));
+        }
+        if (opcode == Opcode.NEW_EVENT || opcode == Opcode.FAULT_EVENT || opcode == Opcode.ZONES) {
+            putPayload(out);
+        }
+    }
+
+    /**
+     * Writes this message at the buffer's position with the framing selected by
+     * {@link #binary(boolean)}.
+     */
+    public void write(ByteBuffer out) {
+        if (binary) {
+            encode(out);
+        } else {
+            encodeText(out);
+        }
+    }
+
+    /**
+     * Encodes this message with the framing selected by {@link #binary(boolean)}.
+     *
+     * @return Exactly the bytes to put in a datagram.
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = SCRATCH.get();
+        buffer.clear();
+        write(buffer);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private void putPayload(ByteBuffer out) {
+        if (payloadLength > 0) {
+            out.put(payload, payloadOffset, payloadLength);
+        }
+    }
+
+    // ========== DECODING ==========
+
+    /**
+     * Decodes a received datagram into this message, detecting the framing from
+     * the first byte. NEW_EVENT and FAULT_EVENT payloads are not copied, so the
+     * buffer must not be reused before they are read.
+     *
+     * @param data   The packet buffer.
+     * @param offset Where the message starts.
+     * @param length The number of bytes received.
+     * @return true if the message was understood, false otherwise.
+     */
+    public boolean decode(byte[] data, int offset, int length) {
+        reset(null, -1);
+        if (length <= 0) {
+            return false;
+        }
+        boolean decoded;
+        try {
+            decoded = data[offset] == MAGIC ? decodeBinary(data, offset, length) : decodeText(data, offset, length);
+        } catch (NumberFormatException | BufferUnderflowException e) {
+            decoded = false; // A text field that is missing or not a number, or a short binary field
+        }
+        if (!decoded) {
+            reset(null, -1);
+        }
+        this.length = decoded ? length : 0;
+        return decoded;
+    }
+
+    /**
+     * @return The bytes of primitive fields a binary message with this opcode carries
+     * after the header (before any payload).
+     */
+    private static int fieldsSize(Opcode opcode) {
+        switch (opcode) {
+            case LOCATION:
+                return 2 * Integer.BYTES;
+            case EN_ROUTE:
+            case FAULT:
+            case DROP:
+            case FAULT_EVENT:
+                return Double.BYTES;
+            case DROPPING_AGENT:
+                return 2 * Double.BYTES;
+            case ZONES_REQUEST:
+            case ZONES_LOADED:
+                return Integer.BYTES;
+            default:
+                return 0;
+        }
+    }
+
+    private boolean decodeBinary(byte[] data, int offset, int length) {
+        if (length < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer in = ByteBuffer.wrap(data, offset, length);
+        in.get();
+        int ordinal = in.get();
+        if (ordinal < 0 || ordinal >= OPCODES.length || length < HEADER_SIZE + fieldsSize(OPCODES[ordinal])) {
+            return false; // Unknown or truncated
+        }
+        this.binary = true;
+        this.opcode = OPCODES[ordinal];
+        this.droneId = in.getInt();
+        this.eventId = in.getInt();
+        this.sequence = in.getInt();
+        switch (opcode) {
+            case ONLINE:
+                if (in.remaining() >= Integer.BYTES) {
+                    this.catalog = in.getInt(); // Absent from older drones
+                }
+                break;
+            case LOCATION:
+                this.x = in.getInt();
+                this.y = in.getInt();
+                break;
+            case ZONES_REQUEST:
+            case ZONES_LOADED:
+                this.catalog = in.getInt();
+                break;
+            case EN_ROUTE:
+            case FAULT:
+                this.volume = in.getDouble();
+                break;
+            case DROPPING_AGENT:
+                this.amount = in.getDouble();
+                this.volume = in.getDouble();
+                break;
+            case DROP:
+                this.amount = in.getDouble();
+                break;
+            case FAULT_EVENT:
+                this.volume = in.getDouble();
+                setPayload(data, in.position(), offset + length - in.position());
+                break;
+            case NEW_EVENT:
+            case ZONES:
+                setPayload(data, in.position(), offset + length - in.position());
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    private boolean decodeText(byte[] data, int offset, int length) {
+        int end = offset + length;
+        int tokenEnd = indexOf(data, offset, end);
+        this.opcode = matchOpcode(data, offset, tokenEnd);
+        if (opcode == null) {
+            return false;
+        }
+        // Field positions mirror the strings built in encodeText
+        this.cursor = tokenEnd + 1;
+        switch (opcode) {
+            case ONLINE:
+                this.droneId = nextInt(data, end);
+                if (cursor < end) {
+                    this.catalog = nextInt(data, end); // Absent from older drones
+                }
+                break;
+            case RETURNING_TO_BASE:
+            case FILLING_TANK:
+            case FINISHED:
+                this.droneId = nextInt(data, end);
+                break;
+            case LOCATION:
+                this.droneId = nextInt(data, end);
+                this.x = nextInt(data, end);
+                this.y = nextInt(data, end);
+                break;
+            case ZONES_REQUEST:
+            case ZONES_LOADED:
+                this.droneId = nextInt(data, end);
+                this.catalog = nextInt(data, end);
+                break;
+            case EN_ROUTE:
+            case FAULT:
+                this.droneId = nextInt(data, end);
+                this.eventId = nextInt(data, end);
+                this.volume = nextDouble(data, end);
+                break;
+            case DROPPING_AGENT:
+                this.droneId = nextInt(data, end);
+                this.eventId = nextInt(data, end);
+                this.amount = nextDouble(data, end);
+                this.volume = nextDouble(data, end);
+                break;
+            case DROP:
+                this.amount = nextDouble(data, end);
+                break;
+            case FAULT_EVENT:
+                this.droneId = nextInt(data, end);
+                this.volume = nextDouble(data, end);
+                setPayload(data, cursor, end - cursor);
+                break;
+            case NEW_EVENT:
+            case ZONES:
+                setPayload(data, cursor, end - cursor);
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    private void setPayload(byte[] data, int offset, int length) {
+        this.payload = data;
+        this.payloadOffset = offset;
+        this.payloadLength = Math.max(length, 0);
+    }
+
+    private static int indexOf(byte[] data, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (data[i] == ':') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static Opcode matchOpcode(byte[] data, int start, int end) {
+        // Exact match first so "Fault" (drone state) and "FAULT" (command) stay distinct
+        for (Opcode candidate : OPCODES) {
+            if (regionMatches(candidate.textBytes, data, start, end, false)) {
+                return candidate;
+            }
+        }
+        for (Opcode candidate : OPCODES) {
+            if (regionMatches(candidate.textBytes, data, start, end, true)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean regionMatches(byte[] token, byte[] data, int start, int end, boolean ignoreCase) {
+        if (end - start != token.length) {
+            return false;
+        }
+        for (int i = 0; i < token.length; i++) {
+            byte a = token[i];
+            byte b = data[start + i];
+            if (a != b && !(ignoreCase && Character.toUpperCase((char) a) == Character.toUpperCase((char) b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nextInt(byte[] data, int end) {
+        int i = cursor;
+        int fieldEnd = indexOf(data, i, end);
+        boolean negative = i < fieldEnd && data[i] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i >= fieldEnd) {
+            throw new NumberFormatException("Missing integer field in drone message");
+        }
+        int value = 0;
+        for (; i < fieldEnd; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid integer field in drone message");
+            }
+            value = value * 10 + digit;
+        }
+        cursor = fieldEnd + 1;
+        return negative ? -value : value;
+    }
+
+    private double nextDouble(byte[] data, int end) {
+        int start = cursor;
+        int fieldEnd = indexOf(data, start, end);
+        cursor = fieldEnd + 1;
+
+        // Fast path for the plain decimals both sides write ("15.00", "15.0")
+        int i = start;
+        boolean negative = i < fieldEnd && data[i] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i >= fieldEnd) {
+            throw new NumberFormatException("Missing decimal field in drone message");
+        }
+        long mantissa = 0;
+        long scale = 1;
+        boolean fraction = false;
+        for (; i < fieldEnd; i++) {
+            byte b = data[i];
+            if (b == '.' && !fraction) {
+                fraction = true;
+            } else if (b >= '0' && b <= '9' && scale < 1_000_000_000_000L) {
+                mantissa = mantissa * 10 + (b - '0');
+                if (fraction) {
+                    scale *= 10;
+                }
+            } else {
+                // Exponents, locale commas, etc. take the slow path
+                return Double.parseDouble(new String(data, start, fieldEnd - start).replace(',', '.'));
+            }
+        }
+        if (fraction && fieldEnd - start - (negative ? 1 : 0) == 1) {
+            throw new NumberFormatException("Missing decimal field in drone message"); // Only "." or "-."
+        }
+        double value = (double) mantissa / scale;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns a string representation of the message in its text framing,
+     * without the event payload.
+     *
+     * @return A formatted string containing the message fields.
+     */
+    @Override
+    public String toString() {
+        if (opcode == null) {
+            return "<invalid>";
+        }
+        switch (opcode) {
+            case ONLINE:
+            case RETURNING_TO_BASE:
+            case FILLING_TANK:
+            case FINISHED:
+                return opcode.text + ":" + droneId;
+            case LOCATION:
+                return opcode.text + ":" + droneId + ":" + x + ":" + y;
+            case ZONES_REQUEST:
+            case ZONES_LOADED:
+                return opcode.text + ":" + droneId + ":" + catalog;
+            case EN_ROUTE:
+            case FAULT:
+                return String.format("%s:%d:%d:%.2f", opcode.text, droneId, eventId, volume);
+            case DROPPING_AGENT:
+                return String.format("%s:%d:%d:%.2f:%.2f", opcode.text, droneId, eventId, amount, volume);
+            case DROP:
+                return String.format("DROP:%.2f", amount);
+            case FAULT_EVENT:
+                return opcode.text + ":" + droneId + ":" + volume;
+            default:
+                return opcode.text;
+        }
+    }
+}
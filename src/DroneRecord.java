@@ -0,0 +1,183 @@
+import java.lang.invoke.VarHandle;
+import java.net.InetAddress;
+
+/**
+ * The DroneRecord class is the Scheduler's view of one drone: where to reach it and
+ * its last reported position, tank volume and status.
+ *
+ * Fields are primitives so a LOCATION update is two int stores, with no boxing.
+ * Writers are serialized on the record and publish through a sequence lock:
+ * - The version is odd while an update is in progress and even otherwise.
+ * - Readers (see snapshot) copy the fields without locking and retry if the
+ * version changed underneath them, so the GUI and the dispatcher never see a
+ * half-applied update (e.g. a new x with an old y).
+ */
+public class DroneRecord {
+    private final int id;
+    private final InetAddress address;
+    private final int port;
+    private final boolean binary;
+    private volatile ZoneCatalog zones; // The catalog the drone confirmed it loaded, or null
+    private volatile boolean awaitingZones; // Online, but not free until it has loaded the catalog
+
+    private volatile int version;
+    private int x;
+    private int y;
+    private double volume;
+    private double reserved; // Agent promised to an event at En Route, released on drop or fault
+    private DroneRegistry.Status status;
+
+    /**
+     * Constructs a DroneRecord for a drone that just came online at base with a full tank.
+     *
+     * @param id      The drone's id.
+     * @param address The drone's address.
+     * @param port    The drone's port.
+     * @param binary  Whether the drone uses binary DroneMessage framing.
+     * @param volume  The initial tank volume.
+     */
+    DroneRecord(int id, InetAddress address, int port, boolean binary, double volume) {
+        this.id = id;
+        this.address = address;
+        this.port = port;
+        this.binary = binary;
+        this.volume = volume;
+        this.status = DroneRegistry.Status.ONLINE;
+    }
+
+    // ========== WRITES ==========
+
+    private void beginWrite() {
+        version++; // volatile store: now odd
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite() {
+        version++; // volatile store: even again, releases the field writes
+    }
+
+    public synchronized void setLocation(int x, int y) {
+        beginWrite();
+        this.x = x;
+        this.y = y;
+        endWrite();
+    }
+
+    public synchronized void setVolume(double volume) {
+        beginWrite();
+        this.volume = volume;
+        endWrite();
+    }
+
+    public synchronized void setStatus(DroneRegistry.Status status) {
+        beginWrite();
+        this.status = status;
+        endWrite();
+    }
+
+    public synchronized void setReserved(double reserved) {
+        beginWrite();
+        this.reserved = reserved;
+        endWrite();
+    }
+
+    /**
+     * Clears the agent reserved for this drone.
+     *
+     * @return The amount that was reserved, 0 if none.
+     */
+    public synchronized double takeReserved() {
+        double amount = this.reserved;
+        beginWrite();
+        this.reserved = 0;
+        endWrite();
+        return amount;
+    }
+
+    // ========== READS ==========
+
+    /**
+     * Copies the mutable fields consistently, without blocking writers.
+     */
+    public DroneRegistry.Snapshot snapshot() {
+        while (true) {
+            int before = version;
+            if ((before & 1) == 0) {
+                int x = this.x;
+                int y = this.y;
+                double volume = this.volume;
+                double reserved = this.reserved;
+                DroneRegistry.Status status = this.status;
+                VarHandle.loadLoadFence();
+                if (version == before) {
+                    return new DroneRegistry.Snapshot(id, x, y, volume, reserved, status, before);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public InetAddress getAddress() {
+        return address;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * @return The zone catalog the drone confirmed it loaded (so its events can name
+     * their zone by id), or null if it did not.
+     */
+    public ZoneCatalog getZones() {
+        return zones;
+    }
+
+    public void setZones(ZoneCatalog zones) {
+        this.zones = zones;
+    }
+
+    /**
+     * @return true if the drone asked for the zone catalog when it came online and
+     * has not confirmed loading it yet.
+     */
+    public boolean isAwaitingZones() {
+        return awaitingZones;
+    }
+
+    public void setAwaitingZones(boolean awaitingZones) {
+        this.awaitingZones = awaitingZones;
+    }
+
+    /**
+     * Retrieves the number of updates applied so far (times two).
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    // Single-field reads; use snapshot() when several fields must agree
+    public synchronized int getX() {
+        return x;
+    }
+
+    public synchronized int getY() {
+        return y;
+    }
+
+    public synchronized double getVolume() {
+        return volume;
+    }
+
+    public synchronized DroneRegistry.Status getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,238 @@
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The DroneRegistry class holds a DroneRecord for every drone that has come online.
+ *
+ * Drone ids are small consecutive integers, so records live in an array indexed by
+ * id: lookup is O(1) and needs no hashing or boxing. The array only changes when a
+ * drone registers; it is then copied and republished, so lookups never lock.
+ * Because ids arrive from the network, only ids below a fleet size limit
+ * (`-Dscheduler.maxDrones`, 4096 by default) are accepted.
+ *
+ * The registry also counts every change made through it (see getVersion), which
+ * lets a reader such as the GUI skip work when nothing has changed.
+ */
+public class DroneRegistry {
+    /**
+     * What a drone is doing, as last reported to the Scheduler.
+     */
+    public static enum Status {
+        ONLINE("Online"),
+        IDLE("Idle"),
+        EN_ROUTE("En Route"),
+        DROPPING_AGENT("Dropping Agent"),
+        RETURNING_TO_BASE("Returning To Base"),
+        FILLING_TANK("Filling Tank"),
+        FAULT("FAULT"),
+        FINISHED("Finished");
+
+        private final String text;
+
+        Status(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+
+        /**
+         * @return The status shown as `text` (ignoring case), e.g. a drone state's
+         * name, or null if there is none.
+         */
+        public static Status of(String text) {
+            for (Status status : values()) {
+                if (status.text.equalsIgnoreCase(text)) {
+                    return status;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * An immutable, consistent copy of one drone's record.
+     */
+    public static final class Snapshot {
+        private final int id;
+        private final int x;
+        private final int y;
+        private final double volume;
+        private final double reserved;
+        private final Status status;
+        private final int version;
+
+        Snapshot(int id, int x, int y, double volume, double reserved, Status status, int version) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+            this.volume = volume;
+            this.reserved = reserved;
+            this.status = status;
+            this.version = version;
+        }
+
+        public int getId() { return id; }
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public double getVolume() { return volume; }
+        public double getReserved() { return reserved; }
+        public Status getStatus() { return status; }
+        public int getVersion() { return version; }
+
+        @Override
+        public String toString() {
+            return "Drone " + id + " [" + status + ", (" + x + "," + y + "), volume: " + volume + "]";
+        }
+    }
+
+    public static final int DEFAULT_MAX_DRONES = 4096;
+
+    private final int maxDrones;
+    private volatile DroneRecord[] records = new DroneRecord[8];
+    private volatile int size;
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Constructs a DroneRegistry with the fleet size limit from `-Dscheduler.maxDrones`.
+     */
+    public DroneRegistry() {
+        this(Integer.getInteger("scheduler.maxDrones", DEFAULT_MAX_DRONES));
+    }
+
+    /**
+     * Constructs a DroneRegistry.
+     *
+     * @param maxDrones The fleet size limit: ids from 0 to maxDrones - 1 can register.
+     */
+    public DroneRegistry(int maxDrones) {
+        if (maxDrones < 1) {
+            throw new IllegalArgumentException("The fleet size limit must be positive: " + maxDrones);
+        }
+        this.maxDrones = maxDrones;
+    }
+
+    /**
+     * @return true if a drone with this id can register.
+     */
+    public boolean isValidId(int id) {
+        return id >= 0 && id < maxDrones;
+    }
+
+    public int getMaxDrones() {
+        return maxDrones;
+    }
+
+    /**
+     * Registers a drone, replacing any earlier record with the same id.
+     *
+     * @return The new record.
+     * @throws IllegalArgumentException if the id is negative or not below the fleet size limit.
+     */
+    public synchronized DroneRecord register(int id, InetAddress address, int port, boolean binary, double volume) {
+        if (!isValidId(id)) {
+            throw new IllegalArgumentException("Drone id " + id + " is outside 0.." + (maxDrones - 1));
+        }
+        DroneRecord[] current = this.records;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.min(maxDrones, Math.max(id + 1, current.length * 2)));
+        } else {
+            current = current.clone();
+        }
+        if (current[id] == null) {
+            size++;
+        }
+        DroneRecord record = new DroneRecord(id, address, port, binary, volume);
+        current[id] = record;
+        this.records = current;
+        version.incrementAndGet();
+        return record;
+    }
+
+    /**
+     * Looks up a drone by id.
+     *
+     * @return The record, or null if no drone with this id has registered.
+     */
+    public DroneRecord get(int id) {
+        DroneRecord[] current = this.records;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    public boolean contains(int id) {
+        return get(id) != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the ids of all registered drones, in ascending order.
+     */
+    public int[] ids() {
+        DroneRecord[] current = this.records;
+        int[] ids = new int[current.length];
+        int count = 0;
+        for (DroneRecord record : current) {
+            if (record != null) {
+                ids[count++] = record.getId();
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Takes a consistent snapshot of every registered drone, in id order.
+     */
+    public List<Snapshot> snapshot() {
+        DroneRecord[] current = this.records;
+        List<Snapshot> snapshots = new ArrayList<>(size);
+        for (DroneRecord record : current) {
+            if (record != null) {
+                snapshots.add(record.snapshot());
+            }
+        }
+        return snapshots;
+    }
+
+    // ========== UPDATES ==========
+    // Updates for unknown ids are ignored, like messages from a drone that never sent ONLINE
+
+    public void setLocation(int id, int x, int y) {
+        DroneRecord record = get(id);
+        if (record != null) {
+            record.setLocation(x, y);
+            version.incrementAndGet();
+        }
+    }
+
+    public void setVolume(int id, double volume) {
+        DroneRecord record = get(id);
+        if (record != null) {
+            record.setVolume(volume);
+            version.incrementAndGet();
+        }
+    }
+
+    public void setStatus(int id, Status status) {
+        DroneRecord record = get(id);
+        if (record != null) {
+            record.setStatus(status);
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Retrieves how many changes have been made through this registry. Unchanged
+     * between two reads means no drone changed in between.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * A state of the drone state machine; DroneFSM holds the states by name.
+ */
+interface DroneState {
+
+    public void goNextState(DroneContext drone);
+
+    public void action(DroneContext drone);
+
+    public String getStateString();
+
+    // by default, this event should not change state
+    default public void handleFault(DroneContext drone) {
+        drone.setState("ReturningToBase");
+    };
+
+    // by default, this event should not change state
+    default public void handleNewEvent(DroneContext drone) {};
+
+}
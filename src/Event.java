@@ -33,6 +33,10 @@ public class Event implements Comparable<Event>, Serializable {
     private double agentSent;
 
     private double agentDropping;
+
+    // System.nanoTime() when the Scheduler received the event and first sent a drone to it; never sent
+    private transient long receivedAt;
+    private transient long dispatchedAt;
     /**
      * Constructs an Event instance. The identifier is created from an internal
      * static variable to ensure unique id values.
@@ -51,19 +55,41 @@ public class Event implements Comparable<Event>, Serializable {
         this.severity = severity;
         this.assignedDrones = new ArrayList<>();
 
-        switch (this.getSeverity()) {
+        this.agentRequired = agentFor(severity);
+        this.agentSent = 0.0;
+    }
+
+    /**
+     * @return The agent a new event of this severity requires (0 for OUT).
+     */
+    static double agentFor(Severity severity) {
+        switch (severity) {
             case HIGH:
-                this.agentRequired = 30.0;
-                break;
+                return 30.0;
             case MODERATE:
-                this.agentRequired = 20.0;
-                break;
+                return 20.0;
             case LOW:
-                this.agentRequired = 10.0;
-                break;
+                return 10.0;
+            default:
+                return 0.0;
         }
+    }
 
-        this.agentSent = 0.0;
+    /**
+     * Rebuilds an Event received over the wire. The identifier is taken from the
+     * message instead of the internal counter so the id matches the sender's.
+     */
+    Event(int id, LocalTime time, Zone zone, Type type, Severity severity,
+          double agentRequired, double agentSent, double agentDropping) {
+        this.id = id;
+        this.time = time;
+        this.zone = zone;
+        this.type = type;
+        this.severity = severity;
+        this.assignedDrones = new ArrayList<>();
+        this.agentRequired = agentRequired;
+        this.agentSent = agentSent;
+        this.agentDropping = agentDropping;
     }
 
     public double getAgentSent(){
@@ -89,6 +115,22 @@ public class Event implements Comparable<Event>, Serializable {
     public void setAgentDropping(Double agentDropping){
         this.agentDropping = agentDropping;
     }
+
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(long receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public long getDispatchedAt() {
+        return dispatchedAt;
+    }
+
+    public void setDispatchedAt(long dispatchedAt) {
+        this.dispatchedAt = dispatchedAt;
+    }
     /**
      * Retrieves the severity level of the event.
      *
@@ -165,6 +207,19 @@ public class Event implements Comparable<Event>, Serializable {
     }
 
     public byte[] createMessage(String command){
+        return createMessage(command, null);
+    }
+
+    /**
+     * Builds a command-prefixed message, naming the zone by id when the receiver
+     * holds the given catalog (see WireFormat#zoneReferences).
+     *
+     * @param zones The catalog the receiver confirmed it holds, or null to send the whole zone.
+     */
+    public byte[] createMessage(String command, ZoneCatalog zones){
+        if (!WireFormat.javaSerialization) {
+            return EventCodec.createMessage(command, this, zones);
+        }
         byte[] commandBytes = command.getBytes();
         byte[] serializedEvent = this.serializeEvent();
 
@@ -199,6 +254,18 @@ public class Event implements Comparable<Event>, Serializable {
     }
 
     public byte[] serializeEvent(){
+        return serializeEvent(null);
+    }
+
+    /**
+     * Serializes the event, naming the zone by id when the receiver holds the given catalog.
+     *
+     * @param zones The catalog the receiver confirmed it holds, or null to send the whole zone.
+     */
+    public byte[] serializeEvent(ZoneCatalog zones){
+        if (!WireFormat.javaSerialization) {
+            return EventCodec.toBytes(this, zones);
+        }
         ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
         try{
             ObjectOutputStream out = new ObjectOutputStream(byteOut);
@@ -212,7 +279,23 @@ public class Event implements Comparable<Event>, Serializable {
     }
 
     public static Event deserializeEvent(byte[] data){
-        ByteArrayInputStream byteIn = new ByteArrayInputStream(data);
+        return deserializeEvent(data, 0, data.length);
+    }
+
+    /**
+     * Decodes an event from part of a received buffer, detecting whether it was
+     * written by EventCodec or by Java serialization.
+     */
+    public static Event deserializeEvent(byte[] data, int offset, int length){
+        if (EventCodec.isBinary(data, offset, length)) {
+            try {
+                return EventCodec.decodeEvent(data, offset, length);
+            } catch (IllegalArgumentException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        ByteArrayInputStream byteIn = new ByteArrayInputStream(data, offset, length);
         try{
             ObjectInputStream in = new ObjectInputStream(byteIn);
             return (Event) in.readObject();
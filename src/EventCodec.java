@@ -0,0 +1,522 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalTime;
+import java.time.temporal.ChronoField;
+
+/**
+ * The EventCodec class is a compact, versioned binary codec for Zone, Event,
+ * FaultEvent and zone catalog payloads.
+ *
+ * Every payload starts with a three byte header:
+ * - MAGIC   → 0xD5, which can never start a Java serialization stream (0xACED).
+ * - VERSION → Layout version, bumped whenever a field is added or moved.
+ * - KIND    → ZONE, EVENT, FAULT_EVENT, EVENT_REF or ZONES.
+ *
+ * The body is a fixed layout of primitives (big endian):
+ * - Zone:       id, startX, startY, endX, endY (5 x int)
+ * - Event:      id (int), second of day (int), type (byte), severity (byte),
+ *               agentRequired, agentSent, agentDropping (3 x double),
+ *               zone encoding (byte) followed by the zone body when inline.
+ * - Event ref:  id (int), second of day (int), type and severity (byte, 4 bits
+ *               each), changed fields (byte), zone id (int), catalog version
+ *               (int), then only the agent fields that differ from a new event's
+ *               (agentRequired for the severity, nothing sent or dropping).
+ * - FaultEvent: nano of day (long, -1 when absent), fault type (byte),
+ *               drone id (int), event present (byte: none, whole or ref)
+ *               followed by the event body.
+ * - Zones:      catalog version, zone count, first zone, zones in this chunk
+ *               (4 x int), then each zone body, in id order.
+ *
+ * An event ref is 21 bytes against 58 for a whole event. It is only written for a
+ * receiver that confirmed it holds the catalog (see ZoneCatalog#register), and it
+ * is decoded against the catalog registered with its version.
+ *
+ * Encoding writes straight into a caller supplied ByteBuffer (or a per-thread
+ * scratch buffer) and decoding reads the fields back without reflection.
+ */
+public class EventCodec {
+    public static final byte MAGIC = (byte) 0xD5;
+    public static final byte VERSION = 1;
+
+    public static final byte KIND_ZONE = 1;
+    public static final byte KIND_EVENT = 2;
+    public static final byte KIND_FAULT_EVENT = 3;
+    public static final byte KIND_EVENT_REF = 4;
+    public static final byte KIND_ZONES = 5;
+
+    static final byte ZONE_NONE = 0;
+    static final byte ZONE_INLINE = 1;
+
+    static final byte EVENT_NONE = 0;
+    static final byte EVENT_WHOLE = 1;
+    static final byte EVENT_REF = 2;
+
+    // Changed fields of an event ref
+    private static final int AGENT_REQUIRED = 1;
+    private static final int AGENT_SENT = 2;
+    private static final int AGENT_DROPPING = 4;
+
+    /** Zones per catalog chunk, so a chunk fits a 2048 byte packet buffer with room for framing. */
+    public static final int ZONES_PER_CHUNK = 64;
+
+    private static final int HEADER_SIZE = 3;
+    private static final int ZONE_SIZE = 5 * Integer.BYTES;
+    private static final int EVENT_SIZE = 2 * Integer.BYTES + 2 + 3 * Double.BYTES + 1 + ZONE_SIZE;
+
+    /** Upper bound for one encoded FaultEvent (the largest payload this codec produces). */
+    public static final int MAX_PAYLOAD_SIZE = HEADER_SIZE + Long.BYTES + 1 + Integer.BYTES + 1 + EVENT_SIZE;
+
+    private static final Event.Type[] EVENT_TYPES = Event.Type.values();
+    private static final Event.Severity[] SEVERITIES = Event.Severity.values();
+    private static final FaultEvent.Type[] FAULT_TYPES = FaultEvent.Type.values();
+
+    // Reused by every encode on the calling thread so the hot path only allocates the final byte[]
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(512));
+
+    private EventCodec() {
+    }
+
+    /**
+     * Checks whether the bytes at the given offset start a payload written by this codec.
+     *
+     * @param data   The received bytes.
+     * @param offset Where the payload starts.
+     * @param length The number of payload bytes.
+     * @return true if the payload carries the codec header.
+     */
+    public static boolean isBinary(byte[] data, int offset, int length) {
+        return length >= HEADER_SIZE && data[offset] == MAGIC;
+    }
+
+    // ========== ENCODING ==========
+
+    public static void encode(Zone zone, ByteBuffer out) {
+        writeHeader(out, KIND_ZONE);
+        writeZone(zone, out);
+    }
+
+    public static void encode(Event event, ByteBuffer out) {
+        encode(event, out, null);
+    }
+
+    /**
+     * Encodes an event, as a ref when its zone is in the given catalog.
+     *
+     * @param zones The catalog the receiver holds, or null to write the whole zone.
+     */
+    public static void encode(Event event, ByteBuffer out, ZoneCatalog zones) {
+        if (isReference(event, zones)) {
+            writeHeader(out, KIND_EVENT_REF);
+            writeEventRef(event, zones, out);
+        } else {
+            writeHeader(out, KIND_EVENT);
+            writeEvent(event, out);
+        }
+    }
+
+    public static void encode(FaultEvent fault, ByteBuffer out) {
+        encode(fault, out, null);
+    }
+
+    /**
+     * Encodes a fault event, with its event as a ref when the event's zone is in
+     * the given catalog.
+     *
+     * @param zones The catalog the receiver holds, or null to write the whole event.
+     */
+    public static void encode(FaultEvent fault, ByteBuffer out, ZoneCatalog zones) {
+        writeHeader(out, KIND_FAULT_EVENT);
+        LocalTime timestamp = fault.getTimestamp();
+        out.putLong(timestamp == null ? -1L : timestamp.toNanoOfDay());
+        out.put((byte) fault.getFaultType().ordinal());
+        out.putInt(fault.getDroneID());
+        Event event = fault.getEvent();
+        if (event == null) {
+            out.put(EVENT_NONE);
+        } else if (isReference(event, zones)) {
+            out.put(EVENT_REF);
+            writeEventRef(event, zones, out);
+        } else {
+            out.put(EVENT_WHOLE);
+            writeEvent(event, out);
+        }
+    }
+
+    /**
+     * Encodes the chunk of a catalog starting at the given zone: at most
+     * ZONES_PER_CHUNK zones, none when first is past the last zone.
+     */
+    public static void encodeZones(ZoneCatalog zones, int first, ByteBuffer out) {
+        int count = Math.max(0, Math.min(ZONES_PER_CHUNK, zones.size() - first));
+        writeHeader(out, KIND_ZONES);
+        out.putInt(zones.getVersion()).putInt(zones.size()).putInt(first).putInt(count);
+        for (int i = first; i < first + count; i++) {
+            out.putInt(zones.id(i));
+            out.putInt(zones.startX(i)).putInt(zones.startY(i));
+            out.putInt(zones.endX(i)).putInt(zones.endY(i));
+        }
+    }
+
+    /**
+     * Encodes an event and returns exactly the encoded bytes.
+     */
+    public static byte[] toBytes(Event event) {
+        return toBytes(event, null);
+    }
+
+    /**
+     * Encodes an event, as a ref when its zone is in the given catalog, and returns
+     * exactly the encoded bytes.
+     */
+    public static byte[] toBytes(Event event, ZoneCatalog zones) {
+        ByteBuffer buffer = scratch();
+        encode(event, buffer, zones);
+        return copyOut(buffer);
+    }
+
+    /**
+     * Encodes a fault event and returns exactly the encoded bytes.
+     */
+    public static byte[] toBytes(FaultEvent fault) {
+        return toBytes(fault, null);
+    }
+
+    /**
+     * Encodes a fault event, with its event as a ref when the event's zone is in
+     * the given catalog, and returns exactly the encoded bytes.
+     */
+    public static byte[] toBytes(FaultEvent fault, ZoneCatalog zones) {
+        ByteBuffer buffer = scratch();
+        encode(fault, buffer, zones);
+        return copyOut(buffer);
+    }
+
+    /**
+     * Encodes the chunk of a catalog starting at the given zone and returns exactly
+     * the encoded bytes.
+     */
+    public static byte[] toBytes(ZoneCatalog zones, int first) {
+        return createMessage("", zones, first);
+    }
+
+    /**
+     * Builds a command-prefixed message (e.g. "NEW_EVENT:" followed by the event)
+     * with a single copy out of the scratch buffer.
+     */
+    public static byte[] createMessage(String command, Event event) {
+        return createMessage(command, event, null);
+    }
+
+    /**
+     * Builds a command-prefixed message with the event as a ref when its zone is
+     * in the given catalog.
+     */
+    public static byte[] createMessage(String command, Event event, ZoneCatalog zones) {
+        ByteBuffer buffer = scratch();
+        putAscii(command, buffer);
+        encode(event, buffer, zones);
+        return copyOut(buffer);
+    }
+
+    /**
+     * Builds a command-prefixed message (e.g. "FAULT_EVENT:0:15.0:" followed by the
+     * fault) with a single copy out of the scratch buffer.
+     */
+    public static byte[] createMessage(String command, FaultEvent fault) {
+        ByteBuffer buffer = scratch();
+        putAscii(command, buffer);
+        encode(fault, buffer);
+        return copyOut(buffer);
+    }
+
+    /**
+     * Builds a command-prefixed message (e.g. "ZONES:" followed by a catalog chunk).
+     * Chunks are larger than the scratch buffer, so this one is sized exactly.
+     */
+    public static byte[] createMessage(String command, ZoneCatalog zones, int first) {
+        int count = Math.max(0, Math.min(ZONES_PER_CHUNK, zones.size() - first));
+        ByteBuffer buffer = ByteBuffer.allocate(command.length() + HEADER_SIZE + 4 * Integer.BYTES + count * ZONE_SIZE);
+        putAscii(command, buffer);
+        encodeZones(zones, first, buffer);
+        return buffer.array();
+    }
+
+    private static void writeHeader(ByteBuffer out, byte kind) {
+        out.put(MAGIC).put(VERSION).put(kind);
+    }
+
+    private static void writeZone(Zone zone, ByteBuffer out) {
+        out.putInt(zone.getId());
+        out.putInt(zone.getStart()[0]).putInt(zone.getStart()[1]);
+        out.putInt(zone.getEnd()[0]).putInt(zone.getEnd()[1]);
+    }
+
+    private static void writeEvent(Event event, ByteBuffer out) {
+        out.putInt(event.getId());
+        out.putInt(event.getTime().toSecondOfDay());
+        out.put((byte) event.getType().ordinal());
+        out.put((byte) event.getSeverity().ordinal());
+        out.putDouble(event.getAgentRequired());
+        out.putDouble(event.getAgentSent());
+        out.putDouble(event.getAgentDropping());
+        if (event.getZone() == null) {
+            out.put(ZONE_NONE);
+        } else {
+            out.put(ZONE_INLINE);
+            writeZone(event.getZone(), out);
+        }
+    }
+
+    /**
+     * An event is sent as a ref when the receiver's catalog has its zone, with the
+     * same bounds (so the receiver rebuilds the zone the sender had).
+     */
+    private static boolean isReference(Event event, ZoneCatalog zones) {
+        Zone zone = event.getZone();
+        if (zones == null || zone == null) {
+            return false;
+        }
+        int index = zones.indexOf(zone.getId());
+        return index != ZoneCatalog.NONE
+                && zones.startX(index) == Math.min(zone.getStart()[0], zone.getEnd()[0])
+                && zones.startY(index) == Math.min(zone.getStart()[1], zone.getEnd()[1])
+                && zones.endX(index) == Math.max(zone.getStart()[0], zone.getEnd()[0])
+                && zones.endY(index) == Math.max(zone.getStart()[1], zone.getEnd()[1]);
+    }
+
+    private static void writeEventRef(Event event, ZoneCatalog zones, ByteBuffer out) {
+        int changed = 0;
+        if (event.getAgentRequired() != Event.agentFor(event.getSeverity())) {
+            changed |= AGENT_REQUIRED;
+        }
+        if (event.getAgentSent() != 0.0) {
+            changed |= AGENT_SENT;
+        }
+        if (event.getAgentDropping() != 0.0) {
+            changed |= AGENT_DROPPING;
+        }
+        out.putInt(event.getId());
+        out.putInt(event.getTime().toSecondOfDay());
+        out.put((byte) (event.getType().ordinal() << 4 | event.getSeverity().ordinal()));
+        out.put((byte) changed);
+        out.putInt(event.getZone().getId());
+        out.putInt(zones.getVersion());
+        if ((changed & AGENT_REQUIRED) != 0) {
+            out.putDouble(event.getAgentRequired());
+        }
+        if ((changed & AGENT_SENT) != 0) {
+            out.putDouble(event.getAgentSent());
+        }
+        if ((changed & AGENT_DROPPING) != 0) {
+            out.putDouble(event.getAgentDropping());
+        }
+    }
+
+    private static void putAscii(String s, ByteBuffer out) {
+        for (int i = 0; i < s.length(); i++) {
+            out.put((byte) s.charAt(i));
+        }
+    }
+
+    private static ByteBuffer scratch() {
+        ByteBuffer buffer = SCRATCH.get();
+        buffer.clear();
+        return buffer;
+    }
+
+    private static byte[] copyOut(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    // ========== DECODING ==========
+
+    public static Zone decodeZone(byte[] data, int offset, int length) {
+        ByteBuffer in = ByteBuffer.wrap(data, offset, length);
+        try {
+            readHeader(in, KIND_ZONE);
+            return readZone(in);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated zone payload", e);
+        }
+    }
+
+    public static Event decodeEvent(byte[] data, int offset, int length) {
+        ByteBuffer in = ByteBuffer.wrap(data, offset, length);
+        return decodeEvent(in);
+    }
+
+    /**
+     * Decodes an event (whole or ref) starting at the buffer's position, advancing
+     * the position past it.
+     *
+     * @throws IllegalArgumentException If the payload is malformed, or a ref names
+     *                                  a catalog or zone not registered here.
+     */
+    public static Event decodeEvent(ByteBuffer in) {
+        try {
+            return readHeader(in, KIND_EVENT, KIND_EVENT_REF) == KIND_EVENT ? readEvent(in) : readEventRef(in);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated event payload", e);
+        }
+    }
+
+    public static FaultEvent decodeFaultEvent(byte[] data, int offset, int length) {
+        ByteBuffer in = ByteBuffer.wrap(data, offset, length);
+        try {
+            readHeader(in, KIND_FAULT_EVENT);
+            long nanoOfDay = in.getLong();
+            FaultEvent.Type faultType = FAULT_TYPES[ordinal(in.get(), FAULT_TYPES.length)];
+            int droneId = in.getInt();
+            byte eventEncoding = in.get();
+            Event event;
+            switch (eventEncoding) {
+                case EVENT_NONE:
+                    event = null;
+                    break;
+                case EVENT_WHOLE:
+                    event = readEvent(in);
+                    break;
+                case EVENT_REF:
+                    event = readEventRef(in);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown event encoding: " + eventEncoding);
+            }
+            LocalTime timestamp = nanoOfDay < 0 ? null : timeOfNanos(nanoOfDay);
+            return new FaultEvent(timestamp, faultType, droneId, event);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated fault event payload", e);
+        }
+    }
+
+    /**
+     * Reads a catalog chunk into a download. A chunk that is not the next one the
+     * download expects (a repeat, or one from another catalog) is ignored.
+     *
+     * @return true if the chunk was added to the download.
+     */
+    public static boolean decodeZones(byte[] data, int offset, int length, ZoneCatalog.Download download) {
+        ByteBuffer in = ByteBuffer.wrap(data, offset, length);
+        try {
+            readHeader(in, KIND_ZONES);
+            int version = in.getInt();
+            int total = in.getInt();
+            int first = in.getInt();
+            int count = in.getInt();
+            if (count < 0 || first + count > total || in.remaining() < count * ZONE_SIZE
+                    || !download.start(version, total, first)) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                download.add(in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt());
+            }
+            return true;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated zones payload", e);
+        }
+    }
+
+    private static void readHeader(ByteBuffer in, byte expectedKind) {
+        readHeader(in, expectedKind, expectedKind);
+    }
+
+    /**
+     * @return The payload's kind, one of the two expected.
+     */
+    private static byte readHeader(ByteBuffer in, byte expectedKind, byte otherKind) {
+        if (in.get() != MAGIC) {
+            throw new IllegalArgumentException("Not an EventCodec payload");
+        }
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported EventCodec version: " + version);
+        }
+        byte kind = in.get();
+        if (kind != expectedKind && kind != otherKind) {
+            throw new IllegalArgumentException("Expected payload kind " + expectedKind + " but found " + kind);
+        }
+        return kind;
+    }
+
+    private static Zone readZone(ByteBuffer in) {
+        int id = in.getInt();
+        int startX = in.getInt();
+        int startY = in.getInt();
+        int endX = in.getInt();
+        int endY = in.getInt();
+        return new Zone(id, startX, startY, endX, endY);
+    }
+
+    private static Event readEvent(ByteBuffer in) {
+        int id = in.getInt();
+        int secondOfDay = in.getInt();
+        Event.Type type = EVENT_TYPES[ordinal(in.get(), EVENT_TYPES.length)];
+        Event.Severity severity = SEVERITIES[ordinal(in.get(), SEVERITIES.length)];
+        double agentRequired = in.getDouble();
+        double agentSent = in.getDouble();
+        double agentDropping = in.getDouble();
+        byte zoneEncoding = in.get();
+        Zone zone;
+        switch (zoneEncoding) {
+            case ZONE_NONE:
+                zone = null;
+                break;
+            case ZONE_INLINE:
+                zone = readZone(in);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown zone encoding: " + zoneEncoding);
+        }
+        return new Event(id, timeOfSeconds(secondOfDay), zone, type, severity,
+                agentRequired, agentSent, agentDropping);
+    }
+
+    private static Event readEventRef(ByteBuffer in) {
+        int id = in.getInt();
+        int secondOfDay = in.getInt();
+        int kinds = in.get();
+        Event.Type type = EVENT_TYPES[ordinal((byte) (kinds >> 4 & 0x0F), EVENT_TYPES.length)];
+        Event.Severity severity = SEVERITIES[ordinal((byte) (kinds & 0x0F), SEVERITIES.length)];
+        int changed = in.get();
+        int zoneId = in.getInt();
+        int version = in.getInt();
+        double agentRequired = (changed & AGENT_REQUIRED) != 0 ? in.getDouble() : Event.agentFor(severity);
+        double agentSent = (changed & AGENT_SENT) != 0 ? in.getDouble() : 0.0;
+        double agentDropping = (changed & AGENT_DROPPING) != 0 ? in.getDouble() : 0.0;
+
+        ZoneCatalog zones = ZoneCatalog.registered(version);
+        if (zones == null) {
+            throw new IllegalArgumentException("Unknown zone catalog version: " + version);
+        }
+        Zone zone = zones.zone(zoneId);
+        if (zone == null) {
+            throw new IllegalArgumentException("Zone " + zoneId + " is not in zone catalog " + version);
+        }
+        return new Event(id, timeOfSeconds(secondOfDay), zone, type, severity,
+                agentRequired, agentSent, agentDropping);
+    }
+
+    private static LocalTime timeOfSeconds(int secondOfDay) {
+        if (!ChronoField.SECOND_OF_DAY.range().isValidValue(secondOfDay)) {
+            throw new IllegalArgumentException("Second of day out of range: " + secondOfDay);
+        }
+        return LocalTime.ofSecondOfDay(secondOfDay);
+    }
+
+    private static LocalTime timeOfNanos(long nanoOfDay) {
+        if (!ChronoField.NANO_OF_DAY.range().isValidValue(nanoOfDay)) {
+            throw new IllegalArgumentException("Nano of day out of range: " + nanoOfDay);
+        }
+        return LocalTime.ofNanoOfDay(nanoOfDay);
+    }
+
+    private static int ordinal(byte value, int limit) {
+        if (value < 0 || value >= limit) {
+            throw new IllegalArgumentException("Enum ordinal out of range: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,276 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The EventStore class holds every fire event the Scheduler has received, keyed by
+ * id, and owns their agent accounting.
+ *
+ * An event's agent fields are only changed through this class:
+ * - `agentSent` → agent carried by drones dispatched to the event.
+ * - `agentDropping` → agent promised by drones that have arrived (En Route).
+ * - `agentRequired` → agent still needed to put the fire out.
+ *
+ * Events that still need drones are kept in an IndexedEventQueue. Lookups are O(1)
+ * and every change that affects priority re-positions the event in O(log n), so
+ * nothing inside the heap is mutated behind its back. All methods are synchronized:
+ * the drone handler, the dispatcher and the GUI share one store. The exception is
+ * queuedCount(Severity), which reads counters kept alongside the queue so metrics
+ * can be read without taking the lock.
+ */
+public class EventStore {
+    /**
+     * An immutable, consistent copy of one event's state.
+     */
+    public static final class Snapshot {
+        private final int id;
+        private final Zone zone;
+        private final Event.Severity severity;
+        private final double agentRequired;
+        private final double agentSent;
+        private final boolean queued;
+
+        Snapshot(int id, Zone zone, Event.Severity severity, double agentRequired, double agentSent, boolean queued) {
+            this.id = id;
+            this.zone = zone;
+            this.severity = severity;
+            this.agentRequired = agentRequired;
+            this.agentSent = agentSent;
+            this.queued = queued;
+        }
+
+        public int getId() { return id; }
+        public Zone getZone() { return zone; }
+        public Event.Severity getSeverity() { return severity; }
+        public double getAgentRequired() { return agentRequired; }
+        public double getAgentSent() { return agentSent; }
+        public boolean isQueued() { return queued; }
+
+        @Override
+        public String toString() {
+            return "Event " + id + " [" + severity + ", zone " + zone.getId() + ", required: " + agentRequired + "]";
+        }
+    }
+
+    private static final double EPSILON = 0.0001;
+
+    private final LinkedHashMap<Integer, Event> events = new LinkedHashMap<>(); // In arrival order
+    private final IndexedEventQueue queue = new IndexedEventQueue();
+    private final AtomicIntegerArray queuedBySeverity = new AtomicIntegerArray(Event.Severity.values().length);
+
+    // ========== EVENTS ==========
+
+    /**
+     * Adds a newly reported event and queues it for dispatch.
+     *
+     * @return false if an event with the same id is already stored.
+     */
+    public synchronized boolean add(Event event) {
+        if (events.putIfAbsent(event.getId(), event) != null) {
+            return false;
+        }
+        enqueue(event);
+        return true;
+    }
+
+    /**
+     * Looks up an event by id.
+     *
+     * @return The event, or null if unknown.
+     */
+    public synchronized Event get(int id) {
+        return events.get(id);
+    }
+
+    /**
+     * Copies an event's state.
+     *
+     * @return The snapshot, or null if unknown.
+     */
+    public synchronized Snapshot snapshot(int id) {
+        Event event = events.get(id);
+        if (event == null) {
+            return null;
+        }
+        return new Snapshot(id, event.getZone(), event.getSeverity(), event.getAgentRequired(),
+                event.getAgentSent(), queue.contains(id));
+    }
+
+    /**
+     * Retrieves the highest priority event that still needs drones, without removing it.
+     */
+    public synchronized Event peekNext() {
+        return queue.peek();
+    }
+
+    public synchronized boolean hasQueued() {
+        return !queue.isEmpty();
+    }
+
+    public synchronized boolean isQueued(int id) {
+        return queue.contains(id);
+    }
+
+    public synchronized int queuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return How many queued events have the severity. Not synchronized, so it may
+     * lag a change in progress.
+     */
+    public int queuedCount(Event.Severity severity) {
+        return queuedBySeverity.get(severity.ordinal());
+    }
+
+    public synchronized int size() {
+        return events.size();
+    }
+
+    /**
+     * Copies all events in arrival order, including those already put out.
+     */
+    public synchronized List<Event> events() {
+        return new ArrayList<>(events.values());
+    }
+
+    /**
+     * Copies the events that still need drones, highest priority first.
+     */
+    public synchronized List<Event> queuedEvents() {
+        List<Event> queued = queue.toList();
+        queued.sort(IndexedEventQueue.ORDER);
+        return queued;
+    }
+
+    /**
+     * Changes an event's severity and re-positions it in the queue.
+     *
+     * @return false if the event is unknown.
+     */
+    public synchronized boolean setSeverity(int id, Event.Severity severity) {
+        Event event = events.get(id);
+        if (event == null) {
+            return false;
+        }
+        boolean queued = dequeue(event);
+        event.setSeverity(severity);
+        if (queued && severity != Event.Severity.OUT) {
+            enqueue(event); // Back in at its new priority
+        }
+        return true;
+    }
+
+    // ========== AGENT ACCOUNTING ==========
+
+    /**
+     * Records a drone dispatched to an event with `volume` agent on board. The event
+     * leaves the queue once enough agent is on the way.
+     *
+     * @return The event, or null if it is unknown or already out (nothing is recorded).
+     */
+    public synchronized Event assign(int id, double volume) {
+        Event event = events.get(id);
+        if (event == null || event.getSeverity() == Event.Severity.OUT) {
+            return null;
+        }
+        event.setAgentSent(event.getAgentSent() + volume);
+        if (event.getAgentSent() >= event.getAgentRequired() - EPSILON) {
+            dequeue(event);
+        }
+        return event;
+    }
+
+    /**
+     * Reserves agent for a drone that arrived at an event (En Route), capped at what
+     * the fire still needs beyond what other drones are already dropping.
+     *
+     * @param volume The agent the drone carries.
+     * @return How much the drone should drop; 0 for an unknown or finished event.
+     */
+    public synchronized double reserveDrop(int id, double volume) {
+        Event event = events.get(id);
+        if (event == null) {
+            return 0;
+        }
+        double amount = volume;
+        double outstanding = event.getAgentRequired() - event.getAgentDropping();
+        if (outstanding < amount + EPSILON) {
+            amount = Math.max(0, outstanding);
+        }
+        event.setAgentDropping(event.getAgentDropping() + amount);
+        return amount;
+    }
+
+    /**
+     * Records agent dropped on an event (Dropping Agent). When nothing more is
+     * required the fire is out: its agent fields are cleared, its severity becomes
+     * OUT and it leaves the queue.
+     *
+     * @return true if this drop put the fire out.
+     */
+    public synchronized boolean recordDrop(int id, double dropped) {
+        Event event = events.get(id);
+        if (event == null || event.getSeverity() == Event.Severity.OUT) {
+            return false;
+        }
+        double agentRequired = event.getAgentRequired() - dropped;
+        if (agentRequired < EPSILON) {
+            event.setAgentRequired(0.0);
+            event.setAgentSent(0.0);
+            event.setAgentDropping(0.0);
+            dequeue(event);
+            event.setSeverity(Event.Severity.OUT);
+            return true;
+        }
+        event.setAgentRequired(agentRequired);
+        event.setAgentSent(event.getAgentSent() - dropped);
+        event.setAgentDropping(event.getAgentDropping() - dropped);
+        return false;
+    }
+
+    /**
+     * Takes back what a faulted drone had committed to an event and queues the event
+     * again (once) if it now needs more drones.
+     *
+     * @param volume   The agent the drone was carrying towards the event.
+     * @param reserved The agent reserved for the drone at En Route, 0 if it never arrived.
+     * @return The event, or null if unknown.
+     */
+    public synchronized Event release(int id, double volume, double reserved) {
+        Event event = events.get(id);
+        if (event == null) {
+            return null;
+        }
+        event.setAgentSent(event.getAgentSent() - volume);
+        event.setAgentDropping(event.getAgentDropping() - reserved);
+        if (event.getSeverity() != Event.Severity.OUT && event.getAgentSent() < event.getAgentRequired() - EPSILON) {
+            enqueue(event);
+        }
+        return event;
+    }
+
+    // ========== QUEUE ==========
+
+    /**
+     * Queues an event, or re-positions it if already queued.
+     */
+    private void enqueue(Event event) {
+        if (!queue.contains(event.getId())) {
+            queuedBySeverity.incrementAndGet(event.getSeverity().ordinal());
+        }
+        queue.offer(event);
+    }
+
+    /**
+     * @return true if the event was queued.
+     */
+    private boolean dequeue(Event event) {
+        if (queue.remove(event.getId()) == null) {
+            return false;
+        }
+        queuedBySeverity.decrementAndGet(event.getSeverity().ordinal());
+        return true;
+    }
+}
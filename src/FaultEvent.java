@@ -28,6 +28,9 @@ public class FaultEvent implements Serializable {
     public Event getEvent() { return event; }
 
     public byte[] createMessage(String command){
+        if (!WireFormat.javaSerialization) {
+            return EventCodec.createMessage(command, this);
+        }
         byte[] commandBytes = command.getBytes();
         byte[] serializedEvent = this.serializeFaultEvent();
 
@@ -46,6 +49,14 @@ public class FaultEvent implements Serializable {
 
     // Serialization method
     public byte[] serializeFaultEvent() {
+        return serializeFaultEvent(null);
+    }
+
+    // With the event's zone named by id when the receiver holds the catalog, or the whole event when null
+    public byte[] serializeFaultEvent(ZoneCatalog zones) {
+        if (!WireFormat.javaSerialization) {
+            return EventCodec.toBytes(this, zones);
+        }
         try (ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
              ObjectOutputStream out = new ObjectOutputStream(byteOut)) {
             out.writeObject(this);
@@ -58,7 +69,20 @@ public class FaultEvent implements Serializable {
 
     // Deserialization method
     public static FaultEvent deserializeFaultEvent(byte[] data) {
-        try (ByteArrayInputStream byteIn = new ByteArrayInputStream(data);
+        return deserializeFaultEvent(data, 0, data.length);
+    }
+
+    // Detects the payload format, so faults from drones still on Java serialization decode too
+    public static FaultEvent deserializeFaultEvent(byte[] data, int offset, int length) {
+        if (EventCodec.isBinary(data, offset, length)) {
+            try {
+                return EventCodec.decodeFaultEvent(data, offset, length);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Deserialization error: " + e.getMessage());
+                return null;
+            }
+        }
+        try (ByteArrayInputStream byteIn = new ByteArrayInputStream(data, offset, length);
              ObjectInputStream in = new ObjectInputStream(byteIn)) {
             return (FaultEvent) in.readObject();
         } catch (IOException | ClassNotFoundException e) {
@@ -0,0 +1,55 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The FileChunks class splits a text file into chunks that end on line
+ * boundaries, so LogAnalyzer and IncidentFileParser can map and parse the chunks
+ * independently.
+ */
+public class FileChunks {
+    private FileChunks() {
+    }
+
+    /**
+     * Splits the file into chunks of about `chunkSize` bytes that each end after a
+     * newline (or at the end of the file).
+     *
+     * @return The chunk boundaries, from 0 to the file size.
+     */
+    public static long[] bounds(FileChannel channel, long chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (size - start > chunkSize) {
+            long position = start + chunkSize;
+            long end = size;
+            search:
+            while (position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        end = position + i + 1;
+                        break search;
+                    }
+                }
+                position += read;
+            }
+            if (end >= size) {
+                break;
+            }
+            bounds.add(end);
+            start = end;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+}
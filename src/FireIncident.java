@@ -1,9 +1,9 @@
 import java.io.*;
 import java.net.*;
-import java.time.LocalTime;
-import java.util.ArrayList;
+import java.nio.file.Paths;
 import java.util.HashMap;
-import java.util.Scanner;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The FireIncident class represents the fire incident subsystem.
@@ -11,27 +11,42 @@ import java.util.Scanner;
  * This class:
  * - Reads fire event data (fires and drone requests) from a file.
  * - Reads zone data (fire locations) from another file.
- * - Stores zones and fire events in HashMaps.
+ * - Stores zones in a ZoneCatalog (which may be shared with the Scheduler and
+ * View) and the fire events still awaiting an answer in a HashMap.
  * - Sends fire incidents to the scheduler via a shared queue.
  *
  * The FireIncident class runs as a separate thread that continuously processes
  * fire reports.
+ *
+ * Events are replayed with their recorded timing (see IncidentReplay), at the speed
+ * given by `-Dreplay.speed` (as fast as possible by default). While waiting for the
+ * next event, responses from the Scheduler are received and acknowledged.
+ *
+ * With `-Dwire.zones=ref` the zone catalog is offered to the Scheduler after
+ * ACTIVATE; once the Scheduler confirms it holds the catalog, events name their
+ * zone by id instead of carrying the whole zone.
  */
 public class FireIncident extends Thread {
     private DatagramSocket socket;
+    private ReliableChannel channel;
     private InetAddress schedulerAddress;
     private final String eventFilePath; // Path to the fire event data file
     private final String zoneFilePath; // Path to the zone data file
-    private HashMap<Integer, Event> events; // Stores fire events (indexed by event ID)
-    private HashMap<Integer, Zone> zones; // Stores zone data (indexed by zone ID)
+    private HashMap<Integer, Event> events; // Fire events sent and not yet answered (indexed by event ID)
+    private ZoneCatalog zones; // Stores zone data (indexed by zone ID)
+    private boolean zonesShared; // Set by setZones; the zone file is not read again
+    private ZoneCatalog schedulerZones; // The catalog the Scheduler confirmed it holds, or null
 
-    private HashMap<Integer, String> droneResponses;
+    private static final int ZONE_OFFER_TIMEOUT_MS = 1000; // Whole zones are sent if the Scheduler is this slow to answer
 
     private int schedulerPort;
+    private final double replaySpeed;
+    private final WorkloadGenerator generator; // Replaces the event and zone files when set
+    private final int generatedEvents;
+    private IncidentReplay.Report replayReport;
 
-    //for logging
+    //for logging; entries are removed once the fire is put out
     private HashMap<Integer, Long> fireStartTimes;
-    private HashMap<Integer, Long> fireTotalTimes;
 
     /**
      * Constructs a FireIncident instance.
@@ -40,61 +55,81 @@ public class FireIncident extends Thread {
      * @param zoneFilePath    Path to the zone data file (contains fire locations).
      */
     public FireIncident(String eventFilePath, String zoneFilePath, int schedulerPort) {
+        this(eventFilePath, zoneFilePath, schedulerPort, IncidentReplay.speedFromProperty());
+    }
+
+    /**
+     * Constructs a FireIncident instance.
+     *
+     * @param eventFilePath   Path to the event data file (contains fire incidents).
+     * @param zoneFilePath    Path to the zone data file (contains fire locations).
+     * @param replaySpeed     How many times faster than recorded events are sent, or
+     *                        IncidentReplay.AS_FAST_AS_POSSIBLE.
+     */
+    public FireIncident(String eventFilePath, String zoneFilePath, int schedulerPort, double replaySpeed) {
+        this(eventFilePath, zoneFilePath, null, 0, schedulerPort, replaySpeed);
+    }
+
+    /**
+     * Constructs a FireIncident instance that sends a generated workload instead of
+     * reading files.
+     *
+     * @param generator       Provides the zones and incidents.
+     * @param events          How many incidents to send.
+     * @param replaySpeed     How many times faster than generated incidents are sent, or
+     *                        IncidentReplay.AS_FAST_AS_POSSIBLE.
+     */
+    public FireIncident(WorkloadGenerator generator, int events, int schedulerPort, double replaySpeed) {
+        this(null, null, generator, events, schedulerPort, replaySpeed);
+    }
+
+    private FireIncident(String eventFilePath, String zoneFilePath, WorkloadGenerator generator, int generatedEvents,
+                         int schedulerPort, double replaySpeed) {
+        this.generator = generator;
+        this.generatedEvents = generatedEvents;
         this.eventFilePath = eventFilePath;
         this.zoneFilePath = zoneFilePath;
 
-        // Initialize HashMaps to store fire events and fire zones
+        // Initialize HashMap to store fire events; zones are read when the thread starts
         this.events = new HashMap<>();
-        this.zones = new HashMap<>();
+        this.zones = new ZoneCatalog(List.of());
 
         this.schedulerPort = schedulerPort;
+        this.replaySpeed = replaySpeed;
 
-        this.fireTotalTimes = new HashMap<>();
         this.fireStartTimes = new HashMap<>();
 
         try{
             this.socket = new DatagramSocket();
+            this.channel = new ReliableChannel(this.socket);
         }catch(IOException e){
             e.printStackTrace();
         }
-
-        this.droneResponses = new HashMap<>();
     }
 
     /**
-     * Reads zone data from the zone file and stores it in the zones HashMap.
+     * Reads zone data from the zone file and stores it in the zone catalog.
      *
      * - The **zone file** defines the layout of fire zones.
      * - Each **zone** has an ID, a start coordinate, and an end coordinate.
-     * - This method **parses** the file and stores zones in a HashMap.
-     * - The first line (header) is **skipped**.
+     * - This method **parses** the file (see IncidentFileParser) and stores zones in a ZoneCatalog,
+     * unless a shared catalog was given with setZones.
+     * - The first line (header) is **skipped**; invalid rows are reported by line number.
      */
     protected void readZoneFile() {
-        try (Scanner scanner = new Scanner(new File(zoneFilePath))) {
-            scanner.nextLine(); // Skip header row
-            String inputLine;
-            while (scanner.hasNextLine()) {
-                inputLine = scanner.nextLine();
-                String[] tokens = inputLine.split("\t"); // Split each line into parts
-
-                int id = Integer.parseInt(tokens[0]); // Extract zone ID
-
-                // Parse the start coordinates (removing parentheses and splitting by ';')
-                String startCoord = tokens[1].substring(1, tokens[1].length() - 1);
-                String[] startCoords = startCoord.split(";");
-                int startX = Integer.parseInt(startCoords[0]);
-                int startY = Integer.parseInt(startCoords[1]);
-
-                // Parse the end coordinates (removing parentheses and splitting by ';')
-                String endCoord = tokens[2].substring(1, tokens[2].length() - 1);
-                String[] endCoords = endCoord.split(";");
-                int endX = Integer.parseInt(endCoords[0]);
-                int endY = Integer.parseInt(endCoords[1]);
-
-                // Create a Zone object and add it to the HashMap
-                Zone zone = new Zone(id, startX, startY, endX, endY);
-                this.zones.put(zone.getId(), zone);
+        if (zonesShared) {
+            return;
+        }
+        if (generator != null) {
+            this.zones = new ZoneCatalog(generator.getZones().values());
+            return;
+        }
+        try {
+            IncidentFileParser.Zones parsed = IncidentFileParser.parseZones(Paths.get(zoneFilePath));
+            for (String error : parsed.getErrors()) {
+                System.out.println("[FireIncidentSubsystem], Invalid zone in " + zoneFilePath + ", " + error);
             }
+            this.zones = new ZoneCatalog(parsed);
         } catch (IOException e) {
             e.printStackTrace(); // Handle file reading errors
         }
@@ -106,73 +141,90 @@ public class FireIncident extends Thread {
      * - The **event file** contains **fire incidents** and **drone requests**.
      * - Each event has a **timestamp**, a **zone ID**, an **event type**, and a
      * **severity level**.
-     * - The method reads each event, **creates an Event object**, and **sends it to
-     * the scheduler**.
+     * - The method reads each event as it becomes due, **creates an Event object**,
+     * and **sends it to the scheduler** at its recorded offset, scaled by the
+     * replay speed.
      */
     protected void readEventFile() {
         sendToScheduler("ACTIVATE");
-        try (Scanner scanner = new Scanner(new File(eventFilePath))) {
-            scanner.nextLine(); // Skip header row
-            String inputLine;
-            while (scanner.hasNextLine()) { // Process each event in the file
-                inputLine = scanner.nextLine();
-                String[] tokens = inputLine.split("\t"); // Split each line into components
-
-                // Extract event details
-                String timeStamp = tokens[0]; // Timestamp of the event
-                int zone = Integer.parseInt(tokens[1]); // Zone ID where the fire is happening
-                String eventType = tokens[2]; // Event type (e.g., FIRE_DETECTED, DRONE_REQUEST)
-                String fireSeverity = tokens[3]; // Severity of fire (High, Moderate, Low)
-
-                Event.Type type = null;
-                Event.Severity severity = null;
-
-                // Convert event type from string to enum
-                if (eventType.equals("FIRE_DETECTED")) {
-                    type = Event.Type.FIRE_DETECTED;
-                } else if (eventType.equals("DRONE_REQUEST")) {
-                    type = Event.Type.DRONE_REQUEST;
-                }
-
-                // Convert fire severity from string to enum
-                switch (fireSeverity.toLowerCase()) {
-                    case "high":
-                        severity = Event.Severity.HIGH;
-                        break;
-                    case "moderate":
-                        severity = Event.Severity.MODERATE;
-                        break;
-                    case "low":
-                        severity = Event.Severity.LOW;
-                        break;
-                    default:
-                        System.out.println("Unknown severity: " + fireSeverity);
-                        severity = null;
-                        break;
-                }
-
-                // Process only valid events
-                if (type != null && severity != null) {
-                    Event event = new Event(LocalTime.now(), zones.get(zone), type, severity);
-                    this.events.put(event.getId(), event);
+        if (WireFormat.zoneReferences && zones.size() > 0) {
+            offerZones();
+        }
+        try (IncidentReplay replay = generator != null
+                ? new IncidentReplay(generator, generatedEvents, replaySpeed)
+                : new IncidentReplay(eventFilePath, zones, replaySpeed)) {
+            Event event;
+            while ((event = replay.next()) != null) {
+                awaitDue(replay.getDueNanos());
+                this.events.put(event.getId(), event);
+                sendToScheduler(event);
+                replay.sent();
+            }
+            this.replayReport = replay.report();
+            System.out.println("[FireIncidentSubsystem], Replayed " + replayReport);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-                    sendToScheduler(event);
-                } else {
-                    System.out.println("Type or severity of the event is incorrect");
-                }
+    /**
+     * Offers the zone catalog to the Scheduler and answers its requests for chunks
+     * until it confirms the catalog. Without an answer in time, events keep
+     * carrying their whole zone.
+     */
+    private void offerZones() {
+        ZoneCatalog.register(zones);
+        sendToScheduler("ZONES_OFFER:" + zones.getVersion() + ":" + zones.size());
+        byte[] buffer = new byte[2048];
+        DatagramSocket socket = this.channel.getSocket();
+        try {
+            socket.setSoTimeout(ZONE_OFFER_TIMEOUT_MS);
+            while (schedulerZones == null) {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                channel.receive(packet);
+                handleResponse(packet);
             }
+        } catch (SocketTimeoutException e) {
+            System.out.println("[FireIncidentSubsystem], Zone catalog not confirmed; sending whole zones");
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            try {
+                socket.setSoTimeout(0);
+            } catch (SocketException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Handles Scheduler responses until an event is due, so they are acknowledged
+     * promptly however long the replay waits.
+     */
+    private void awaitDue(long dueNanos) throws IOException {
+        byte[] buffer = new byte[2048];
+        DatagramSocket socket = this.channel.getSocket();
+        long wait;
+        while ((wait = dueNanos - System.nanoTime()) > 0) {
+            socket.setSoTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                channel.receive(packet);
+                handleResponse(packet);
+            } catch (SocketTimeoutException e) {
+                // The event is due
+            } finally {
+                socket.setSoTimeout(0);
+            }
         }
     }
 
     private void sendToScheduler(Event e){
-        byte[] message = e.createMessage("NEW_EVENT:");
+        byte[] message = e.createMessage("NEW_EVENT:", schedulerZones);
         fireStartTimes.put(e.getId(), System.currentTimeMillis());
         try{
-            DatagramPacket packet = new DatagramPacket(message, message.length, InetAddress.getByName("127.0.0.1"), this.schedulerPort);
             System.out.println("[FireIncidentSubsystem], Sent Packet to Scheduler containing: " + e);
-            socket.send(packet);
+            channel.send(message, InetAddress.getByName("127.0.0.1"), this.schedulerPort);
         }catch(UnknownHostException f){
             f.printStackTrace();
         }catch(IOException g){
@@ -182,9 +234,16 @@ public class FireIncident extends Thread {
 
     private void sendToScheduler(String msg){
         try{
-            DatagramPacket packet = new DatagramPacket(msg.getBytes(), msg.getBytes().length, InetAddress.getByName("127.0.0.1"), this.schedulerPort);
             System.out.println("[FireIncidentSubsystem], Sent Packet to Scheduler containing: " + msg);
-            socket.send(packet);
+            channel.send(msg.getBytes(), InetAddress.getByName("127.0.0.1"), this.schedulerPort);
+        }catch(IOException e){
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void sendToScheduler(byte[] message){
+        try{
+            channel.send(message, InetAddress.getByName("127.0.0.1"), this.schedulerPort);
         }catch(IOException e){
             throw new RuntimeException(e);
         }
@@ -193,30 +252,10 @@ public class FireIncident extends Thread {
     private void receiveResponse(){
         byte[] buffer = new byte[2048];
         try{
-            while(this.droneResponses.size() < this.events.size()){
+            while(!this.events.isEmpty()){
                 DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
-                socket.receive(packet);
-
-                String message = new String(packet.getData(), 0, packet.getLength());
-                String[] splitMessage = message.split(":");
-                switch (splitMessage[0].toUpperCase()) {
-                    case "FAILURE"://probably can be removed
-                        System.out.println("[FireIncidentSubsystem], Drone " + splitMessage[1] + "failed! Reassigning fire: " + splitMessage[2]);
-                        break;
-                    case "REFILLED_REQUESTED"://probably can be removed
-                        System.out.println("[FireIncidentSubsystem], Drone " + splitMessage[1] + " needs refill. Will be available soon.");
-                        break;
-                    case "SUCCESS":
-                        System.out.println("[FireIncidentSubsystem] Drone " + splitMessage[1] + " successfully extinguished fire: " + splitMessage[2]);
-
-                        long fireTime = System.currentTimeMillis() - fireStartTimes.get(Integer.parseInt(splitMessage[2]));
-                        fireTotalTimes.put(Integer.parseInt(splitMessage[2]), fireTime);
-                        System.out.println(String.format("fire %d was put out in %dms", Integer.parseInt(splitMessage[2]), fireTime));
-                        break;
-                    default:
-                        System.out.println("Invalid message: "+message);
-                }
-                this.droneResponses.put(Integer.parseInt(splitMessage[2]), message);
+                channel.receive(packet);
+                handleResponse(packet);
             }
             sendToScheduler("FINISH");
         }catch(SocketTimeoutException e){
@@ -227,6 +266,44 @@ public class FireIncident extends Thread {
 
     }
 
+    /**
+     * Handles one response forwarded by the Scheduler, or its requests for the zone catalog.
+     */
+    private void handleResponse(DatagramPacket packet) {
+        String message = new String(packet.getData(), packet.getOffset(), packet.getLength());
+        String[] splitMessage = message.split(":");
+        switch (splitMessage[0].toUpperCase()) {
+            case "ZONES_REQUEST": // ZONES_REQUEST:firstZone
+                sendToScheduler(EventCodec.createMessage("ZONES:", zones, Integer.parseInt(splitMessage[1])));
+                return;
+            case "ZONES_LOADED": // ZONES_LOADED:version
+                if (Integer.parseInt(splitMessage[1]) == zones.getVersion()) {
+                    System.out.println("[FireIncidentSubsystem], Scheduler loaded zone catalog " + splitMessage[1]);
+                    this.schedulerZones = zones;
+                }
+                return;
+            case "FAILURE"://probably can be removed
+                System.out.println("[FireIncidentSubsystem], Drone " + splitMessage[1] + "failed! Reassigning fire: " + splitMessage[2]);
+                break;
+            case "REFILLED_REQUESTED"://probably can be removed
+                System.out.println("[FireIncidentSubsystem], Drone " + splitMessage[1] + " needs refill. Will be available soon.");
+                break;
+            case "SUCCESS":
+                System.out.println("[FireIncidentSubsystem] Drone " + splitMessage[1] + " successfully extinguished fire: " + splitMessage[2]);
+
+                Long fireStart = fireStartTimes.remove(Integer.parseInt(splitMessage[2]));
+                if (fireStart != null) { // Not a repeated SUCCESS
+                    long fireTime = System.currentTimeMillis() - fireStart;
+                    System.out.println(String.format("fire %d was put out in %dms", Integer.parseInt(splitMessage[2]), fireTime));
+                }
+                break;
+            default:
+                System.out.println("Invalid message: "+message);
+        }
+        // Answered, so a long replay only holds the events still in flight
+        this.events.remove(Integer.parseInt(splitMessage[2]));
+    }
+
     /**
      * Updates an event's status when receiving feedback from the scheduler.
      *
@@ -242,18 +319,38 @@ public class FireIncident extends Thread {
      * @return A HashMap of all fire zones.
      */
     public HashMap<Integer, Zone> getZones() {
+        return new HashMap<>(zones.toMap());
+    }
+
+    public ZoneCatalog getZoneCatalog() {
         return zones;
     }
 
     /**
-     * Retrieves the list of events.
+     * Uses a catalog already read (e.g. shared with the Scheduler and View) instead of
+     * reading the zone file when the thread starts.
+     */
+    public void setZones(ZoneCatalog zones) {
+        this.zones = zones;
+        this.zonesShared = true;
+    }
+
+    /**
+     * Retrieves the events sent and not yet answered.
      *
-     * @return A HashMap of all fire events.
+     * @return A HashMap of the fire events awaiting an answer.
      */
     public HashMap<Integer, Event> getEvents() {
         return this.events;
     }
 
+    /**
+     * @return How the last replay kept to its timing, or null before it finishes.
+     */
+    public IncidentReplay.Report getReplayReport() {
+        return replayReport;
+    }
+
     /**
      * The **entry point** for the FireIncident subsystem thread.
      *
@@ -267,7 +364,9 @@ public class FireIncident extends Thread {
         this.readEventFile(); // Load fire incidents and send them to the scheduler
         this.receiveResponse();//get drone responses forwarded by scheduler
 
-        this.socket.close();
+        // Give the scheduler time to acknowledge FINISH before the socket goes away
+        this.channel.flush(2000);
+        this.channel.close();
 
         //I add a forced flush to each thread because the daemon thread only flushes every 5 seconds by default, which can result in missing logging data if the threads while data is stored in array
         System.out.println("FLUSH_LOGS_TO_FILE");
@@ -0,0 +1,161 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The FlightEvents class holds the JDK Flight Recorder events of the drone system,
+ * so a recording shows dispatch decisions, drone messages and state transitions
+ * next to the JVM's own GC, lock (jdk.JavaMonitorWait/Enter) and socket events.
+ *
+ * - Every event is disabled by default and recorded without a stack trace. A
+ * disabled event costs a check of a static flag; the JIT removes the rest.
+ * - drone-system.jfc enables them, on top of the JDK's default settings:
+ * java -XX:StartFlightRecording:settings=default,settings=drone-system.jfc,filename=run.jfr Main
+ * - Events with a duration time the work they name, e.g. RoundTrip is the time
+ * from a drone's send to its reply; the others are instants.
+ *
+ * `jfr print --categories "Drone System" run.jfr` lists only these events.
+ */
+public final class FlightEvents {
+    private static final String CATEGORY = "Drone System";
+
+    private FlightEvents() {
+    }
+
+    @Name("dronesystem.Dispatch")
+    @Label("Dispatch")
+    @Category({CATEGORY, "Scheduler"})
+    @Description("A drone sent to an event; the duration is from choosing it to the message going out.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Dispatch extends Event {
+        @Label("Drone Id")
+        public int droneId;
+        @Label("Event Id")
+        public int eventId;
+        @Label("Severity")
+        public String severity;
+        @Label("Volume")
+        @Description("Agent the drone carries, in litres.")
+        public double volume;
+        @Label("Batch")
+        @Description("true if the drone was matched by BatchDispatcher, false if it was the nearest.")
+        public boolean batch;
+    }
+
+    @Name("dronesystem.BatchPlan")
+    @Label("Batch Plan")
+    @Category({CATEGORY, "Scheduler"})
+    @Description("One round of batch dispatch: the min-cost plan and the dispatches it made.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class BatchPlan extends Event {
+        @Label("Free Drones")
+        public int drones;
+        @Label("Queued Events")
+        public int events;
+        @Label("Assignments")
+        public int assignments;
+        @Label("Drones Sent")
+        public int sent;
+    }
+
+    @Name("dronesystem.DroneMessage")
+    @Label("Drone Message Handled")
+    @Category({CATEGORY, "Scheduler"})
+    @Description("A drone message handled by the Scheduler, replies included.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class DroneMessageHandled extends Event {
+        @Label("Opcode")
+        public String opcode;
+        @Label("Drone Id")
+        public int droneId;
+        @Label("Event Id")
+        public int eventId;
+        @Label("Bytes")
+        @DataAmount
+        public int bytes;
+        @Label("Binary")
+        public boolean binary;
+    }
+
+    @Name("dronesystem.RoundTrip")
+    @Label("Drone Round Trip")
+    @Category({CATEGORY, "Drone"})
+    @Description("A drone's message to the Scheduler and the reply it waited for.")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class RoundTrip extends Event {
+        @Label("Drone Id")
+        public int droneId;
+        @Label("Sent")
+        public String sent;
+        @Label("Received")
+        public String received;
+        @Label("Event Id")
+        public int eventId;
+        @Label("Bytes Sent")
+        @DataAmount
+        public int bytesSent;
+        @Label("Bytes Received")
+        @DataAmount
+        public int bytesReceived;
+    }
+
+    @Name("dronesystem.DroneState")
+    @Label("Drone State Transition")
+    @Category({CATEGORY, "Drone"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class DroneTransition extends Event {
+        @Label("Drone Id")
+        public int droneId;
+        @Label("From")
+        public String from;
+        @Label("To")
+        public String to;
+    }
+
+    @Name("dronesystem.SchedulerState")
+    @Label("Scheduler State Transition")
+    @Category({CATEGORY, "Scheduler"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class SchedulerTransition extends Event {
+        @Label("From")
+        public String from;
+        @Label("To")
+        public String to;
+    }
+
+    /**
+     * Records a drone entering a state.
+     */
+    static void droneTransition(int droneId, DroneState from, DroneState to) {
+        DroneTransition event = new DroneTransition();
+        if (event.shouldCommit()) {
+            event.droneId = droneId;
+            event.from = from == null ? null : from.getStateString();
+            event.to = to.getStateString();
+            event.commit();
+        }
+    }
+
+    /**
+     * Records the Scheduler entering a state.
+     */
+    static void schedulerTransition(SchedulerState from, SchedulerState to) {
+        SchedulerTransition event = new SchedulerTransition();
+        if (event.shouldCommit()) {
+            event.from = from == null ? null : from.getStateString();
+            event.to = to.getStateString();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The FreeDroneIndex class keeps the drones that are free for a new assignment in
+ * a uniform grid so the Scheduler can find the drones nearest to a fire without
+ * scanning every free drone.
+ *
+ * - Each drone sits in the bucket of the grid cell containing its position.
+ * - Moving within a cell only updates the stored coordinates; crossing into another
+ * cell moves the id between two buckets, both O(1).
+ * - nearest(k, x, y) searches rings of cells outwards from the query point and stops
+ * as soon as no unvisited cell can hold anything closer than the k found so far.
+ * When the drones are far from the query point compared with how many cells they
+ * occupy, it scans the occupied buckets instead of the empty cells in between.
+ *
+ * Drone ids index the per-drone arrays directly, like DroneRegistry, so only
+ * ids the registry accepted should be added.
+ */
+public class FreeDroneIndex {
+    public static final int DEFAULT_CELL_SIZE = 250;
+
+    /**
+     * The ids of the drones in one grid cell. Removal swaps the last id into the gap.
+     */
+    private static class Bucket {
+        final int cellX, cellY;
+        int[] ids = new int[4];
+        int size;
+        int occupiedSlot = -1; // Position in the occupied array while not empty
+
+        Bucket(int cellX, int cellY) {
+            this.cellX = cellX;
+            this.cellY = cellY;
+        }
+    }
+
+    private final int cellSize;
+    private final HashMap<Long, Bucket> cells = new HashMap<>();
+    private Bucket[] occupied = new Bucket[8]; // The non-empty buckets
+    private int occupiedCount;
+
+    // Per-drone state, indexed by drone id
+    private boolean[] present = new boolean[8];
+    private int[] x = new int[8];
+    private int[] y = new int[8];
+    private int[] slot = new int[8]; // Position of the id inside its bucket
+    private Bucket[] bucket = new Bucket[8];
+    private int size;
+
+    // Occupied cell range, bounds the ring search
+    private int minCellX = Integer.MAX_VALUE, maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE, maxCellY = Integer.MIN_VALUE;
+
+    public FreeDroneIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs a FreeDroneIndex.
+     *
+     * @param cellSize The side of a grid cell, in map units.
+     */
+    public FreeDroneIndex(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    // ========== UPDATES ==========
+
+    /**
+     * Marks a drone as free at the given position. Adding a drone that is already
+     * free just moves it.
+     */
+    public synchronized void add(int id, int x, int y) {
+        ensureCapacity(id);
+        if (present[id]) {
+            move(id, x, y);
+            return;
+        }
+        present[id] = true;
+        this.x[id] = x;
+        this.y[id] = y;
+        insert(id, cellOf(x), cellOf(y));
+        size++;
+    }
+
+    /**
+     * Removes a drone, e.g. when it is assigned or faults.
+     *
+     * @return true if the drone was free.
+     */
+    public synchronized boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        detach(id);
+        present[id] = false;
+        size--;
+        return true;
+    }
+
+    /**
+     * Updates a free drone's position; ignored for drones that are not free.
+     */
+    public synchronized void move(int id, int x, int y) {
+        if (!contains(id)) {
+            return;
+        }
+        int oldCellX = cellOf(this.x[id]), oldCellY = cellOf(this.y[id]);
+        int newCellX = cellOf(x), newCellY = cellOf(y);
+        this.x[id] = x;
+        this.y[id] = y;
+        if (oldCellX != newCellX || oldCellY != newCellY) {
+            detach(id);
+            insert(id, newCellX, newCellY);
+        }
+    }
+
+    private void insert(int id, int cellX, int cellY) {
+        Bucket target = cells.computeIfAbsent(key(cellX, cellY), k -> new Bucket(cellX, cellY));
+        if (target.size == target.ids.length) {
+            target.ids = Arrays.copyOf(target.ids, target.size * 2);
+        }
+        if (target.size == 0) {
+            if (occupiedCount == occupied.length) {
+                occupied = Arrays.copyOf(occupied, occupiedCount * 2);
+            }
+            target.occupiedSlot = occupiedCount;
+            occupied[occupiedCount++] = target;
+        }
+        slot[id] = target.size;
+        target.ids[target.size++] = id;
+        bucket[id] = target;
+        minCellX = Math.min(minCellX, cellX);
+        maxCellX = Math.max(maxCellX, cellX);
+        minCellY = Math.min(minCellY, cellY);
+        maxCellY = Math.max(maxCellY, cellY);
+    }
+
+    private void detach(int id) {
+        Bucket source = bucket[id];
+        int last = source.ids[--source.size];
+        source.ids[slot[id]] = last;
+        slot[last] = slot[id];
+        bucket[id] = null;
+        if (source.size == 0) {
+            Bucket moved = occupied[--occupiedCount];
+            occupied[source.occupiedSlot] = moved;
+            moved.occupiedSlot = source.occupiedSlot;
+            occupied[occupiedCount] = null;
+            source.occupiedSlot = -1;
+        }
+        // Empty buckets are kept: drones tend to come back to the same cells
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative drone id: " + id);
+        }
+        if (id < present.length) {
+            return;
+        }
+        int capacity = Math.max(id + 1, present.length * 2);
+        present = Arrays.copyOf(present, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        slot = Arrays.copyOf(slot, capacity);
+        bucket = Arrays.copyOf(bucket, capacity);
+    }
+
+    // ========== QUERIES ==========
+
+    public synchronized boolean contains(int id) {
+        return id >= 0 && id < present.length && present[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Retrieves the ids of all free drones, in ascending order.
+     */
+    public synchronized int[] ids() {
+        int[] ids = new int[size];
+        int count = 0;
+        for (int id = 0; id < present.length && count < size; id++) {
+            if (present[id]) {
+                ids[count++] = id;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Finds the free drone closest to a point.
+     *
+     * @return The drone's id, or -1 if no drone is free.
+     */
+    public int nearest(double targetX, double targetY) {
+        int[] found = nearest(1, targetX, targetY);
+        return found.length == 0 ? -1 : found[0];
+    }
+
+    /**
+     * Finds the k free drones closest to a point.
+     *
+     * @return Up to k drone ids, closest first.
+     */
+    public synchronized int[] nearest(int k, double targetX, double targetY) {
+        k = Math.min(k, size);
+        int[] bestIds = new int[k];
+        double[] bestDistances = new double[k];
+        int found = 0;
+        if (k == 0) {
+            return bestIds;
+        }
+
+        int centerX = cellOf(targetX), centerY = cellOf(targetY);
+        int maxRing = Math.max(Math.max(Math.abs(centerX - minCellX), Math.abs(maxCellX - centerX)),
+                Math.max(Math.abs(centerY - minCellY), Math.abs(maxCellY - centerY)));
+        // Rings cover (2r + 1)^2 cells; past the number of occupied buckets, scanning those is cheaper
+        int ringLimit = (int) Math.min(maxRing, (Math.sqrt(occupiedCount) - 1) / 2 + 1);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every cell in this ring or beyond is at least (ring - 1) cells away from the target
+            if (found == k && bestDistances[k - 1] <= (double) (ring - 1) * cellSize * (ring - 1) * cellSize) {
+                return bestIds;
+            }
+            if (ring > ringLimit) {
+                break;
+            }
+            for (int cellX = centerX - ring; cellX <= centerX + ring; cellX++) {
+                boolean edgeColumn = cellX == centerX - ring || cellX == centerX + ring;
+                int step = edgeColumn ? 1 : 2 * ring;
+                for (int cellY = centerY - ring; cellY <= centerY + ring; cellY += Math.max(step, 1)) {
+                    Bucket cell = cells.get(key(cellX, cellY));
+                    if (cell != null) {
+                        found = scan(cell, targetX, targetY, bestIds, bestDistances, found);
+                    }
+                }
+            }
+        }
+        if (ringLimit >= maxRing) {
+            return bestIds; // Every ring searched
+        }
+
+        // Far from every drone: start over on the occupied buckets, skipping those that cannot be closer
+        found = 0;
+        for (int i = 0; i < occupiedCount; i++) {
+            Bucket cell = occupied[i];
+            if (found == k && bestDistances[k - 1] <= lowerBound(cell, targetX, targetY)) {
+                continue;
+            }
+            found = scan(cell, targetX, targetY, bestIds, bestDistances, found);
+        }
+        return bestIds;
+    }
+
+    /**
+     * Offers every drone in a bucket to the sorted best-k arrays.
+     *
+     * @return The number of entries filled so far.
+     */
+    private int scan(Bucket cell, double targetX, double targetY, int[] bestIds, double[] bestDistances, int found) {
+        int k = bestIds.length;
+        for (int i = 0; i < cell.size; i++) {
+            int id = cell.ids[i];
+            double dx = x[id] - targetX, dy = y[id] - targetY;
+            double distance = dx * dx + dy * dy; // Squared, only compared
+            if (found < k) {
+                found++;
+            } else if (distance >= bestDistances[k - 1]) {
+                continue;
+            }
+            // Insertion into the sorted best-k arrays
+            int j = found - 1;
+            while (j > 0 && bestDistances[j - 1] > distance) {
+                bestDistances[j] = bestDistances[j - 1];
+                bestIds[j] = bestIds[j - 1];
+                j--;
+            }
+            bestDistances[j] = distance;
+            bestIds[j] = id;
+        }
+        return found;
+    }
+
+    /**
+     * Computes the squared distance from a point to the nearest edge of a bucket's cell.
+     */
+    private double lowerBound(Bucket cell, double targetX, double targetY) {
+        double left = (double) cell.cellX * cellSize, top = (double) cell.cellY * cellSize;
+        double dx = Math.max(0, Math.max(left - targetX, targetX - (left + cellSize)));
+        double dy = Math.max(0, Math.max(top - targetY, targetY - (top + cellSize)));
+        return dx * dx + dy * dy;
+    }
+
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cellX, int cellY) {
+        // Long.hashCode folds the halves together (cellX ^ cellY), so every cell on a
+        // diagonal would share a hash; multiplying by an odd constant is one-to-one and
+        // spreads them
+        return (((long) cellX << 32) | (cellY & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+    }
+}
@@ -0,0 +1,584 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * The IncidentFileParser class reads FireIncident's zone and event files into
+ * primitive columns, fast enough for files with millions of rows.
+ *
+ * - Files are memory-mapped in chunks split on line boundaries (see FileChunks),
+ * and the chunks are parsed in parallel on a ForkJoinPool, then joined in order.
+ * - Rows are scanned as bytes straight into int and byte arrays: no String, split
+ * or Scanner per row or field.
+ * - The first line is a header and is skipped, as are blank lines. Invalid rows
+ * are skipped and reported by line number (the first MAX_ERRORS of them).
+ *
+ * Zone rows are `id<TAB>(startX;startY)<TAB>(endX;endY)`; event rows are
+ * `HH:mm:ss<TAB>zone id<TAB>FIRE_DETECTED|DRONE_REQUEST<TAB>High|Moderate|Low`.
+ * EventCursor walks an event file one row at a time instead, for a replay that
+ * streams it.
+ */
+public final class IncidentFileParser {
+    public static final int MAX_ERRORS = 100;
+    private static final long CHUNK_SIZE = 32L * 1024 * 1024;
+    private static final int ESTIMATE_LINES = 1000;
+
+    private static final int BLANK = -1, OK = 0, BAD_ID = 1, BAD_START = 2, BAD_END = 3, BAD_TIME = 4, BAD_ZONE = 5,
+            BAD_TYPE = 6, BAD_SEVERITY = 7, EXTRA_FIELDS = 8;
+    private static final String[] ERRORS = {"", "bad zone id", "bad start coordinates (x;y)",
+            "bad end coordinates (x;y)", "bad time, expected HH:mm:ss", "bad zone id", "unknown event type",
+            "unknown severity", "unexpected text after the last field"};
+
+    private static final byte[] FIRE_DETECTED = "FIRE_DETECTED".getBytes();
+    private static final byte[] DRONE_REQUEST = "DRONE_REQUEST".getBytes();
+    private static final byte[][] SEVERITIES = {"high".getBytes(), "moderate".getBytes(), "low".getBytes()};
+    private static final Event.Severity[] SEVERITY_VALUES = {Event.Severity.HIGH, Event.Severity.MODERATE, Event.Severity.LOW};
+    private static final Event.Type[] TYPES = Event.Type.values();
+
+    private IncidentFileParser() {
+    }
+
+    /**
+     * Rows parsed from one file or chunk, and the invalid rows found.
+     */
+    abstract static class Rows {
+        int size;
+        int lines; // Lines read, including the header, blank and invalid lines
+        int invalid;
+        final int[] errorLines = new int[MAX_ERRORS];
+        final byte[] errorCodes = new byte[MAX_ERRORS];
+
+        public int size() {
+            return size;
+        }
+
+        public int getInvalidRows() {
+            return invalid;
+        }
+
+        /**
+         * @return "line N: problem" for the first MAX_ERRORS invalid rows.
+         */
+        public List<String> getErrors() {
+            List<String> errors = new ArrayList<>();
+            for (int i = 0; i < Math.min(invalid, MAX_ERRORS); i++) {
+                errors.add("line " + errorLines[i] + ": " + ERRORS[errorCodes[i]]);
+            }
+            return errors;
+        }
+
+        abstract void grow(int capacity);
+
+        void error(int line, int code) {
+            if (invalid < MAX_ERRORS) {
+                errorLines[invalid] = line;
+                errorCodes[invalid] = (byte) code;
+            }
+            invalid++;
+        }
+
+        /**
+         * Appends a later chunk's rows, renumbering its error lines.
+         */
+        void append(Rows later) {
+            int stored = invalid;
+            for (int i = 0; i < Math.min(later.invalid, MAX_ERRORS) && stored < MAX_ERRORS; i++, stored++) {
+                errorLines[stored] = lines + later.errorLines[i];
+                errorCodes[stored] = later.errorCodes[i];
+            }
+            invalid += later.invalid;
+            lines += later.lines;
+            size += later.size;
+        }
+    }
+
+    /**
+     * The zones of a zone file, in file order.
+     */
+    public static final class Zones extends Rows {
+        int[] ids = new int[1024];
+        int[] startX = new int[1024];
+        int[] startY = new int[1024];
+        int[] endX = new int[1024];
+        int[] endY = new int[1024];
+
+        public int id(int i) { return ids[i]; }
+        public int startX(int i) { return startX[i]; }
+        public int startY(int i) { return startY[i]; }
+        public int endX(int i) { return endX[i]; }
+        public int endY(int i) { return endY[i]; }
+
+        void add(int id, int x1, int y1, int x2, int y2) {
+            if (size == ids.length) {
+                grow(Math.max(1024, size * 2));
+            }
+            ids[size] = id;
+            startX[size] = x1;
+            startY[size] = y1;
+            endX[size] = x2;
+            endY[size] = y2;
+            size++;
+        }
+
+        @Override
+        void grow(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            startX = Arrays.copyOf(startX, capacity);
+            startY = Arrays.copyOf(startY, capacity);
+            endX = Arrays.copyOf(endX, capacity);
+            endY = Arrays.copyOf(endY, capacity);
+        }
+
+        @Override
+        void append(Rows rows) {
+            Zones later = (Zones) rows;
+            if (size + later.size > ids.length) {
+                grow(size + later.size);
+            }
+            System.arraycopy(later.ids, 0, ids, size, later.size);
+            System.arraycopy(later.startX, 0, startX, size, later.size);
+            System.arraycopy(later.startY, 0, startY, size, later.size);
+            System.arraycopy(later.endX, 0, endX, size, later.size);
+            System.arraycopy(later.endY, 0, endY, size, later.size);
+            super.append(later);
+        }
+
+        /**
+         * Builds a Zone for each row; a repeated id keeps its last row.
+         */
+        public Map<Integer, Zone> toMap() {
+            Map<Integer, Zone> zones = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                zones.put(ids[i], new Zone(ids[i], startX[i], startY[i], endX[i], endY[i]));
+            }
+            return zones;
+        }
+    }
+
+    /**
+     * The events of an event file, in file order.
+     */
+    public static final class Events extends Rows {
+        int[] secondOfDay = new int[1024];
+        int[] zones = new int[1024];
+        byte[] types = new byte[1024];
+        byte[] severities = new byte[1024];
+
+        public int secondOfDay(int i) { return secondOfDay[i]; }
+        public int zone(int i) { return zones[i]; }
+        public Event.Type type(int i) { return TYPES[types[i]]; }
+        public Event.Severity severity(int i) { return SEVERITY_VALUES[severities[i]]; }
+
+        void add(int second, int zone, int type, int severity) {
+            if (size == zones.length) {
+                grow(Math.max(1024, size * 2));
+            }
+            secondOfDay[size] = second;
+            zones[size] = zone;
+            types[size] = (byte) type;
+            severities[size] = (byte) severity;
+            size++;
+        }
+
+        @Override
+        void grow(int capacity) {
+            secondOfDay = Arrays.copyOf(secondOfDay, capacity);
+            zones = Arrays.copyOf(zones, capacity);
+            types = Arrays.copyOf(types, capacity);
+            severities = Arrays.copyOf(severities, capacity);
+        }
+
+        @Override
+        void append(Rows rows) {
+            Events later = (Events) rows;
+            if (size + later.size > zones.length) {
+                grow(size + later.size);
+            }
+            System.arraycopy(later.secondOfDay, 0, secondOfDay, size, later.size);
+            System.arraycopy(later.zones, 0, zones, size, later.size);
+            System.arraycopy(later.types, 0, types, size, later.size);
+            System.arraycopy(later.severities, 0, severities, size, later.size);
+            super.append(later);
+        }
+    }
+
+    // ========== FILES ==========
+
+    public static Zones parseZones(Path file) throws IOException {
+        return parse(file, Zones::new, ForkJoinPool.commonPool(), CHUNK_SIZE);
+    }
+
+    public static Events parseEvents(Path file) throws IOException {
+        return parse(file, Events::new, ForkJoinPool.commonPool(), CHUNK_SIZE);
+    }
+
+    static <T extends Rows> T parse(Path file, Supplier<T> rows, ForkJoinPool pool, long chunkSize)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = FileChunks.bounds(channel, chunkSize);
+            List<Callable<T>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long position = bounds[i];
+                long length = bounds[i + 1] - position;
+                boolean header = i == 0;
+                tasks.add(() -> {
+                    T chunkRows = rows.get();
+                    if (length > 0) {
+                        parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, position, length), header, chunkRows);
+                    }
+                    return chunkRows;
+                });
+            }
+            List<T> chunks = new ArrayList<>();
+            int size = 0;
+            for (Future<T> chunk : pool.invokeAll(tasks)) {
+                chunks.add(chunk.get());
+                size += chunks.get(chunks.size() - 1).size;
+            }
+            if (chunks.size() == 1) {
+                return chunks.get(0);
+            }
+            T result = rows.get();
+            result.grow(size);
+            for (T chunk : chunks) {
+                result.append(chunk);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing " + file, e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not parse " + file, e.getCause());
+        }
+    }
+
+    private static void parseChunk(MappedByteBuffer chunk, boolean header, Rows rows) {
+        Row row = new Row();
+        row.reset(chunk);
+        while (row.nextLine()) {
+            if (++rows.lines == ESTIMATE_LINES) {
+                // Size the columns for the whole chunk once rather than doubling them
+                rows.grow((int) Math.max(rows.size, (long) (1.1 * chunk.limit() * rows.lines / row.read())));
+            }
+            if (!(header && rows.lines == 1)) {
+                int code = parseRow(row, rows);
+                if (code > OK) {
+                    rows.error(rows.lines, code);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the current line of `row` into `rows`.
+     *
+     * @return OK, BLANK, or the code of what is wrong with the row.
+     */
+    private static int parseRow(Row row, Rows rows) {
+        if (row.atEnd()) {
+            return BLANK;
+        }
+        return rows instanceof Zones ? parseZone(row, (Zones) rows) : parseEvent(row, (Events) rows);
+    }
+
+    // ========== ROWS ==========
+
+    /**
+     * Reads a mapped chunk one line at a time, copying it into a byte[] a block at a
+     * time (indexing the array is much faster than the buffer), and scans the fields
+     * of the current line.
+     */
+    private static final class Row {
+        private static final int BLOCK_SIZE = 64 * 1024;
+
+        private MappedByteBuffer chunk;
+        private int copied; // Bytes of the chunk copied into bytes so far
+        private byte[] bytes = new byte[BLOCK_SIZE];
+        private int limit; // Bytes of the block filled
+        private int next; // Start of the next line
+        int position; // In the current line
+        int end; // Of the current line, before any '\r'
+
+        /**
+         * @return The bytes of the chunk up to the next line.
+         */
+        int read() {
+            return copied - (limit - next);
+        }
+
+        void reset(MappedByteBuffer chunk) {
+            this.chunk = chunk;
+            copied = limit = next = position = end = 0;
+        }
+
+        /**
+         * Moves to the next line; the last one may lack its newline.
+         *
+         * @return false at the end of the chunk.
+         */
+        boolean nextLine() {
+            int from = next;
+            while (true) {
+                int newline = from;
+                while (newline < limit && bytes[newline] != '\n') {
+                    newline++;
+                }
+                if (newline < limit || copied == chunk.limit()) {
+                    if (next == limit && copied == chunk.limit()) {
+                        return false;
+                    }
+                    position = next;
+                    end = newline > position && bytes[newline - 1] == '\r' ? newline - 1 : newline;
+                    next = Math.min(newline + 1, limit);
+                    return true;
+                }
+                // Keep the partial line and copy in the next block after it
+                int partial = limit - next;
+                if (partial == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                System.arraycopy(bytes, next, bytes, 0, partial);
+                int length = Math.min(bytes.length - partial, chunk.limit() - copied);
+                chunk.get(copied, bytes, partial, length);
+                copied += length;
+                limit = partial + length;
+                next = 0;
+                from = partial;
+            }
+        }
+
+        boolean expect(char c) {
+            if (position < end && bytes[position] == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return The (optionally negative) integer here, or Long.MIN_VALUE if there is none.
+         */
+        long number() {
+            boolean negative = expect('-');
+            int start = position;
+            long value = 0;
+            while (position < end && position - start < 10) {
+                byte b = bytes[position];
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                value = value * 10 + (b - '0');
+                position++;
+            }
+            if (position == start || value > Integer.MAX_VALUE) {
+                return Long.MIN_VALUE;
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * @return The two digits here, or -1.
+         */
+        int twoDigits() {
+            if (end - position < 2) {
+                return -1;
+            }
+            int tens = bytes[position] - '0';
+            int units = bytes[position + 1] - '0';
+            if (tens < 0 || tens > 9 || units < 0 || units > 9) {
+                return -1;
+            }
+            position += 2;
+            return tens * 10 + units;
+        }
+
+        /**
+         * Consumes the field here if it equals `word`, ignoring case if asked.
+         */
+        boolean word(byte[] word, boolean ignoreCase) {
+            int fieldEnd = position;
+            while (fieldEnd < end && bytes[fieldEnd] != '\t') {
+                fieldEnd++;
+            }
+            if (fieldEnd - position != word.length) {
+                return false;
+            }
+            for (int i = 0; i < word.length; i++) {
+                byte b = bytes[position + i];
+                if (ignoreCase && b >= 'A' && b <= 'Z') {
+                    b += 'a' - 'A';
+                }
+                if (b != word[i]) {
+                    return false;
+                }
+            }
+            position = fieldEnd;
+            return true;
+        }
+
+        boolean atEnd() {
+            while (position < end && (bytes[position] == ' ' || bytes[position] == '\t')) {
+                position++;
+            }
+            return position == end;
+        }
+    }
+
+    private static int parseZone(Row row, Zones zones) {
+        long id = row.number();
+        if (id < 0 || !row.expect('\t')) {
+            return BAD_ID;
+        }
+        long x1, y1, x2, y2;
+        if (!row.expect('(') || (x1 = row.number()) == Long.MIN_VALUE || !row.expect(';')
+                || (y1 = row.number()) == Long.MIN_VALUE || !row.expect(')') || !row.expect('\t')) {
+            return BAD_START;
+        }
+        if (!row.expect('(') || (x2 = row.number()) == Long.MIN_VALUE || !row.expect(';')
+                || (y2 = row.number()) == Long.MIN_VALUE || !row.expect(')')) {
+            return BAD_END;
+        }
+        if (!row.atEnd()) {
+            return EXTRA_FIELDS;
+        }
+        zones.add((int) id, (int) x1, (int) y1, (int) x2, (int) y2);
+        return OK;
+    }
+
+    private static int parseEvent(Row row, Events events) {
+        int second = parseTime(row);
+        if (second < 0 || !row.expect('\t')) {
+            return BAD_TIME;
+        }
+        long zone = row.number();
+        if (zone < 0 || !row.expect('\t')) {
+            return BAD_ZONE;
+        }
+        int type;
+        if (row.word(FIRE_DETECTED, false)) {
+            type = Event.Type.FIRE_DETECTED.ordinal();
+        } else if (row.word(DRONE_REQUEST, false)) {
+            type = Event.Type.DRONE_REQUEST.ordinal();
+        } else {
+            return BAD_TYPE;
+        }
+        if (!row.expect('\t')) {
+            return BAD_SEVERITY;
+        }
+        int severity = 0;
+        while (severity < SEVERITIES.length && !row.word(SEVERITIES[severity], true)) {
+            severity++;
+        }
+        if (severity == SEVERITIES.length) {
+            return BAD_SEVERITY;
+        }
+        if (!row.atEnd()) {
+            return EXTRA_FIELDS;
+        }
+        events.add(second, (int) zone, type, severity);
+        return OK;
+    }
+
+    /**
+     * @return Seconds since midnight of "HH:mm:ss" here, or -1.
+     */
+    private static int parseTime(Row row) {
+        int hours = row.twoDigits();
+        if (hours < 0 || hours > 23 || !row.expect(':')) {
+            return -1;
+        }
+        int minutes = row.twoDigits();
+        if (minutes < 0 || minutes > 59 || !row.expect(':')) {
+            return -1;
+        }
+        int seconds = row.twoDigits();
+        if (seconds < 0 || seconds > 59) {
+            return -1;
+        }
+        return (hours * 60 + minutes) * 60 + seconds;
+    }
+
+    // ========== STREAMING ==========
+
+    /**
+     * Walks an event file one valid row at a time, mapping one chunk at a time. Invalid
+     * rows are skipped and reported as by parseEvents.
+     */
+    public static final class EventCursor implements Closeable {
+        private final FileChannel channel;
+        private final long[] bounds;
+        private int chunk;
+        private final Row row = new Row();
+        private boolean mapped;
+        private final Events events = new Events(); // Holds the current row at index 0
+
+        public EventCursor(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.bounds = FileChunks.bounds(channel, CHUNK_SIZE);
+        }
+
+        /**
+         * Moves to the next valid row.
+         *
+         * @return false at the end of the file.
+         */
+        public boolean next() throws IOException {
+            while (true) {
+                if (!mapped || !row.nextLine()) {
+                    if (chunk + 1 >= bounds.length) {
+                        return false;
+                    }
+                    row.reset(channel.map(FileChannel.MapMode.READ_ONLY, bounds[chunk], bounds[chunk + 1] - bounds[chunk]));
+                    chunk++;
+                    mapped = true;
+                    continue;
+                }
+                if (++events.lines == 1) {
+                    continue; // Header
+                }
+                events.size = 0;
+                int code = parseRow(row, events);
+                if (code == OK) {
+                    return true;
+                } else if (code > OK) {
+                    events.error(events.lines, code);
+                }
+            }
+        }
+
+        /**
+         * @return The line number of the current row, counting the header as line 1.
+         */
+        public int line() { return events.lines; }
+        public int secondOfDay() { return events.secondOfDay[0]; }
+        public int zone() { return events.zones[0]; }
+        public Event.Type type() { return events.type(0); }
+        public Event.Severity severity() { return events.severity(0); }
+
+        public int getInvalidRows() {
+            return events.getInvalidRows();
+        }
+
+        public List<String> getErrors() {
+            return events.getErrors();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
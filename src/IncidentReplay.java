@@ -0,0 +1,263 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The IncidentReplay class plays back an event file with its recorded timing, so
+ * the Scheduler sees the same arrival pattern (bursts and lulls) as the recording.
+ *
+ * - The file is read one row at a time as the replay goes (an
+ * IncidentFileParser.EventCursor), never loaded whole.
+ * - Each event is due at its `Time` offset from the first event, divided by the
+ * speed: 1 replays in real time, 60 turns an hour into a minute, and
+ * AS_FAST_AS_POSSIBLE sends every event at once. Times that go back by more than
+ * twelve hours are taken to have passed midnight.
+ * - Events carry their recorded time rather than the time they were sent.
+ * - The replay records when each event actually went out; report() compares the
+ * achieved send rate with the target rate and shows how late events were.
+ *
+ * A replay can also play a WorkloadGenerator's incidents, due at their generated
+ * offsets (to the nanosecond, unlike the file's whole seconds) divided by the speed.
+ *
+ * The caller decides how to wait until an event is due (see awaitDue), so that
+ * FireIncident can keep serving Scheduler responses meanwhile.
+ */
+public class IncidentReplay implements Closeable {
+    public static final double AS_FAST_AS_POSSIBLE = 0;
+
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final IncidentFileParser.EventCursor cursor; // Null when generating
+    private boolean invalidReported;
+    private final WorkloadGenerator generator; // Null when reading a file
+    private int remaining; // Incidents left to generate
+    private double firstOffset = -1; // Generated offset of the first incident
+    private final ZoneCatalog zones;
+    private final double speed;
+
+    private LocalTime firstTime;
+    private LocalTime lastTime;
+    private long days; // Midnights passed since the first event
+    private double offsetSeconds; // Recorded offset of the current event from the first
+    private long startNanos;
+    private long dueNanos;
+
+    private int sent;
+    private long firstSentNanos;
+    private long lastSentNanos;
+    private long totalLagNanos;
+    private long maxLagNanos;
+
+    /**
+     * The outcome of a replay.
+     */
+    public static final class Report {
+        private final int events;
+        private final double recordedSeconds;
+        private final double elapsedSeconds;
+        private final double speed;
+        private final double meanLagMillis;
+        private final double maxLagMillis;
+
+        Report(int events, double recordedSeconds, double elapsedSeconds, double speed,
+               double meanLagMillis, double maxLagMillis) {
+            this.events = events;
+            this.recordedSeconds = recordedSeconds;
+            this.elapsedSeconds = elapsedSeconds;
+            this.speed = speed;
+            this.meanLagMillis = meanLagMillis;
+            this.maxLagMillis = maxLagMillis;
+        }
+
+        public int getEvents() { return events; }
+        public double getRecordedSeconds() { return recordedSeconds; }
+        public double getElapsedSeconds() { return elapsedSeconds; }
+        public double getMeanLagMillis() { return meanLagMillis; }
+        public double getMaxLagMillis() { return maxLagMillis; }
+
+        /**
+         * @return Events per second between the first and last send.
+         */
+        public double getAchievedRate() {
+            return events > 1 && elapsedSeconds > 0 ? (events - 1) / elapsedSeconds : 0;
+        }
+
+        /**
+         * @return Events per second the recording asks for at this speed, or
+         * infinity when replaying as fast as possible.
+         */
+        public double getTargetRate() {
+            if (events < 2) {
+                return 0;
+            }
+            if (speed == AS_FAST_AS_POSSIBLE || recordedSeconds == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return (events - 1) / (recordedSeconds / speed);
+        }
+
+        @Override
+        public String toString() {
+            String target = Double.isInfinite(getTargetRate()) ? "as fast as possible"
+                    : String.format("%.2f/s", getTargetRate());
+            return String.format("%d events (%.0f s recorded) in %.3f s: %.2f/s against %s, lag mean %.1f ms, max %.1f ms",
+                    events, recordedSeconds, elapsedSeconds, getAchievedRate(), target, meanLagMillis, maxLagMillis);
+        }
+    }
+
+    /**
+     * Opens an event file for replay.
+     *
+     * @param zones The zones events refer to; events in unknown zones are skipped.
+     * @param speed How many times faster than recorded, or AS_FAST_AS_POSSIBLE.
+     */
+    public IncidentReplay(String eventFilePath, Map<Integer, Zone> zones, double speed) throws IOException {
+        this(eventFilePath, new ZoneCatalog(zones.values()), speed);
+    }
+
+    /**
+     * Opens an event file for replay.
+     *
+     * @param zones The zones events refer to; events in unknown zones are skipped.
+     * @param speed How many times faster than recorded, or AS_FAST_AS_POSSIBLE.
+     */
+    public IncidentReplay(String eventFilePath, ZoneCatalog zones, double speed) throws IOException {
+        this.cursor = new IncidentFileParser.EventCursor(Paths.get(eventFilePath));
+        this.generator = null;
+        this.zones = zones;
+        this.speed = speed;
+    }
+
+    /**
+     * Replays generated incidents.
+     *
+     * @param count How many incidents to generate.
+     * @param speed How many times faster than generated, or AS_FAST_AS_POSSIBLE.
+     */
+    public IncidentReplay(WorkloadGenerator generator, int count, double speed) {
+        this.cursor = null;
+        this.generator = generator;
+        this.remaining = count;
+        this.zones = new ZoneCatalog(generator.getZones().values());
+        this.speed = speed;
+    }
+
+    /**
+     * Reads the replay speed from `-Dreplay.speed`: a factor such as 1 or 60, or
+     * "max" (the default) for as fast as possible.
+     */
+    public static double speedFromProperty() {
+        String speed = System.getProperty("replay.speed", "max").trim();
+        if (speed.equalsIgnoreCase("max")) {
+            return AS_FAST_AS_POSSIBLE;
+        }
+        double factor = Double.parseDouble(speed);
+        return factor > 0 ? factor : AS_FAST_AS_POSSIBLE;
+    }
+
+    /**
+     * Reads the next valid event from the file, or generates it; see getDueNanos for
+     * when to send it.
+     *
+     * @return The event, or null at the end of the file or of the count.
+     */
+    public Event next() throws IOException {
+        if (generator != null) {
+            if (remaining == 0) {
+                return null;
+            }
+            remaining--;
+            WorkloadGenerator.Incident incident = generator.next();
+            if (firstOffset < 0) {
+                firstOffset = incident.getOffsetSeconds();
+                startNanos = System.nanoTime();
+            }
+            scheduleAt(incident.getOffsetSeconds() - firstOffset);
+            return new Event(generator.timeOf(incident), zones.zone(incident.getZone()),
+                    incident.getType(), incident.getSeverity());
+        }
+        while (cursor.next()) {
+            Zone zone = zones.zone(cursor.zone());
+            if (zone == null) {
+                System.out.println("Zone of the event is unknown: line " + cursor.line() + ", zone " + cursor.zone());
+                continue;
+            }
+            LocalTime time = LocalTime.ofSecondOfDay(cursor.secondOfDay());
+            schedule(time);
+            return new Event(time, zone, cursor.type(), cursor.severity());
+        }
+        if (!invalidReported) {
+            invalidReported = true;
+            for (String error : cursor.getErrors()) {
+                System.out.println("Type, time, severity or zone of the event is incorrect: " + error);
+            }
+        }
+        return null;
+    }
+
+    private void schedule(LocalTime time) {
+        if (firstTime == null) {
+            firstTime = time;
+            startNanos = System.nanoTime();
+        } else if (lastTime.toSecondOfDay() - time.toSecondOfDay() > SECONDS_PER_DAY / 2) {
+            days++;
+        }
+        lastTime = time;
+        scheduleAt(days * SECONDS_PER_DAY + time.toSecondOfDay() - firstTime.toSecondOfDay());
+    }
+
+    private void scheduleAt(double offsetSeconds) {
+        this.offsetSeconds = offsetSeconds;
+        dueNanos = speed == AS_FAST_AS_POSSIBLE
+                ? startNanos
+                : startNanos + (long) (TimeUnit.SECONDS.toNanos(1) * Math.max(0, offsetSeconds) / speed);
+    }
+
+    /**
+     * @return The System.nanoTime() at which the event last returned by next() is due.
+     */
+    public long getDueNanos() {
+        return dueNanos;
+    }
+
+    /**
+     * Parks the calling thread until the event last returned by next() is due.
+     */
+    public void awaitDue() {
+        long wait;
+        while ((wait = dueNanos - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, wait);
+        }
+    }
+
+    /**
+     * Records that the event last returned by next() has been sent.
+     */
+    public void sent() {
+        long now = System.nanoTime();
+        if (sent++ == 0) {
+            firstSentNanos = now;
+        }
+        lastSentNanos = now;
+        long lag = Math.max(0, now - dueNanos);
+        totalLagNanos += lag;
+        maxLagNanos = Math.max(maxLagNanos, lag);
+    }
+
+    public Report report() {
+        double nanosPerMilli = TimeUnit.MILLISECONDS.toNanos(1);
+        return new Report(sent, sent > 0 ? offsetSeconds : 0, (lastSentNanos - firstSentNanos) / 1e9, speed,
+                sent > 0 ? totalLagNanos / nanosPerMilli / sent : 0, maxLagNanos / nanosPerMilli);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (cursor != null) {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The IndexedEventQueue class is a binary min-heap of events that also knows where
+ * each event sits in the heap.
+ *
+ * Events are ordered by severity (HIGH first, as in Event.compareTo) and then by id,
+ * so equally severe fires are served in arrival order. Because every node records
+ * its heap index, an event can be found by id in O(1) and removed or re-positioned
+ * after a priority change (decrease-key) in O(log n), which a PriorityQueue cannot
+ * do without a linear scan.
+ *
+ * Not thread-safe; EventStore guards it.
+ */
+public class IndexedEventQueue {
+    private static class Node {
+        final Event event;
+        int index;
+
+        Node(Event event) {
+            this.event = event;
+        }
+    }
+
+    /**
+     * The queue's priority order: severity, then id.
+     */
+    public static final Comparator<Event> ORDER = Comparator.<Event>naturalOrder().thenComparingInt(Event::getId);
+
+    private Node[] heap = new Node[16];
+    private int size;
+    private final HashMap<Integer, Node> nodes = new HashMap<>();
+
+    // ========== UPDATES ==========
+
+    /**
+     * Adds an event; an event already queued is re-positioned instead.
+     */
+    public void offer(Event event) {
+        Node node = nodes.get(event.getId());
+        if (node != null) {
+            update(event.getId());
+            return;
+        }
+        node = new Node(event);
+        nodes.put(event.getId(), node);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        node.index = size;
+        heap[size++] = node;
+        siftUp(node.index);
+    }
+
+    /**
+     * Removes and returns the highest priority event, or null if empty.
+     */
+    public Event poll() {
+        if (size == 0) {
+            return null;
+        }
+        Event top = heap[0].event;
+        removeAt(0);
+        return top;
+    }
+
+    public Event peek() {
+        return size == 0 ? null : heap[0].event;
+    }
+
+    /**
+     * Removes an event by id.
+     *
+     * @return The removed event, or null if it was not queued.
+     */
+    public Event remove(int id) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            return null;
+        }
+        removeAt(node.index);
+        return node.event;
+    }
+
+    /**
+     * Restores heap order after the priority of a queued event changed, whether it
+     * went up (decrease-key) or down.
+     *
+     * @return true if the event is queued.
+     */
+    public boolean update(int id) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            return false;
+        }
+        siftDown(siftUp(node.index));
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        nodes.clear();
+    }
+
+    // ========== QUERIES ==========
+
+    public boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copies the queued events, in heap (not priority) order.
+     */
+    public List<Event> toList() {
+        List<Event> events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            events.add(heap[i].event);
+        }
+        return events;
+    }
+
+    // ========== HEAP ==========
+
+    private void removeAt(int index) {
+        Node removed = heap[index];
+        nodes.remove(removed.event.getId());
+        Node last = heap[--size];
+        heap[size] = null;
+        if (index < size) {
+            heap[index] = last;
+            last.index = index;
+            siftDown(siftUp(index));
+        }
+    }
+
+    private int siftUp(int index) {
+        Node node = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(node, heap[parent]) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].index = index;
+            index = parent;
+        }
+        heap[index] = node;
+        node.index = index;
+        return index;
+    }
+
+    private void siftDown(int index) {
+        Node node = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (compare(node, heap[child]) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = node;
+        node.index = index;
+    }
+
+    private static int compare(Node a, Node b) {
+        return ORDER.compare(a.event, b.event);
+    }
+}
@@ -0,0 +1,222 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The LatencyHistogram class counts recorded durations in log-linear buckets (in
+ * the style of HdrHistogram), so percentiles such as p99 come from fixed memory
+ * instead of a list of every sample.
+ *
+ * - Values below 2^precision each have their own bucket. Above that, every power of
+ * two range is split into 2^(precision - 1) equal buckets, so a reported value is
+ * within 2^(1 - precision) of the true one (1.6% for the default precision of 7).
+ * - The buckets of a power of two range are allocated the first time a value in
+ * it is recorded; after that, record() does not allocate.
+ * - Recording is thread-safe, and snapshot() and add() can run while other threads
+ * record, e.g. to report on a running drone or merge a whole fleet.
+ *
+ * The histogram has no unit; Drone records microseconds.
+ */
+public class LatencyHistogram {
+    private static final int DEFAULT_PRECISION = 7;
+    private static final long DEFAULT_HIGHEST = 1L << 40;
+
+    private final int precision;
+    private final long highest;
+    private final int half; // Buckets in each row after the first
+    private final AtomicReferenceArray<AtomicLongArray> rows;
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Constructs a histogram of values up to 2^40 with a precision of 7 bits.
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_HIGHEST, DEFAULT_PRECISION);
+    }
+
+    /**
+     * Constructs a histogram.
+     *
+     * @param highest   The largest value told apart; larger values are counted as this.
+     * @param precision Bits of each value kept, from 2 to 20.
+     */
+    public LatencyHistogram(long highest, int precision) {
+        if (precision < 2 || precision > 20 || highest < 1) {
+            throw new IllegalArgumentException("precision must be 2 to 20 and highest positive");
+        }
+        this.precision = precision;
+        this.highest = highest;
+        this.half = 1 << (precision - 1);
+        this.rows = new AtomicReferenceArray<>(row(highest) + 1);
+    }
+
+    // ========== RECORDING ==========
+
+    /**
+     * Counts one value; negative values count as 0.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > highest) {
+            value = highest;
+        }
+        int row = row(value);
+        AtomicLongArray buckets = rows.get(row);
+        if (buckets == null) {
+            buckets = new AtomicLongArray(row == 0 ? half << 1 : half);
+            if (!rows.compareAndSet(row, null, buckets)) {
+                buckets = rows.get(row);
+            }
+        }
+        buckets.incrementAndGet(slot(value, row));
+
+        total.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Retry against the newer maximum
+        }
+        while (value < (current = min.get()) && !min.compareAndSet(current, value)) {
+            // Retry against the newer minimum
+        }
+        count.incrementAndGet(); // Last, so a snapshot that sees the count sees the bucket
+    }
+
+    /**
+     * Adds every value counted by another histogram of the same precision and range.
+     */
+    public void add(LatencyHistogram other) {
+        if (other.precision != precision || other.highest != highest) {
+            throw new IllegalArgumentException("Histograms with different buckets cannot be added");
+        }
+        for (int row = 0; row < other.rows.length(); row++) {
+            AtomicLongArray from = other.rows.get(row);
+            if (from == null) {
+                continue;
+            }
+            for (int slot = 0; slot < from.length(); slot++) {
+                long n = from.get(slot);
+                if (n > 0) {
+                    AtomicLongArray buckets = rows.get(row);
+                    if (buckets == null) {
+                        rows.compareAndSet(row, null, new AtomicLongArray(from.length()));
+                        buckets = rows.get(row);
+                    }
+                    buckets.addAndGet(slot, n);
+                }
+            }
+        }
+        total.addAndGet(other.total.get());
+        min.accumulateAndGet(other.min.get(), Math::min);
+        max.accumulateAndGet(other.max.get(), Math::max);
+        count.addAndGet(other.count.get());
+    }
+
+    /**
+     * @return A copy of the counts so far, which later records do not change.
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram copy = new LatencyHistogram(highest, precision);
+        copy.add(this);
+        return copy;
+    }
+
+    // ========== QUERIES ==========
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return The sum of the recorded values.
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    public long getMin() {
+        return count.get() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile From 0 to 100, e.g. 99.9.
+     * @return The value at or below which that percentage of the values fall (to
+     * the histogram's precision), or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = 0;
+        for (int row = 0; row < rows.length(); row++) {
+            AtomicLongArray buckets = rows.get(row);
+            if (buckets != null) {
+                for (int slot = 0; slot < buckets.length(); slot++) {
+                    n += buckets.get(slot);
+                }
+            }
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * n));
+        long seen = 0;
+        for (int row = 0; row < rows.length(); row++) {
+            AtomicLongArray buckets = rows.get(row);
+            if (buckets == null) {
+                continue;
+            }
+            for (int slot = 0; slot < buckets.length(); slot++) {
+                seen += buckets.get(slot);
+                if (seen >= target) {
+                    return Math.min(highestInBucket(row, slot), getMax());
+                }
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return "p50=… p90=… p99=… p999=… max=…" followed by the unit, e.g. "us".
+     */
+    public String percentiles(String unit) {
+        return "p50=" + getValueAtPercentile(50) + unit
+                + " p90=" + getValueAtPercentile(90) + unit
+                + " p99=" + getValueAtPercentile(99) + unit
+                + " p999=" + getValueAtPercentile(99.9) + unit
+                + " max=" + getMax() + unit;
+    }
+
+    // ========== BUCKETS ==========
+
+    /**
+     * Row 0 holds values below 2^precision one per bucket; row r holds
+     * [2^(precision + r - 1), 2^(precision + r)) in buckets 2^r wide.
+     */
+    private int row(long value) {
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        return magnitude < precision ? 0 : magnitude - precision + 1;
+    }
+
+    private int slot(long value, int row) {
+        return row == 0 ? (int) value : (int) (value >>> row) - half;
+    }
+
+    private long highestInBucket(int row, int slot) {
+        if (row == 0) {
+            return slot;
+        }
+        long lowest = (long) (slot + half) << row;
+        return lowest + (1L << row) - 1;
+    }
+}
@@ -1,231 +1,534 @@
-//deprecated in favour of alternate system for logging, keeping code here as proof of work for kaitlyn - sam
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The LogAnalyzer class reports each drone's fires extinguished, utilization,
+ * response time and time in each state from a log written by TimeStampDaemon
+ * ("HH:mm:ss.SSS,[Drone N], message").
+ *
+ * - The file is memory-mapped in chunks split on line boundaries, and the chunks are
+ * parsed in parallel on a ForkJoinPool. Lines are parsed as bytes, so there is no
+ * String, date parser or regex per line, and memory stays flat however big the log.
+ * - Each chunk counts into one DroneStats per drone (primitive counters and sums),
+ * and neighbouring chunks' results are merged in file order.
+ * - Timestamps are times of day; a jump back of more than 12 hours is taken as
+ * midnight, so multi-day soak logs keep increasing times.
+ *
+ * As in the original analyzer, a state's time is measured at each "Sent:" or
+ * "Received:" of that state from the drone's first En Route, and the response time
+ * runs from the first En Route to the last fire the drone put out. Lines that do
+ * not start with a timestamp are skipped.
+ *
+ * Usage: java LogAnalyzer [log file] [threads]
+ */
+public class LogAnalyzer {
+    private static final String LOG_FILE = "src/logs.txt";
+    private static final long CHUNK_SIZE = 32L * 1024 * 1024;
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+    private static final long HALF_DAY_MS = DAY_MS / 2;
+
+    // States in the order the original analyzer tested them; time in state is indexed by these
+    static final int EN_ROUTE = 0, IDLE = 1, DROPPING_AGENT = 2, RETURNING_TO_BASE = 3, FILLING_TANK = 4, FAULT = 5;
+    private static final String[] STATES = {"En Route", "Idle", "Dropping Agent", "Returning To Base", "Filling Tank", "Fault"};
+    private static final byte[][] STATE_BYTES = bytes(STATES);
+    private static final byte[] SENT = bytes("Sent: ");
+    private static final byte[] RECEIVED = bytes("Received: ");
+    private static final byte[] DRONE = bytes("Drone ");
+    private static final byte[] EXTINGUISHED = bytes(" successfully extinguished fire: ");
 
-import java.io.*;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.*;
-import java.time.format.*;
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+    /**
+     * One drone's totals over a run of lines. Stats from consecutive runs merge into
+     * the totals for both, so chunks can be counted independently.
+     */
+    static final class DroneStats {
+        final int droneId;
+        boolean assigned;     // Whether an En Route has been seen
+        long firstAssigned;   // Time of the first En Route
+        boolean extinguished;
+        long lastExtinguished;
+        int firesExtinguished;
+        // Per state: lines seen and the sum of their times, after and before the first En Route
+        final long[] count = new long[STATES.length];
+        final long[] timeSum = new long[STATES.length];
+        final long[] earlyCount = new long[STATES.length];
+        final long[] earlyTimeSum = new long[STATES.length];
+
+        DroneStats(int droneId) {
+            this.droneId = droneId;
+        }
 
+        void state(int state, long time) {
+            if (state == EN_ROUTE && !assigned) {
+                assigned = true;
+                firstAssigned = time;
+            }
+            if (assigned) {
+                count[state]++;
+                timeSum[state] += time;
+            } else {
+                earlyCount[state]++;
+                earlyTimeSum[state] += time;
+            }
+        }
 
-public class LogAnalyzer {
-    private static final String LOG_FILE = "src/logs.txt";
-    private List<LogEntry> logEntries = new ArrayList<>();
-    private static Map<String, Long> idleTime;
-    private static Map<String, Long> activeTime;
-    private static Map<String, Long> startTime;
+        void extinguished(long time) {
+            extinguished = true;
+            lastExtinguished = time;
+            firesExtinguished++;
+        }
 
+        /**
+         * Moves every time by `delta` ms, for a later chunk that crossed midnight.
+         */
+        void shift(long delta) {
+            firstAssigned += delta;
+            lastExtinguished += delta;
+            for (int i = 0; i < STATES.length; i++) {
+                timeSum[i] += count[i] * delta;
+                earlyTimeSum[i] += earlyCount[i] * delta;
+            }
+        }
 
-    // Inner class to represent a single log entry
-    public class LogEntry {
-        public Long timestamp;
-        public String rawLine;
-        public Integer droneId;
+        /**
+         * Adds the stats of the lines right after these.
+         */
+        void merge(DroneStats later) {
+            for (int i = 0; i < STATES.length; i++) {
+                if (assigned) {
+                    // The later lines' early states came after this first En Route
+                    count[i] += later.earlyCount[i] + later.count[i];
+                    timeSum[i] += later.earlyTimeSum[i] + later.timeSum[i];
+                } else {
+                    earlyCount[i] += later.earlyCount[i];
+                    earlyTimeSum[i] += later.earlyTimeSum[i];
+                    count[i] = later.count[i];
+                    timeSum[i] = later.timeSum[i];
+                }
+            }
+            if (!assigned && later.assigned) {
+                assigned = true;
+                firstAssigned = later.firstAssigned;
+            }
+            if (later.extinguished) {
+                extinguished = true;
+                lastExtinguished = later.lastExtinguished;
+            }
+            firesExtinguished += later.firesExtinguished;
+        }
 
+        /**
+         * @return Total time in a state: each line's time since the first En Route.
+         */
+        long timeIn(int state) {
+            return timeSum[state] - count[state] * firstAssigned;
+        }
+    }
 
-        public LogEntry(String line) {
-            String[] parts = line.split(",", 3); // Split into 3 parts only
-            if (parts.length < 3) {
-                throw new IllegalArgumentException("Invalid log line format: " + line);
+    /**
+     * The stats of a run of lines, with what is needed to place it on the timeline of
+     * the lines before it.
+     */
+    static final class Result {
+        DroneStats[] drones = new DroneStats[0]; // By drone id
+        long lines;
+        long skipped;
+        boolean empty = true;
+        long firstTime;  // Time of day of the first line
+        long lastTime;   // Time of day of the last line
+        int days;        // Midnights crossed between them
+
+        DroneStats drone(int droneId) {
+            ensureCapacity(droneId);
+            DroneStats stats = drones[droneId];
+            if (stats == null) {
+                stats = drones[droneId] = new DroneStats(droneId);
             }
+            return stats;
+        }
 
-            String timeStr = parts[0].trim();
-            String actor = parts[1].replace("[", "").replace("]", "");
-            String rest = parts[2].trim();
+        private void ensureCapacity(int droneId) {
+            if (droneId >= drones.length) {
+                drones = Arrays.copyOf(drones, Math.max(droneId + 1, drones.length * 2));
+            }
+        }
 
-            this.timestamp = parseTime(LocalTime.parse(timeStr, DateTimeFormatter.ofPattern("HH:mm:ss.SSS")));
-            this.rawLine = rest;
+        /**
+         * @return This line's time of day as a time since the first line's midnight.
+         */
+        long place(long timeOfDay) {
+            if (empty) {
+                empty = false;
+                firstTime = timeOfDay;
+            } else if (lastTime - timeOfDay > HALF_DAY_MS) {
+                days++;
+            }
+            lastTime = timeOfDay;
+            return timeOfDay + days * DAY_MS;
+        }
 
-            // Extract droneId from the actor field
-            if (actor.startsWith("Drone")) {
-                String[] id = actor.split(" ");
-                this.droneId = Integer.parseInt(id[1]);  // Extract the drone ID from the actor string
-            } else {
-                this.droneId = -1; // If not a drone, assign an invalid ID
+        /**
+         * Adds the result of the lines right after these.
+         */
+        void merge(Result later) {
+            lines += later.lines;
+            skipped += later.skipped;
+            if (later.empty) {
+                return;
+            }
+            int offsetDays = 0;
+            if (!empty) {
+                offsetDays = days + (lastTime - later.firstTime > HALF_DAY_MS ? 1 : 0);
+            }
+            long delta = offsetDays * DAY_MS;
+            for (DroneStats stats : later.drones) {
+                if (stats == null) {
+                    continue;
+                }
+                stats.shift(delta);
+                ensureCapacity(stats.droneId);
+                if (drones[stats.droneId] != null) {
+                    drones[stats.droneId].merge(stats);
+                } else {
+                    drones[stats.droneId] = stats;
+                }
+            }
+            if (empty) {
+                firstTime = later.firstTime;
+                empty = false;
             }
+            days = offsetDays + later.days;
+            lastTime = later.lastTime;
         }
     }
 
-
     /**
-     * Parses a timestamp from a log entry and returns it as a long value.
-     *
-     * @return The parsed time in milliseconds.
+     * One drone's figures, as printed in the report.
      */
-    private static long parseTime(LocalTime time) {
-        String timeStr = time.toString();
-        // Check if the time string has milliseconds
-        if (timeStr.length() == 8) { // HH:mm:ss (without milliseconds)
-            timeStr += ".000"; // Add default milliseconds
+    public static final class DroneReport {
+        private final int droneId;
+        private final int firesExtinguished;
+        private final long responseTime;
+        private final long[] timeInState;
+
+        DroneReport(DroneStats stats) {
+            this.droneId = stats.droneId;
+            this.firesExtinguished = stats.firesExtinguished;
+            this.responseTime = stats.assigned && stats.extinguished ? stats.lastExtinguished - stats.firstAssigned : 0;
+            this.timeInState = new long[STATES.length];
+            for (int i = 0; i < STATES.length; i++) {
+                timeInState[i] = stats.assigned ? stats.timeIn(i) : 0;
+            }
         }
 
-        try {
-            // Parse the time string with milliseconds
-            SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss.SSS");
-            Date date = sdf.parse(timeStr);
-            return date.getTime(); // Return time in milliseconds
-        } catch (ParseException e) {
-            e.printStackTrace();
+        public int getDroneId() {
+            return droneId;
         }
 
-        return 0; // If parsing fails
-    }
+        public int getFiresExtinguished() {
+            return firesExtinguished;
+        }
+
+        /**
+         * @return Milliseconds from the first En Route to the last fire put out, or 0.
+         */
+        public long getResponseTime() {
+            return responseTime;
+        }
 
-    // Method to parse the log file and populate the logEntries list
-    public void parseLogFile() throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader("src/logs.txt"))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                logEntries.add(new LogEntry(line));
+        /**
+         * @param state One of EN_ROUTE, IDLE, DROPPING_AGENT, RETURNING_TO_BASE, FILLING_TANK, FAULT.
+         * @return Milliseconds spent in the state.
+         */
+        public long getTimeInState(int state) {
+            return timeInState[state];
+        }
+
+        /**
+         * @return The percentage of the drone's time spent in any state but Idle.
+         */
+        public double getUtilization() {
+            long activeTime = 0;
+            for (int i = 0; i < STATES.length; i++) {
+                if (i != IDLE) {
+                    activeTime += timeInState[i];
+                }
             }
+            long totalDroneTime = activeTime + timeInState[IDLE];
+            return (totalDroneTime > 0) ? ((double) activeTime / totalDroneTime) * 100 : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "\nDrone " + droneId + ":\n" +
+                    "  Fires extinguished: " + firesExtinguished + "\n" +
+                    "  Drone Utilization Rate: " + getUtilization() + " %\n" +
+                    "  Response time: " + responseTime + " ms\n" +
+                    "  Time in idle: " + timeInState[IDLE] + " ms\n" +
+                    "  Time in enroute: " + timeInState[EN_ROUTE] + " ms\n" +
+                    "  Time in fault: " + timeInState[FAULT] + " ms";
         }
     }
 
-    // Inner class to represent a drone report
-    public class DroneReport {
-        int droneId;
-        int firesExtinguished = 0;
-        long timeInIdle = 0;
-        long timeInEnroute = 0;
-        long timeInDroppingAgent = 0;
-        long timeInReturningToBase = 0;
-        long timeInFillingTank = 0;
-        long timeInFault = 0;
-        public Long assignedTime;
-        public Long extinguishedTime;
+    // ========== ANALYSIS ==========
 
-        // Add time spent in a specific state (e.g., IDLE, ENROUTE)
-        public void addTimeInState(String state, long timeSpent) {
-            switch (state) {
-                case "IDLE": timeInIdle += timeSpent; break;
-                case "ENROUTE": timeInEnroute += timeSpent; break;
-                case "DROPPING_AGENT": timeInDroppingAgent += timeSpent; break;
-                case "RETURNING_TO_BASE": timeInReturningToBase += timeSpent; break;
-                case "FILLING_TANK": timeInFillingTank += timeSpent; break;
-                case "FAULT": timeInFault += timeSpent; break;
+    /**
+     * Analyzes a log on the common ForkJoinPool.
+     *
+     * @return One report per drone, by drone id.
+     */
+    public static List<DroneReport> analyze(Path file) throws IOException {
+        return analyze(file, ForkJoinPool.commonPool(), CHUNK_SIZE);
+    }
+
+    static List<DroneReport> analyze(Path file, ForkJoinPool pool, long chunkSize) throws IOException {
+        Result result;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = FileChunks.bounds(channel, chunkSize);
+            result = pool.invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1));
+        }
+        List<DroneReport> reports = new ArrayList<>();
+        for (DroneStats stats : result.drones) {
+            if (stats != null) {
+                reports.add(new DroneReport(stats));
             }
         }
+        return reports;
+    }
 
-        // Increment the number of fires extinguished
-        public void incrementFiresExtinguished() {
-            firesExtinguished++;
+    /**
+     * Parses chunks [from, to) of the file, splitting the range until one chunk is left.
+     */
+    private static final class ChunkTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, long[] bounds, int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
         }
 
         @Override
-        public String toString() {
-            return "Drone " + droneId + ":\n" +
-                    "  Fires extinguished: " + firesExtinguished + "\n" +
-                    "  Response time: " + getResponseTime() + " ms\n" +
-                    "  Time in idle: " + timeInIdle + " ms\n" +
-                    "  Time in fault: " + timeInFault + " ms\n";
+        protected Result compute() {
+            if (to - from == 1) {
+                try {
+                    return parseChunk(channel, bounds[from], bounds[to] - bounds[from]);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask later = new ChunkTask(channel, bounds, middle, to);
+            later.fork();
+            Result result = new ChunkTask(channel, bounds, from, middle).compute();
+            result.merge(later.join());
+            return result;
         }
+    }
 
-        // Calculate the response time between assigned time and extinguished time
-        public long getResponseTime() {
-            if (assignedTime != null && extinguishedTime != null) {
-                return extinguishedTime - assignedTime; // Direct subtraction of the timestamp values
+    private static Result parseChunk(FileChannel channel, long position, long length) throws IOException {
+        Result result = new Result();
+        if (length == 0) {
+            return result;
+        }
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        byte[] line = new byte[256];
+        int limit = chunk.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int lineLength = lineEnd - lineStart;
+            if (lineLength > 0 && chunk.get(lineEnd - 1) == '\r') {
+                lineLength--;
             }
-            return 0; // Return 0 if either assignedTime or extinguishedTime is null
+            if (lineLength > line.length) {
+                line = new byte[Math.max(lineLength, line.length * 2)];
+            }
+            chunk.get(lineStart, line, 0, lineLength);
+            parseLine(line, lineLength, result);
+            lineStart = lineEnd + 1;
         }
+        return result;
     }
 
-    // Main code that reads the log and processes each entry
-    public void generateDroneReports() {
-        Map<Integer, DroneReport> droneStats = new HashMap<>();
-        Map<Integer, Long> stateStartTime = new HashMap<>();
+    /**
+     * Counts one line, "HH:mm:ss.SSS,actor,message", into the result.
+     */
+    static void parseLine(byte[] line, int length, Result result) {
+        result.lines++;
+        long timeOfDay = parseTimeOfDay(line, length);
+        if (timeOfDay < 0) {
+            result.skipped++;
+            return;
+        }
+        long time = result.place(timeOfDay);
 
-        // Variables for overall performance metrics
-        long totalFiresExtinguished = 0;
-        long totalFireExtinguishingTime = 0;
-        long totalActiveTime = 0;
-        long totalTimeSpent = 0; // Total time for all drones
+        // The actor: "[Drone N]" for a drone's own lines
+        int actor = 13;
+        while (actor < length && (line[actor] == ' ' || line[actor] == '[')) {
+            actor++;
+        }
+        int droneId = startsWith(line, length, actor, DRONE) ? parseInt(line, length, actor + DRONE.length) : -1;
 
-        // Process each log entry
-        for (LogEntry entry : logEntries) {
-            int droneId = entry.droneId;
-            String line = entry.rawLine;
+        if (droneId >= 0) {
+            int state = findState(line, length, actor);
+            if (state >= 0) {
+                result.drone(droneId).state(state, time);
+            }
+        }
 
-            // If the droneId is not in the reports map, initialize a new DroneReport for the drone
-            if (!droneStats.containsKey(droneId)) {
-                droneStats.put(droneId, new DroneReport());
-                droneStats.get(droneId).droneId = droneId;
+        // "Drone N successfully extinguished fire: M", from the FireIncidentSubsystem
+        int extinguished = indexOf(line, length, 13, EXTINGUISHED);
+        if (extinguished >= 0 && parseInt(line, length, extinguished + EXTINGUISHED.length) >= 0) {
+            int digits = extinguished;
+            while (digits > 13 && line[digits - 1] >= '0' && line[digits - 1] <= '9') {
+                digits--;
             }
+            int id = digits < extinguished && digits - DRONE.length >= 13
+                    && startsWith(line, length, digits - DRONE.length, DRONE) ? parseInt(line, length, digits) : -1;
+            if (id >= 0) {
+                result.drone(id).extinguished(time);
+            }
+        }
+    }
 
-            DroneReport report = droneStats.get(droneId);
+    /**
+     * @return Milliseconds since midnight of a line starting "HH:mm:ss.SSS,", or -1.
+     */
+    private static long parseTimeOfDay(byte[] line, int length) {
+        if (length < 13 || line[2] != ':' || line[5] != ':' || line[8] != '.' || line[12] != ',') {
+            return -1;
+        }
+        int hours = digits(line, 0, 2);
+        int minutes = digits(line, 3, 2);
+        int seconds = digits(line, 6, 2);
+        int millis = digits(line, 9, 3);
+        if (hours < 0 || minutes < 0 || seconds < 0 || millis < 0) {
+            return -1;
+        }
+        return ((hours * 60L + minutes) * 60 + seconds) * 1000 + millis;
+    }
 
-            // Handle state transitions based on log message
-            if (line.contains("Sent: En Route") || line.contains("Received: En Route")) {
-                if (report.assignedTime == null) {
-                    report.assignedTime = entry.timestamp;
-                }
-                report.addTimeInState("ENROUTE", entry.timestamp - report.assignedTime);
-            } else if (line.contains("Sent: Idle") || line.contains("Received: Idle")) {
-                report.addTimeInState("IDLE", entry.timestamp - report.assignedTime);
-            } else if (line.contains("Sent: Dropping Agent") || line.contains("Received: Dropping Agent")) {
-                report.addTimeInState("DROPPING_AGENT", entry.timestamp - report.assignedTime);
-            } else if (line.contains("Sent: Returning to Base") || line.contains("Received: Returning to Base")) {
-                report.addTimeInState("RETURNING_TO_BASE", entry.timestamp - report.assignedTime);
-            } else if (line.contains("Sent: Filling Tank") || line.contains("Received: Filling Tank")) {
-                report.addTimeInState("FILLING_TANK", entry.timestamp - report.assignedTime);
-            } else if (line.contains("Sent: Fault") || line.contains("Received: Fault")) {
-                report.addTimeInState("FAULT", entry.timestamp - report.assignedTime);
-            }
-
-            // Handle fire extinguishing events
-            if (line.contains("extinguished fire") && line.contains("Drone")) {
-                Matcher m = Pattern.compile("Drone (\\d+) successfully extinguished fire: (\\d+)").matcher(line);
-                if (m.find()) {
-                    int fireId = Integer.parseInt(m.group(2));
-                    int droneIdFromLog = Integer.parseInt(m.group(1));
-
-                    if (droneIdFromLog != -1) {
-                        DroneReport droneReport = droneStats.get(droneIdFromLog);
-                        if (droneReport != null) {
-                            // Mark the extinguishing time and increment fires extinguished
-                            droneReport.extinguishedTime = entry.timestamp;
-                            droneReport.incrementFiresExtinguished();
-
-                            // Update overall performance metrics
-                            totalFireExtinguishingTime += droneReport.getResponseTime();
-                            totalFiresExtinguished++;
-                        }
-                    }
+    /**
+     * @return The earliest listed state named after a "Sent: " or "Received: ", or -1.
+     */
+    private static int findState(byte[] line, int length, int from) {
+        int best = -1;
+        for (int i = from; i < length; i++) {
+            int name;
+            if (line[i] == 'S' && startsWith(line, length, i, SENT)) {
+                name = i + SENT.length;
+            } else if (line[i] == 'R' && startsWith(line, length, i, RECEIVED)) {
+                name = i + RECEIVED.length;
+            } else {
+                continue;
+            }
+            for (int state = 0; state < STATE_BYTES.length && (best < 0 || state < best); state++) {
+                if (startsWith(line, length, name, STATE_BYTES[state])) {
+                    best = state;
                 }
             }
-            // Update total time for each drone (either active or idle)
-            totalTimeSpent = Math.max(totalTimeSpent, entry.timestamp);
         }
+        return best;
+    }
 
-        // Print the final report for each drone
-        for (DroneReport report : droneStats.values()) {
-            if (report.droneId != -1) {
-                // Calculate Drone Utilization Rate: (active time / total time) * 100
-                long activeTime = report.timeInEnroute + report.timeInDroppingAgent + report.timeInReturningToBase +
-                        report.timeInFillingTank + report.timeInFault;
-                long totalDroneTime = activeTime + report.timeInIdle;
+    private static int digits(byte[] line, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return -1;
+            }
+            value = value * 10 + (line[i] - '0');
+        }
+        return value;
+    }
 
-                double utilizationRate = (totalDroneTime > 0) ? ((double) activeTime / totalDroneTime) * 100 : 0;
+    /**
+     * @return The non-negative integer at `from`, or -1 if there is none.
+     */
+    private static int parseInt(byte[] line, int length, int from) {
+        int end = from;
+        while (end < length && end - from < 9 && line[end] >= '0' && line[end] <= '9') {
+            end++;
+        }
+        return end > from ? digits(line, from, end - from) : -1;
+    }
 
-                totalActiveTime += activeTime; // Update total active time for all drones
+    private static boolean startsWith(byte[] line, int length, int from, byte[] prefix) {
+        if (from < 0 || from + prefix.length > length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (line[from + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-                long responseTime = report.getResponseTime();  // Calculate response time based on assigned and extinguished time
-                System.out.println("\nDrone " + report.droneId + ":");
-                System.out.println("  Fires extinguished: " + report.firesExtinguished);
-                System.out.println("  Drone Utilization Rate: " + utilizationRate + " %");
-                System.out.println("  Response time: " + responseTime + " ms");
-                System.out.println("  Time in idle: " + report.timeInIdle + " ms");
-                System.out.println("  Time in enroute: " + report.timeInEnroute + " ms");
-                System.out.println("  Time in fault: " + report.timeInFault + " ms");
+    private static int indexOf(byte[] line, int length, int from, byte[] pattern) {
+        for (int i = from; i + pattern.length <= length; i++) {
+            if (line[i] == pattern[0] && startsWith(line, length, i, pattern)) {
+                return i;
             }
         }
+        return -1;
     }
 
-    // Main method to drive the analysis process
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[][] bytes(String[] texts) {
+        byte[][] result = new byte[texts.length][];
+        for (int i = 0; i < texts.length; i++) {
+            result[i] = bytes(texts[i]);
+        }
+        return result;
+    }
+
+    // ========== REPORT ==========
+
+    /**
+     * Prints the report for every drone in a log.
+     */
     public static void analyzeLogs(String filePath) throws IOException {
-        LogAnalyzer analyzer = new LogAnalyzer();
-        analyzer.parseLogFile();
-        analyzer.generateDroneReports();
+        for (DroneReport report : analyze(Paths.get(filePath))) {
+            System.out.println(report);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : LOG_FILE);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (DroneReport report : analyze(file, pool, CHUNK_SIZE)) {
+                System.out.println(report);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.printf("%nAnalyzed %s in %d ms on %d threads%n", file,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), threads);
     }
 }
@@ -0,0 +1,282 @@
+import java.awt.*;
+import java.util.List;
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * The LogConsole class shows the Scheduler's log in the GUI with fixed memory,
+ * however long the run.
+ *
+ * - The last `capacity` entries are kept in a ring buffer; older ones are dropped.
+ * - The entries passing the filter (minimum level, drone id, event id) are kept as
+ * a second ring of positions. Appended entries are tested as they arrive, so a
+ * frame costs its own lines only; changing the filter rescans the buffer once.
+ * - They are shown in a JList with a fixed line height, which only lays out and
+ * paints the lines scrolled into view. Lines too long for the width end in "..."
+ * and show in full as a tooltip.
+ * - The list follows new lines while it is scrolled to the bottom.
+ *
+ * Like other Swing components, a LogConsole must only be used on the Event
+ * Dispatch Thread; append() takes a whole frame's lines at once.
+ */
+public class LogConsole extends JPanel {
+    private static final long serialVersionUID = 1L;
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private final int capacity;
+    private final LogEntry[] entries; // Entry number n is at n % capacity
+    private long appended;            // Entries ever appended
+    private final long[] shown;       // Numbers of the entries passing the filter, oldest first from shownHead
+    private int shownHead;
+    private int shownSize;
+
+    private LogEntry.Level minLevel = LogEntry.Level.INFO; // Drone messages such as LOCATION are DEBUG
+    private int droneFilter = LogEntry.NONE;
+    private int eventFilter = LogEntry.NONE;
+
+    private final Model model = new Model();
+    private final JList<LogEntry> list;
+    private final JScrollPane scrollPane;
+    private final JPanel filterBar;
+    private final JComboBox<LogEntry.Level> levelBox;
+    private final JTextField droneField;
+    private final JTextField eventField;
+    private final JLabel countLabel;
+
+    /**
+     * Shows the entries passing the filter, in order.
+     */
+    private final class Model extends AbstractListModel<LogEntry> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int getSize() {
+            return shownSize;
+        }
+
+        @Override
+        public LogEntry getElementAt(int index) {
+            return entries[(int) (shown[(shownHead + index) % capacity] % capacity)];
+        }
+
+        void removed(int first, int last) {
+            fireIntervalRemoved(this, first, last);
+        }
+
+        void added(int first, int last) {
+            fireIntervalAdded(this, first, last);
+        }
+    }
+
+    /**
+     * Constructs a LogConsole keeping `-Dview.logLines` entries (10000).
+     */
+    public LogConsole() {
+        this(Math.max(1, Integer.getInteger("view.logLines", DEFAULT_CAPACITY)));
+    }
+
+    /**
+     * Constructs a LogConsole.
+     *
+     * @param capacity The number of entries kept.
+     */
+    public LogConsole(int capacity) {
+        super(new BorderLayout());
+        this.capacity = capacity;
+        this.entries = new LogEntry[capacity];
+        this.shown = new long[capacity];
+
+        list = new JList<LogEntry>(model) {
+            @Override
+            public boolean getScrollableTracksViewportWidth() {
+                return true; // Lines are cut to the width instead of measuring every one
+            }
+        };
+        list.setFont(new Font("Arial", Font.PLAIN, 12));
+        list.setFocusable(false);
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, false, false);
+                LogEntry entry = (LogEntry) value;
+                setToolTipText(entry.toString());
+                if (entry.getLevel() == LogEntry.Level.WARN) {
+                    setForeground(new Color(180, 0, 0));
+                } else if (entry.getLevel() == LogEntry.Level.DEBUG) {
+                    setForeground(Color.GRAY);
+                }
+                return this;
+            }
+        });
+        LogEntry prototype = new LogEntry(LogEntry.Level.INFO, LogEntry.NONE, LogEntry.NONE, "[Scheduler]");
+        list.setFixedCellHeight(list.getCellRenderer()
+                .getListCellRendererComponent(list, prototype, 0, false, false).getPreferredSize().height);
+        list.setFixedCellWidth(1);
+
+        scrollPane = new JScrollPane(list);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+
+        // Filters: minimum level, and a drone and event id (blank for any)
+        levelBox = new JComboBox<>(LogEntry.Level.values());
+        levelBox.setSelectedItem(minLevel);
+        levelBox.addActionListener(e -> readFilter());
+        droneField = new JTextField(4);
+        eventField = new JTextField(4);
+        DocumentListener onEdit = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                readFilter();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                readFilter();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                readFilter();
+            }
+        };
+        droneField.getDocument().addDocumentListener(onEdit);
+        eventField.getDocument().addDocumentListener(onEdit);
+        countLabel = new JLabel();
+
+        filterBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 2));
+        filterBar.add(new JLabel("Level"));
+        filterBar.add(levelBox);
+        filterBar.add(new JLabel("Drone"));
+        filterBar.add(droneField);
+        filterBar.add(new JLabel("Event"));
+        filterBar.add(eventField);
+        filterBar.add(countLabel);
+
+        add(filterBar, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        updateCount();
+    }
+
+    /**
+     * Appends a frame's entries, dropping the oldest beyond the capacity.
+     */
+    public void append(List<LogEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        boolean follow = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - list.getFixedCellHeight();
+
+        int oldSize = shownSize;
+        int removed = 0;
+        for (LogEntry entry : batch) {
+            long number = appended++;
+            entries[(int) (number % capacity)] = entry;
+            long oldest = appended - capacity;
+            while (shownSize > 0 && shown[shownHead] < oldest) {
+                shownHead = (shownHead + 1) % capacity;
+                shownSize--;
+                removed++;
+            }
+            if (matches(entry)) {
+                shown[(shownHead + shownSize) % capacity] = number;
+                shownSize++;
+            }
+        }
+
+        // Entries added and dropped within this batch were never shown
+        int removedShown = Math.min(removed, oldSize);
+        if (removedShown > 0) {
+            model.removed(0, removedShown - 1);
+        }
+        int kept = oldSize - removedShown;
+        if (shownSize > kept) {
+            model.added(kept, shownSize - 1);
+        }
+        updateCount();
+        if (follow && shownSize > 0) {
+            list.ensureIndexIsVisible(shownSize - 1);
+        }
+    }
+
+    /**
+     * Shows only entries at or above a level, about a drone and about an event.
+     *
+     * @param droneId A drone id, or LogEntry.NONE for any.
+     * @param eventId An event id, or LogEntry.NONE for any.
+     */
+    public void setFilter(LogEntry.Level level, int droneId, int eventId) {
+        if (level == minLevel && droneId == droneFilter && eventId == eventFilter) {
+            return;
+        }
+        minLevel = level;
+        droneFilter = droneId;
+        eventFilter = eventId;
+
+        int oldSize = shownSize;
+        shownHead = 0;
+        shownSize = 0;
+        for (long number = Math.max(0, appended - capacity); number < appended; number++) {
+            if (matches(entries[(int) (number % capacity)])) {
+                shown[shownSize++] = number;
+            }
+        }
+        if (oldSize > 0) {
+            model.removed(0, oldSize - 1);
+        }
+        if (shownSize > 0) {
+            model.added(0, shownSize - 1);
+            list.ensureIndexIsVisible(shownSize - 1);
+        }
+        updateCount();
+    }
+
+    /**
+     * Colors the lines and the filter bar, e.g. for cute mode.
+     */
+    public void setColors(Color background, Color foreground) {
+        setBackground(background);
+        filterBar.setBackground(background);
+        list.setBackground(background);
+        list.setForeground(foreground);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    ListModel<LogEntry> getModel() {
+        return model;
+    }
+
+    private boolean matches(LogEntry entry) {
+        return entry.getLevel().compareTo(minLevel) >= 0
+                && (droneFilter == LogEntry.NONE || entry.getDroneId() == droneFilter)
+                && (eventFilter == LogEntry.NONE || entry.getEventId() == eventFilter);
+    }
+
+    private void readFilter() {
+        setFilter((LogEntry.Level) levelBox.getSelectedItem(), parseId(droneField), parseId(eventField));
+    }
+
+    /**
+     * @return The id typed in a filter field, or NONE if it is blank or not a number.
+     */
+    private static int parseId(JTextField field) {
+        String text = field.getText().trim();
+        try {
+            int id = text.isEmpty() ? LogEntry.NONE : Integer.parseInt(text);
+            field.setForeground(Color.BLACK);
+            return id;
+        } catch (NumberFormatException e) {
+            field.setForeground(Color.RED);
+            return LogEntry.NONE;
+        }
+    }
+
+    private void updateCount() {
+        countLabel.setText(shownSize + " of " + Math.min(appended, capacity) + " lines");
+    }
+}
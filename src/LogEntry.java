@@ -0,0 +1,51 @@
+/**
+ * The LogEntry class is one line of the Scheduler's log for the GUI, with the
+ * drone and event it concerns kept alongside the text so the log can be filtered
+ * without parsing it.
+ */
+public class LogEntry {
+    /**
+     * How much a line matters: DEBUG for every message sent and received, INFO for
+     * events, dispatches and state changes, WARN for faults.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN
+    }
+
+    public static final int NONE = -1; // No drone or event
+
+    private final Level level;
+    private final int droneId;
+    private final int eventId;
+    private final String text;
+
+    /**
+     * Constructs a LogEntry.
+     *
+     * @param droneId The drone the line is about, or NONE.
+     * @param eventId The event the line is about, or NONE.
+     */
+    public LogEntry(Level level, int droneId, int eventId, String text) {
+        this.level = level;
+        this.droneId = droneId;
+        this.eventId = eventId;
+        this.text = text;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public int getDroneId() {
+        return droneId;
+    }
+
+    public int getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.Random;
+
+/**
+ * The LossInjector class decides, packet by packet, whether an outbound datagram
+ * is dropped, delayed (so it arrives out of order) or sent normally.
+ *
+ * It is used by ReliableChannel to benchmark and test the reliability layer
+ * under controlled packet loss, and by the PACKET_LOSS drone fault to lose a
+ * single message on purpose. A fixed seed gives reproducible runs.
+ */
+public class LossInjector {
+    public static enum Action {
+        SEND, DROP, DELAY
+    }
+
+    private final double dropRate;
+    private final double reorderRate;
+    private final long reorderDelayMillis;
+    private final Random random;
+    private int forcedDrops;
+
+    /**
+     * Constructs a LossInjector.
+     *
+     * @param dropRate           Probability (0-1) that a packet is lost.
+     * @param reorderRate        Probability (0-1) that a packet is held back.
+     * @param reorderDelayMillis How long a held back packet is delayed.
+     * @param seed               Seed for the random source.
+     */
+    public LossInjector(double dropRate, double reorderRate, long reorderDelayMillis, long seed) {
+        this.dropRate = dropRate;
+        this.reorderRate = reorderRate;
+        this.reorderDelayMillis = reorderDelayMillis;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * A LossInjector that never drops or delays anything on its own.
+     */
+    public static LossInjector none() {
+        return new LossInjector(0.0, 0.0, 0, 0);
+    }
+
+    /**
+     * Forces the next outbound packet to be dropped regardless of the rates.
+     */
+    public synchronized void dropNext() {
+        forcedDrops++;
+    }
+
+    /**
+     * Decides what happens to the next outbound packet.
+     *
+     * @return SEND, DROP or DELAY.
+     */
+    public synchronized Action next() {
+        if (forcedDrops > 0) {
+            forcedDrops--;
+            return Action.DROP;
+        }
+        if (dropRate > 0 && random.nextDouble() < dropRate) {
+            return Action.DROP;
+        }
+        if (reorderRate > 0 && random.nextDouble() < reorderRate) {
+            return Action.DELAY;
+        }
+        return Action.SEND;
+    }
+
+    public long getReorderDelayMillis() {
+        return reorderDelayMillis;
+    }
+
+    public double getDropRate() {
+        return dropRate;
+    }
+
+    public double getReorderRate() {
+        return reorderRate;
+    }
+}
@@ -1,11 +1,15 @@
-import java.util.Set;
+import java.awt.GraphicsEnvironment;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Set;
 
 /**
  * The Main class initializes and starts the firefighting drone system.
  *
  * This class is responsible for:
  * - Creating the shared communication queues.
+ * - Reading the zone file once into a ZoneCatalog shared by the FireIncident,
+ * Scheduler and View.
  * - Initializing the FireIncident, Scheduler, and Drones.
  * - Starting each component as a separate thread.
  * - Using join() to ensure all threads complete execution properly.
@@ -17,6 +21,10 @@ import java.io.IOException;
  * coordination.
  * - Drone Threads → Process assigned fire events and execute fire
  * extinguishing operations.
+ *
+ * Without a display, or with `-Djava.awt.headless=true`, no View is created and no
+ * Swing class is loaded; nothing subscribes to the Scheduler, so it keeps no state
+ * for a GUI.
  */
 public class Main {
     public static void main(String[] args) throws IOException {
@@ -27,13 +35,19 @@ public class Main {
 
         TimeStampDaemon.startDaemon();
 
+        ZoneCatalog zones = ZoneCatalog.read(Paths.get("src/Zone_File.csv"));
+
         // Create the scheduler which will manage drone assignments and event processing
         Scheduler scheduler = new Scheduler(5000, 6000);
+        scheduler.setZones(zones);
 
-        View view = new View(scheduler);
+        // The GUI subscribes to the Scheduler's changes; headless runs skip it entirely
+        boolean headless = GraphicsEnvironment.isHeadless();
+        View view = headless ? null : new View(scheduler);
 
         // Create the FireIncident subsystem that will read fire incidents from a file
         FireIncident fireIncident = new FireIncident("src/Event_File.csv", "src/Zone_File.csv", 5000);
+        fireIncident.setZones(zones);
 
         // Start the FireIncident subsystem (reads fire events and sends them to the
         // scheduler)
@@ -42,7 +56,9 @@ public class Main {
         // Start the Scheduler (assigns drones to fire incidents)
         scheduler.start();
 
-        view.start();
+        if (view != null) {
+            view.start();
+        }
 
         drone0.start();
         drone1.start();
@@ -0,0 +1,380 @@
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import javax.swing.*;
+
+/**
+ * The MapCanvas class draws the View's map: every zone and drone in one component,
+ * instead of a component per zone and drone, so it scales to thousands of each.
+ *
+ * - Zones change rarely, so they are drawn once into a background image. A new or
+ * recolored zone redraws only the part of the image it covers.
+ * - Drones are kept in arrays indexed by id (position, heading, icon) and painted
+ * over the background. Only drones inside the repainted area are drawn.
+ * - Moves are collected into one dirty rectangle (old and new bounds of each
+ * drone moved) and repainted together by repaintDirty(), once per frame.
+ * - Rotated drone icons are cached by icon and 10 degree heading; the drone number
+ * is drawn over the icon, unrotated.
+ *
+ * Positions are in metres and scaled to fit the zones with 10% padding. Drones are
+ * drawn once the first zone is known. Like other Swing components, a MapCanvas
+ * must only be used on the Event Dispatch Thread.
+ */
+public class MapCanvas extends JComponent {
+    private static final long serialVersionUID = 1L;
+    static final int ICON_SIZE = 30;
+    private static final int ANGLE_STEP = 10; // Degrees per cached heading
+    private static final int HEADINGS = 360 / ANGLE_STEP;
+    private static final String[] ICON_PATHS = {"/assets/defaultDrone.png", "/assets/altDrone0.png",
+            "/assets/altDrone1.png", "/assets/altDrone2.png", "/assets/altDrone3.png",
+            "/assets/altDrone4.png", "/assets/altDrone5.png"};
+    private static final Font NUMBER_FONT = new Font("Arial", Font.BOLD, 12);
+
+    // Zones, in the order they were added (later zones are drawn over earlier ones)
+    private int zoneCount;
+    private int[] zoneIds = new int[16];
+    private int[][] zoneBounds = new int[16][]; // Start x, start y, end x, end y
+    private Color[] zoneColors = new Color[16];
+    private final HashMap<Integer, Integer> zoneIndex = new HashMap<>();
+    private int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE; // Extent of the zones, in metres
+    private int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+
+    // Drones, indexed by id
+    private boolean[] present = new boolean[16];
+    private int[] droneX = new int[16];
+    private int[] droneY = new int[16];
+    private int[] headingX = new int[16]; // Where the drone was when its heading last changed
+    private int[] headingY = new int[16];
+    private int[] heading = new int[16];  // In steps of ANGLE_STEP
+    private int[] icon = new int[16];     // Index into ICON_PATHS
+    private String[] numbers = new String[16];
+
+    private final Image[] baseIcons = new Image[ICON_PATHS.length];
+    private final ImageIcon[] rotatedIcons = new ImageIcon[ICON_PATHS.length * HEADINGS];
+
+    // Screen transform, and the background it was drawn for
+    private double scale;
+    private double offsetX, offsetY;
+    private BufferedImage background;
+    private boolean backgroundValid;
+    private final Rectangle dirty = new Rectangle();
+    private final Rectangle scratch = new Rectangle();
+    private ZoneCatalog catalog; // Names the zone under the mouse; null for no tooltips
+
+    public MapCanvas() {
+        setOpaque(true);
+        setBackground(Color.WHITE);
+    }
+
+    // ========== ZONES ==========
+
+    /**
+     * Adds a zone, or changes the color of one already drawn.
+     */
+    public void setZone(Zone zone, Color color) {
+        Integer index = zoneIndex.get(zone.getId());
+        if (index != null) {
+            zoneColors[index] = color;
+            redrawBackground(zoneRectangle(index, new Rectangle()));
+            return;
+        }
+
+        if (zoneCount == zoneIds.length) {
+            zoneIds = Arrays.copyOf(zoneIds, zoneCount * 2);
+            zoneBounds = Arrays.copyOf(zoneBounds, zoneCount * 2);
+            zoneColors = Arrays.copyOf(zoneColors, zoneCount * 2);
+        }
+        int[] start = zone.getStart();
+        int[] end = zone.getEnd();
+        index = zoneCount++;
+        zoneIds[index] = zone.getId();
+        zoneBounds[index] = new int[]{start[0], start[1], end[0], end[1]};
+        zoneColors[index] = color;
+        zoneIndex.put(zone.getId(), index);
+
+        if (start[0] < minX || start[1] < minY || end[0] > maxX || end[1] > maxY) {
+            // The extent grew, so everything moves
+            minX = Math.min(minX, start[0]);
+            minY = Math.min(minY, start[1]);
+            maxX = Math.max(maxX, end[0]);
+            maxY = Math.max(maxY, end[1]);
+            rescale();
+        } else {
+            redrawBackground(zoneRectangle(index, new Rectangle()));
+        }
+    }
+
+    public int getZoneCount() {
+        return zoneCount;
+    }
+
+    /**
+     * Shows the id of the zone under the mouse as a tooltip, looked up in the catalog.
+     */
+    public void setZoneCatalog(ZoneCatalog catalog) {
+        this.catalog = catalog;
+        setToolTipText(catalog == null ? null : "");
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        int id = zoneAt(event.getX(), event.getY());
+        return id == ZoneCatalog.NONE ? null : "Zone " + id;
+    }
+
+    /**
+     * @return The id of the catalog's zone at a point on the canvas, or ZoneCatalog.NONE.
+     */
+    int zoneAt(int x, int y) {
+        if (catalog == null || scale == 0) {
+            return ZoneCatalog.NONE;
+        }
+        return catalog.zoneAt(x / scale + offsetX, y / scale + offsetY);
+    }
+
+    // ========== DRONES ==========
+
+    /**
+     * Moves a drone (adding it if new), turning it to face the way it moved.
+     */
+    public void setDrone(int id, int x, int y) {
+        ensureDrone(id);
+        if (!present[id]) {
+            present[id] = true;
+            numbers[id] = String.valueOf(id);
+            headingX[id] = x;
+            headingY[id] = y;
+        } else {
+            addDirty(id);
+        }
+        droneX[id] = x;
+        droneY[id] = y;
+
+        // Only update the heading if the drone has actually moved
+        int dx = x - headingX[id];
+        int dy = y - headingY[id];
+        if (dx != 0 || dy != 0) {
+            double angle = Math.toDegrees(Math.atan2(dy, dx));
+            if (angle < 0) {
+                angle += 360;
+            }
+            heading[id] = (int) Math.round(angle / ANGLE_STEP) % HEADINGS;
+            headingX[id] = x;
+            headingY[id] = y;
+        }
+        addDirty(id);
+    }
+
+    /**
+     * Draws a drone with one of the cute mode icons (0 to 5), or -1 for the default.
+     */
+    public void setDroneIcon(int id, int cuteIcon) {
+        if (id < present.length && present[id]) {
+            icon[id] = cuteIcon + 1;
+            addDirty(id);
+        }
+    }
+
+    public boolean hasDrone(int id) {
+        return id < present.length && present[id];
+    }
+
+    /**
+     * @return The icon a drone is drawn with, turned to its heading, e.g. for its status tile.
+     */
+    public Icon getDroneIcon(int id) {
+        return hasDrone(id) ? droneIcon(icon[id], heading[id]) : droneIcon(0, 0);
+    }
+
+    /**
+     * Repaints everything changed by setDrone and setDroneIcon since the last call.
+     */
+    public void repaintDirty() {
+        if (!dirty.isEmpty()) {
+            repaint(dirty);
+            dirty.setBounds(0, 0, 0, 0);
+        }
+    }
+
+    private void ensureDrone(int id) {
+        if (id >= present.length) {
+            int length = Math.max(id + 1, present.length * 2);
+            present = Arrays.copyOf(present, length);
+            droneX = Arrays.copyOf(droneX, length);
+            droneY = Arrays.copyOf(droneY, length);
+            headingX = Arrays.copyOf(headingX, length);
+            headingY = Arrays.copyOf(headingY, length);
+            heading = Arrays.copyOf(heading, length);
+            icon = Arrays.copyOf(icon, length);
+            numbers = Arrays.copyOf(numbers, length);
+        }
+    }
+
+    private void addDirty(int id) {
+        if (zoneCount > 0) {
+            droneRectangle(id, scratch);
+            if (dirty.isEmpty()) {
+                dirty.setBounds(scratch);
+            } else {
+                dirty.add(scratch);
+            }
+        }
+    }
+
+    // ========== PAINTING ==========
+
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        boolean resized = width != getWidth() || height != getHeight();
+        super.setBounds(x, y, width, height);
+        if (resized) {
+            rescale();
+        }
+    }
+
+    @Override
+    public void setBackground(Color color) {
+        super.setBackground(color);
+        backgroundValid = false;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        if (!backgroundValid) {
+            drawBackground(new Rectangle(0, 0, getWidth(), getHeight()));
+        }
+        g.drawImage(background, clip.x, clip.y, clip.x + clip.width, clip.y + clip.height,
+                clip.x, clip.y, clip.x + clip.width, clip.y + clip.height, null);
+        if (zoneCount == 0) {
+            return; // Nothing to scale drones against yet
+        }
+
+        g.setFont(NUMBER_FONT);
+        FontMetrics fm = g.getFontMetrics();
+        g.setColor(Color.BLACK);
+        Rectangle bounds = scratch;
+        for (int id = 0; id < present.length; id++) {
+            if (!present[id]) {
+                continue;
+            }
+            droneRectangle(id, bounds);
+            if (!bounds.intersects(clip)) {
+                continue;
+            }
+            g.drawImage(droneIcon(icon[id], heading[id]).getImage(), bounds.x, bounds.y, null);
+            String number = numbers[id];
+            g.drawString(number, bounds.x + (ICON_SIZE - fm.stringWidth(number)) / 2,
+                    bounds.y + (ICON_SIZE + fm.getAscent()) / 2 - 2);
+        }
+    }
+
+    /**
+     * Recomputes the screen transform, and redraws everything on the next paint.
+     */
+    private void rescale() {
+        if (zoneCount > 0) {
+            double width = maxX - minX;
+            double height = maxY - minY;
+            scale = Math.min(getWidth() / (width * 1.1), getHeight() / (height * 1.1));
+            offsetX = minX - width * 0.05;
+            offsetY = minY - height * 0.05;
+        }
+        backgroundValid = false;
+        dirty.setBounds(0, 0, 0, 0);
+        repaint();
+    }
+
+    private int screenX(int x) {
+        return (int) ((x - offsetX) * scale);
+    }
+
+    private int screenY(int y) {
+        return (int) ((y - offsetY) * scale);
+    }
+
+    private Rectangle zoneRectangle(int index, Rectangle r) {
+        int[] b = zoneBounds[index];
+        int x = screenX(b[0]);
+        int y = screenY(b[1]);
+        r.setBounds(x, y, screenX(b[2]) - x, screenY(b[3]) - y);
+        return r;
+    }
+
+    private Rectangle droneRectangle(int id, Rectangle r) {
+        r.setBounds(screenX(droneX[id]) - ICON_SIZE / 2, screenY(droneY[id]) - ICON_SIZE / 2, ICON_SIZE, ICON_SIZE);
+        return r;
+    }
+
+    /**
+     * Redraws part of the background image now (if it is current) and repaints it.
+     */
+    private void redrawBackground(Rectangle area) {
+        if (backgroundValid) {
+            drawBackground(area);
+        }
+        repaint(area);
+    }
+
+    /**
+     * Draws the zones overlapping an area into the background image, clipped to it.
+     * The whole image is redrawn (at the component's size) if it is not current.
+     */
+    private void drawBackground(Rectangle area) {
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        if (!backgroundValid) {
+            if (background == null || background.getWidth() != width || background.getHeight() != height) {
+                background = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+            area = new Rectangle(0, 0, width, height);
+            backgroundValid = true;
+        }
+
+        Graphics2D g = background.createGraphics();
+        g.clip(area);
+        g.setColor(getBackground());
+        g.fillRect(area.x, area.y, area.width, area.height);
+        Rectangle bounds = new Rectangle();
+        for (int i = 0; i < zoneCount; i++) {
+            zoneRectangle(i, bounds);
+            if (bounds.intersects(area) && bounds.width > 0 && bounds.height > 0) {
+                g.translate(bounds.x, bounds.y);
+                ZoneLabel.paintZone(g, zoneIds[i], zoneColors[i], 0.5f, bounds.width, bounds.height);
+                g.translate(-bounds.x, -bounds.y);
+            }
+        }
+        g.dispose();
+    }
+
+    private ImageIcon droneIcon(int base, int step) {
+        int key = base * HEADINGS + step;
+        ImageIcon rotated = rotatedIcons[key];
+        if (rotated == null) {
+            if (baseIcons[base] == null) {
+                ImageIcon original = new ImageIcon(MapCanvas.class.getResource(ICON_PATHS[base]));
+                baseIcons[base] = new ImageIcon(original.getImage()
+                        .getScaledInstance(ICON_SIZE, ICON_SIZE, Image.SCALE_SMOOTH)).getImage();
+            }
+            BufferedImage image = new BufferedImage(ICON_SIZE, ICON_SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2dRotated = image.createGraphics();
+
+            // Set rendering hints for better quality
+            g2dRotated.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2dRotated.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+            // Rotate around center
+            g2dRotated.rotate(Math.toRadians(step * ANGLE_STEP + 90), ICON_SIZE / 2.0, ICON_SIZE / 2.0);
+            g2dRotated.drawImage(baseIcons[base], 0, 0, null);
+            g2dRotated.dispose();
+            rotated = rotatedIcons[key] = new ImageIcon(image);
+        }
+        return rotated;
+    }
+}
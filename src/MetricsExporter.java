@@ -0,0 +1,137 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MetricsExporter class publishes a MetricsRegistry outside the process:
+ * - over HTTP at http://localhost:port/metrics, in the Prometheus text format, and/or
+ * - as a snapshot file rewritten every interval (replaced atomically, so readers
+ * never see half a file).
+ *
+ * Both run on their own daemon threads and only read the registry.
+ */
+public class MetricsExporter implements AutoCloseable {
+    private final MetricsRegistry registry;
+    private final HttpServer server;                // Null if there is no endpoint
+    private final ExecutorService requests;
+    private final Path snapshotFile;                // Null if there is no snapshot file
+    private final ScheduledExecutorService snapshots;
+
+    /**
+     * Constructs a MetricsExporter and starts it.
+     *
+     * @param port           Local port of the HTTP endpoint, 0 for any free port, or -1 for none.
+     * @param snapshotFile   File rewritten with the metrics, or null for none.
+     * @param intervalMillis Time between snapshots.
+     */
+    public MetricsExporter(MetricsRegistry registry, int port, Path snapshotFile, long intervalMillis) throws IOException {
+        this.registry = registry;
+        this.snapshotFile = snapshotFile;
+
+        if (port >= 0) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            requests = Executors.newSingleThreadExecutor(task -> daemon(task, "MetricsExporter-http"));
+            server.setExecutor(requests);
+            server.start();
+        } else {
+            server = null;
+            requests = null;
+        }
+
+        if (snapshotFile != null) {
+            Path parent = snapshotFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            snapshots = Executors.newSingleThreadScheduledExecutor(task -> daemon(task, "MetricsExporter-snapshot"));
+            snapshots.scheduleAtFixedRate(this::writeSnapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            snapshots = null;
+        }
+    }
+
+    /**
+     * Builds an exporter from `-Dmetrics.port` (HTTP endpoint), `-Dmetrics.file`
+     * (snapshot file) and `-Dmetrics.interval` ms between snapshots (10000).
+     *
+     * @return The exporter, or null if neither a port nor a file is set.
+     */
+    public static MetricsExporter fromSystemProperties(MetricsRegistry registry) throws IOException {
+        int port = Integer.getInteger("metrics.port", -1);
+        String file = System.getProperty("metrics.file");
+        if (port < 0 && (file == null || file.isEmpty())) {
+            return null;
+        }
+        return new MetricsExporter(registry, port, file == null || file.isEmpty() ? null : Paths.get(file),
+                Long.getLong("metrics.interval", 10000));
+    }
+
+    /**
+     * @return The port the HTTP endpoint listens on, or -1 if there is none.
+     */
+    public int getPort() {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    /**
+     * Writes the current metrics to the snapshot file.
+     */
+    public void writeSnapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            Files.writeString(temporary, registry.scrape());
+            Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+        }
+    }
+
+    /**
+     * Stops the endpoint and writes a last snapshot.
+     */
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            requests.shutdown();
+        }
+        if (snapshots != null) {
+            snapshots.shutdown();
+            try {
+                snapshots.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writeSnapshot();
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,180 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The MetricsRegistry class holds named counters, gauges and histograms and writes
+ * them in the Prometheus text format.
+ *
+ * - Counters are LongAdders and histograms are LatencyHistograms, so recording is
+ * lock-free; callers keep the returned object and update it directly.
+ * - Gauges are read from a supplier only when the metrics are written.
+ * - A metric may carry labels (name/value pairs), e.g. counter("messages_total",
+ * "...", "type", "LOCATION"). Metrics of the same name are written together.
+ *
+ * Histograms are written as Prometheus summaries (p50, p90, p99, p999, sum, count).
+ * A scale converts recorded units to the exported one, e.g. 1e-6 for microseconds
+ * exported as seconds.
+ */
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private enum Kind {
+        COUNTER("counter"), GAUGE("gauge"), SUMMARY("summary");
+
+        private final String text;
+
+        Kind(String text) {
+            this.text = text;
+        }
+    }
+
+    private static final class Metric {
+        final String name;
+        final String help;
+        final Kind kind;
+        final String labels; // Rendered: k1="v1",k2="v2", or empty
+        final double scale;
+        final LongAdder counter;
+        final DoubleSupplier gauge;
+        final LatencyHistogram histogram;
+
+        Metric(String name, String help, Kind kind, String labels, double scale,
+               LongAdder counter, DoubleSupplier gauge, LatencyHistogram histogram) {
+            this.name = name;
+            this.help = help;
+            this.kind = kind;
+            this.labels = labels;
+            this.scale = scale;
+            this.counter = counter;
+            this.gauge = gauge;
+            this.histogram = histogram;
+        }
+    }
+
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>(); // Registration is rare, writing iterates
+
+    /**
+     * Registers a counter.
+     *
+     * @param labels Label names and values, alternating.
+     */
+    public LongAdder counter(String name, String help, String... labels) {
+        return counter(name, help, 1, labels);
+    }
+
+    /**
+     * Registers a counter exported as its count times `scale`, e.g. nanoseconds
+     * counted and seconds exported with a scale of 1e-9.
+     */
+    public LongAdder counter(String name, String help, double scale, String... labels) {
+        LongAdder counter = new LongAdder();
+        register(new Metric(name, help, Kind.COUNTER, labels(labels), scale, counter, null, null));
+        return counter;
+    }
+
+    /**
+     * Registers a gauge, read each time the metrics are written.
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        register(new Metric(name, help, Kind.GAUGE, labels(labels), 1, null, value, null));
+    }
+
+    /**
+     * Registers a histogram, exported as a summary of its values times `scale`.
+     */
+    public LatencyHistogram histogram(String name, String help, double scale, String... labels) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        register(new Metric(name, help, Kind.SUMMARY, labels(labels), scale, null, null, histogram));
+        return histogram;
+    }
+
+    private void register(Metric metric) {
+        if (!metric.name.matches("[a-zA-Z_:][a-zA-Z0-9_:]*")) {
+            throw new IllegalArgumentException("Invalid metric name: " + metric.name);
+        }
+        metrics.add(metric);
+    }
+
+    private static String labels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"")
+                    .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+        return text.toString();
+    }
+
+    // ========== EXPOSITION ==========
+
+    /**
+     * @return Every metric in the Prometheus text exposition format.
+     */
+    public String scrape() {
+        StringBuilder text = new StringBuilder();
+        List<Metric> all = List.copyOf(metrics);
+        boolean[] written = new boolean[all.size()];
+        for (int i = 0; i < all.size(); i++) {
+            if (written[i]) {
+                continue;
+            }
+            Metric first = all.get(i);
+            text.append("# HELP ").append(first.name).append(' ').append(first.help.replace("\n", " ")).append('\n');
+            text.append("# TYPE ").append(first.name).append(' ').append(first.kind.text).append('\n');
+            for (int j = i; j < all.size(); j++) {
+                Metric metric = all.get(j);
+                if (!written[j] && metric.name.equals(first.name)) {
+                    written[j] = true;
+                    write(text, metric);
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private static void write(StringBuilder text, Metric metric) {
+        switch (metric.kind) {
+            case COUNTER:
+                sample(text, metric.name, metric.labels, null, metric.counter.sum() * metric.scale);
+                break;
+            case GAUGE:
+                sample(text, metric.name, metric.labels, null, metric.gauge.getAsDouble());
+                break;
+            case SUMMARY:
+                LatencyHistogram snapshot = metric.histogram.snapshot();
+                for (double quantile : QUANTILES) {
+                    sample(text, metric.name, metric.labels, "quantile=\"" + quantile + "\"",
+                            snapshot.getValueAtPercentile(quantile * 100) * metric.scale);
+                }
+                sample(text, metric.name + "_sum", metric.labels, null, snapshot.getTotal() * metric.scale);
+                sample(text, metric.name + "_count", metric.labels, null, snapshot.getCount());
+                break;
+        }
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, String extra, double value) {
+        text.append(name);
+        if (!labels.isEmpty() || extra != null) {
+            text.append('{').append(labels);
+            if (extra != null) {
+                text.append(labels.isEmpty() ? "" : ",").append(extra);
+            }
+            text.append('}');
+        }
+        text.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            text.append((long) value);
+        } else {
+            text.append(value);
+        }
+        text.append('\n');
+    }
+}
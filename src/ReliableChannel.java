@@ -0,0 +1,509 @@
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ReliableChannel class adds delivery guarantees on top of a DatagramSocket.
+ *
+ * Every datagram sent in reliable mode is framed as DATA with a per-peer sequence
+ * number and kept until the peer acknowledges it:
+ * - DATA → 0xD7, sequence (int), payload
+ * - ACK  → 0xD8, highest sequence received (int), bitmask of the 64 sequences
+ *   below it that were also received (long), i.e. a selective ack.
+ *
+ * Unacknowledged frames are retransmitted once their retransmit timeout expires.
+ * The timeout adapts to the measured round trip time (smoothed RTT + 4 x RTT
+ * variance, with exponential backoff and Karn's rule for retransmitted frames).
+ * Received sequence numbers are tracked in a sliding window of RECEIVE_WINDOW so
+ * retransmitted duplicates are acknowledged again but delivered only once. A frame
+ * too far behind for the ack bitmask (e.g. retransmitted while many others from a
+ * DroneHost's shared socket got through) is acknowledged on its own.
+ *
+ * Datagrams without a DATA/ACK header are delivered untouched, and reliable
+ * mode can be switched off (see WireFormat.reliable), so peers without the
+ * reliability layer still interoperate. All outbound traffic passes through a
+ * LossInjector so loss and reordering can be simulated.
+ *
+ * The socket may be the adaptor of a DatagramChannel. Once that channel is put in
+ * non-blocking mode (e.g. registered with a Selector), datagrams are sent through
+ * the channel and received datagrams are handed in with accept(ByteBuffer, ...).
+ */
+public class ReliableChannel {
+    public static final byte DATA = (byte) 0xD7;
+    public static final byte ACK = (byte) 0xD8;
+
+    private static final int DATA_HEADER_SIZE = 1 + Integer.BYTES;
+    private static final int ACK_SIZE = 1 + Integer.BYTES + Long.BYTES;
+
+    private static final long INITIAL_RTO_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long MIN_RTO_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_RTO_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final int MAX_TRANSMISSIONS = 12;
+    private static final int RECEIVE_WINDOW = 4096; // Sequences remembered per peer; a power of two
+    private static final long TICK_MILLIS = 5;
+
+    private final DatagramSocket socket;
+    private final boolean reliable;
+    private final LossInjector lossInjector;
+    private final Map<InetSocketAddress, Peer> peers;
+    private ScheduledExecutorService timer;
+
+    // Statistics
+    private final AtomicLong dataSent = new AtomicLong();
+    private final AtomicLong retransmissions = new AtomicLong();
+    private final AtomicLong duplicatesSuppressed = new AtomicLong();
+    private final AtomicLong deliveryFailures = new AtomicLong();
+
+    /**
+     * Holds the sequencing, retransmit and RTT state for one remote address/port.
+     */
+    private static class Peer {
+        final InetAddress address;
+        final int port;
+
+        int nextSequence = 1;
+        final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+
+        long smoothedRttNanos = -1;
+        long rttVarianceNanos;
+        long rtoNanos = INITIAL_RTO_NANOS;
+
+        int highestReceived;
+        final long[] received = new long[RECEIVE_WINDOW / 64]; // Bit (sequence % RECEIVE_WINDOW) set → received
+
+        Peer(InetAddress address, int port) {
+            this.address = address;
+            this.port = port;
+        }
+
+        /**
+         * Records a received sequence number.
+         *
+         * @return true the first time a sequence number is seen, false for duplicates.
+         */
+        boolean markReceived(int sequence) {
+            if (sequence > highestReceived) {
+                // Slots entering the window still hold sequences RECEIVE_WINDOW older
+                for (int s = Math.max(highestReceived + 1, sequence - RECEIVE_WINDOW + 1); s < sequence; s++) {
+                    received[slot(s)] &= ~bit(s);
+                }
+                received[slot(sequence)] |= bit(sequence);
+                highestReceived = sequence;
+                return true;
+            }
+            if (highestReceived - sequence >= RECEIVE_WINDOW || (received[slot(sequence)] & bit(sequence)) != 0) {
+                return false; // Already delivered, or too old to tell: treat as a duplicate
+            }
+            received[slot(sequence)] |= bit(sequence);
+            return true;
+        }
+
+        /**
+         * @return The ack bitmask: bit i set → sequence (highestReceived - 1 - i) was received.
+         */
+        long ackBits() {
+            long bits = 0;
+            for (int i = 0; i < 64 && highestReceived - 1 - i > 0; i++) {
+                int s = highestReceived - 1 - i;
+                if ((received[slot(s)] & bit(s)) != 0) {
+                    bits |= 1L << i;
+                }
+            }
+            return bits;
+        }
+
+        private static int slot(int sequence) {
+            return (sequence & (RECEIVE_WINDOW - 1)) >>> 6;
+        }
+
+        private static long bit(int sequence) {
+            return 1L << (sequence & 63);
+        }
+
+        boolean isAcked(int sequence, int ackBase, long ackBits) {
+            if (sequence == ackBase) {
+                return true;
+            }
+            int back = ackBase - sequence;
+            return back > 0 && back <= 64 && (ackBits & (1L << (back - 1))) != 0;
+        }
+
+        void sampleRtt(long rttNanos) {
+            if (smoothedRttNanos < 0) {
+                smoothedRttNanos = rttNanos;
+                rttVarianceNanos = rttNanos / 2;
+            } else {
+                rttVarianceNanos = (3 * rttVarianceNanos + Math.abs(smoothedRttNanos - rttNanos)) / 4;
+                smoothedRttNanos = (7 * smoothedRttNanos + rttNanos) / 8;
+            }
+            rtoNanos = Math.max(MIN_RTO_NANOS, Math.min(MAX_RTO_NANOS, smoothedRttNanos + 4 * rttVarianceNanos));
+        }
+    }
+
+    /**
+     * A DATA frame waiting for its acknowledgement.
+     */
+    private static class Pending {
+        final byte[] frame;
+        final long firstSentNanos;
+        long lastSentNanos;
+        int transmissions;
+
+        Pending(byte[] frame, long now) {
+            this.frame = frame;
+            this.firstSentNanos = now;
+            this.lastSentNanos = now;
+            this.transmissions = 1;
+        }
+    }
+
+    /**
+     * Constructs a ReliableChannel using the process-wide WireFormat setting and no
+     * artificial loss.
+     *
+     * @param socket The socket to send and receive on.
+     */
+    public ReliableChannel(DatagramSocket socket) {
+        this(socket, WireFormat.reliable, LossInjector.none());
+    }
+
+    /**
+     * Constructs a ReliableChannel.
+     *
+     * @param socket       The socket to send and receive on.
+     * @param reliable     Whether outbound datagrams are sequenced and retransmitted.
+     * @param lossInjector Decides which outbound datagrams are dropped or delayed.
+     */
+    public ReliableChannel(DatagramSocket socket, boolean reliable, LossInjector lossInjector) {
+        this.socket = socket;
+        this.reliable = reliable;
+        this.lossInjector = lossInjector;
+        this.peers = new ConcurrentHashMap<>();
+    }
+
+    public boolean isReliable() {
+        return reliable;
+    }
+
+    public LossInjector getLossInjector() {
+        return lossInjector;
+    }
+
+    public DatagramSocket getSocket() {
+        return socket;
+    }
+
+    // ========== SENDING ==========
+
+    public void send(byte[] data, InetAddress address, int port) throws IOException {
+        send(data, 0, data.length, address, port);
+    }
+
+    /**
+     * Sends a datagram. In reliable mode it is retransmitted until acknowledged.
+     */
+    public void send(byte[] data, int offset, int length, InetAddress address, int port) throws IOException {
+        if (!reliable) {
+            transmit(data, offset, length, address, port);
+            return;
+        }
+        Peer peer = peer(address, port);
+        byte[] frame = new byte[DATA_HEADER_SIZE + length];
+        Pending pending;
+        synchronized (peer) {
+            int sequence = peer.nextSequence++;
+            ByteBuffer.wrap(frame).put(DATA).putInt(sequence).put(data, offset, length);
+            pending = new Pending(frame, System.nanoTime());
+            peer.pending.put(sequence, pending);
+        }
+        ensureTimer();
+        dataSent.incrementAndGet();
+        transmit(frame, 0, frame.length, address, port);
+    }
+
+    /**
+     * Sends a datagram once, without sequencing, e.g. a broadcast that has no single
+     * peer to acknowledge it.
+     */
+    public void sendUnreliable(byte[] data, InetAddress address, int port) throws IOException {
+        transmit(data, 0, data.length, address, port);
+    }
+
+    private void transmit(byte[] data, int offset, int length, InetAddress address, int port) throws IOException {
+        switch (lossInjector.next()) {
+            case DROP:
+                return;
+            case DELAY:
+                byte[] copy = new byte[length];
+                System.arraycopy(data, offset, copy, 0, length);
+                ensureTimer().schedule(() -> rawSend(copy, 0, copy.length, address, port),
+                        lossInjector.getReorderDelayMillis(), TimeUnit.MILLISECONDS);
+                return;
+            default:
+                rawSend(ByteBuffer.wrap(data, offset, length), address, port);
+        }
+    }
+
+    /**
+     * Sends a payload held in a (typically direct) buffer, from its position to its limit.
+     * Without reliability or injected loss it goes straight to the channel with no copy.
+     */
+    public void send(ByteBuffer payload, InetAddress address, int port) throws IOException {
+        DatagramChannel channel = socket.getChannel();
+        if (!reliable && lossInjector.getDropRate() == 0 && lossInjector.getReorderRate() == 0
+                && channel != null && !channel.isBlocking()) {
+            channel.send(payload, new InetSocketAddress(address, port));
+            return;
+        }
+        byte[] data = new byte[payload.remaining()];
+        payload.get(data);
+        send(data, 0, data.length, address, port);
+    }
+
+    private void rawSend(ByteBuffer data, InetAddress address, int port) throws IOException {
+        DatagramChannel channel = socket.getChannel();
+        if (channel != null && !channel.isBlocking()) {
+            channel.send(data, new InetSocketAddress(address, port));
+        } else {
+            socket.send(new DatagramPacket(data.array(), data.arrayOffset() + data.position(), data.remaining(),
+                    address, port));
+        }
+    }
+
+    private void rawSend(byte[] data, int offset, int length, InetAddress address, int port) {
+        try {
+            rawSend(ByteBuffer.wrap(data, offset, length), address, port);
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // ========== RECEIVING ==========
+
+    /**
+     * Blocks until an application datagram arrives. Acknowledgements and duplicate
+     * frames are consumed here; on return the packet's offset and length cover only
+     * the payload, so callers must read from packet.getOffset().
+     *
+     * @param packet The packet to receive into; its whole buffer is reused.
+     */
+    public void receive(DatagramPacket packet) throws IOException {
+        byte[] buffer = packet.getData();
+        while (true) {
+            packet.setData(buffer);
+            socket.receive(packet);
+            if (accept(packet)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Processes a datagram already read from the socket.
+     *
+     * @param packet The received datagram; rewritten to cover only the payload when delivered.
+     * @return true if the packet holds a payload to deliver, false if it was consumed.
+     */
+    public boolean accept(DatagramPacket packet) {
+        byte[] data = packet.getData();
+        ByteBuffer frame = ByteBuffer.wrap(data, packet.getOffset(), packet.getLength());
+        if (!accept(frame, packet.getAddress(), packet.getPort())) {
+            return false;
+        }
+        packet.setData(data, frame.position(), frame.remaining());
+        return true;
+    }
+
+    /**
+     * Processes a datagram already read from a channel.
+     *
+     * @param frame   The received datagram between position and limit; on delivery the
+     *                position is moved past the DATA header to the payload.
+     * @param address The sender's address.
+     * @param port    The sender's port.
+     * @return true if the buffer holds a payload to deliver, false if it was consumed.
+     */
+    public boolean accept(ByteBuffer frame, InetAddress address, int port) {
+        int offset = frame.position();
+        int length = frame.remaining();
+        if (length == 0) {
+            return true;
+        }
+        byte first = frame.get(offset);
+        if (first == DATA && length >= DATA_HEADER_SIZE) {
+            int sequence = frame.getInt(offset + 1);
+            Peer peer = peer(address, port);
+            boolean fresh;
+            int ackBase;
+            long ackBits;
+            synchronized (peer) {
+                fresh = peer.markReceived(sequence);
+                if (peer.highestReceived - sequence > 64) {
+                    ackBase = sequence; // Outside the bitmask: acknowledge this frame alone
+                    ackBits = 0;
+                } else {
+                    ackBase = peer.highestReceived;
+                    ackBits = peer.ackBits();
+                }
+            }
+            sendAck(peer, ackBase, ackBits);
+            if (!fresh) {
+                duplicatesSuppressed.incrementAndGet();
+                return false;
+            }
+            frame.position(offset + DATA_HEADER_SIZE);
+            return true;
+        }
+        if (first == ACK && length >= ACK_SIZE) {
+            handleAck(peer(address, port), frame.getInt(offset + 1), frame.getLong(offset + 1 + Integer.BYTES));
+            return false;
+        }
+        return true; // Unframed datagram from a peer without the reliability layer
+    }
+
+    private void sendAck(Peer peer, int ackBase, long ackBits) {
+        byte[] ack = new byte[ACK_SIZE];
+        ByteBuffer.wrap(ack).put(ACK).putInt(ackBase).putLong(ackBits);
+        try {
+            transmit(ack, 0, ack.length, peer.address, peer.port);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void handleAck(Peer peer, int ackBase, long ackBits) {
+        long now = System.nanoTime();
+        synchronized (peer) {
+            Iterator<Map.Entry<Integer, Pending>> it = peer.pending.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, Pending> entry = it.next();
+                if (peer.isAcked(entry.getKey(), ackBase, ackBits)) {
+                    Pending pending = entry.getValue();
+                    if (pending.transmissions == 1) {
+                        peer.sampleRtt(now - pending.firstSentNanos); // Karn: only unambiguous samples
+                    }
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    // ========== RETRANSMISSION ==========
+
+    private synchronized ScheduledExecutorService ensureTimer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "ReliableChannel-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleWithFixedDelay(this::retransmitExpired, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return timer;
+    }
+
+    private void retransmitExpired() {
+        long now = System.nanoTime();
+        for (Peer peer : peers.values()) {
+            synchronized (peer) {
+                Iterator<Pending> it = peer.pending.values().iterator();
+                while (it.hasNext()) {
+                    Pending pending = it.next();
+                    long timeout = Math.min(MAX_RTO_NANOS, peer.rtoNanos << (pending.transmissions - 1));
+                    if (now - pending.lastSentNanos < timeout) {
+                        continue;
+                    }
+                    if (pending.transmissions >= MAX_TRANSMISSIONS) {
+                        it.remove();
+                        deliveryFailures.incrementAndGet();
+                        continue;
+                    }
+                    pending.transmissions++;
+                    pending.lastSentNanos = now;
+                    retransmissions.incrementAndGet();
+                    try {
+                        transmit(pending.frame, 0, pending.frame.length, peer.address, peer.port);
+                    } catch (IOException e) {
+                        if (!socket.isClosed()) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until every reliable datagram has been acknowledged (or given up on).
+     *
+     * @param timeoutMillis The longest time to wait.
+     * @return true if nothing is left unacknowledged.
+     */
+    public boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            if (unacknowledged() == 0) {
+                return true;
+            }
+            try {
+                Thread.sleep(TICK_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return unacknowledged() == 0;
+    }
+
+    /**
+     * Stops retransmitting and closes the socket.
+     */
+    public synchronized void close() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        socket.close();
+    }
+
+    private Peer peer(InetAddress address, int port) {
+        return peers.computeIfAbsent(new InetSocketAddress(address, port), k -> new Peer(address, port));
+    }
+
+    // ========== STATISTICS ==========
+
+    public int unacknowledged() {
+        int count = 0;
+        for (Peer peer : peers.values()) {
+            count += peer.pending.size();
+        }
+        return count;
+    }
+
+    public long getDataSent() { return dataSent.get(); }
+    public long getRetransmissions() { return retransmissions.get(); }
+    public long getDuplicatesSuppressed() { return duplicatesSuppressed.get(); }
+    public long getDeliveryFailures() { return deliveryFailures.get(); }
+
+    /**
+     * Retrieves the current retransmit timeout towards a peer.
+     *
+     * @return The timeout in nanoseconds, or the initial timeout if the peer is unknown.
+     */
+    public long getRetransmitTimeoutNanos(InetAddress address, int port) {
+        Peer peer = peers.get(new InetSocketAddress(address, port));
+        return peer == null ? INITIAL_RTO_NANOS : peer.rtoNanos;
+    }
+}
@@ -0,0 +1,107 @@
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The ReliableChannelBenchmark class measures ReliableChannel under simulated
+ * packet loss and reordering.
+ *
+ * An echo peer and a client run over loopback, each with its own seeded
+ * LossInjector. The client sends one request at a time and waits for the echo,
+ * so every round trip includes whatever retransmissions the loss required.
+ * For each loss rate the benchmark prints throughput, round trip percentiles
+ * and how many frames were retransmitted or given up on.
+ *
+ * Usage: java ReliableChannelBenchmark [messages per run]
+ */
+public class ReliableChannelBenchmark {
+    private static final double[] LOSS_RATES = {0.0, 0.01, 0.05, 0.20};
+    private static final double REORDER_RATE = 0.05;
+    private static final long REORDER_DELAY_MILLIS = 3;
+    private static final int PAYLOAD_SIZE = 64;
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        System.out.println(String.format("%-6s %10s %10s %10s %10s %8s %8s",
+                "loss", "msg/s", "p50 us", "p99 us", "p99.9 us", "retx", "failed"));
+        for (double lossRate : LOSS_RATES) {
+            run(lossRate, messages);
+        }
+    }
+
+    private static void run(double lossRate, int messages) throws Exception {
+        DatagramSocket serverSocket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        DatagramSocket clientSocket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        ReliableChannel server = new ReliableChannel(serverSocket, true,
+                new LossInjector(lossRate, REORDER_RATE, REORDER_DELAY_MILLIS, 1));
+        ReliableChannel client = new ReliableChannel(clientSocket, true,
+                new LossInjector(lossRate, REORDER_RATE, REORDER_DELAY_MILLIS, 2));
+
+        Thread echo = new Thread(() -> {
+            DatagramPacket packet = new DatagramPacket(new byte[2048], 2048);
+            try {
+                while (true) {
+                    server.receive(packet);
+                    server.send(packet.getData(), packet.getOffset(), packet.getLength(),
+                            packet.getAddress(), packet.getPort());
+                }
+            } catch (Exception e) {
+                // Socket closed at the end of the run
+            }
+        });
+        echo.setDaemon(true);
+        echo.start();
+
+        InetAddress address = InetAddress.getLoopbackAddress();
+        int port = serverSocket.getLocalPort();
+        byte[] request = new byte[PAYLOAD_SIZE];
+        DatagramPacket response = new DatagramPacket(new byte[2048], 2048);
+        long[] roundTrips = new long[messages];
+        int completed = 0;
+
+        clientSocket.setSoTimeout(5000);
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            ByteBuffer.wrap(request).putInt(i);
+            long sent = System.nanoTime();
+            client.send(request, address, port);
+            try {
+                // Late echoes of earlier requests are skipped until this one comes back
+                do {
+                    client.receive(response);
+                } while (ByteBuffer.wrap(response.getData(), response.getOffset(), 4).getInt() != i);
+                roundTrips[completed++] = System.nanoTime() - sent;
+            } catch (java.net.SocketTimeoutException e) {
+                // Counted as failed below
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        client.flush(2000);
+        long retransmissions = client.getRetransmissions() + server.getRetransmissions();
+        long failures = messages - completed;
+        client.close();
+        server.close();
+
+        long[] sorted = Arrays.copyOf(roundTrips, completed);
+        Arrays.sort(sorted);
+        System.out.println(String.format("%-6s %10.0f %10d %10d %10d %8d %8d",
+                String.format("%.0f%%", lossRate * 100),
+                completed / (elapsed / 1e9),
+                percentile(sorted, 0.50) / 1000,
+                percentile(sorted, 0.99) / 1000,
+                percentile(sorted, 0.999) / 1000,
+                retransmissions, failures));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
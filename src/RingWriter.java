@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The RingWriter class is the bounded, lock-free ring buffer and single writer
+ * thread shared by AsyncLogWriter and TelemetryLog. Subclasses own the slot
+ * contents and the file; this class only hands out and publishes slots.
+ *
+ * - One sequence number per slot lets many producers claim slots at once without
+ * locks: slot i holds an entry once sequences[i] == position + 1, and is free
+ * once it equals position.
+ * - A producer claim()s a position, fills the slot at index(position) and
+ * publish()es it. When the ring is full claim() either drops the entry and
+ * counts it or waits for room; once the writer has stopped it always drops.
+ * - The writer thread passes each published slot, in order, to write(index),
+ * ends every batch with endBatch() and parks while the ring is empty.
+ *
+ * Subclasses call start() at the end of their constructor, once their slot
+ * arrays exist.
+ */
+public abstract class RingWriter implements AutoCloseable {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Next position a producer claims
+    private long head;                                // Next position the writer reads; writer thread only
+    private volatile long written;                    // Every entry before this position has been written
+
+    private final String name;
+    private Thread writer;
+    private volatile boolean sleeping;
+    private volatile boolean closed;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Constructs a RingWriter. The writer thread starts with start().
+     *
+     * @param capacity Entries the ring holds; rounded up to a power of two (see size()).
+     * @param name     The writer thread's name.
+     */
+    protected RingWriter(int capacity, String name) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.name = name;
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    protected void start() {
+        this.writer = new Thread(this::writeLoop, name);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * @return The number of slots, the length the subclass' slot arrays are indexed by.
+     */
+    protected int size() {
+        return mask + 1;
+    }
+
+    protected int index(long position) {
+        return (int) position & mask;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    // ========== PRODUCERS ==========
+
+    /**
+     * Claims the next slot.
+     *
+     * @param block true to wait for room when the ring is full, false to drop.
+     * @return The claimed position, or -1 if the entry is dropped because the ring
+     * is full or the writer stopped.
+     */
+    protected long claim(boolean block) {
+        if (closed) {
+            return -1;
+        }
+        long position = tail.get();
+        while (true) {
+            long difference = sequences.get(index(position)) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // Full: the slot still holds the entry from one lap ago
+                LockSupport.unpark(writer);
+                if (!block || closed || !writer.isAlive()) {
+                    dropped.incrementAndGet();
+                    return -1;
+                }
+                LockSupport.parkNanos(this, FULL_PARK_NANOS);
+                position = tail.get();
+            } else {
+                position = tail.get(); // Another producer claimed it first
+            }
+        }
+    }
+
+    /**
+     * Hands a filled slot to the writer.
+     */
+    protected void publish(long position) {
+        sequences.lazySet(index(position), position + 1);
+        if (sleeping) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Waits until every entry claimed before this call has been written (see
+     * endBatch).
+     */
+    public void flush() {
+        if (writer == null) {
+            return;
+        }
+        long target = tail.get();
+        while (written < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            synchronized (this) {
+                if (written < target) {
+                    try {
+                        wait(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes out every queued entry and stops the writer.
+     */
+    @Override
+    public void close() {
+        if (writer == null || closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========== WRITER ==========
+
+    /**
+     * Consumes the entry in a slot; the slot is reused once this returns.
+     */
+    protected abstract void write(int index) throws IOException;
+
+    /**
+     * Called after each batch of write() calls, e.g. to write out a buffer.
+     */
+    protected abstract void endBatch() throws IOException;
+
+    /**
+     * Called before the writer parks on an empty ring.
+     */
+    protected void idle() throws IOException {
+    }
+
+    /**
+     * Called once the ring is empty after close().
+     */
+    protected abstract void finish() throws IOException;
+
+    /**
+     * Called when the writer stops, normally or after an error, to release the file.
+     */
+    protected abstract void release();
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                if (drain() > 0) {
+                    continue;
+                }
+                if (closed && isEmpty()) {
+                    break;
+                }
+                idle();
+                sleeping = true;
+                if (isEmpty() && !closed) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                sleeping = false;
+            }
+            finish();
+        } catch (IOException e) {
+            e.printStackTrace(System.err); // Not System.out, which may be logging through this writer
+        } finally {
+            closed = true; // Nothing drains the ring any more, so producers must not wait for it
+            release();
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes every entry currently in the ring.
+     *
+     * @return The number of entries written.
+     */
+    private int drain() throws IOException {
+        int count = 0;
+        while (true) {
+            int index = index(head);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            write(index);
+            sequences.lazySet(index, head + mask + 1); // Frees the slot for the next lap
+            head++;
+            count++;
+        }
+        if (count > 0) {
+            endBatch();
+            written = head;
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+        return count;
+    }
+
+    private boolean isEmpty() {
+        return sequences.get(index(head)) != head + 1;
+    }
+}
@@ -1,11 +1,13 @@
 import java.io.IOException;
 import java.net.*;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.PriorityBlockingQueue;
 
 /**
  * The Scheduler class is responsible for:
@@ -17,56 +19,123 @@ import java.util.concurrent.PriorityBlockingQueue;
  * queues:
  * - `sharedFireQueue` → Receives fire requests from `FireIncident`.
  * - `responseQueue` → Receives updates from `Drones` after task completion.
+ *
+ * Both ports are opened as DatagramChannels. By default each is served by its own
+ * blocking thread; with `-Dscheduler.io=nio` a single Selector loop serves both
+ * and also makes the dispatch decisions (see runEventLoop).
+ *
+ * By default each queued event gets the nearest free drone, highest priority first.
+ * With `-Dscheduler.dispatch=batch` ready events and drones are collected for a short
+ * window and matched all at once by a BatchDispatcher.
+ *
+ * A Scheduler built with a Transport opens no sockets: a Simulation delivers its
+ * messages in memory and calls the handlers and dispatch() on its own thread.
  */
 public class Scheduler extends Thread {
+    /**
+     * Delivers the Scheduler's outbound messages instead of its sockets.
+     */
+    public interface Transport {
+        void toDrone(int droneId, byte[] message);
+
+        void toFireIncident(byte[] message);
+    }
+
     private DatagramSocket fireIncidentSocket, droneSocket;
+    private ReliableChannel fireIncidentChannel, droneChannel;
     private InetAddress fireIncidentAddress;
     private int fireIncidentPort;
 
-    protected final ConcurrentHashMap<Integer, Event> fullyServicedEvents;
-    protected final ConcurrentHashMap<Integer, Event> allEvents;
+    protected final EventStore eventStore; // Every fire event by id, with a priority queue of those needing drones
+    private volatile ZoneCatalog zones; // Shared read-only with FireIncident and the View; null if none was given
+    private ZoneCatalog.Download zoneDownload; // The catalog FireIncident offered, while it is fetched
+    private static final ZoneCatalog NO_ZONES = new ZoneCatalog(List.of()); // Sent to drones when there is no catalog
 
-    protected final PriorityBlockingQueue<Event> eventQueue;// Queue for fire events
-
-    protected final ConcurrentLinkedQueue<String> logQueue;// Queue for logs (used in GUI)
-    protected final ConcurrentHashMap<Integer, HashMap<String, Object>> allDroneList;// TODO might want to add a passive
-                                                                                     // drone object and change the
-                                                                                     // drone we have now into drone
-                                                                                     // subsystem
-    private final CopyOnWriteArrayList<Integer> freeDroneList; // Contains a list of all free drones
+    private final CopyOnWriteArrayList<Subscription> subscriptions; // Observers of drone, event and log changes
+    protected final DroneRegistry droneRegistry; // Every drone that has come online, indexed by id
+    private final FreeDroneIndex freeDrones; // Free drones by position, for nearest-drone dispatch
+    private final BatchDispatcher batchDispatcher; // Null unless drones are dispatched in batches
+    private final long batchWindowMs; // How long ready events and drones are collected before a batch
     private final CopyOnWriteArrayList<Integer> faultedDroneList; // Contains a list of all faulted drones
-    protected boolean fireIncidentFinish; // Flag to stop the scheduler when all tasks are complete
-    protected boolean droneFinish;
+    protected volatile boolean fireIncidentFinish; // Flag to stop the scheduler when all tasks are complete
+    protected volatile boolean droneFinish;
     private int dronesFinished;
 
     private SchedulerState currentState;
     private SchedulerFSM schedulerFSM;
 
+    // Outbound drone messages are built per thread (receive loop, dispatch loop, shutdown)
+    private final TelemetryLog telemetry = TelemetryLog.get();
+    private final SchedulerMetrics metrics; // Queue depth, dispatch latency, message rates; see getMetrics
+    private final ThreadLocal<DroneMessage> droneOutbound = ThreadLocal.withInitial(DroneMessage::new);
+
+    private static final int BUFFER_SIZE = 2048;
+    private static final int DRONE_RECEIVE_BUFFER = 4 * 1024 * 1024; // Absorbs a whole fleet reporting at once
+    private static final int READ_BATCH = 64; // Datagrams read from one port before serving the other
+
+    private final boolean nonBlocking;
+    private final Transport transport; // Null unless running inside a Simulation
+    private final ByteBufferPool bufferPool;
+    private volatile Selector selector; // Set while the event loop runs
+
     /**
-     * Constructor for the Scheduler class.
+     * Constructor for the Scheduler class. The I/O mode follows `-Dscheduler.io`.
      *
      */
     public Scheduler(int fireIncidentReceivePort, int droneReceivePort) {
+        this(fireIncidentReceivePort, droneReceivePort, "nio".equalsIgnoreCase(System.getProperty("scheduler.io")));
+    }
+
+    /**
+     * Constructor for the Scheduler class.
+     *
+     * @param nonBlocking true to serve both ports from one Selector loop instead of
+     *                    a blocking thread per port.
+     */
+    public Scheduler(int fireIncidentReceivePort, int droneReceivePort, boolean nonBlocking) {
+        this(nonBlocking, null);
+
+        try {
+            // The channels' socket adaptors serve the blocking mode and ReliableChannel
+            fireIncidentSocket = DatagramChannel.open().bind(new InetSocketAddress(fireIncidentReceivePort)).socket();
+            droneSocket = DatagramChannel.open().bind(new InetSocketAddress(droneReceivePort)).socket();
+            droneSocket.setReceiveBufferSize(DRONE_RECEIVE_BUFFER); // The OS may grant less
+            fireIncidentChannel = new ReliableChannel(fireIncidentSocket);
+            droneChannel = new ReliableChannel(droneSocket);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Constructor for a Scheduler without sockets, already Active. Messages come in
+     * through handleFireIncidentMessage and handleDroneMessage, and go out through
+     * the transport.
+     */
+    public Scheduler(Transport transport) {
+        this(false, transport);
+        this.currentState.handleOn(this);
+    }
+
+    private Scheduler(boolean nonBlocking, Transport transport) {
+        this.nonBlocking = nonBlocking;
+        this.transport = transport;
+        this.bufferPool = new ByteBufferPool(BUFFER_SIZE, 4, 64);
         this.fireIncidentFinish = false; // Initially, the scheduler runs continuously
         this.droneFinish = false; // Initially, the scheduler runs continuously
         this.dronesFinished = 0;
 
-        this.eventQueue = new PriorityBlockingQueue<>();
-        this.fullyServicedEvents = new ConcurrentHashMap<>();
-        this.allEvents = new ConcurrentHashMap<>();
+        this.eventStore = new EventStore();
 
-        this.logQueue = new ConcurrentLinkedQueue<>();
+        this.subscriptions = new CopyOnWriteArrayList<>();
 
-        this.allDroneList = new ConcurrentHashMap<>();
-        this.freeDroneList = new CopyOnWriteArrayList<>();
+        this.droneRegistry = new DroneRegistry();
+        this.freeDrones = new FreeDroneIndex();
+        this.batchDispatcher = "batch".equalsIgnoreCase(System.getProperty("scheduler.dispatch"))
+                ? new BatchDispatcher() : null;
+        this.batchWindowMs = Long.getLong("scheduler.batchWindow", BatchDispatcher.DEFAULT_WINDOW_MS);
         this.faultedDroneList = new CopyOnWriteArrayList<>();
-
-        try {
-            fireIncidentSocket = new DatagramSocket(fireIncidentReceivePort);
-            droneSocket = new DatagramSocket(droneReceivePort);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        this.metrics = new SchedulerMetrics(eventStore, freeDrones, faultedDroneList, droneRegistry);
 
         this.schedulerFSM = new SchedulerFSM();
         this.schedulerFSM.initialize();
@@ -74,13 +143,80 @@ public class Scheduler extends Thread {
     }
 
     public void setState(String stateName) {
+        SchedulerState previous = this.currentState;
         this.currentState = SchedulerFSM.getState(stateName);
+        FlightEvents.schedulerTransition(previous, currentState);
     }
 
     public String getStateAsString() {
         return this.currentState.getStateString();
     }
 
+    /**
+     * @return The Scheduler's metrics, published while it runs with `-Dmetrics.port`
+     * or `-Dmetrics.file` (see MetricsExporter).
+     */
+    public SchedulerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Shares a zone catalog with the Scheduler. Incoming events then point at the
+     * catalog's Zone for their zone id, so every event in a zone shares one Zone.
+     * The catalog is registered, so zone references to it can be decoded.
+     */
+    public void setZones(ZoneCatalog zones) {
+        this.zones = zones == null ? null : ZoneCatalog.register(zones);
+    }
+
+    /**
+     * @return The shared zone catalog, or null if none was given.
+     */
+    public ZoneCatalog getZones() {
+        return zones;
+    }
+
+    /**
+     * Subscribes to drone, event and log changes. The drones and events already
+     * known are marked as changed, so the first poll delivers the current state.
+     *
+     * @param logCapacity The log lines kept for the subscriber before the oldest are dropped.
+     */
+    public Subscription subscribe(int logCapacity) {
+        Subscription subscription = new Subscription(this, logCapacity);
+        subscriptions.add(subscription);
+        for (int droneId : droneRegistry.ids()) {
+            subscription.droneChanged(droneId);
+        }
+        for (Event event : eventStore.events()) {
+            subscription.eventChanged(event.getId());
+        }
+        if (isFinished()) {
+            subscription.finish();
+        }
+        return subscription;
+    }
+
+    /**
+     * Subscribes an observer, called on its own daemon thread until the run finishes.
+     */
+    public Subscription subscribe(SchedulerObserver observer) {
+        Subscription subscription = subscribe(Subscription.DEFAULT_LOG_CAPACITY);
+        subscription.start(observer, "Observer-" + subscriptions.size());
+        return subscription;
+    }
+
+    void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * @return true once every event is handled and every drone has finished.
+     */
+    public boolean isFinished() {
+        return fireIncidentFinish && droneFinish;
+    }
+
     /**
      * The main execution loop of the Scheduler.
      * - Continuously checks for new fire requests.
@@ -90,12 +226,23 @@ public class Scheduler extends Thread {
      */
     @Override
     public void run() {
+        MetricsExporter exporter;
+        try {
+            exporter = MetricsExporter.fromSystemProperties(metrics.getRegistry());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
         while (!fireIncidentFinish) {
             System.out.println("[Scheduler], Entering " + getStateAsString() + " state");
-            logQueue.add("[Scheduler], Entering " + getStateAsString() + " state");
+            log("[Scheduler], Entering " + getStateAsString() + " state");
             this.currentState.action(this);
         }
 
+        if (exporter != null) {
+            exporter.close(); // Writes a last snapshot
+        }
+
         //I add a forced flush to each thread because the daemon thread only flushes every 5 seconds by default, which can result in missing logging data if the threads while data is stored in array
         System.out.println("FLUSH_LOGS_TO_FILE");
     }
@@ -104,9 +251,9 @@ public class Scheduler extends Thread {
         try {
             DatagramPacket packet = new DatagramPacket(new byte[2048], 2048);
             this.fireIncidentSocket.setSoTimeout(0);
-            this.fireIncidentSocket.receive(packet);
+            this.fireIncidentChannel.receive(packet);
 
-            String message = new String(packet.getData(), 0, packet.getLength());
+            String message = new String(packet.getData(), packet.getOffset(), packet.getLength());
 
             if (message.equalsIgnoreCase("ACTIVATE")) {
                 this.currentState.handleOn(this);
@@ -117,110 +264,426 @@ public class Scheduler extends Thread {
     }
 
     public void activeAction() {
+        if (nonBlocking) {
+            runEventLoop();
+            return;
+        }
+
         // Start a separate thread to handle drone responses asynchronously
         new Thread(this::processDroneMessages).start();
         new Thread(this::processFireIncidentMessages).start();
 
         while (!fireIncidentFinish) {
             try {
-                // Waits for there to be an available event and drone
-                while (eventQueue.isEmpty() || freeDroneList.isEmpty()) {
-                    synchronized (this) {
-                        wait();
+                // Waits for there to be an available event and drone. Checked under the lock
+                // the handlers notify with, so a wake-up between check and wait is not lost
+                synchronized (this) {
+                    while (!eventStore.hasQueued() || freeDrones.isEmpty()) {
                         if (fireIncidentFinish) {
                             return;
                         }
+                        wait();
                     }
                 }
 
-                // Gets the event with the highest priority
-                Event event = this.eventQueue.take();
-
-                // Sends the first drone in freeDroneList to the event
-                // TODO can be improved by picking the closest drone instead of just the first
-                int chosenDroneId = -1;
-                int minDistance = -1;
-                for (Integer id : this.freeDroneList) {
-                    //Get drone location
-                    //Get drone distance to zone
-                    //If distance is less then min distance
-                    Integer[] location = (Integer[]) allDroneList.get(id).get("location");
-                    int distanceFromZone = (int) Math.sqrt(location[0]*location[0] + location[1]*location[1]);
-
-                    if(distanceFromZone < minDistance || minDistance < 0){
-                        chosenDroneId = id;
-                        minDistance = distanceFromZone;
-                    }
+                if (batchDispatcher != null) {
+                    Thread.sleep(batchWindowMs); // Lets more events and drones become ready
+                    dispatchBatch();
+                } else {
+                    dispatchNext();
                 }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
 
-                if(chosenDroneId >= 0) {
-                    event.setAgentSent(event.getAgentSent() + (double) allDroneList.get(chosenDroneId).get("volume"));
+    /**
+     * Sends the free drone closest to the fire to the highest priority event.
+     *
+     * @return true if a drone was sent, false if there was no event or no free drone.
+     */
+    private boolean dispatchNext() {
+        if (freeDrones.isEmpty()) {
+            return false;
+        }
 
-                    // Checks if event still requires more agent
-                    if (event.getAgentSent() < (event.getAgentRequired() - 0.0001)) {
-                        // Add event back to queue if it still requires more agent
-                        this.eventQueue.put(event);
-                    } else {
-                        this.fullyServicedEvents.put(event.getId(), event);
-                    }
+        // Gets the event with the highest priority
+        Event event = this.eventStore.peekNext();
+        if (event == null) {
+            return false;
+        }
 
-                    this.freeDroneList.remove((Integer) chosenDroneId);
+        FlightEvents.Dispatch flight = new FlightEvents.Dispatch();
+        flight.begin();
+        Zone zone = event.getZone();
+        int chosenDroneId = freeDrones.nearest(zone.getCenterX(), zone.getCenterY());
 
-                    this.allDroneList.get(chosenDroneId).put("state", "En Route");
+        if (chosenDroneId < 0 || !freeDrones.remove(chosenDroneId)) {
+            // The free drone was taken by another thread; the event stays queued
+            return false;
+        }
+
+        // Leaves the queue once enough agent is on the way
+        double volume = droneRegistry.get(chosenDroneId).getVolume();
+        if (this.eventStore.assign(event.getId(), volume) == null) {
+            markFree(chosenDroneId); // The fire was put out since it was peeked
+            return false;
+        }
+        publishEvent(event.getId());
+        telemetry.dispatch(chosenDroneId, event.getId(), volume);
+        metrics.dispatched(event);
 
-                    sendToDrone(event, chosenDroneId);
+        setStatus(chosenDroneId, DroneRegistry.Status.EN_ROUTE);
+
+        sendToDrone(event, chosenDroneId);
+        commitDispatch(flight, chosenDroneId, event, volume, false);
+        return true;
+    }
+
+    /**
+     * Dispatches free drones to queued events with the configured policy.
+     *
+     * @return The number of drones sent.
+     */
+    int dispatch() {
+        if (batchDispatcher != null) {
+            return dispatchBatch();
+        }
+        int sent = 0;
+        while (dispatchNext()) {
+            sent++;
+        }
+        return sent;
+    }
+
+    /**
+     * @return true if drones are dispatched in batches (see getBatchWindowMs).
+     */
+    boolean isBatchDispatch() {
+        return batchDispatcher != null;
+    }
+
+    long getBatchWindowMs() {
+        return batchWindowMs;
+    }
+
+    /**
+     * @return The port FireIncident messages are received on (useful when bound to port 0).
+     */
+    int getFireIncidentPort() {
+        return fireIncidentSocket.getLocalPort();
+    }
+
+    /**
+     * @return The port drone messages are received on (useful when bound to port 0).
+     */
+    int getDronePort() {
+        return droneSocket.getLocalPort();
+    }
+
+    /**
+     * Matches all free drones to the queued events at once (see BatchDispatcher).
+     *
+     * @return The number of drones sent.
+     */
+    private int dispatchBatch() {
+        FlightEvents.BatchPlan plan = new FlightEvents.BatchPlan();
+        plan.begin();
+        int[] ids = freeDrones.ids();
+        List<DroneRegistry.Snapshot> drones = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            drones.add(droneRegistry.get(id).snapshot());
+        }
+        List<Event> queued = eventStore.queuedEvents();
+        List<BatchDispatcher.Assignment> assignments = batchDispatcher.plan(queued, drones);
+
+        int sent = 0;
+        for (BatchDispatcher.Assignment assignment : assignments) {
+            FlightEvents.Dispatch flight = new FlightEvents.Dispatch();
+            flight.begin();
+            int droneId = assignment.getDroneId();
+            if (!freeDrones.remove(droneId)) {
+                continue; // Faulted or taken since the plan was made
+            }
+            double volume = droneRegistry.get(droneId).getVolume();
+            Event event = this.eventStore.assign(assignment.getEventId(), volume);
+            if (event == null) {
+                markFree(droneId); // The fire was put out since the plan was made
+                continue;
+            }
+            publishEvent(event.getId());
+            telemetry.dispatch(droneId, event.getId(), volume);
+            metrics.dispatched(event);
+            setStatus(droneId, DroneRegistry.Status.EN_ROUTE);
+            sendToDrone(event, droneId);
+            commitDispatch(flight, droneId, event, volume, true);
+            sent++;
+        }
+
+        plan.end();
+        if (plan.shouldCommit()) {
+            plan.drones = ids.length;
+            plan.events = queued.size();
+            plan.assignments = assignments.size();
+            plan.sent = sent;
+            plan.commit();
+        }
+        return sent;
+    }
+
+    private static void commitDispatch(FlightEvents.Dispatch flight, int droneId, Event event, double volume,
+                                       boolean batch) {
+        flight.end();
+        if (flight.shouldCommit()) {
+            flight.droneId = droneId;
+            flight.eventId = event.getId();
+            flight.severity = event.getSeverity().name();
+            flight.volume = volume;
+            flight.batch = batch;
+            flight.commit();
+        }
+    }
+
+    /**
+     * Serves both ports from the calling thread until every drone has finished.
+     * - Both channels are switched to non-blocking mode and registered with one Selector.
+     * - Datagrams are read into a pooled direct buffer and handled on this thread,
+     * in batches so a busy port cannot starve the other.
+     * - After each round of reads, events are dispatched to free drones here too,
+     * so no wait()/notifyAll() handoff is needed. In batch mode the Selector's
+     * timeout closes the collection window.
+     * - finishEvents() wakes the Selector, so shutdown never waits on a poll timeout.
+     */
+    private void runEventLoop() {
+        DatagramChannel fireIncidentDatagramChannel = fireIncidentSocket.getChannel();
+        DatagramChannel droneDatagramChannel = droneSocket.getChannel();
+        ByteBuffer buffer = bufferPool.acquire();
+        byte[] data = new byte[BUFFER_SIZE]; // Decoded messages point into this copy
+        DroneMessage message = new DroneMessage();
+
+        try (Selector selector = Selector.open()) {
+            fireIncidentDatagramChannel.configureBlocking(false);
+            droneDatagramChannel.configureBlocking(false);
+            fireIncidentDatagramChannel.register(selector, SelectionKey.OP_READ, fireIncidentChannel);
+            droneDatagramChannel.register(selector, SelectionKey.OP_READ, droneChannel);
+            this.selector = selector;
+
+            long batchDeadline = 0; // When the open batch window closes, 0 if none is open
+            while (!droneFinish && !(fireIncidentFinish && droneRegistry.size() == 0)) {
+                if (batchDeadline > 0) {
+                    selector.select(Math.max(1, batchDeadline - System.currentTimeMillis()));
+                } else {
+                    selector.select();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    DatagramChannel channel = (DatagramChannel) key.channel();
+                    ReliableChannel reliableChannel = (ReliableChannel) key.attachment();
+
+                    for (int i = 0; i < READ_BATCH; i++) {
+                        buffer.clear();
+                        InetSocketAddress source = (InetSocketAddress) channel.receive(buffer);
+                        if (source == null) {
+                            break;
+                        }
+                        long handleStart = System.nanoTime();
+                        try {
+                            buffer.flip();
+                            if (!reliableChannel.accept(buffer, source.getAddress(), source.getPort())) {
+                                continue;
+                            }
+                            int length = buffer.remaining();
+                            buffer.get(data, 0, length);
+
+                            if (reliableChannel == droneChannel) {
+                                if (!message.decode(data, 0, length)) {
+                                    System.out.println("Invalid message: " + new String(data, 0, length));
+                                    continue;
+                                }
+                                handleDroneMessage(message, source.getAddress(), source.getPort());
+                            } else {
+                                handleFireIncidentMessage(data, 0, length, source.getAddress(), source.getPort());
+                            }
+                        } catch (RuntimeException e) {
+                            unhandledDatagram(e);
+                        } finally {
+                            (reliableChannel == droneChannel ? metrics.droneReceiveBusy : metrics.fireIncidentReceiveBusy)
+                                    .add(System.nanoTime() - handleStart);
+                        }
+                    }
+                }
+
+                if (batchDispatcher == null) {
+                    while (dispatchNext()) {
+                    }
+                } else if (eventStore.hasQueued() && !freeDrones.isEmpty()) {
+                    long now = System.currentTimeMillis();
+                    if (batchDeadline == 0) {
+                        batchDeadline = now + batchWindowMs;
+                    } else if (now >= batchDeadline) {
+                        dispatchBatch();
+                        batchDeadline = 0;
+                    }
+                } else {
+                    batchDeadline = 0;
                 }
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
             }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            this.selector = null;
+            bufferPool.release(buffer);
         }
     }
 
     private void processFireIncidentMessages() {
+        DatagramPacket packet = new DatagramPacket(new byte[BUFFER_SIZE], BUFFER_SIZE);
         while (!fireIncidentFinish) {
             try {
-                DatagramPacket packet = new DatagramPacket(new byte[2048], 2048);
-
                 fireIncidentSocket.setSoTimeout(1000);
-                fireIncidentSocket.receive(packet);
-                fireIncidentAddress = packet.getAddress();
-                fireIncidentPort = packet.getPort();
-
-                String message = new String(packet.getData(), 0, packet.getLength());
-                String[] splitMessage = message.split(":");
-                switch (splitMessage[0].toUpperCase()) {
-                    case "NEW_EVENT":
-                        Event event = Event
-                                .deserializeEvent(Arrays.copyOfRange(packet.getData(), 10, packet.getLength()));
-                        System.out.println("[Scheduler], Event Received: " + event.toString());
-                        logQueue.add("[Scheduler], Event Received: " + event);
-                        // INSERT INTO PRIORITY QUEUE
-                        eventQueue.put(event);
-                        this.allEvents.put(event.getId(), event);
-                        synchronized (this) {
-                            notifyAll();
-                        }
-                        System.out.println("[Scheduler], Added event to eventQueue");
-                        logQueue.add("[Scheduler], Added event to eventQueue");
-                        break;
-                    case "FINISH":
-                        System.out.println("[Scheduler], Received: FINISH");
-                        logQueue.add("[Scheduler], Received: FINISH");
-                        this.finishEvents();
-                        break;
-                    case "ACTIVATE":
-                        // Ignore
-                        break;
-                    default:
-                        System.out.println("Invalid message: " + message);
-                }
+                fireIncidentChannel.receive(packet);
+                long handleStart = System.nanoTime();
+                handleFireIncidentMessage(packet.getData(), packet.getOffset(), packet.getLength(),
+                        packet.getAddress(), packet.getPort());
+                metrics.fireIncidentReceiveBusy.add(System.nanoTime() - handleStart);
             } catch (SocketTimeoutException e) {
             } catch (IOException e) {
                 e.printStackTrace();
+            } catch (RuntimeException e) {
+                unhandledDatagram(e);
             }
         }
     }
 
+    /**
+     * Handles one message from the FireIncident subsystem: queues new events,
+     * fetches the zone catalog it offers and starts the shutdown on FINISH.
+     *
+     * @param data    The buffer holding the message.
+     * @param offset  Where the message starts.
+     * @param length  The message length.
+     * @param address The FireIncident subsystem's address (replies go here).
+     * @param port    The FireIncident subsystem's port.
+     */
+    void handleFireIncidentMessage(byte[] data, int offset, int length, InetAddress address, int port)
+            throws IOException {
+        fireIncidentAddress = address;
+        fireIncidentPort = port;
+
+        String message = new String(data, offset, length);
+        String[] splitMessage = message.split(":");
+        switch (splitMessage[0].toUpperCase()) {
+            case "NEW_EVENT":
+                metrics.newEventMessages.increment();
+                Event event = Event.deserializeEvent(data, offset + 10, length - 10);
+                if (event == null) {
+                    System.out.println("Invalid message: NEW_EVENT without a readable event");
+                    break;
+                }
+                ZoneCatalog zones = this.zones;
+                if (zones != null && event.getZone() != null && zones.zone(event.getZone().getId()) != null) {
+                    event.zone = zones.zone(event.getZone().getId());
+                }
+                event.setReceivedAt(System.nanoTime());
+                System.out.println("[Scheduler], Event Received: " + event.toString());
+                log(LogEntry.Level.INFO, LogEntry.NONE, event.getId(), "[Scheduler], Event Received: " + event);
+                // INSERT INTO PRIORITY QUEUE
+                eventStore.add(event);
+                publishEvent(event.getId());
+                synchronized (this) {
+                    notifyAll();
+                }
+                System.out.println("[Scheduler], Added event to eventQueue");
+                log(LogEntry.Level.DEBUG, LogEntry.NONE, event.getId(), "[Scheduler], Added event to eventQueue");
+                break;
+            case "FINISH":
+                metrics.finishMessages.increment();
+                System.out.println("[Scheduler], Received: FINISH");
+                log("[Scheduler], Received: FINISH");
+                this.finishEvents();
+                break;
+            case "ZONES_OFFER": // ZONES_OFFER:version:count
+                zonesOffered(Integer.parseInt(splitMessage[1]));
+                break;
+            case "ZONES": // ZONES: followed by a catalog chunk
+                zonesReceived(data, offset + 6, length - 6);
+                break;
+            case "ACTIVATE":
+                // Ignore
+                break;
+            default:
+                System.out.println("Invalid message: " + message);
+        }
+    }
+
+    /**
+     * Confirms a catalog this process already holds, or starts fetching it from
+     * FireIncident a chunk at a time.
+     */
+    private void zonesOffered(int version) {
+        ZoneCatalog known = ZoneCatalog.registered(version);
+        if (known != null) {
+            zonesLoaded(known);
+        } else {
+            this.zoneDownload = new ZoneCatalog.Download();
+            sendToFireIncident("ZONES_REQUEST:0".getBytes());
+        }
+    }
+
+    private void zonesReceived(byte[] data, int offset, int length) {
+        ZoneCatalog.Download download = this.zoneDownload;
+        if (download == null) {
+            return;
+        }
+        try {
+            EventCodec.decodeZones(data, offset, length, download);
+            if (!download.isComplete()) {
+                sendToFireIncident(("ZONES_REQUEST:" + download.getReceived()).getBytes());
+                return;
+            }
+            this.zoneDownload = null;
+            zonesLoaded(ZoneCatalog.register(download.toCatalog()));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // FireIncident keeps sending whole zones when it gets no confirmation
+            this.zoneDownload = null;
+            System.out.println("[Scheduler], Zone catalog not loaded: " + e.getMessage());
+        }
+    }
+
+    private void zonesLoaded(ZoneCatalog catalog) {
+        if (this.zones == null) {
+            this.zones = catalog;
+        }
+        System.out.println("[Scheduler], Loaded zone catalog " + catalog.getVersion() + " (" + catalog.size() + " zones)");
+        log("[Scheduler], Loaded zone catalog " + catalog.getVersion() + " (" + catalog.size() + " zones)");
+        sendToFireIncident(("ZONES_LOADED:" + catalog.getVersion()).getBytes());
+    }
+
+    /**
+     * Reports a datagram that could not be handled. The receive loops call this
+     * instead of letting one bad message end them.
+     */
+    private void unhandledDatagram(RuntimeException e) {
+        System.out.println("[Scheduler], Dropped a message that could not be handled: " + e);
+        log(LogEntry.Level.WARN, LogEntry.NONE, LogEntry.NONE, "[Scheduler], Dropped a message that could not be handled: " + e);
+        e.printStackTrace();
+    }
+
+    private void sendToFireIncident(byte[] message) {
+        if (this.transport != null) {
+            this.transport.toFireIncident(message);
+            return;
+        }
+        try {
+            this.fireIncidentChannel.send(message, fireIncidentAddress, fireIncidentPort);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Monitors drone responses in a separate thread.
      * - Continuously listens for responses from drones.
@@ -230,304 +693,403 @@ public class Scheduler extends Thread {
      * drone is free.
      */
     private void processDroneMessages() {
+        // One packet buffer and one message are reused for every datagram on this thread
+        DatagramPacket packet = new DatagramPacket(new byte[BUFFER_SIZE], BUFFER_SIZE);
+        DroneMessage message = new DroneMessage();
         while (!droneFinish) { // Runs continuously until the scheduler is stopped
             try {
                 // Waits for a drone to send a response (Blocking call)
-                DatagramPacket packet = new DatagramPacket(new byte[2048], 2048);
                 droneSocket.setSoTimeout(1000);
-                droneSocket.receive(packet);
+                droneChannel.receive(packet);
+                long handleStart = System.nanoTime();
 
-                String message = new String(packet.getData(), 0, packet.getLength());
+                if (!message.decode(packet.getData(), packet.getOffset(), packet.getLength())) {
+                    System.out.println("Invalid message: " + new String(packet.getData(), packet.getOffset(), packet.getLength()));
+                } else {
+                    handleDroneMessage(message, packet.getAddress(), packet.getPort());
+                }
+                metrics.droneReceiveBusy.add(System.nanoTime() - handleStart);
+            } catch (SocketTimeoutException e) {
+            } catch (IOException e) {
+                e.printStackTrace();
+            } catch (RuntimeException e) {
+                unhandledDatagram(e);
+            }
+        }
+    }
+
+    /**
+     * Handles one decoded drone message: updates the drone list and event
+     * accounting, then replies to the drone.
+     *
+     * @param message The decoded message.
+     * @param address The drone's address.
+     * @param port    The drone's port.
+     */
+    void handleDroneMessage(DroneMessage message, InetAddress address, int port) throws IOException {
+        FlightEvents.DroneMessageHandled flight = new FlightEvents.DroneMessageHandled();
+        if (flight.isEnabled()) {
+            // Read before handling; the duration covers the handling and its replies
+            flight.opcode = message.getOpcode().name();
+            flight.droneId = message.getDroneId();
+            flight.eventId = message.getEventId();
+            flight.bytes = message.getLength();
+            flight.binary = message.isBinary();
+        }
+        flight.begin();
+        try {
+            handleDroneOpcode(message, address, port);
+        } finally {
+            flight.commit(); // Only if enabled and over the threshold
+        }
+    }
 
-                String[] splitMessage = message.split(":");
-                if(!splitMessage[0].equals("FAULT_EVENT")) {
-                    System.out.println("[Scheduler], Received: " + message);
+    private void handleDroneOpcode(DroneMessage message, InetAddress address, int port) throws IOException {
+        metrics.droneMessage(message.getOpcode());
+        if (message.getOpcode() != DroneMessage.Opcode.LOCATION) {
+            // Locations are the most frequent message and the GUI skips them, so they only go to telemetry
+            if (message.getOpcode() != DroneMessage.Opcode.FAULT_EVENT) {
+                System.out.println("[Scheduler], Received: " + message);
+            }
+            boolean faultMessage = message.getOpcode() == DroneMessage.Opcode.FAULT_EVENT
+                    || message.getOpcode() == DroneMessage.Opcode.FAULT;
+            log(faultMessage ? LogEntry.Level.WARN : LogEntry.Level.DEBUG, message, "[Scheduler], Received: " + message);
+        }
+
+        int id = message.getDroneId();
+        switch (message.getOpcode()) {
+            case ONLINE: // ONLINE:DRONE_ID
+                DroneRecord knownDrone = this.droneRegistry.get(id);
+                if (knownDrone != null && knownDrone.getPort() == port) {
+                    // Repeated broadcast from a drone whose OK was lost; answer again without re-registering
+                    sendToDrone(DroneMessage.Opcode.OK, id, message);
+                    break;
                 }
-                logQueue.add("[Scheduler], Received: " + message);
-
-                HashMap<String, Object> localHashMap;
-                int id;
-                switch (splitMessage[0]) {
-                    case "ONLINE": // ONLINE:DRONE_ID
-                        HashMap<String, Object> droneHashMap = new HashMap<>();
-                        droneHashMap.put("port", packet.getPort());
-                        droneHashMap.put("address", packet.getAddress());
-                        droneHashMap.put("volume", 15.0);
-                        droneHashMap.put("location", new Integer[] { 0, 0 });
-                        droneHashMap.put("state", "Online");
-                        this.allDroneList.put(Integer.parseInt(splitMessage[1]), droneHashMap);
-                        this.freeDroneList.add(Integer.parseInt(splitMessage[1]));
-
-                        sendToDrone("OK", Integer.parseInt(splitMessage[1]));
-
-                        // Notify the scheduler (run method) that a drone is available for a new
-                        // assignment
-                        synchronized (this) {
-                            notifyAll();
-                        }
-                        break;
-                    case "LOCATION":
-                        id = Integer.parseInt(splitMessage[1]);
-                        localHashMap = this.allDroneList.get(id);
-                        Integer[] currentLocation = {Integer.parseInt(splitMessage[2]), Integer.parseInt(splitMessage[3])};
-                        localHashMap.put("location", currentLocation);
-                        this.allDroneList.put(id, localHashMap);
-                        break;
-
-                    case "En Route": {
-                        // Tells drone how much agent to drop
-                        // TODO calculate amount of agent to drop
-                        //update current state for gui
-                        id = Integer.parseInt(splitMessage[1]);
-                        localHashMap = this.allDroneList.get(id);
-                        localHashMap.put("state", "Dropping Agent");
-                        this.allDroneList.put(id, localHashMap);
-
-                        int eventId = Integer.parseInt(splitMessage[2]);
-                        Event event = null;
-
-                        // Finds the relevant event
-                        if (this.fullyServicedEvents.containsKey(eventId)) {
-                            event = this.fullyServicedEvents.get(eventId);
-                        } else {
-                            for (Event e : this.eventQueue) {
-                                if (e.getId() == eventId) {
-                                    event = e;
-                                    break;
-                                }
-                            }
-                        }
+                if (!this.droneRegistry.isValidId(id)) {
+                    System.out.println("[Scheduler], Rejected drone " + id + ": ids must be in 0.." + (this.droneRegistry.getMaxDrones() - 1));
+                    break;
+                }
+                DroneRecord record = this.droneRegistry.register(id, address, port, message.isBinary(), 15.0);
+                record.setAwaitingZones(message.getCatalog() == 1);
+                publishDrone(id);
+                telemetry.state(TelemetryLog.Source.SCHEDULER, id, DroneRegistry.Status.ONLINE);
+
+                // OK goes out before the drone is free, so a dispatch cannot overtake it
+                sendToDrone(DroneMessage.Opcode.OK, id, message);
+                if (this.fireIncidentFinish) {
+                    // Came online after finishDrones() (e.g. the last of a DroneHost's fleet)
+                    sendToDrone(DroneMessage.Opcode.FINISH, id, null);
+                }
+                if (record.isAwaitingZones()) {
+                    break; // Free once it has loaded the zone catalog (ZONES_LOADED)
+                }
+                markFree(id);
 
-                        double agentDropAmount = Double.parseDouble(splitMessage[3]);
-                        if ((event.getAgentRequired()-event.getAgentDropping()) < (agentDropAmount+0.0001)) {
-                            agentDropAmount = (event.getAgentRequired()-event.getAgentDropping()) ;
-                        }
+                // Notify the scheduler (run method) that a drone is available for a new
+                // assignment
+                synchronized (this) {
+                    notifyAll();
+                }
+                break;
+            case LOCATION:
+                this.droneRegistry.setLocation(id, message.getX(), message.getY());
+                publishDrone(id);
+                telemetry.location(TelemetryLog.Source.SCHEDULER, id, message.getX(), message.getY());
+                this.freeDrones.move(id, message.getX(), message.getY());
+                break;
+
+            case EN_ROUTE: {
+                // Tells drone how much agent to drop
+                // TODO calculate amount of agent to drop
+                DroneRecord drone = this.droneRegistry.get(id);
+                if (drone == null) {
+                    break; // Never came online, so nothing could release a reservation for it
+                }
+                //update current state for gui
+                setStatus(id, DroneRegistry.Status.DROPPING_AGENT);
 
-                        event.setAgentDropping(event.getAgentDropping() + agentDropAmount);
+                double agentDropAmount = this.eventStore.reserveDrop(message.getEventId(), message.getVolume());
+                drone.setReserved(agentDropAmount); // Released again if the drone faults
 
-                        sendToDrone(String.format("DROP:%.2f", agentDropAmount), Integer.parseInt(splitMessage[1]));
-                        break;
-                    }
-                    case "Dropping Agent": {// Dropping Agent:droneId:eventId:agentDropAmount:carryVolume
-
-                        //update current state for gui
-                        id = Integer.parseInt(splitMessage[1]);
-                        localHashMap = this.allDroneList.get(id);
-                        localHashMap.put("state", "Returning To Base");
-                        this.allDroneList.put(id, localHashMap);
-
-
-                        // Update allDroneList with proper drone carryVolume
-                        this.allDroneList.get(Integer.parseInt(splitMessage[1])).put("volume",
-                                Double.parseDouble(splitMessage[4]));
-
-                         //Add drone back to freeDroneList if it still has some agent in tank
-                         if(Double.parseDouble(splitMessage[4]) > 0.0001){
-                            this.freeDroneList.add(Integer.parseInt(splitMessage[1]));
-                         }
-
-                        int eventId = Integer.parseInt(splitMessage[2]);
-                        if (this.fullyServicedEvents.containsKey(eventId)) {
-                            Event event = this.fullyServicedEvents.get(eventId);
-                            double agentRequired = event.getAgentRequired() - Double.parseDouble(splitMessage[3]);
-                            if (agentRequired < 0.0001) {
-                                event.setAgentRequired(0.0);
-                                event.setAgentSent(0.0);
-                                event.setAgentDropping(0.0);
-                                event.setSeverity(Event.Severity.OUT);
-                                this.fullyServicedEvents.remove(eventId);
-                                byte[] msg = ("SUCCESS:" + splitMessage[1] + ":" + splitMessage[2]).getBytes();
-                                this.fireIncidentSocket.send(
-                                        new DatagramPacket(msg, msg.length, fireIncidentAddress, fireIncidentPort));
-                            } else {
-                                event.setAgentRequired(agentRequired);
-                                event.setAgentSent(event.getAgentSent() - Double.parseDouble(splitMessage[3]));
-                                event.setAgentDropping(event.getAgentDropping() - Double.parseDouble(splitMessage[3]));
-                            }
-                        } else {
-                            for (Event event : this.eventQueue) {
-                                if (event.getId() == eventId) {
-                                    double agentRequired = event.getAgentRequired() - Double.parseDouble(splitMessage[3]);
-                                    if (agentRequired < 0.0001) {
-                                        event.setAgentRequired(0.0);
-                                        event.setAgentSent(0.0);
-                                        event.setAgentDropping(0.0);
-                                        event.setSeverity(Event.Severity.OUT);
-                                        this.fullyServicedEvents.remove(eventId);
-                                        byte[] msg = ("SUCCESS:" + splitMessage[1] + ":" + splitMessage[2]).getBytes();
-                                        this.fireIncidentSocket.send(
-                                                new DatagramPacket(msg, msg.length, fireIncidentAddress, fireIncidentPort));
-                                    } else {
-                                        event.setAgentRequired(agentRequired);
-                                        event.setAgentSent(event.getAgentSent() - Double.parseDouble(splitMessage[3]));
-                                        event.setAgentDropping(event.getAgentDropping() - Double.parseDouble(splitMessage[3]));
-                                    }
-                                    break;
-                                }
-                            }
-                        }
+                DroneMessage reply = outboundMessage(DroneMessage.Opcode.DROP, id, message).amount(agentDropAmount);
+                sendToDrone(reply);
+                break;
+            }
+            case DROPPING_AGENT: {// Dropping Agent:droneId:eventId:agentDropAmount:carryVolume
+
+                //update current state for gui
+                setStatus(id, DroneRegistry.Status.RETURNING_TO_BASE);
+
+
+                // Update droneRegistry with proper drone carryVolume
+                this.droneRegistry.setVolume(id, message.getVolume());
+                this.droneRegistry.get(id).takeReserved();
+                publishDrone(id);
+
+                int eventId = message.getEventId();
+                double agentDropped = message.getAmount();
+                // The store marks the event OUT and dequeues it once nothing more is required
+                boolean extinguished = this.eventStore.recordDrop(eventId, agentDropped);
+                publishEvent(eventId);
+                if (extinguished) {
+                    telemetry.extinguished(id, eventId);
+                    metrics.extinguished(this.eventStore.get(eventId));
+                    sendToFireIncident(("SUCCESS:" + id + ":" + eventId).getBytes());
+                }
+
+                sendToDrone(DroneMessage.Opcode.OK, id, message);
 
-                        sendToDrone("OK", Integer.parseInt(splitMessage[1]));
+                 //Add drone back to freeDrones if it still has some agent in tank, once it has its OK
+                 if(message.getVolume() > 0.0001){
+                    markFree(id);
+                 }
 
-                        // TODO check previous
-                        // Notify the scheduler (run method) that a drone is available for a new
-                        // assignment
-                         synchronized (this){
-                            notifyAll();
-                         }
-                        break;
+                // TODO check previous
+                // Notify the scheduler (run method) that a drone is available for a new
+                // assignment
+                 synchronized (this){
+                    notifyAll();
+                 }
+                break;
+            }
+            case RETURNING_TO_BASE:
+                //updating state for gui
+                setStatus(id, DroneRegistry.Status.FILLING_TANK);
+                sendToDrone(DroneMessage.Opcode.OK, id, message);
+                break;
+            case FILLING_TANK:
+                //updating state for gui
+                setStatus(id, DroneRegistry.Status.IDLE);
+
+                this.droneRegistry.setVolume(id, 15.0);
+                publishDrone(id);
+                sendToDrone(DroneMessage.Opcode.OK, id, message);
+
+                // If drone is not in freeDrones or faultedDroneList then add it to
+                // freeDrones
+                if (!freeDrones.contains(id) && !this.faultedDroneList.contains(id)) {
+                    markFree(id);
+                }
+
+                // Notify the scheduler (run method) that a drone is available for a new
+                // assignment
+                synchronized (this) {
+                    notifyAll();
+                }
+                break;
+            case FAULT_EVENT:
+                //updating  state for gui
+                setStatus(id, DroneRegistry.Status.FAULT);
+
+                FaultEvent fault = message.getFaultEvent();
+                if (fault != null) {
+                    int droneId = fault.getDroneID();
+                    DroneRecord faulted = this.droneRegistry.get(droneId);
+                    if (faulted == null) {
+                        break; // Only drones that came online hold agent or reservations
+                    }
+                    FaultEvent.Type faultType = fault.getFaultType();
+                    // Text framing carries the event id only inside the fault
+                    int eventId = fault.getEvent() != null ? fault.getEvent().getId() : LogEntry.NONE;
+
+                    System.out.println("[Scheduler], Fault Received: " + fault.toString());
+                    log(LogEntry.Level.WARN, droneId, eventId, "[Scheduler], Fault Received: " + fault);
+                    telemetry.fault(TelemetryLog.Source.SCHEDULER, droneId, faultType, eventId);
+                    switch (faultType) {
+                        case NOZZLE_JAM:
+                            handleNozzleJam(fault);
+                            break;
+                        case STUCK_IN_FLIGHT:
+                            handleStuckDrone(fault);
+                            break;
                     }
-                    case "Returning To Base":
-                        //updating state for gui
-                        id = Integer.parseInt(splitMessage[1]);
-                        localHashMap = this.allDroneList.get(id);
-                        localHashMap.put("state", "Filling Tank");
-                        this.allDroneList.put(id, localHashMap);
-                        sendToDrone("OK", Integer.parseInt(splitMessage[1]));
-                        break;
-                    case "Filling Tank":
-                        //updating state for gui
-                        id = Integer.parseInt(splitMessage[1]);
-                        localHashMap = this.allDroneList.get(id);
-                        localHashMap.put("state", "Idle");
-                        this.allDroneList.put(id, localHashMap);
-
-                        this.allDroneList.get(Integer.parseInt(splitMessage[1])).put("volume", 15.0);
-                        // If drone is not in freeDroneList or faultedDroneList then add it to
-                        // freeDroneList
-                        if (!freeDroneList.contains(Integer.parseInt(splitMessage[1]))
-                                && !this.faultedDroneList.contains(Integer.parseInt(splitMessage[1]))) {
-                            this.freeDroneList.add(Integer.parseInt(splitMessage[1]));
+
+                    //Find the event using the eventId
+                    // Give back the drone's agent and the amount reserved for it at En Route
+                    // (none if it faulted on the way); the store requeues the event once
+                    double reserved = faulted.takeReserved();
+                    if (fault.getEvent() != null) {
+                        Event event = this.eventStore.release(eventId, message.getVolume(), reserved);
+                        publishEvent(eventId);
+                        if (event != null) {
+                            System.out.println("Event requeued: " + event.toString());
                         }
+                    }
 
-                        sendToDrone("OK", Integer.parseInt(splitMessage[1]));
+                    sendToDrone(DroneMessage.Opcode.OK, droneId, message);
+                }
+                break;
+            case ZONES_REQUEST: // ZONES_REQUEST:DRONE_ID:FIRST_ZONE
+                if (!this.droneRegistry.contains(id)) {
+                    break; // Only drones that came online are sent the catalog
+                }
+                ZoneCatalog catalog = this.zones != null ? this.zones : NO_ZONES;
+                sendToDrone(outboundMessage(DroneMessage.Opcode.ZONES, id, message)
+                        .payload(EventCodec.toBytes(catalog, message.getCatalog())));
+                break;
+            case ZONES_LOADED: // ZONES_LOADED:DRONE_ID:VERSION
+                DroneRecord loading = this.droneRegistry.get(id);
+                if (loading == null) {
+                    break;
+                }
+                ZoneCatalog current = this.zones;
+                if (current != null && current.getVersion() == message.getCatalog()) {
+                    // Its events name their zone by id from now on
+                    loading.setZones(current);
+                }
+                sendToDrone(DroneMessage.Opcode.OK, id, message);
+                if (!loading.isAwaitingZones()) {
+                    break; // A repeat whose OK was lost; the drone is already free or busy
+                }
+                loading.setAwaitingZones(false);
+                markFree(id);
+                synchronized (this) {
+                    notifyAll();
+                }
+                break;
+            case FAULT:
+                //updating state for gui
+                setStatus(id, DroneRegistry.Status.IDLE);
+
+                sendToDrone(DroneMessage.Opcode.OK, id, message);
+                break;
+            case FINISHED:
+                this.dronesFinished++;
+                setStatus(id, DroneRegistry.Status.FINISHED);
+                if (this.dronesFinished >= this.droneRegistry.size()){
+                    this.droneFinish = true;
+                    publishFinished();
+                }
+                break;
+            default:
+                System.out.println("Invalid message: " + message);
+        }
+    }
 
-                        // Notify the scheduler (run method) that a drone is available for a new
-                        // assignment
-                        synchronized (this) {
-                            notifyAll();
-                        }
-                        break;
-                    case "FAULT_EVENT":
-                        //updating  state for gui
-                        id = Integer.parseInt(splitMessage[1]);
-                        localHashMap = this.allDroneList.get(id);
-                        localHashMap.put("state", "FAULT");
-                        this.allDroneList.put(id, localHashMap);
-
-
-                        byte[] receivedData = Arrays.copyOfRange(packet.getData(), 15+splitMessage[2].length(), packet.getLength());
-                        FaultEvent fault = FaultEvent.deserializeFaultEvent(receivedData);
-                        if (fault != null) {
-                            int droneId = fault.getDroneID();
-                            FaultEvent.Type faultType = fault.getFaultType();
-
-                            System.out.println("[Scheduler], Fault Received: " + fault.toString());
-                            switch (faultType) {
-                                case NOZZLE_JAM:
-                                    handleNozzleJam(fault);
-                                    break;
-                                case STUCK_IN_FLIGHT:
-                                    handleStuckDrone(fault);
-                                    break;
-                            }
+    /**
+     * Updates a drone's status for subscribers and records the transition.
+     */
+    private void setStatus(int droneId, DroneRegistry.Status status) {
+        this.droneRegistry.setStatus(droneId, status);
+        publishDrone(droneId);
+        telemetry.state(TelemetryLog.Source.SCHEDULER, droneId, status);
+    }
 
-                            //Find the event using the eventId
-                            int eventId = fault.getEvent().getId();
-                            Event event = null;
-                            if (this.fullyServicedEvents.containsKey(eventId)) {
-                                event = this.fullyServicedEvents.get(eventId);
-                                this.fullyServicedEvents.remove(event.getId());
-                            } else {
-                                for (Event e : this.eventQueue) {
-                                    if (e.getId() == eventId) {
-                                        event = e;
-                                        break;
-                                    }
-                                }
-                            }
+    /**
+     * Publishes a line to the subscribers' log, at INFO level and about no drone or event.
+     */
+    private void log(String line) {
+        log(LogEntry.Level.INFO, LogEntry.NONE, LogEntry.NONE, line);
+    }
 
-                            //Calculate the new agentSent for the event
-                            double agentReceived = Double.parseDouble(splitMessage[2]);
-                            double agentSent = event.getAgentSent() - agentReceived;
-                            event.setAgentSent(agentSent);
+    /**
+     * Publishes a line about a drone message to the subscribers' log.
+     */
+    private void log(LogEntry.Level level, DroneMessage message, String line) {
+        log(level, message.getDroneId(), message.hasEventId() ? message.getEventId() : LogEntry.NONE, line);
+    }
 
-                            double agentDropAmount = agentReceived;
-                            if ((event.getAgentRequired()-event.getAgentDropping()) < (agentDropAmount+0.0001)) {
-                                agentDropAmount = (event.getAgentRequired()-event.getAgentDropping()) ;
-                            }
+    /**
+     * Publishes a line to the subscribers' log.
+     *
+     * @param droneId The drone the line is about, or LogEntry.NONE.
+     * @param eventId The event the line is about, or LogEntry.NONE.
+     */
+    private void log(LogEntry.Level level, int droneId, int eventId, String line) {
+        if (subscriptions.isEmpty()) {
+            return; // Headless: nobody to show it to
+        }
+        LogEntry entry = new LogEntry(level, droneId, eventId, line);
+        for (Subscription subscription : subscriptions) {
+            subscription.logged(entry);
+        }
+    }
 
-                            event.setAgentDropping(event.getAgentDropping() - agentDropAmount);
+    private void publishDrone(int droneId) {
+        for (Subscription subscription : subscriptions) {
+            subscription.droneChanged(droneId);
+        }
+    }
 
-                            eventQueue.put(event);
-                            System.out.println("Event requeued: " + event.toString());
+    private void publishEvent(int eventId) {
+        for (Subscription subscription : subscriptions) {
+            subscription.eventChanged(eventId);
+        }
+    }
 
-                            sendToDrone("OK", droneId);
-                            continue;
-                        }
-                        break;
-                    case "Fault":
-                        //updating state for gui
-                        id = Integer.parseInt(splitMessage[1]);
-                        localHashMap = this.allDroneList.get(id);
-                        localHashMap.put("state", "Idle");
-                        this.allDroneList.put(id, localHashMap);
-
-                        sendToDrone("OK", Integer.parseInt(splitMessage[1]));
-                        break;
-                    case "FINISHED":
-                        this.dronesFinished++;
-                        id = Integer.parseInt(splitMessage[1]);
-                        localHashMap = this.allDroneList.get(id);
-                        localHashMap.put("state", "Finished");
-                        if (this.dronesFinished >= this.allDroneList.size()){
-                            this.droneFinish = true;
-                        }
-                        break;
-                    default:
-                        System.out.println("Invalid message: " + message);
-                }
-            } catch (SocketTimeoutException e) {
-            } catch (IOException e) {
-                e.printStackTrace();
+    private void publishFinished() {
+        if (isFinished()) {
+            for (Subscription subscription : subscriptions) {
+                subscription.finish();
             }
         }
     }
 
+    /**
+     * Prepares this thread's outbound message for a drone, framed the same way
+     * the drone frames its own messages and echoing the request's sequence number.
+     */
+    private DroneMessage outboundMessage(DroneMessage.Opcode opcode, int droneId, DroneMessage request) {
+        DroneMessage message = this.droneOutbound.get().reset(opcode, droneId);
+        DroneRecord drone = this.droneRegistry.get(droneId);
+        message.binary(drone != null && drone.isBinary());
+        if (request != null) {
+            message.eventId(request.getEventId()).sequence(request.getSequence());
+        }
+        return message;
+    }
+
     private void sendToDrone(Event event, int droneId) {
-        byte[] message = event.createMessage("NEW_EVENT:");
+        DroneMessage message = outboundMessage(DroneMessage.Opcode.NEW_EVENT, droneId, null)
+                .eventId(event.getId())
+                .payload(event.serializeEvent(this.droneRegistry.get(droneId).getZones()));
         System.out.println("[Scheduler], Sent Drone " + droneId + ": " + event);
-        logQueue.add("[Scheduler], Sent Drone " + droneId + ": " + event);
-        DatagramPacket packet = new DatagramPacket(message, message.length,
-                (InetAddress) this.allDroneList.get(droneId).get("address"),
-                (int) this.allDroneList.get(droneId).get("port"));
-        try {
-            droneSocket.send(packet);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        log(LogEntry.Level.INFO, droneId, event.getId(), "[Scheduler], Sent Drone " + droneId + ": " + event);
+        send(message, droneId);
+    }
+
+    private void sendToDrone(DroneMessage.Opcode opcode, int droneId, DroneMessage request) {
+        sendToDrone(outboundMessage(opcode, droneId, request));
     }
 
-    private void sendToDrone(String s, int droneId) {
-        System.out.println("[Scheduler], Sent Drone " + droneId + ": " + s);
-        logQueue.add("[Scheduler], Sent Drone " + droneId + ": " + s);
-        byte[] data = s.getBytes();
-        DatagramPacket packet = new DatagramPacket(data, data.length,
-                (InetAddress) this.allDroneList.get(droneId).get("address"),
-                (int) this.allDroneList.get(droneId).get("port"));
+    private void sendToDrone(DroneMessage message) {
+        System.out.println("[Scheduler], Sent Drone " + message.getDroneId() + ": " + message);
+        log(LogEntry.Level.DEBUG, message, "[Scheduler], Sent Drone " + message.getDroneId() + ": " + message);
+        send(message, message.getDroneId());
+    }
+
+    private void send(DroneMessage message, int droneId) {
+        if (this.transport != null) {
+            this.transport.toDrone(droneId, message.toBytes());
+            return;
+        }
+        DroneRecord drone = this.droneRegistry.get(droneId);
+        InetAddress address = drone.getAddress();
+        int port = drone.getPort();
         try {
-            droneSocket.send(packet);
+            if (this.selector == null) {
+                droneChannel.send(message.toBytes(), address, port);
+                return;
+            }
+            // Event loop: encode straight into a pooled direct buffer
+            ByteBuffer buffer = bufferPool.acquire();
+            try {
+                message.write(buffer);
+                buffer.flip();
+                droneChannel.send(buffer, address, port);
+            } finally {
+                bufferPool.release(buffer);
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     private void finishDrones() throws IOException {
-        for (Integer id : allDroneList.keySet()) {
-            HashMap<String, Object> drone = allDroneList.get(id);
-            sendToDrone("FINISH", id);
+        for (int id : droneRegistry.ids()) {
+            sendToDrone(DroneMessage.Opcode.FINISH, id, null);
             System.out.println("[Scheduler], Sent to Drone " + id + ": FINISH");
-            logQueue.add("[Scheduler], Sent to Drone " + id + ": FINISH");
+            log(LogEntry.Level.DEBUG, id, LogEntry.NONE, "[Scheduler], Sent to Drone " + id + ": FINISH");
         }
     }
 
@@ -540,9 +1102,22 @@ public class Scheduler extends Thread {
     public synchronized void finishEvents() throws IOException {
         this.fireIncidentFinish = true; // Stop execution of scheduler and monitoring threads
         notifyAll(); // Notify waiting threads to prevent indefinite blocking
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
         finishDrones();
         System.out.println("[Scheduler], Shutting down...");
-        logQueue.add("[Scheduler], Shutting down...");
+        log("[Scheduler], Shutting down...");
+        publishFinished();
+    }
+
+    /**
+     * Makes a drone available for dispatch at its last reported position.
+     */
+    private void markFree(int droneId) {
+        DroneRegistry.Snapshot drone = this.droneRegistry.get(droneId).snapshot();
+        this.freeDrones.add(droneId, drone.getX(), drone.getY());
     }
 
     private void handleNozzleJam(FaultEvent fault) {
@@ -552,7 +1127,7 @@ public class Scheduler extends Thread {
         // sendToDrone("RETURN_TO_BASE", droneId);
 
         faultedDroneList.add(droneId);
-        freeDroneList.remove((Integer) droneId);
+        freeDrones.remove(droneId);
         System.out.println("[Scheduler], Drone " + droneId + " added to faulted list and removed from free list!");
     }
 
@@ -561,11 +1136,12 @@ public class Scheduler extends Thread {
         Event event = fault.getEvent();
         // sendToDrone("RETURN_TO_BASE", droneId);
 
-        faultedDroneList.add(droneId);
-        freeDroneList.add(droneId);
+        // A stuck drone recovers at base: it rejoins freeDrones when it reports Filling Tank,
+        // and must not be sent anywhere while it is still flying back
+        freeDrones.remove(droneId);
 
         System.out.println("[Scheduler], Drone " + droneId + " stuck in flight!");
-        System.out.println("[Scheduler], Drone " + droneId + " added to faulted list and removed from free list!");
+        System.out.println("[Scheduler], Drone " + droneId + " removed from free list until it is back at base!");
     }
 
     public static void main(String[] args) {
@@ -1,15 +1,6 @@
 import java.util.HashMap;
 import java.util.Map;
 
-interface SchedulerState{
-
-    public default void handleOn(Scheduler scheduler) {}
-
-    public void action(Scheduler scheduler);
-
-    public String getStateString();
-}
-
 class SchedulerIdle implements SchedulerState{
 
     @Override
@@ -0,0 +1,93 @@
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The SchedulerMetrics class registers the Scheduler's metrics and holds the
+ * counters and histograms its threads record into:
+ * - queued events by severity, and free, faulted and registered drones (gauges)
+ * - time from NEW_EVENT to the first drone dispatched, and from that dispatch to
+ * the fire being put out (histograms)
+ * - messages received by type, drones dispatched, and time the receive loops spend
+ * handling datagrams (counters; per-second rates are their rate over time)
+ *
+ * See MetricsExporter for how the registry is published.
+ */
+public class SchedulerMetrics {
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    private final LongAdder[] droneMessages = new LongAdder[DroneMessage.Opcode.values().length];
+    final LongAdder newEventMessages;
+    final LongAdder finishMessages;
+    final LongAdder dispatches;
+    final LongAdder droneReceiveBusy;        // ns
+    final LongAdder fireIncidentReceiveBusy; // ns
+    final LatencyHistogram dispatchLatency;   // us
+    final LatencyHistogram extinguishLatency; // us
+
+    /**
+     * Constructs the metrics of one Scheduler, reading gauges from its state.
+     */
+    SchedulerMetrics(EventStore eventStore, FreeDroneIndex freeDrones, Collection<Integer> faultedDrones,
+                     DroneRegistry droneRegistry) {
+        for (Event.Severity severity : Event.Severity.values()) {
+            if (severity != Event.Severity.OUT) {
+                registry.gauge("scheduler_queued_events", "Events waiting for drones, by severity.",
+                        () -> eventStore.queuedCount(severity), "severity", severity.name());
+            }
+        }
+        registry.gauge("scheduler_free_drones", "Drones free to be dispatched.", freeDrones::size);
+        registry.gauge("scheduler_faulted_drones", "Drones out of service after a fault.", faultedDrones::size);
+        registry.gauge("scheduler_registered_drones", "Drones that have come online.", droneRegistry::size);
+
+        dispatchLatency = registry.histogram("scheduler_dispatch_latency_seconds",
+                "Time from receiving an event to dispatching its first drone.", 1e-6);
+        extinguishLatency = registry.histogram("scheduler_extinguish_latency_seconds",
+                "Time from an event's first dispatch to the fire being put out.", 1e-6);
+        dispatches = registry.counter("scheduler_dispatches_total", "Drones dispatched to events.");
+
+        for (DroneMessage.Opcode opcode : DroneMessage.Opcode.values()) {
+            droneMessages[opcode.ordinal()] = registry.counter("scheduler_messages_total",
+                    "Messages received, by type.", "source", "drone", "type", opcode.name());
+        }
+        newEventMessages = registry.counter("scheduler_messages_total", "Messages received, by type.",
+                "source", "fire_incident", "type", "NEW_EVENT");
+        finishMessages = registry.counter("scheduler_messages_total", "Messages received, by type.",
+                "source", "fire_incident", "type", "FINISH");
+
+        droneReceiveBusy = registry.counter("scheduler_receive_busy_seconds_total",
+                "Time spent handling received datagrams, by port.", 1e-9, "port", "drone");
+        fireIncidentReceiveBusy = registry.counter("scheduler_receive_busy_seconds_total",
+                "Time spent handling received datagrams, by port.", 1e-9, "port", "fire_incident");
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    void droneMessage(DroneMessage.Opcode opcode) {
+        droneMessages[opcode.ordinal()].increment();
+    }
+
+    /**
+     * Records a drone sent to an event, timing the event's first dispatch.
+     */
+    void dispatched(Event event) {
+        dispatches.increment();
+        if (event.getDispatchedAt() == 0) {
+            long now = System.nanoTime();
+            event.setDispatchedAt(now);
+            if (event.getReceivedAt() != 0) {
+                dispatchLatency.record((now - event.getReceivedAt()) / 1000);
+            }
+        }
+    }
+
+    /**
+     * Records an event's fire put out.
+     */
+    void extinguished(Event event) {
+        if (event != null && event.getDispatchedAt() != 0) {
+            extinguishLatency.record((System.nanoTime() - event.getDispatchedAt()) / 1000);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * The SchedulerObserver interface receives the Scheduler's state changes through a
+ * Subscription: immutable snapshots of the drones and events that changed, the
+ * log, and the end of the run.
+ *
+ * Changes are coalesced, so an observer sees the latest state of each drone and
+ * event rather than every step in between. Methods are called on the thread that
+ * polls the Subscription, never on a Scheduler thread, so they may take their time
+ * without slowing dispatch.
+ */
+public interface SchedulerObserver {
+    default void droneChanged(DroneRegistry.Snapshot drone) {
+    }
+
+    default void eventChanged(EventStore.Snapshot event) {
+    }
+
+    default void logged(LogEntry entry) {
+    }
+
+    /**
+     * Called once, after the last changes, when every event is handled and every
+     * drone has finished.
+     */
+    default void finished() {
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * A state of the scheduler state machine; SchedulerFSM holds the states by name.
+ */
+interface SchedulerState{
+
+    public default void handleOn(Scheduler scheduler) {}
+
+    public void action(Scheduler scheduler);
+
+    public String getStateString();
+}
@@ -0,0 +1,346 @@
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * The SimDrone class is a drone that lives inside a Simulation instead of its own
+ * thread and socket.
+ *
+ * It runs the same DroneFSM states and exchanges the same DroneMessages with the
+ * Scheduler as Drone, with the same flight, drop and refill figures, but nothing
+ * blocks:
+ * - Flying, dropping agent and refilling schedule a wake-up on the virtual clock.
+ * - Sending a message and waiting for the reply registers what to do with the reply;
+ * replies arriving early wait in a mailbox, like datagrams in a socket buffer.
+ * - While flying, a NEW_EVENT redirects a drone returning to base and FINISH is
+ * noted, as Drone.moveTo does between steps.
+ *
+ * Fault injection is not simulated.
+ */
+public class SimDrone implements DroneContext {
+    private static final double TRAVEL_SPEED = 12.0; // Units per second, as Drone's travelSpeed
+    private static final double FLOW_RATE = 1.25;    // Units dropped per second, as Drone's flowRate
+    private static final double MAX_CAPACITY = 15.0;
+    private static final double REFILL_SECONDS = 20.0;
+
+    private final int id;
+    private final Simulation simulation;
+    private DroneState currentState;
+
+    private Event assignedFire;
+    private double carryingVolume = MAX_CAPACITY;
+    private double agentDropAmount;
+    private boolean finish;
+    private boolean finished; // FINISHED sent, nothing more to do
+
+    // Messages are reused for every exchange, as in Drone
+    private final DroneMessage inbound = new DroneMessage();
+    private final DroneMessage outbound = new DroneMessage();
+    private int sequence;
+    private final ArrayDeque<byte[]> mailbox = new ArrayDeque<>();
+    private Consumer<DroneMessage> replyHandler; // Set while waiting for the Scheduler
+
+    // Current flight; positions in between are interpolated from these
+    private double x, y;
+    private double fromX, fromY, toX, toY, departure, arrival;
+    private boolean flying;
+    private long flight; // Bumped to cancel the pending arrival when a flight is cut short
+
+    public SimDrone(int id, Simulation simulation) {
+        this.id = id;
+        this.simulation = simulation;
+        this.currentState = DroneFSM.getState("StartUp");
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public String getStateAsString() {
+        return currentState.getStateString();
+    }
+
+    @Override
+    public void setState(String stateName) {
+        this.currentState = DroneFSM.getState(stateName);
+    }
+
+    /**
+     * Runs the current state's action, or reports FINISHED once told to finish while
+     * idle; the same loop condition as Drone.run.
+     */
+    void step() {
+        if (finish && currentState == DroneFSM.getState("Idle")) {
+            send(newMessage(DroneMessage.Opcode.FINISHED));
+            finished = true;
+            return;
+        }
+        currentState.action(this);
+    }
+
+    // ========== STATE HANDLING FUNCTIONS ==========
+
+    @Override
+    public void sendWakeupMessage() {
+        send(newMessage(DroneMessage.Opcode.ONLINE));
+        awaitReply(reply -> {
+            currentState.goNextState(this);
+            step();
+        });
+    }
+
+    @Override
+    public void sleepMode() {
+        awaitReply(message -> {
+            switch (responseOpcode(message)) {
+                case NEW_EVENT:
+                    assignedFire = message.getEvent();
+                    currentState.goNextState(this);
+                    break;
+                case FINISH:
+                    finish = true;
+                    break;
+                default:
+                    break;
+            }
+            step();
+        });
+    }
+
+    @Override
+    public void travelToFire() {
+        flyTo(assignedFire.getZone().getCenterX(), assignedFire.getZone().getCenterY(), () -> {
+            send(stateMessage().eventId(assignedFire.getId()).volume(carryingVolume));
+            awaitReply(response -> {
+                switch (responseOpcode(response)) {
+                    case FINISH:
+                        finish = true;
+                        break;
+                    case FAULT_COMMAND:
+                        currentState.handleFault(this);
+                        break;
+                    case DROP:
+                        agentDropAmount = response.getAmount();
+                        currentState.goNextState(this);
+                        break;
+                    default:
+                        break;
+                }
+                step();
+            });
+        });
+    }
+
+    @Override
+    public void extinguishFire() {
+        simulation.schedule(agentDropAmount / FLOW_RATE, () -> {
+            carryingVolume -= agentDropAmount;
+            send(stateMessage().eventId(assignedFire.getId()).amount(agentDropAmount).volume(carryingVolume));
+            agentDropAmount = 0.0;
+            awaitReply(response -> {
+                switch (responseOpcode(response)) {
+                    case FINISH:
+                        finish = true;
+                        break;
+                    case FAULT_COMMAND:
+                        currentState.handleFault(this);
+                        break;
+                    case OK:
+                        currentState.goNextState(this);
+                        assignedFire = null;
+                        break;
+                    default:
+                        break;
+                }
+                step();
+            });
+        });
+    }
+
+    @Override
+    public void returnToBase() {
+        flyTo(0.0, 0.0, () -> {
+            if (assignedFire != null) {
+                step(); // Redirected on the way
+                return;
+            }
+            reportState();
+        });
+    }
+
+    @Override
+    public void refillTank() {
+        carryingVolume = MAX_CAPACITY;
+        simulation.schedule(REFILL_SECONDS, this::reportState);
+    }
+
+    @Override
+    public void handleFault() {
+        send(stateMessage().eventId(assignedFire.getId()).volume(carryingVolume));
+        awaitReply(response -> {
+            switch (responseOpcode(response)) {
+                case FINISH:
+                    finish = true;
+                    break;
+                case OK:
+                    currentState.goNextState(this);
+                    break;
+                default:
+                    break;
+            }
+            assignedFire = null;
+            step();
+        });
+    }
+
+    /**
+     * Reports the current state and moves on when the Scheduler answers OK.
+     */
+    private void reportState() {
+        send(stateMessage());
+        awaitReply(response -> {
+            switch (responseOpcode(response)) {
+                case FINISH:
+                    finish = true;
+                    break;
+                case FAULT_COMMAND:
+                    currentState.handleFault(this);
+                    break;
+                case OK:
+                    currentState.goNextState(this);
+                    break;
+                default:
+                    break;
+            }
+            step();
+        });
+    }
+
+    // ========== FLIGHT ==========
+
+    /**
+     * Flies straight to a target at travel speed, reports the arrival location and
+     * then runs `arrived`.
+     */
+    private void flyTo(double targetX, double targetY, Runnable arrived) {
+        double distance = Math.hypot(targetX - x, targetY - y);
+        fromX = x;
+        fromY = y;
+        toX = targetX;
+        toY = targetY;
+        departure = simulation.now();
+        arrival = departure + distance / TRAVEL_SPEED;
+        flying = true;
+        long thisFlight = ++flight;
+
+        // Drone reports a location every second on the way; every locationStep seconds here
+        double step = simulation.getLocationStep();
+        if (step > 0) {
+            for (double t = step; t < distance / TRAVEL_SPEED; t += step) {
+                simulation.schedule(t, () -> {
+                    if (flight == thisFlight) {
+                        sendLocation(simulation.now());
+                    }
+                });
+            }
+        }
+
+        simulation.schedule(arrival - departure, () -> {
+            if (flight != thisFlight) {
+                return;
+            }
+            flying = false;
+            x = toX;
+            y = toY;
+            sendLocation(arrival);
+            arrived.run();
+        });
+    }
+
+    private void sendLocation(double time) {
+        double progress = arrival > departure ? Math.min(1.0, (time - departure) / (arrival - departure)) : 1.0;
+        send(newMessage(DroneMessage.Opcode.LOCATION).location(
+                (int) (fromX + (toX - fromX) * progress), (int) (fromY + (toY - fromY) * progress)));
+    }
+
+    /**
+     * Stops the current flight where the drone is now.
+     */
+    private void land() {
+        double progress = arrival > departure ? (simulation.now() - departure) / (arrival - departure) : 1.0;
+        x = fromX + (toX - fromX) * progress;
+        y = fromY + (toY - fromY) * progress;
+        flying = false;
+        flight++;
+    }
+
+    // ========== MESSAGES ==========
+
+    /**
+     * Takes a message from the Scheduler.
+     */
+    void deliver(byte[] data) {
+        if (replyHandler != null) {
+            Consumer<DroneMessage> handler = replyHandler;
+            replyHandler = null;
+            handler.accept(decode(data));
+            return;
+        }
+        if (flying) {
+            // Checked between flight steps, like Drone.moveTo; anything else is dropped
+            DroneMessage message = decode(data);
+            if (message.getOpcode() == DroneMessage.Opcode.NEW_EVENT
+                    && currentState == DroneFSM.getState("ReturningToBase")) {
+                land();
+                currentState.handleNewEvent(this);
+                assignedFire = message.getEvent();
+                step();
+            } else if (message.getOpcode() == DroneMessage.Opcode.FINISH) {
+                finish = true;
+            }
+            return;
+        }
+        mailbox.add(data);
+    }
+
+    private void awaitReply(Consumer<DroneMessage> handler) {
+        byte[] waiting = mailbox.poll();
+        if (waiting != null) {
+            // Already here; handled as a new calendar entry so long exchanges do not nest
+            simulation.schedule(0, () -> handler.accept(decode(waiting)));
+            return;
+        }
+        replyHandler = handler;
+    }
+
+    private DroneMessage decode(byte[] data) {
+        if (!inbound.decode(data, 0, data.length)) {
+            inbound.reset(null, id);
+        }
+        return inbound;
+    }
+
+    private DroneMessage newMessage(DroneMessage.Opcode opcode) {
+        return outbound.reset(opcode, id).sequence(++sequence).binary(WireFormat.binaryFraming);
+    }
+
+    private DroneMessage stateMessage() {
+        return newMessage(DroneMessage.Opcode.fromText(getStateAsString()));
+    }
+
+    private void send(DroneMessage message) {
+        simulation.toScheduler(message.toBytes());
+    }
+
+    private static DroneMessage.Opcode responseOpcode(DroneMessage response) {
+        return response.getOpcode() == null ? DroneMessage.Opcode.ONLINE : response.getOpcode();
+    }
+
+    @Override
+    public String toString() {
+        return "SimDrone " + id + " (State: " + getStateAsString() + ")";
+    }
+}
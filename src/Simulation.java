@@ -0,0 +1,326 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The Simulation class runs a Scheduler, a fleet of SimDrones and the incidents of
+ * an event file on one thread, against a virtual clock.
+ *
+ * - The calendar is a priority queue of actions by virtual time; entries with the
+ * same time run in the order they were scheduled, so a run is deterministic.
+ * - Messages keep their wire encoding (DroneMessage, Event.createMessage) but are
+ * delivered in memory, `LATENCY` seconds after they are sent.
+ * - Incidents arrive at their file timestamps, offset from the first one, and the
+ * run ends once every fire is out and every drone has finished.
+ *
+ * Nothing sleeps, so a day of incidents for thousands of drones runs in seconds.
+ * Dispatch follows `-Dscheduler.dispatch` as in the real Scheduler, with the batch
+ * window in virtual time.
+ *
+ * Usage: java Simulation [drones] [event file] [zone file] [-v]
+ */
+public class Simulation implements Scheduler.Transport {
+    public static final double LATENCY = 0.001; // Seconds from send to delivery
+
+    /**
+     * A calendar entry.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        final double time;
+        final long order;
+        final Runnable action;
+
+        Entry(double time, long order, Runnable action) {
+            this.time = time;
+            this.order = order;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return time != other.time ? Double.compare(time, other.time) : Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * The outcome of a run.
+     */
+    public static final class Result {
+        private final int fires;
+        private final int extinguished;
+        private final int dronesFinished;
+        private final double[] timesToExtinguish; // Sorted, in virtual seconds
+        private final double virtualSeconds;
+        private final long steps;
+        private final long wallMillis;
+
+        Result(int fires, double[] timesToExtinguish, int dronesFinished, double virtualSeconds, long steps,
+               long wallMillis) {
+            this.fires = fires;
+            this.extinguished = timesToExtinguish.length;
+            this.dronesFinished = dronesFinished;
+            this.timesToExtinguish = timesToExtinguish;
+            this.virtualSeconds = virtualSeconds;
+            this.steps = steps;
+            this.wallMillis = wallMillis;
+        }
+
+        public int getFires() { return fires; }
+        public int getExtinguished() { return extinguished; }
+        public int getDronesFinished() { return dronesFinished; }
+        public double getVirtualSeconds() { return virtualSeconds; }
+        public long getSteps() { return steps; }
+        public long getWallMillis() { return wallMillis; }
+
+        public double getMeanTimeToExtinguish() {
+            return Arrays.stream(timesToExtinguish).average().orElse(0);
+        }
+
+        /**
+         * @param quantile Between 0 and 1, e.g. 0.99.
+         */
+        public double getTimeToExtinguish(double quantile) {
+            if (timesToExtinguish.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * timesToExtinguish.length) - 1;
+            return timesToExtinguish[Math.max(0, Math.min(timesToExtinguish.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d/%d fires out, %d drones finished in %.0f virtual s (%d steps, %d ms): "
+                            + "time to extinguish mean %.1f s, p50 %.1f s, p99 %.1f s",
+                    extinguished, fires, dronesFinished, virtualSeconds, steps, wallMillis,
+                    getMeanTimeToExtinguish(), getTimeToExtinguish(0.50), getTimeToExtinguish(0.99));
+        }
+    }
+
+    private final PriorityQueue<Entry> calendar = new PriorityQueue<>();
+    private double now;
+    private long scheduled;
+    private long steps;
+
+    private final Scheduler scheduler;
+    private final SimDrone[] drones;
+    private final DroneMessage schedulerInbound = new DroneMessage();
+    private final InetAddress address = InetAddress.getLoopbackAddress();
+    private final double locationStep;
+    private boolean batchPending;
+
+    private final HashMap<Integer, Double> reportedAt = new HashMap<>();
+    private final List<Double> timesToExtinguish = new ArrayList<>();
+    private int fires;
+    private boolean finishSent;
+
+    /**
+     * Constructs a Simulation.
+     *
+     * @param drones       The number of drones, all starting at base.
+     * @param locationStep How often (virtual seconds) flying drones report their
+     *                     position; 0 reports arrivals only.
+     */
+    public Simulation(int drones, double locationStep) {
+        new DroneFSM().initialize(null);
+        this.scheduler = new Scheduler(this);
+        this.locationStep = locationStep;
+        this.drones = new SimDrone[drones];
+        for (int id = 0; id < drones; id++) {
+            this.drones[id] = new SimDrone(id, this);
+            schedule(0, this.drones[id]::step);
+        }
+    }
+
+    public Simulation(int drones) {
+        this(drones, 0);
+    }
+
+    // ========== CLOCK ==========
+
+    public double now() {
+        return now;
+    }
+
+    double getLocationStep() {
+        return locationStep;
+    }
+
+    /**
+     * Runs an action `delay` virtual seconds from now.
+     */
+    public void schedule(double delay, Runnable action) {
+        calendar.add(new Entry(now + delay, scheduled++, action));
+    }
+
+    /**
+     * Runs the calendar until it is empty.
+     */
+    public Result run() {
+        long start = System.currentTimeMillis();
+        while (!calendar.isEmpty()) {
+            Entry entry = calendar.poll();
+            now = entry.time;
+            entry.action.run();
+            steps++;
+        }
+        double[] times = timesToExtinguish.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+        int finished = 0;
+        for (SimDrone drone : drones) {
+            if (drone.isFinished()) {
+                finished++;
+            }
+        }
+        return new Result(fires, times, finished, now, steps, System.currentTimeMillis() - start);
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public SimDrone getDrone(int id) {
+        return drones[id];
+    }
+
+    // ========== INCIDENTS ==========
+
+    /**
+     * Reports a fire to the Scheduler `at` virtual seconds into the run.
+     */
+    public void addEvent(double at, Event event) {
+        fires++;
+        calendar.add(new Entry(at, scheduled++, () -> {
+            reportedAt.put(event.getId(), now);
+            byte[] message = event.createMessage("NEW_EVENT:");
+            toScheduler(() -> scheduler.handleFireIncidentMessage(message, 0, message.length, address, 0));
+        }));
+    }
+
+    /**
+     * Reads the zone and event files in FireIncident's format; events arrive at
+     * their timestamps, measured from the first event.
+     *
+     * @return The number of events added.
+     */
+    public int loadEvents(String eventFilePath, String zoneFilePath) throws IOException {
+        ZoneCatalog zones = ZoneCatalog.read(Paths.get(zoneFilePath));
+        IncidentFileParser.Events events = IncidentFileParser.parseEvents(Paths.get(eventFilePath));
+
+        int added = 0;
+        int first = -1;
+        for (int i = 0; i < events.size(); i++) {
+            Zone zone = zones.zone(events.zone(i));
+            if (zone == null) {
+                continue;
+            }
+            int second = events.secondOfDay(i);
+            if (first < 0) {
+                first = second;
+            }
+            double at = (second - first + 86400) % 86400; // Wraps past midnight
+            addEvent(at, new Event(LocalTime.ofSecondOfDay(second), zone, events.type(i), events.severity(i)));
+            added++;
+        }
+        return added;
+    }
+
+    // ========== TRANSPORT ==========
+
+    /**
+     * Delivers a drone's message to the Scheduler.
+     */
+    void toScheduler(byte[] message) {
+        toScheduler(() -> {
+            if (!schedulerInbound.decode(message, 0, message.length)) {
+                return;
+            }
+            // Drones are told apart by port, as over UDP; here the port is the drone id
+            scheduler.handleDroneMessage(schedulerInbound, address, schedulerInbound.getDroneId());
+        });
+    }
+
+    private interface SchedulerCall {
+        void run() throws IOException;
+    }
+
+    /**
+     * Runs a Scheduler handler after the latency, then lets the Scheduler dispatch.
+     */
+    private void toScheduler(SchedulerCall call) {
+        schedule(LATENCY, () -> {
+            try {
+                call.run();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            dispatch();
+        });
+    }
+
+    private void dispatch() {
+        if (!scheduler.isBatchDispatch()) {
+            scheduler.dispatch();
+        } else if (!batchPending) {
+            batchPending = true;
+            schedule(scheduler.getBatchWindowMs() / 1000.0, () -> {
+                batchPending = false;
+                scheduler.dispatch();
+            });
+        }
+    }
+
+    @Override
+    public void toDrone(int droneId, byte[] message) {
+        SimDrone drone = drones[droneId];
+        schedule(LATENCY, () -> drone.deliver(message));
+    }
+
+    @Override
+    public void toFireIncident(byte[] message) {
+        schedule(LATENCY, () -> {
+            String[] split = new String(message).split(":");
+            if (!split[0].equals("SUCCESS")) {
+                return;
+            }
+            Double reported = reportedAt.get(Integer.parseInt(split[2]));
+            if (reported != null) {
+                timesToExtinguish.add(now - reported);
+            }
+            // As FireIncident: FINISH once every fire has been answered
+            if (timesToExtinguish.size() >= fires && !finishSent) {
+                finishSent = true;
+                byte[] finish = "FINISH".getBytes();
+                toScheduler(() -> scheduler.handleFireIncidentMessage(finish, 0, finish.length, address, 0));
+            }
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        int drones = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String eventFile = args.length > 1 ? args[1] : "src/Event_File.csv";
+        String zoneFile = args.length > 2 ? args[2] : "src/Zone_File.csv";
+        boolean verbose = Arrays.asList(args).contains("-v");
+
+        Simulation simulation = new Simulation(drones);
+        int events = simulation.loadEvents(eventFile, zoneFile);
+        System.out.println("Simulating " + events + " events with " + drones + " drones");
+
+        PrintStream out = System.out;
+        if (!verbose) {
+            System.setOut(new PrintStream(PrintStream.nullOutputStream())); // Scheduler logging
+        }
+        Result result;
+        try {
+            result = simulation.run();
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println(result);
+    }
+}
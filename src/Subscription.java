@@ -0,0 +1,139 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Subscription class is one observer's view of a Scheduler's state changes (see
+ * Scheduler.subscribe). Its memory is bounded whether or not anyone reads it:
+ *
+ * - Changed drones and events are marked by id in a ChangeFeed, so however many
+ * changes pile up, at most one entry per drone and event waits. Snapshots are
+ * taken when the subscription is polled, on the reader's thread.
+ * - Log lines wait in a queue of fixed capacity. When it is full the oldest line
+ * is dropped and counted (see getDroppedLogs).
+ *
+ * Publishing is therefore a set insert or a queue offer plus, at most, an unpark:
+ * a slow or stalled reader never blocks the Scheduler. A Subscription has one
+ * reader, either the caller of await() and poll() or the thread from start().
+ */
+public class Subscription {
+    public static final int DEFAULT_LOG_CAPACITY = 1024;
+
+    private final Scheduler scheduler;
+    private final ChangeFeed changes = new ChangeFeed();
+    private final ArrayBlockingQueue<LogEntry> logs;
+    private final LongAdder droppedLogs = new LongAdder();
+    private volatile boolean finished;
+    private volatile boolean closed;
+    private boolean finishDelivered;
+
+    Subscription(Scheduler scheduler, int logCapacity) {
+        this.scheduler = scheduler;
+        this.logs = new ArrayBlockingQueue<>(Math.max(1, logCapacity));
+    }
+
+    // ========== PUBLISHING (Scheduler threads) ==========
+
+    void droneChanged(int droneId) {
+        changes.droneChanged(droneId);
+    }
+
+    void eventChanged(int eventId) {
+        changes.eventChanged(eventId);
+    }
+
+    void logged(LogEntry entry) {
+        while (!logs.offer(entry)) {
+            if (logs.poll() != null) {
+                droppedLogs.increment();
+            }
+        }
+        changes.signal();
+    }
+
+    void finish() {
+        finished = true;
+        changes.signal();
+    }
+
+    // ========== READING ==========
+
+    /**
+     * Blocks until something has changed since the last poll.
+     *
+     * @return true if something changed, false if the timeout passed first.
+     */
+    public boolean await(long timeout, TimeUnit unit) {
+        return changes.await(timeout, unit);
+    }
+
+    /**
+     * Passes everything that changed since the last poll to the observer: the new log
+     * lines, then the events and drones that changed, then the end of the run once.
+     */
+    public void poll(SchedulerObserver observer) {
+        boolean done = finished; // Read first, so the changes before the end are delivered with it
+        LogEntry entry;
+        while ((entry = logs.poll()) != null) {
+            observer.logged(entry);
+        }
+        changes.drainEvents(eventId -> {
+            EventStore.Snapshot event = scheduler.eventStore.snapshot(eventId);
+            if (event != null) {
+                observer.eventChanged(event);
+            }
+        });
+        changes.drainDrones(droneId -> {
+            DroneRecord drone = scheduler.droneRegistry.get(droneId);
+            if (drone != null) {
+                observer.droneChanged(drone.snapshot());
+            }
+        });
+        if (done && !finishDelivered) {
+            finishDelivered = true;
+            observer.finished();
+        }
+    }
+
+    /**
+     * Delivers changes to the observer on a new daemon thread until the run has
+     * finished or the subscription is closed.
+     *
+     * @return The started thread.
+     */
+    public Thread start(SchedulerObserver observer, String name) {
+        Thread thread = new Thread(() -> {
+            while (!closed && !finishDelivered) {
+                if (changes.await(250, TimeUnit.MILLISECONDS) || finished) {
+                    poll(observer);
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * @return true once the Scheduler has finished; changes may still be waiting to be polled.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return How many log lines were dropped because the reader fell behind.
+     */
+    public long getDroppedLogs() {
+        return droppedLogs.sum();
+    }
+
+    /**
+     * Stops publishing to this subscription and ends its thread, if started.
+     */
+    public void close() {
+        closed = true;
+        scheduler.unsubscribe(this);
+        changes.signal();
+    }
+}
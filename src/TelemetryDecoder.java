@@ -0,0 +1,274 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * The TelemetryDecoder class reads a file written by TelemetryLog and renders its
+ * records as text or CSV.
+ *
+ * Usage: java TelemetryDecoder [--csv] telemetry-file
+ */
+public class TelemetryDecoder {
+    public static final String CSV_HEADER = "timestamp_ns,source,type,drone,event,x,y,state,sent,received,fault,nanos,volume";
+
+    private static final TelemetryLog.Type[] TYPES = TelemetryLog.Type.values();
+    private static final TelemetryLog.Source[] SOURCES = TelemetryLog.Source.values();
+    private static final DroneRegistry.Status[] STATUSES = DroneRegistry.Status.values();
+    private static final DroneMessage.Opcode[] OPCODES = DroneMessage.Opcode.values();
+    private static final FaultEvent.Type[] FAULTS = FaultEvent.Type.values();
+
+    /**
+     * One decoded record. read() reuses a single instance, so copy what you keep.
+     */
+    public static class Record {
+        private long timestamp;
+        private TelemetryLog.Type type;
+        private int code;
+        private int code2;
+        private TelemetryLog.Source source;
+        private int droneId;
+        private int a;
+        private int b;
+        private long value;
+
+        /**
+         * Reads the record at the buffer's position and advances past it.
+         */
+        void decode(ByteBuffer buffer) throws IOException {
+            timestamp = buffer.getLong();
+            int typeIndex = buffer.get() & 0xFF;
+            code = buffer.get() & 0xFF;
+            code2 = buffer.get() & 0xFF;
+            int sourceIndex = buffer.get() & 0xFF;
+            droneId = buffer.getInt();
+            a = buffer.getInt();
+            b = buffer.getInt();
+            value = buffer.getLong();
+            if (typeIndex >= TYPES.length || sourceIndex >= SOURCES.length) {
+                throw new IOException("Corrupt telemetry record of type " + typeIndex);
+            }
+            type = TYPES[typeIndex];
+            source = SOURCES[sourceIndex];
+        }
+
+        /**
+         * @return Nanoseconds since the epoch.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public TelemetryLog.Type getType() {
+            return type;
+        }
+
+        public TelemetryLog.Source getSource() {
+            return source;
+        }
+
+        public int getDroneId() {
+            return droneId;
+        }
+
+        /**
+         * @return The event of an RTT, DISPATCH, FAULT or EXTINGUISHED record.
+         */
+        public int getEventId() {
+            return a;
+        }
+
+        /**
+         * @return The x coordinate of a LOCATION, or the target's of a MOVE.
+         */
+        public int getX() {
+            return a;
+        }
+
+        public int getY() {
+            return b;
+        }
+
+        /**
+         * @return The new status of a STATE record.
+         */
+        public DroneRegistry.Status getStatus() {
+            return code < STATUSES.length ? STATUSES[code] : null;
+        }
+
+        /**
+         * @return The request of an RTT record.
+         */
+        public DroneMessage.Opcode getSent() {
+            return code < OPCODES.length ? OPCODES[code] : null;
+        }
+
+        /**
+         * @return The reply of an RTT record, or null if none was decoded.
+         */
+        public DroneMessage.Opcode getReceived() {
+            return code2 < OPCODES.length ? OPCODES[code2] : null;
+        }
+
+        public FaultEvent.Type getFault() {
+            return code < FAULTS.length ? FAULTS[code] : null;
+        }
+
+        /**
+         * @return The duration of an RTT, MOVE or IDLE record, in nanoseconds.
+         */
+        public long getNanos() {
+            return value;
+        }
+
+        /**
+         * @return The volume the drone of a DISPATCH record carries.
+         */
+        public double getVolume() {
+            return Double.longBitsToDouble(value);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder()
+                    .append(Instant.ofEpochSecond(0, timestamp)).append(' ')
+                    .append(source).append(' ').append(type).append(" drone=").append(droneId);
+            switch (type) {
+                case STATE:
+                    text.append(" state=").append(getStatus());
+                    break;
+                case RTT:
+                    text.append(" sent=").append(getSent()).append(" received=").append(getReceived())
+                            .append(" event=").append(a).append(" us=").append(value / 1000);
+                    break;
+                case LOCATION:
+                    text.append(" x=").append(a).append(" y=").append(b);
+                    break;
+                case MOVE:
+                    text.append(" to=(").append(a).append(',').append(b).append(") us=").append(value / 1000);
+                    break;
+                case IDLE:
+                    text.append(" us=").append(value / 1000);
+                    break;
+                case DISPATCH:
+                    text.append(" event=").append(a).append(" volume=").append(getVolume());
+                    break;
+                case FAULT:
+                    text.append(" fault=").append(getFault()).append(" event=").append(a);
+                    break;
+                case EXTINGUISHED:
+                    text.append(" event=").append(a);
+                    break;
+            }
+            return text.toString();
+        }
+
+        /**
+         * @return The record as a row under CSV_HEADER, with the fields its type does not use left empty.
+         */
+        public String toCsv() {
+            String event = "", x = "", y = "", state = "", sent = "", received = "", fault = "", nanos = "", volume = "";
+            switch (type) {
+                case STATE:
+                    state = String.valueOf(getStatus());
+                    break;
+                case RTT:
+                    sent = String.valueOf(getSent());
+                    received = String.valueOf(getReceived());
+                    event = String.valueOf(a);
+                    nanos = String.valueOf(value);
+                    break;
+                case LOCATION:
+                case MOVE:
+                    x = String.valueOf(a);
+                    y = String.valueOf(b);
+                    nanos = type == TelemetryLog.Type.MOVE ? String.valueOf(value) : "";
+                    break;
+                case IDLE:
+                    nanos = String.valueOf(value);
+                    break;
+                case DISPATCH:
+                    event = String.valueOf(a);
+                    volume = String.valueOf(getVolume());
+                    break;
+                case FAULT:
+                    fault = String.valueOf(getFault());
+                    event = String.valueOf(a);
+                    break;
+                case EXTINGUISHED:
+                    event = String.valueOf(a);
+                    break;
+            }
+            return String.join(",", String.valueOf(timestamp), source.toString(), type.toString(),
+                    String.valueOf(droneId), event, x, y, state, sent, received, fault, nanos, volume);
+        }
+    }
+
+    /**
+     * Streams every record of a telemetry file to an action.
+     *
+     * @return The number of records read.
+     * @throws IOException If the file is not a telemetry log or cannot be read.
+     */
+    public static long read(Path file, Consumer<Record> action) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        Record record = new Record();
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            fill(channel, buffer);
+            if (buffer.remaining() < TelemetryLog.HEADER_SIZE || buffer.getInt() != TelemetryLog.MAGIC) {
+                throw new IOException(file + " is not a telemetry log");
+            }
+            int version = buffer.getInt();
+            if (version != TelemetryLog.VERSION) {
+                throw new IOException("Unsupported telemetry version " + version);
+            }
+            while (true) {
+                if (buffer.remaining() < TelemetryLog.RECORD_SIZE) {
+                    buffer.compact();
+                    fill(channel, buffer);
+                    if (buffer.remaining() < TelemetryLog.RECORD_SIZE) {
+                        break; // End of file, or a record cut short by a crash
+                    }
+                }
+                record.decode(buffer);
+                action.accept(record);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads from the channel until the buffer is full or the file ends, then flips
+     * it for reading.
+     */
+    private static void fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+            // Keep reading
+        }
+        buffer.flip();
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean csv = args.length > 1 && args[0].equals("--csv");
+        if (args.length == 0 || (args.length > 1 && !csv)) {
+            System.err.println("Usage: java TelemetryDecoder [--csv] telemetry-file");
+            System.exit(1);
+        }
+        Path file = Paths.get(args[args.length - 1]);
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+        if (csv) {
+            out.println(CSV_HEADER);
+        }
+        read(file, record -> out.println(csv ? record.toCsv() : record.toString()));
+        out.flush();
+    }
+}
@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TelemetryLog class records typed drone and Scheduler telemetry (state
+ * transitions, message round trips, locations, dispatch decisions, faults) as
+ * fixed-size binary records, so the hot paths never format text.
+ *
+ * - A record is four longs written into a bounded, lock-free ring buffer (see
+ * RingWriter), with no allocation per record.
+ * - When the ring is full the record is dropped and counted; telemetry never
+ * blocks a drone or the Scheduler.
+ * - One writer thread appends the records through a FileChannel after an 8 byte
+ * header. TelemetryDecoder renders a file as text or CSV.
+ *
+ * Record layout (32 bytes, big-endian):
+ * - 0: timestamp, nanoseconds since the epoch (long)
+ * - 8: type, 9: code, 10: second code, 11: source (bytes)
+ * - 12: drone id (int)
+ * - 16: a, 20: b (ints, e.g. event id or x and y)
+ * - 24: value (long, e.g. nanoseconds or the bits of a double)
+ *
+ * Telemetry is off unless `-Dtelemetry.file` names a file (see get()).
+ */
+public class TelemetryLog extends RingWriter {
+    /**
+     * What a record describes, and how its fields are used.
+     */
+    public enum Type {
+        STATE,        // code: DroneRegistry.Status
+        RTT,          // code: opcode sent, second code: opcode received, a: event id, value: round trip ns
+        LOCATION,     // a: x, b: y
+        MOVE,         // a: target x, b: target y, value: travel ns
+        IDLE,         // value: ns spent waiting for an assignment
+        DISPATCH,     // a: event id, value: volume the drone carries (double bits)
+        FAULT,        // code: FaultEvent.Type, a: event id
+        EXTINGUISHED  // a: event id
+    }
+
+    /**
+     * Which side of the system wrote a record.
+     */
+    public enum Source {
+        DRONE, SCHEDULER
+    }
+
+    public static final int MAGIC = 0x44544C47; // "DTLG"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 32;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // Wall clock at startup, so System.nanoTime() readings become epoch timestamps
+    private static final long EPOCH_NANOS = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    private static final long NANO_ORIGIN = System.nanoTime();
+
+    private static final TelemetryLog DISABLED = new TelemetryLog();
+    private static final TelemetryLog GLOBAL = fromSystemProperties();
+
+    private final boolean enabled;
+    private final Path path;
+
+    private final long[] slots; // Four longs per slot of the ring
+
+    // Writer thread only
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructs a TelemetryLog writing to a new file and starts its writer thread.
+     *
+     * @param path     The telemetry file; replaced if it exists.
+     * @param capacity Records the ring holds; rounded up to a power of two.
+     */
+    public TelemetryLog(Path path, int capacity) throws IOException {
+        super(capacity, "TelemetryLog");
+        this.enabled = true;
+        this.path = path;
+        this.slots = new long[size() * 4];
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        this.buffer.putInt(MAGIC).putInt(VERSION);
+        start();
+    }
+
+    /**
+     * The log used when telemetry is off: every record is ignored and no writer
+     * thread is started.
+     */
+    private TelemetryLog() {
+        super(2, "TelemetryLog");
+        this.enabled = false;
+        this.path = null;
+        this.slots = null;
+        this.channel = null;
+        this.buffer = null;
+    }
+
+    /**
+     * @return The process-wide log: writing to `-Dtelemetry.file` with a ring of
+     * `-Dtelemetry.capacity` records (65536), or a disabled log if no file is set.
+     */
+    public static TelemetryLog get() {
+        return GLOBAL;
+    }
+
+    private static TelemetryLog fromSystemProperties() {
+        String file = System.getProperty("telemetry.file");
+        if (file == null || file.isEmpty()) {
+            return DISABLED;
+        }
+        try {
+            TelemetryLog log = new TelemetryLog(Paths.get(file), Integer.getInteger("telemetry.capacity", 65536));
+            Runtime.getRuntime().addShutdownHook(new Thread(log::close, "TelemetryLog-shutdown"));
+            return log;
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+            return DISABLED;
+        }
+    }
+
+    /**
+     * @return The current time in nanoseconds since the epoch, as stamped on records.
+     */
+    public static long now() {
+        return EPOCH_NANOS + (System.nanoTime() - NANO_ORIGIN);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    // ========== RECORDS ==========
+
+    public void state(Source source, int droneId, DroneRegistry.Status status) {
+        if (enabled && status != null) {
+            append(Type.STATE, status.ordinal(), 0, source, droneId, 0, 0, 0);
+        }
+    }
+
+    /**
+     * A drone's request and the Scheduler's reply.
+     *
+     * @param nanos Time from sending the request to receiving the reply.
+     */
+    public void roundTrip(int droneId, DroneMessage.Opcode sent, DroneMessage.Opcode received, int eventId, long nanos) {
+        if (enabled) {
+            append(Type.RTT, sent.ordinal(), received == null ? 0xFF : received.ordinal(), Source.DRONE,
+                    droneId, eventId, 0, nanos);
+        }
+    }
+
+    public void location(Source source, int droneId, int x, int y) {
+        if (enabled) {
+            append(Type.LOCATION, 0, 0, source, droneId, x, y, 0);
+        }
+    }
+
+    /**
+     * A drone's completed travel to a target.
+     *
+     * @param nanos Time spent travelling.
+     */
+    public void move(int droneId, int targetX, int targetY, long nanos) {
+        if (enabled) {
+            append(Type.MOVE, 0, 0, Source.DRONE, droneId, targetX, targetY, nanos);
+        }
+    }
+
+    /**
+     * @param nanos Time an idle drone waited for an assignment.
+     */
+    public void idle(int droneId, long nanos) {
+        if (enabled) {
+            append(Type.IDLE, 0, 0, Source.DRONE, droneId, 0, 0, nanos);
+        }
+    }
+
+    /**
+     * The Scheduler's decision to send a drone to an event.
+     */
+    public void dispatch(int droneId, int eventId, double volume) {
+        if (enabled) {
+            append(Type.DISPATCH, 0, 0, Source.SCHEDULER, droneId, eventId, 0, Double.doubleToRawLongBits(volume));
+        }
+    }
+
+    public void fault(Source source, int droneId, FaultEvent.Type faultType, int eventId) {
+        if (enabled) {
+            append(Type.FAULT, faultType.ordinal(), 0, source, droneId, eventId, 0, 0);
+        }
+    }
+
+    public void extinguished(int droneId, int eventId) {
+        if (enabled) {
+            append(Type.EXTINGUISHED, 0, 0, Source.SCHEDULER, droneId, eventId, 0, 0);
+        }
+    }
+
+    // ========== PRODUCERS ==========
+
+    private void append(Type type, int code, int code2, Source source, int droneId, int a, int b, long value) {
+        long timestamp = now();
+        long position = claim(false); // Telemetry never blocks a drone or the Scheduler
+        if (position < 0) {
+            return;
+        }
+        int base = index(position) * 4;
+        slots[base] = timestamp;
+        slots[base + 1] = ((long) type.ordinal() << 56) | ((long) (code & 0xFF) << 48)
+                | ((long) (code2 & 0xFF) << 40) | ((long) source.ordinal() << 32) | (droneId & 0xFFFFFFFFL);
+        slots[base + 2] = ((long) a << 32) | (b & 0xFFFFFFFFL);
+        slots[base + 3] = value;
+        publish(position);
+    }
+
+    // ========== WRITER ==========
+
+    @Override
+    protected void write(int index) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) {
+            writeBuffer();
+        }
+        int base = index * 4;
+        buffer.putLong(slots[base]).putLong(slots[base + 1]).putLong(slots[base + 2]).putLong(slots[base + 3]);
+    }
+
+    @Override
+    protected void endBatch() throws IOException {
+        writeBuffer();
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        writeBuffer(); // At least the header, for a log that saw no records
+        channel.force(false);
+    }
+
+    @Override
+    protected void release() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace(System.err);
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,60 +1,53 @@
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The TimeStampDaemon class copies every line printed to System.out into
+ * src/logs.txt as "HH:mm:ss.SSS,message" (the format LogAnalyzer reads).
+ *
+ * Lines go to an AsyncLogWriter, which appends them from its own thread, so a
+ * println only formats the timestamp and queues the line. Printing the guard value
+ * FLUSH_LOGS_TO_FILE waits until everything printed so far is in the file, and the
+ * rest is written out when the JVM shuts down.
+ */
 public class TimeStampDaemon {
-    private static File file = new File("src/logs.txt");
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
 
-    private static ArrayList<String> tempLogs = new ArrayList<>();
+    private static AsyncLogWriter writer;
 
-    public static void startDaemon() {
-        System.setOut(new PrintStream(System.out){
-            private final SimpleDateFormat formatter = new SimpleDateFormat("HH:mm:ss.SSS");
+    public static synchronized void startDaemon() {
+        if (writer != null) {
+            return;
+        }
+        try {
+            writer = AsyncLogWriter.fromSystemProperties();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        AsyncLogWriter logWriter = writer;
 
+        System.setOut(new PrintStream(System.out){
             @Override
             public void println(String message) {
                 super.println(message);
-                String newLog = formatter.format(new Date())+","+message;
-                tempLogs.add(newLog);
+                logWriter.append(LocalTime.now().format(FORMATTER) + "," + message);
 
                 //allow forced flushing on guard value so that we can shut down non-daemon threads safely without losing logging data by forcing a flush first
-                if(message.equals("FLUSH_LOGS_TO_FILE")){
-                    try{
-                        flushLogs();
-                    }catch (IOException e){
-                        e.printStackTrace();
-                    }
+                if("FLUSH_LOGS_TO_FILE".equals(message)){
+                    logWriter.flush();
                 }
             }
         });
 
-        Thread timePrinter = new Thread(() -> {
-            while (true) {
-                try{
-                    flushLogs();
-                    Thread.sleep(5000);
-                } catch (InterruptedException | IOException e) {
-                }
-            }
-        });
-
-        timePrinter.setDaemon(true);
-        timePrinter.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(logWriter::close, "TimeStampDaemon-shutdown"));
     }
 
-    private static void flushLogs() throws IOException {
-        try {
-            FileWriter writer = new FileWriter(file);
-            for(String eventLog : tempLogs){
-                writer.write(eventLog + "\n");
-            }
-            writer.close();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+    /**
+     * @return The writer behind System.out, or null before startDaemon().
+     */
+    public static synchronized AsyncLogWriter getWriter() {
+        return writer;
     }
 }
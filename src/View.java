@@ -1,46 +1,70 @@
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.event.ComponentAdapter;
-import java.awt.event.ComponentEvent;
-import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import javax.swing.*;
-import javax.swing.text.DefaultCaret;
 
+/**
+ * The View class is the Scheduler's GUI: a map of zones and drones, the log, and a
+ * status tile per drone.
+ *
+ * Rendering is driven by a Subscription to the Scheduler instead of rescanning its state:
+ * - The View thread sleeps until something changes, then waits out the rest of the
+ * frame (`-Dview.fps`, 30 by default) so every change in between is drawn at once.
+ * - It collects the frame off the Event Dispatch Thread (new log lines, snapshots
+ * of the changed drones and events) and applies it on the EDT in one batch. Swing
+ * components are only touched on the EDT.
+ *
+ * The map is one MapCanvas and the status tiles are a JList, which only paints the
+ * tiles scrolled into view, so thousands of drones and zones stay cheap to draw.
+ * The log is a LogConsole, which keeps the last `-Dview.logLines` lines and can be
+ * filtered by level, drone and event.
+ */
 public class View extends Thread {
+    private static final int FPS = Math.max(1, Integer.getInteger("view.fps", 30));
 
-    private Scheduler scheduler;
+    private Subscription subscription;
     private JFrame frame;
-    private JPanel panel, map, statusBars;
-    private JTextArea log;
+    private JPanel panel, statusBars;
+    private MapCanvas map;
+    private JList<Integer> droneList;
+    private DroneListModel droneListModel;
+    private DroneTileRenderer droneTileRenderer;
+    private LogConsole log;
     private JMenuBar menuBar;
-    private ImageIcon droneIcon;
 
     private GridBagConstraints gbc;
-    private Set<Integer> existingDrones = new HashSet<>();
-    private HashMap<Integer, Object[]> zoneMap = new HashMap<>();
-    private HashMap<Integer, JLabel> droneImages = new HashMap<>();
-    private HashMap<Integer, Double> droneAngles = new HashMap<>();
-    private HashMap<Integer, Integer[]> lastKnownLocation = new HashMap<>();
+
+    // Only used on the EDT
+    private HashMap<Integer, Integer> zoneEvents = new HashMap<>(); // Latest event in each zone, which sets its color
+    private HashMap<Integer, DroneRegistry.Snapshot> drones = new HashMap<>(); // Latest state drawn of each drone
     private HashMap<Integer, Integer> droneCuteIcons = new HashMap<>();
-    private final ReentrantLock logQueueLock = new ReentrantLock();
+
+    /**
+     * One frame of changes, collected off the EDT.
+     */
+    private static final class Frame {
+        final List<LogEntry> logs = new ArrayList<>();
+        final List<DroneRegistry.Snapshot> drones = new ArrayList<>();
+        final List<EventStore.Snapshot> events = new ArrayList<>();
+    }
 
     public View(Scheduler scheduler) {
-        this.scheduler = scheduler;
         this.gbc = new GridBagConstraints();
         initializeUI();
+        this.subscription = scheduler.subscribe(log.getCapacity()); // The log is never behind by more than it shows
+        map.setZoneCatalog(scheduler.getZones());
     }
 
     private void initializeUI() {
         frame = new JFrame("Drone Control Panel");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.addComponentListener(new ResizeListener());
 
-        droneIcon = createScaledIcon("/assets/defaultDrone.png", 30, 30);
         panel = createPanel(new Color(240, 240, 240)); // Light gray background
         panel.setLayout(new GridBagLayout());
 
@@ -49,7 +73,7 @@ public class View extends Thread {
 
         map = createMapPanel();
         statusBars = createStatusBarsPanel();
-        log = createLogComponent();
+        log = new LogConsole();
 
         addComponentsToPanel(panel, map, log, statusBars);
         frame.setContentPane(panel);
@@ -58,15 +82,8 @@ public class View extends Thread {
         frame.setVisible(true);
     }
 
-    private ImageIcon createScaledIcon(String path, int width, int height) {
-        ImageIcon originalIcon = new ImageIcon(getClass().getResource(path));
-        Image scaledImage = originalIcon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-        return new ImageIcon(scaledImage);
-    }
-
-    private JPanel createMapPanel() {
-        JPanel mapPanel = createPanel(Color.white);
-        mapPanel.setLayout(null);
+    private MapCanvas createMapPanel() {
+        MapCanvas mapPanel = new MapCanvas();
         mapPanel.setSize(1200, 450);
         mapPanel.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY, 2));
         return mapPanel;
@@ -78,12 +95,16 @@ public class View extends Thread {
         statusPanel.setOpaque(true);
         statusPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
 
-        // Scrollable content panel for drone tiles
-        JPanel contentPanel = new JPanel();
-        contentPanel.setOpaque(false);
-        contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
+        // Scrollable list of drone tiles; only the tiles in view are painted
+        droneListModel = new DroneListModel();
+        droneTileRenderer = new DroneTileRenderer();
+        droneList = new JList<>(droneListModel);
+        droneList.setCellRenderer(droneTileRenderer);
+        droneList.setPrototypeCellValue(-1); // Fixes the tile size, so layout does not measure every tile
+        droneList.setOpaque(false);
+        droneList.setFocusable(false);
 
-        JScrollPane scrollPane = new JScrollPane(contentPanel);
+        JScrollPane scrollPane = new JScrollPane(droneList);
         scrollPane.setOpaque(false);
         scrollPane.getViewport().setOpaque(false);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
@@ -94,29 +115,6 @@ public class View extends Thread {
         return statusPanel;
     }
 
-    private JPanel getContentPanel() {
-        for (Component comp : statusBars.getComponents()) {
-            if (comp instanceof JScrollPane) {
-                JScrollPane scrollPane = (JScrollPane) comp;
-                return (JPanel) scrollPane.getViewport().getView();
-            }
-        }
-        return null;
-    }
-
-    private JTextArea createLogComponent() {
-        JTextArea textArea = new JTextArea();
-        textArea.setEditable(false);
-        textArea.setLineWrap(true);
-        textArea.setWrapStyleWord(true);
-        textArea.setFont(new Font("Arial", Font.PLAIN, 12));
-        textArea.setBackground(new Color(240, 240, 240));
-        textArea.setForeground(Color.BLACK);
-        DefaultCaret caret = (DefaultCaret) textArea.getCaret();
-        caret.setUpdatePolicy(DefaultCaret.ALWAYS_UPDATE);
-        return textArea;
-    }
-
     private JMenuBar createMenuBar() {
         JMenuBar menuBar = new JMenuBar();
         JRadioButton cuteMode = new JRadioButton("cute mode");
@@ -174,43 +172,18 @@ public class View extends Thread {
         ));
 
         // Update log component
-        log.setBackground(paleLavender);
-        log.setForeground(darkPurple);
+        log.setColors(paleLavender, darkPurple);
         log.setBorder(BorderFactory.createCompoundBorder(
                 BorderFactory.createLineBorder(softPurple, 1),
                 BorderFactory.createEmptyBorder(5, 5, 5, 5)
         ));
-        log.setFont(new Font("Arial", Font.PLAIN, 12));
 
         // Update drone tiles
-        for (Component comp : getContentPanel().getComponents()) {
-            if (comp instanceof JPanel) {
-                JPanel dronePanel = (JPanel) comp;
-                dronePanel.setBackground(pinkLavender);
-                dronePanel.setBorder(BorderFactory.createCompoundBorder(
-                        BorderFactory.createLineBorder(darkPurple, 1),
-                        BorderFactory.createEmptyBorder(5, 5, 5, 5)
-                ));
-
-                if (dronePanel.getComponentCount() > 1 && dronePanel.getComponent(1) instanceof JPanel) {
-                    JPanel infoPanel = (JPanel) dronePanel.getComponent(1);
-                    infoPanel.setBackground(softPurple);
-                    infoPanel.setBorder(BorderFactory.createCompoundBorder(
-                            BorderFactory.createLineBorder(lightLavender, 1),
-                            BorderFactory.createEmptyBorder(5, 5, 5, 5)
-                    ));
-
-                    for (Component infoComp : infoPanel.getComponents()) {
-                        if (infoComp instanceof JLabel) {
-                            ((JLabel) infoComp).setForeground(darkPurple);
-                        }
-                    }
-                }
-            }
-        }
+        droneTileRenderer.setColors(pinkLavender, darkPurple, softPurple, lightLavender, darkPurple, 5);
+        droneList.repaint();
 
         // Assign random cute icons to drones
-        for (Integer droneNum : scheduler.allDroneList.keySet()) {
+        for (int droneNum : drones.keySet()) {
             if (!droneCuteIcons.containsKey(droneNum)) {
                 droneCuteIcons.put(droneNum, (int) (Math.random() * 6));
             }
@@ -232,7 +205,7 @@ public class View extends Thread {
         droneCuteIcons.clear();
 
         // Update all drones to default icons
-        for (Integer droneNum : droneImages.keySet()) {
+        for (Integer droneNum : drones.keySet()) {
             updateDroneIcon(droneNum);
         }
     }
@@ -250,11 +223,9 @@ public class View extends Thread {
         JPanel bottomPanel = new JPanel(new GridLayout(1, 2));
         bottomPanel.setBackground(new Color(240, 240, 240));
 
-        JScrollPane logScrollPane = new JScrollPane(log);
-        logScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_NEVER);
-        logScrollPane.setPreferredSize(new Dimension(600, 250));
-        logScrollPane.setBorder(BorderFactory.createLineBorder(Color.GRAY, 1));
-        bottomPanel.add(logScrollPane);
+        log.setPreferredSize(new Dimension(600, 250));
+        log.setBorder(BorderFactory.createLineBorder(Color.GRAY, 1));
+        bottomPanel.add(log);
 
         statusBars.setPreferredSize(new Dimension(300, 250));
         bottomPanel.add(statusBars);
@@ -269,414 +240,257 @@ public class View extends Thread {
                 GridBagConstraints.CENTER, GridBagConstraints.BOTH, new Insets(0, 0, 0, 0), 0, 0));
     }
 
-    private JPanel makeDroneTile(String droneName, String volume, Integer[] location) {
-        //make info panel (right side)
-        JPanel infoPanel = new JPanel();
-        infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
-        infoPanel.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(Color.LIGHT_GRAY, 1),
-                BorderFactory.createEmptyBorder(10, 10, 10, 10)));
-        infoPanel.setBackground(new Color(255, 255, 255));
-        infoPanel.setMaximumSize(new Dimension(300, 100));
-
-        // Add info components
-        JLabel nameLabel = new JLabel(droneName);
-        nameLabel.setFont(new Font("Arial", Font.BOLD, 14));
-        nameLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        String details = String.format("Vol: %s | Loc: (%d,%d)", volume, location[0], location[1]);
-        JLabel detailsLabel = new JLabel(details);
-        detailsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
-        detailsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        JLabel stateText = new JLabel("Online");
-        stateText.setFont(new Font("Arial", Font.PLAIN, 12));
-        stateText.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        infoPanel.add(nameLabel);
-        infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-        infoPanel.add(detailsLabel);
-        infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-        infoPanel.add(stateText);
-
-        // Create the main panel with icon on left and info on right
-        JPanel dronePanel = new JPanel();
-        dronePanel.setLayout(new BoxLayout(dronePanel, BoxLayout.X_AXIS));
-        dronePanel.setBorder(BorderFactory.createCompoundBorder(
-                BorderFactory.createLineBorder(Color.black, 1),
-                BorderFactory.createEmptyBorder(5, 5, 5, 5)));
-
-        // Add drone icon (left side)
-        int droneId = Integer.parseInt(droneName.substring(droneName.indexOf(" ") + 1));
-        JLabel icon = new JLabel(droneImages.get(droneId).getIcon());
-        icon.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 10));
-
-        dronePanel.add(icon);
-        dronePanel.add(infoPanel);
-
-        return dronePanel;
-    }
-
-    private void updateLogs() {
-        logQueueLock.lock();
-        try {
-            while (!scheduler.logQueue.isEmpty()) {
-                String currentLog = scheduler.logQueue.remove();
-                String[] splitLog = currentLog.split(":");
-
-                // Check for specific log messages and update drone states accordingly
-                if (currentLog.contains("LOCATION")) {
-                    continue; // Skip location logs
-                }
+    /**
+     * The drones with a status tile, in the order they came online.
+     */
+    private static final class DroneListModel extends AbstractListModel<Integer> {
+        private static final long serialVersionUID = 1L;
+        private final List<Integer> ids = new ArrayList<>();
+        private final HashMap<Integer, Integer> indexes = new HashMap<>();
 
-                // Append the log to the JTextArea
-                log.append(currentLog + "\n");
-                log.setCaretPosition(log.getDocument().getLength());
-            }
-        } finally {
-            logQueueLock.unlock();
+        @Override
+        public int getSize() {
+            return ids.size();
         }
-    }
 
-    private void updateMap() {
-        // Calculate scaling factors based on the first zone (reference point)
-        if (zoneMap.isEmpty() && !scheduler.eventQueue.isEmpty()) {
-            Zone firstZone = scheduler.eventQueue.peek().getZone();
-            int[] start = firstZone.getStart();
-            int[] end = firstZone.getEnd();
-            zoneMap.put(firstZone.getId(), new Object[]{start, end, false});
+        @Override
+        public Integer getElementAt(int index) {
+            return ids.get(index);
         }
 
-        // Add new zones while maintaining relative positioning
-        for (Event event : scheduler.eventQueue) {
-            Zone zone = event.getZone();
-            zoneMap.computeIfAbsent(zone.getId(), k -> {
-                // For new zones, store coordinates and "not rendered" status
-                return new Object[]{zone.getStart(), zone.getEnd(), false};
-            });
+        /**
+         * @return The drone's index, adding it at the end if it is new.
+         */
+        int indexOf(int droneNum) {
+            Integer index = indexes.get(droneNum);
+            if (index == null) {
+                index = ids.size();
+                ids.add(droneNum);
+                indexes.put(droneNum, index);
+                fireIntervalAdded(this, index, index);
+            }
+            return index;
         }
 
-        // Repeat for events in the completed queue
-        for (Event event : scheduler.fullyServicedEvents.values()) {
-            Zone zone = event.getZone();
-            zoneMap.computeIfAbsent(zone.getId(), k -> {
-                // For new zones, store coordinates and "not rendered" status
-                return new Object[]{zone.getStart(), zone.getEnd(), false};
-            });
+        void changed(int first, int last) {
+            fireContentsChanged(this, first, last);
         }
+    }
 
-        // Find the most extreme coordinates to determine scaling
-        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
-        int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
-
-        for (Object[] zoneData : zoneMap.values()) {
-            int[] start = (int[]) zoneData[0];
-            int[] end = (int[]) zoneData[1];
-
-            minX = Math.min(minX, start[0]);
-            maxX = Math.max(maxX, end[0]);
-            minY = Math.min(minY, start[1]);
-            maxY = Math.max(maxY, end[1]);
+    /**
+     * Paints every status tile with one reused component (icon on the left, name,
+     * details and state on the right), filled in from the drone's latest snapshot.
+     */
+    private final class DroneTileRenderer implements ListCellRenderer<Integer> {
+        private final JPanel dronePanel = new JPanel();
+        private final JPanel infoPanel = new JPanel();
+        private final JLabel icon = new JLabel();
+        private final JLabel nameLabel = new JLabel();
+        private final JLabel detailsLabel = new JLabel();
+        private final JLabel stateText = new JLabel();
+
+        DroneTileRenderer() {
+            //make info panel (right side)
+            infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
+            infoPanel.setMaximumSize(new Dimension(300, 100));
+
+            // Add info components
+            nameLabel.setFont(new Font("Arial", Font.BOLD, 14));
+            nameLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            detailsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+            detailsLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+            stateText.setFont(new Font("Arial", Font.PLAIN, 12));
+            stateText.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+            infoPanel.add(nameLabel);
+            infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+            infoPanel.add(detailsLabel);
+            infoPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+            infoPanel.add(stateText);
+
+            // Create the main panel with icon on left and info on right
+            dronePanel.setLayout(new BoxLayout(dronePanel, BoxLayout.X_AXIS));
+            icon.setBorder(BorderFactory.createEmptyBorder(0, 0, 0, 10));
+            dronePanel.add(icon);
+            dronePanel.add(infoPanel);
+
+            setColors(dronePanel.getBackground(), Color.black, new Color(255, 255, 255), Color.LIGHT_GRAY,
+                    nameLabel.getForeground(), 10);
         }
 
-        // Calculate scaling factors with 10% padding
-        double widthPadding = (maxX - minX) * 0.1;
-        double heightPadding = (maxY - minY) * 0.1;
-        double scaleX = map.getWidth() / (maxX - minX + widthPadding);
-        double scaleY = map.getHeight() / (maxY - minY + heightPadding);
-        double scale = Math.min(scaleX, scaleY);
-
-        // Add only unrendered zones to the map
-        for (Integer zoneId : zoneMap.keySet()) {
-            ZoneLabel zl = getZoneLabel(zoneId);
-            Object[] zoneData = zoneMap.get(zoneId);
-            boolean rendered = (boolean) zoneData[2];
-
-            Event.Severity severity = Event.Severity.OUT;
-            for (Integer eventId : scheduler.allEvents.keySet()) {
-                if (scheduler.allEvents.get(eventId).getZone().getId() == zoneId) {
-                    severity = scheduler.allEvents.get(eventId).getSeverity();
-                }
-            }
-            Color color = new Color(0, 100, 0, 150);
-            switch (severity) {
-                case HIGH:
-                    color = new Color(255, 0, 0, 150);
-                    break;
-                case MODERATE:
-                    color = new Color(255, 76, 0, 150);
-                    break;
-                case LOW:
-                    color = new Color(255, 220, 0, 150);
-                    break;
-            }
-            zl.setZoneColor(color);
-
-            if (!rendered) {
-                int[] start = (int[]) zoneData[0];
-                int[] end = (int[]) zoneData[1];
-
-                // Calculate scaled positions and dimensions
-                int x = (int) ((start[0] - minX + widthPadding / 2) * scale);
-                int y = (int) ((start[1] - minY + heightPadding / 2) * scale);
-                int width = (int) ((end[0] - start[0]) * scale);
-                int height = (int) ((end[1] - start[1]) * scale);
-
-                zl.setBounds(x, y, width, height);
-                map.add(zl);
+        /**
+         * Restyles every tile, e.g. for cute mode.
+         */
+        void setColors(Color tile, Color tileBorder, Color info, Color infoBorder, Color text, int infoPadding) {
+            dronePanel.setBackground(tile);
+            dronePanel.setBorder(BorderFactory.createCompoundBorder(
+                    BorderFactory.createEmptyBorder(0, 0, 5, 0), // Space between tiles
+                    BorderFactory.createCompoundBorder(
+                            BorderFactory.createLineBorder(tileBorder, 1),
+                            BorderFactory.createEmptyBorder(5, 5, 5, 5))));
+            infoPanel.setBackground(info);
+            infoPanel.setBorder(BorderFactory.createCompoundBorder(
+                    BorderFactory.createLineBorder(infoBorder, 1),
+                    BorderFactory.createEmptyBorder(infoPadding, infoPadding, infoPadding, infoPadding)));
+            nameLabel.setForeground(text);
+            detailsLabel.setForeground(text);
+            stateText.setForeground(text);
+        }
 
-                // Mark as rendered
-                zoneData[2] = true;
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Integer> list, Integer droneNum, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            DroneRegistry.Snapshot drone = drones.get(droneNum);
+            icon.setIcon(map.getDroneIcon(droneNum));
+            nameLabel.setText("Drone " + droneNum);
+            if (drone == null) {
+                // The prototype tile, sized for large values
+                detailsLabel.setText("Vol: 15.000000000000002 | Loc: (00000,00000)");
+                stateText.setText("Returning To Base");
+            } else {
+                detailsLabel.setText(tileDetails(drone));
+                stateText.setText(drone.getStatus().toString());
             }
+            return dronePanel;
         }
+    }
 
-        // Update drone positions
-        for (int droneNum : scheduler.allDroneList.keySet()) {
-            Object coordsObj = scheduler.allDroneList.get(droneNum).get("location");
-            Integer[] coords = (Integer[]) coordsObj;
-
-            // Get last known coordinates
-            Integer[] lastCoords = lastKnownLocation.get(droneNum);
-            if (lastCoords == null) {
-                lastCoords = coords;
-                lastKnownLocation.put(droneNum, lastCoords);
-            }
+    private static String tileDetails(DroneRegistry.Snapshot drone) {
+        return "Vol: " + drone.getVolume() + " | Loc: (" + drone.getX() + "," + drone.getY() + ")";
+    }
 
-            // Calculate angle based on movement vector
-            double dx = coords[0] - lastCoords[0];
-            double dy = coords[1] - lastCoords[1];
+    // ========== FRAMES ==========
 
-            // Only update angle if drone has actually moved
-            if (Math.abs(dx) > 0.5 || Math.abs(dy) > 0.5) {
-                double newAngle = Math.toDegrees(Math.atan2(dy, dx));
-                if (newAngle < 0) {
-                    newAngle += 360;
-                }
-                droneAngles.put(droneNum, newAngle);
-                lastKnownLocation.put(droneNum, coords);
+    /**
+     * Takes everything that changed since the last frame. Runs on the View thread.
+     */
+    private Frame collect() {
+        Frame frame = new Frame();
+        subscription.poll(new SchedulerObserver() {
+            @Override
+            public void droneChanged(DroneRegistry.Snapshot drone) {
+                frame.drones.add(drone);
             }
 
-            // Calculate scaled position
-            int x = (int) ((coords[0] - minX + widthPadding / 2) * scale) - 15;
-            int y = (int) ((coords[1] - minY + heightPadding / 2) * scale) - 15;
-
-            if (!droneImages.containsKey(droneNum)) {
-                // Create new drone image label
-                JLabel droneLabel = new JLabel();
-                droneLabel.setBounds(x, y, 30, 30);
-                droneLabel.setOpaque(false);
-                droneImages.put(droneNum, droneLabel);
-                map.add(droneLabel);
-                map.setComponentZOrder(droneLabel, 0);
-            } else {
-                // Update existing drone position
-                JLabel droneLabel = droneImages.get(droneNum);
-                droneLabel.setLocation(x, y);
+            @Override
+            public void eventChanged(EventStore.Snapshot event) {
+                frame.events.add(event);
             }
 
-            // Always update the icon with current angle
-            double currentAngle = droneAngles.getOrDefault(droneNum, 0.0);
-            updateDroneIcon(droneNum);
-        }
-
-        // Remove any drones that are no longer active
-        Set<Integer> activeDrones = new HashSet<>(scheduler.allDroneList.keySet());
-        droneImages.keySet().removeIf(droneNum -> {
-            if (!activeDrones.contains(droneNum)) {
-                // Remove corresponding label from the map
-                JLabel droneLabel = droneImages.get(droneNum);
-                map.remove(droneLabel);
-                return true;
+            @Override
+            public void logged(LogEntry entry) {
+                frame.logs.add(entry);
             }
-            return false;
         });
-
-        map.revalidate();
-        map.repaint();
-    }
-
-    private ZoneLabel getZoneLabel(int zoneId) {
-        for (Component component : map.getComponents()) {
-            if (component instanceof ZoneLabel) {
-                ZoneLabel zoneLabel = (ZoneLabel) component;
-                if (zoneLabel.getName().equals(String.valueOf(zoneId))) {
-                    return zoneLabel;
-                }
-            }
-        }
-        return new ZoneLabel(zoneId, new Color(200, 50, 50, 150), 0.5f);
+        return frame;
     }
 
-    private ImageIcon createRotatedDroneImageWithNumber(int droneNum, double angle, ImageIcon baseIcon) {
-        // Create base image (unrotated)
-        BufferedImage baseImage = new BufferedImage(30, 30, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2dBase = baseImage.createGraphics();
-
-        // Draw drone icon (centered)
-        g2dBase.drawImage(baseIcon.getImage(), 0, 0, null);
-
-        // Draw number (not rotated yet)
-        g2dBase.setFont(new Font("Arial", Font.BOLD, 12));
-        g2dBase.setColor(Color.BLACK);
-        String droneNumberStr = String.valueOf(droneNum);
-        FontMetrics fm = g2dBase.getFontMetrics();
-        int textWidth = fm.stringWidth(droneNumberStr);
-        int textHeight = fm.getAscent();
-        int x = (30 - textWidth) / 2;
-        int y = (30 + textHeight) / 2 - 2;
-        g2dBase.drawString(droneNumberStr, x, y);
-        g2dBase.dispose();
-
-        // Now rotate the complete image
-        BufferedImage rotatedImage = new BufferedImage(30, 30, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2dRotated = rotatedImage.createGraphics();
-
-        // Set rendering hints for better quality
-        g2dRotated.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2dRotated.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-
-        // Rotate around center
-        g2dRotated.rotate(Math.toRadians(angle + 90), 15, 15);
-        g2dRotated.drawImage(baseImage, 0, 0, null);
-        g2dRotated.dispose();
-
-        return new ImageIcon(rotatedImage);
-    }
+    /**
+     * Draws one frame of changes. Runs on the EDT.
+     */
+    private void apply(Frame frame) {
+        log.append(frame.logs);
 
-    private void updateDrones() {
-        // Get the content panel 
-        JPanel contentPanel = getContentPanel();
-        if (contentPanel == null) {
-            return;
+        for (EventStore.Snapshot event : frame.events) {
+            updateZone(event.getId(), event.getZone(), event.getSeverity());
         }
 
-        existingDrones.clear();
-        for (Component comp : contentPanel.getComponents()) {
-            if (comp instanceof JPanel) {
-                JPanel dronePanel = (JPanel) comp;
-                // Check if this panel has our expected structure (icon + info panel)
-                if (dronePanel.getComponentCount() == 2
-                        && dronePanel.getComponent(1) instanceof JPanel) {
-
-                    try {
-                        JPanel infoPanel = (JPanel) dronePanel.getComponent(1);
-                        // The name label is the first component in the info panel
-                        String name = ((JLabel) infoPanel.getComponent(0)).getText();
-                        int droneNum = Integer.parseInt(name.replace("Drone ", ""));
-                        existingDrones.add(droneNum);
-
-                        JLabel icon = (JLabel) dronePanel.getComponent(0);
-                        icon.setIcon(droneImages.get(droneNum).getIcon());
-                    } catch (Exception e) {
-                        // Handle potential parsing errors (malformed drone name or component structure)
-                        System.err.println("Error parsing drone panel: " + e.getMessage());
-                    }
-                }
-            }
+        int first = Integer.MAX_VALUE, last = -1; // Tiles to repaint
+        for (DroneRegistry.Snapshot drone : frame.drones) {
+            int droneNum = drone.getId();
+            drones.put(droneNum, drone);
+            map.setDrone(droneNum, drone.getX(), drone.getY());
+            int index = droneListModel.indexOf(droneNum);
+            first = Math.min(first, index);
+            last = Math.max(last, index);
         }
-
-        for (int droneNum : scheduler.allDroneList.keySet()) {
-            String volume = scheduler.allDroneList.get(droneNum).get("volume").toString();
-            Integer[] coords = (Integer[]) scheduler.allDroneList.get(droneNum).get("location");
-
-            if (existingDrones.contains(droneNum)) {
-                updateDroneTile(droneNum, volume, coords);
-            } else {
-                contentPanel.add(makeDroneTile("Drone " + droneNum, volume, coords));
-                contentPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-            }
+        map.repaintDirty();
+        if (last >= 0) {
+            droneListModel.changed(first, last);
         }
-
-        contentPanel.revalidate();
-        contentPanel.repaint();
     }
 
-    private void updateDroneIcon(int droneNum) {
-        if (droneImages.containsKey(droneNum)) {
-            ImageIcon icon;
-            if (droneCuteIcons.containsKey(droneNum)) {
-                // Use cute mode icon if available
-                int cuteIconNum = droneCuteIcons.get(droneNum);
-                icon = createScaledIcon("/assets/altDrone" + cuteIconNum + ".png", 30, 30);
-            } else {
-                // Use default icon
-                icon = createScaledIcon("/assets/defaultDrone.png", 30, 30);
-            }
-
-            // Update the icon with current angle
-            double currentAngle = droneAngles.getOrDefault(droneNum, 0.0);
-            droneImages.get(droneNum).setIcon(createRotatedDroneImageWithNumber(droneNum, currentAngle, icon));
+    /**
+     * Adds or recolors the zone of a changed event.
+     */
+    private void updateZone(int eventId, Zone zone, Event.Severity severity) {
+        Integer latest = zoneEvents.get(zone.getId());
+        if (latest != null && latest > eventId) {
+            return; // A newer event in this zone sets its color
         }
-    }
-
-    private void updateDroneTile(int droneNumber, String newVolume, Integer[] newLocation) {
-        JPanel dronePanel = findDroneTile(droneNumber);
-        if (dronePanel != null) {
-            // The info panel is the second component (index 1) of the dronePanel
-            JPanel infoPanel = (JPanel) dronePanel.getComponent(1);
-
-            // Get all components from the info panel (which has the Y_AXIS layout)
-            Component[] infoComponents = infoPanel.getComponents();
-
-            // Update the labels - note these are now at indices 0, 2, 4 in the infoPanel
-            ((JLabel) infoComponents[0]).setText("Drone " + droneNumber);  // Name
-            ((JLabel) infoComponents[2]).setText(
-                    String.format("Vol: %s | Loc: (%d,%d)", newVolume, newLocation[0], newLocation[1])
-            );
-            ((JLabel) infoComponents[4]).setText(scheduler.allDroneList.get(droneNumber).get("state").toString());
+        if (latest == null && severity == Event.Severity.OUT) {
+            return; // Put out before ever being drawn
         }
+        zoneEvents.put(zone.getId(), eventId);
+        map.setZone(zone, zoneColor(severity));
     }
 
-    private JPanel findDroneTile(int droneNumber) {
-        JPanel contentPanel = getContentPanel();
-        if (contentPanel == null) {
-            return null;
+    private static Color zoneColor(Event.Severity severity) {
+        switch (severity) {
+            case HIGH:
+                return new Color(255, 0, 0, 150);
+            case MODERATE:
+                return new Color(255, 76, 0, 150);
+            case LOW:
+                return new Color(255, 220, 0, 150);
+            default:
+                return new Color(0, 100, 0, 150);
         }
+    }
 
-        for (Component comp : contentPanel.getComponents()) {
-            if (comp instanceof JPanel) {
-                JPanel dronePanel = (JPanel) comp;
-                // Check if this panel has our expected structure (icon + info panel)
-                if (dronePanel.getComponentCount() == 2
-                        && dronePanel.getComponent(1) instanceof JPanel) {
-
-                    JPanel infoPanel = (JPanel) dronePanel.getComponent(1);
-                    Component[] infoComponents = infoPanel.getComponents();
-
-                    // Check if the first component of infoPanel is our drone name label
-                    if (infoComponents.length > 0 && infoComponents[0] instanceof JLabel) {
-                        String labelText = ((JLabel) infoComponents[0]).getText();
-                        if (labelText.equals("Drone " + droneNumber)) {
-                            return dronePanel;
-                        }
-                    }
-                }
-            }
-        }
-        return null;
+    private void updateDroneIcon(int droneNum) {
+        Integer cuteIconNum = droneCuteIcons.get(droneNum);
+        map.setDroneIcon(droneNum, cuteIconNum == null ? -1 : cuteIconNum);
+        map.repaintDirty();
+        droneList.repaint(); // Tiles show the same icon
     }
 
+    /**
+     * Draws changes until the Scheduler and every drone have finished, at most FPS
+     * frames a second and only when something changed.
+     */
     @Override
     public void run() {
-        while (!scheduler.fireIncidentFinish || !scheduler.droneFinish) {
-            updateLogs();
-            updateMap();
-            updateDrones();
+        long frameNanos = TimeUnit.SECONDS.toNanos(1) / FPS;
+        long nextFrame = System.nanoTime();
+        while (!subscription.isFinished()) {
+            if (!subscription.await(250, TimeUnit.MILLISECONDS)) {
+                continue; // Checks again whether the run has finished
+            }
+            long wait = nextFrame - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait); // Changes made meanwhile join this frame
+            }
+            if (!drawFrame()) {
+                subscription.close();
+                return;
+            }
+            nextFrame = System.nanoTime() + frameNanos;
         }
+        drawFrame(); // The final states
+        subscription.close();
     }
 
-    private class ResizeListener extends ComponentAdapter {
-        @Override
-        public void componentResized(ComponentEvent e) {
-            // Recalculate all zone positions on resize
-            for (Object[] zoneData : zoneMap.values()) {
-                zoneData[2] = false; // Mark all zones for re-rendering
-            }
+    /**
+     * Collects a frame and waits for the EDT to draw it, so a slow EDT slows the
+     * frame rate instead of queueing frames.
+     *
+     * @return false if this thread was interrupted.
+     */
+    private boolean drawFrame() {
+        Frame frame = collect();
+        try {
+            SwingUtilities.invokeAndWait(() -> apply(frame));
+        } catch (InterruptedException e) {
+            return false;
+        } catch (InvocationTargetException e) {
+            e.getCause().printStackTrace();
         }
+        return true;
     }
 
     public static void main(String[] args) {
         // Entry point for the application
         // You would typically initialize the Scheduler and start the View here
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+/**
+ * The WireFormat class holds the switches that control how messages are encoded
+ * on the UDP links between the FireIncident, Scheduler and Drone subsystems.
+ *
+ * Each switch defaults to the value of a system property so a mixed fleet can be
+ * rolled forward (or back) one process at a time:
+ * - `-Dwire.codec=java` → Encode Event/FaultEvent payloads with Java serialization
+ * instead of the compact binary codec (see EventCodec).
+ * - `-Dwire.framing=binary` → Drones frame their messages with a one byte opcode
+ * and fixed header (see DroneMessage) instead of colon-delimited strings.
+ * - `-Dwire.reliable=true` → Sequence, acknowledge and retransmit datagrams
+ * (see ReliableChannel) so a lost packet no longer stalls a drone or FireIncident.
+ * - `-Dwire.zones=ref` → Fetch the zone catalog once (drones from the Scheduler,
+ * the Scheduler from FireIncident) and then name an event's zone by id and catalog
+ * version instead of sending the whole zone (see ZoneCatalog.Download).
+ *
+ * Decoding never depends on these switches: receivers detect the payload format
+ * from its first bytes, so old and new senders can talk to the same process.
+ */
+public class WireFormat {
+    /** When true, Event and FaultEvent payloads are written with ObjectOutputStream. */
+    public static volatile boolean javaSerialization = "java".equalsIgnoreCase(System.getProperty("wire.codec"));
+
+    /** When true, drones send binary DroneMessage frames; the Scheduler answers each drone in kind. */
+    public static volatile boolean binaryFraming = "binary".equalsIgnoreCase(System.getProperty("wire.framing"));
+
+    /** When true, datagrams are sent through ReliableChannel's ack/retransmit protocol. */
+    public static volatile boolean reliable = Boolean.parseBoolean(System.getProperty("wire.reliable"));
+
+    /**
+     * When true, drones and FireIncident load (or offer) the zone catalog at startup.
+     * Senders still write whole zones to any receiver that has not confirmed it.
+     */
+    public static volatile boolean zoneReferences = "ref".equalsIgnoreCase(System.getProperty("wire.zones"));
+
+    private WireFormat() {
+    }
+}
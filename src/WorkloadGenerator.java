@@ -0,0 +1,311 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The WorkloadGenerator class makes synthetic incident workloads for load testing
+ * the Scheduler: a grid of zones and an endless, time-ordered stream of incidents.
+ *
+ * Arrivals follow one of three processes, averaging `rate` incidents a second:
+ * - POISSON → independent arrivals at a constant rate.
+ * - BURSTY → wildfire fronts: fronts start as a Poisson process, and each reports
+ * about BURST_SIZE incidents in neighbouring zones along one direction within
+ * BURST_SECONDS.
+ * - DIURNAL → a Poisson process whose rate follows the time of day, peaking at
+ * PEAK_HOUR at (1 + DIURNAL_AMPLITUDE) times the mean.
+ *
+ * Each incident's severity is drawn from the given high/moderate/low weights, and
+ * `droneRequestRatio` of them are DRONE_REQUESTs rather than FIRE_DETECTED.
+ * Everything is drawn from one Random with the given seed, so the same settings
+ * always give the same workload.
+ *
+ * The workload can be written in FireIncident's tab-separated files (times are
+ * whole seconds) or sent straight to a Scheduler by a FireIncident, which replays
+ * it with sub-second timing (see IncidentReplay):
+ *
+ * Usage: java -Dworkload.*=... WorkloadGenerator [zone file] [event file]
+ *        java -Dworkload.*=... -Dreplay.speed=1 WorkloadGenerator --send [scheduler port]
+ */
+public class WorkloadGenerator {
+    public static enum Arrival {
+        POISSON, BURSTY, DIURNAL
+    }
+
+    /**
+     * One generated incident.
+     */
+    public static final class Incident {
+        private final double offsetSeconds;
+        private final int zone;
+        private final Event.Type type;
+        private final Event.Severity severity;
+
+        Incident(double offsetSeconds, int zone, Event.Type type, Event.Severity severity) {
+            this.offsetSeconds = offsetSeconds;
+            this.zone = zone;
+            this.type = type;
+            this.severity = severity;
+        }
+
+        public double getOffsetSeconds() { return offsetSeconds; }
+        public int getZone() { return zone; }
+        public Event.Type getType() { return type; }
+        public Event.Severity getSeverity() { return severity; }
+    }
+
+    public static final double BURST_SIZE = 8;       // Mean incidents per front
+    public static final double BURST_SECONDS = 60;   // Mean time a front takes to report them
+    public static final double DIURNAL_AMPLITUDE = 0.8;
+    public static final int PEAK_HOUR = 15;
+
+    private static final double SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final Random random;
+    private final int rows;
+    private final int columns;
+    private final int zoneSize;
+    private final Arrival arrival;
+    private final double rate;
+    private final double[] severityWeights; // HIGH, MODERATE, LOW
+    private final double droneRequestRatio;
+    private final LocalTime start;
+
+    private final PriorityQueue<Incident> pending = new PriorityQueue<>(
+            Comparator.comparingDouble(Incident::getOffsetSeconds));
+    private double nextArrival; // Seconds from the start to the next arrival (or front) of the process
+
+    /**
+     * Constructs a WorkloadGenerator.
+     *
+     * @param seed              Seeds every random choice.
+     * @param rows              Rows of zones in the grid.
+     * @param columns           Columns of zones in the grid.
+     * @param zoneSize          Side of each square zone.
+     * @param arrival           The arrival process.
+     * @param rate              Mean incidents per second.
+     * @param high              Weight of HIGH severity.
+     * @param moderate          Weight of MODERATE severity.
+     * @param low               Weight of LOW severity.
+     * @param droneRequestRatio Fraction of incidents that are DRONE_REQUESTs.
+     * @param start             Time of day of the first incident's offset 0.
+     */
+    public WorkloadGenerator(long seed, int rows, int columns, int zoneSize, Arrival arrival, double rate,
+                             double high, double moderate, double low, double droneRequestRatio, LocalTime start) {
+        if (rows < 1 || columns < 1 || zoneSize < 1 || rate <= 0) {
+            throw new IllegalArgumentException("Grid and rate must be positive");
+        }
+        double total = high + moderate + low;
+        if (high < 0 || moderate < 0 || low < 0 || total <= 0) {
+            throw new IllegalArgumentException("Severity weights must be non-negative and not all zero");
+        }
+        this.random = new Random(seed);
+        this.rows = rows;
+        this.columns = columns;
+        this.zoneSize = zoneSize;
+        this.arrival = arrival;
+        this.rate = rate;
+        this.severityWeights = new double[]{high / total, moderate / total, low / total};
+        this.droneRequestRatio = droneRequestRatio;
+        this.start = start;
+        this.nextArrival = interArrival();
+    }
+
+    /**
+     * Builds a generator from system properties:
+     * - `-Dworkload.seed` (1), `-Dworkload.rows` and `-Dworkload.columns` (10),
+     * `-Dworkload.zoneSize` (500)
+     * - `-Dworkload.arrival=poisson|bursty|diurnal` (poisson), `-Dworkload.rate`
+     * incidents per second (1)
+     * - `-Dworkload.severity` as high:moderate:low weights (1:1:1),
+     * `-Dworkload.droneRequests` ratio (0.1)
+     * - `-Dworkload.start` time of day (00:00:00)
+     */
+    public static WorkloadGenerator fromSystemProperties() {
+        String[] weights = System.getProperty("workload.severity", "1:1:1").split(":");
+        if (weights.length != 3) {
+            throw new IllegalArgumentException("workload.severity must be high:moderate:low");
+        }
+        return new WorkloadGenerator(
+                Long.getLong("workload.seed", 1),
+                Integer.getInteger("workload.rows", 10),
+                Integer.getInteger("workload.columns", 10),
+                Integer.getInteger("workload.zoneSize", 500),
+                Arrival.valueOf(System.getProperty("workload.arrival", "poisson").toUpperCase()),
+                Double.parseDouble(System.getProperty("workload.rate", "1")),
+                Double.parseDouble(weights[0]), Double.parseDouble(weights[1]), Double.parseDouble(weights[2]),
+                Double.parseDouble(System.getProperty("workload.droneRequests", "0.1")),
+                LocalTime.parse(System.getProperty("workload.start", "00:00:00")));
+    }
+
+    // ========== ZONES ==========
+
+    /**
+     * Lays out the grid, numbering zones from 1 row by row.
+     *
+     * @return The zones by id, in id order.
+     */
+    public Map<Integer, Zone> getZones() {
+        Map<Integer, Zone> zones = new LinkedHashMap<>();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int id = zoneId(row, column);
+                zones.put(id, new Zone(id, column * zoneSize, row * zoneSize,
+                        (column + 1) * zoneSize, (row + 1) * zoneSize));
+            }
+        }
+        return zones;
+    }
+
+    private int zoneId(int row, int column) {
+        return row * columns + column + 1;
+    }
+
+    // ========== INCIDENTS ==========
+
+    /**
+     * Generates the next incident; offsets never decrease.
+     */
+    public Incident next() {
+        while (pending.isEmpty() || nextArrival <= pending.peek().getOffsetSeconds()) {
+            arrive(nextArrival);
+            nextArrival += interArrival();
+        }
+        return pending.poll();
+    }
+
+    /**
+     * @return The time of day of an incident.
+     */
+    public LocalTime timeOf(Incident incident) {
+        return start.plusNanos((long) (incident.getOffsetSeconds() * TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    /**
+     * Adds what the process produces at `time`: one incident, or a front of them.
+     */
+    private void arrive(double time) {
+        if (arrival == Arrival.DIURNAL && random.nextDouble() * (1 + DIURNAL_AMPLITUDE) > diurnalFactor(time)) {
+            return; // Thinned: candidates come at the peak rate and are kept in proportion to the rate now
+        }
+        int row = random.nextInt(rows);
+        int column = random.nextInt(columns);
+        if (arrival != Arrival.BURSTY) {
+            pending.add(incident(time, row, column));
+            return;
+        }
+
+        // A front moves away from where it started, drifting sideways now and then
+        int[] direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+        int size = 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - 1 / BURST_SIZE)); // Geometric, mean BURST_SIZE
+        double meanGap = BURST_SECONDS / BURST_SIZE;
+        for (int i = 0; i < size; i++) {
+            pending.add(incident(time, row, column));
+            time += -Math.log(1 - random.nextDouble()) * meanGap;
+            int sideways = random.nextInt(3) - 1;
+            row = clamp(row + direction[1] + (direction[0] != 0 ? sideways : 0), rows);
+            column = clamp(column + direction[0] + (direction[1] != 0 ? sideways : 0), columns);
+        }
+    }
+
+    private Incident incident(double time, int row, int column) {
+        Event.Type type = random.nextDouble() < droneRequestRatio ? Event.Type.DRONE_REQUEST : Event.Type.FIRE_DETECTED;
+        double pick = random.nextDouble();
+        Event.Severity severity = pick < severityWeights[0] ? Event.Severity.HIGH
+                : pick < severityWeights[0] + severityWeights[1] ? Event.Severity.MODERATE
+                : Event.Severity.LOW;
+        return new Incident(time, zoneId(row, column), type, severity);
+    }
+
+    /**
+     * @return Seconds to the next arrival (or front, or diurnal candidate).
+     */
+    private double interArrival() {
+        double processRate = arrival == Arrival.BURSTY ? rate / BURST_SIZE
+                : arrival == Arrival.DIURNAL ? rate * (1 + DIURNAL_AMPLITUDE)
+                : rate;
+        return -Math.log(1 - random.nextDouble()) / processRate;
+    }
+
+    /**
+     * @return The diurnal rate at `time` as a multiple of the mean.
+     */
+    private double diurnalFactor(double time) {
+        double secondOfDay = start.toSecondOfDay() + time;
+        return 1 + DIURNAL_AMPLITUDE * Math.cos(2 * Math.PI * (secondOfDay - PEAK_HOUR * 3600) / SECONDS_PER_DAY);
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    // ========== OUTPUT ==========
+
+    /**
+     * Writes the grid in FireIncident's zone file format.
+     */
+    public void writeZones(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Zone ID\tZone Start\tZone End\n");
+            for (Zone zone : getZones().values()) {
+                writer.write(zone.getId() + "\t(" + zone.getStart()[0] + ";" + zone.getStart()[1] + ")\t("
+                        + zone.getEnd()[0] + ";" + zone.getEnd()[1] + ")\n");
+            }
+        }
+    }
+
+    /**
+     * Writes the next `count` incidents in FireIncident's event file format.
+     */
+    public void writeEvents(Path file, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Time\tZone ID\tEvent type\tSeverity\n");
+            for (int i = 0; i < count; i++) {
+                Incident incident = next();
+                writer.write(timeOf(incident).format(TIME_FORMAT) + "\t" + incident.getZone() + "\t"
+                        + incident.getType() + "\t" + severityName(incident.getSeverity()) + "\n");
+            }
+        }
+    }
+
+    private static String severityName(Event.Severity severity) {
+        switch (severity) {
+            case HIGH:
+                return "High";
+            case MODERATE:
+                return "Moderate";
+            default:
+                return "Low";
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        WorkloadGenerator generator = fromSystemProperties();
+        int events = Integer.getInteger("workload.events", 1000);
+        if (args.length > 0 && args[0].equals("--send")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+            FireIncident fireIncident = new FireIncident(generator, events, port, IncidentReplay.speedFromProperty());
+            fireIncident.start();
+            fireIncident.join();
+            return;
+        }
+        Path zoneFile = Paths.get(args.length > 0 ? args[0] : "src/Generated_Zone_File.csv");
+        Path eventFile = Paths.get(args.length > 1 ? args[1] : "src/Generated_Event_File.csv");
+        generator.writeZones(zoneFile);
+        generator.writeEvents(eventFile, events);
+        System.out.println("Wrote " + (generator.rows * generator.columns) + " zones to " + zoneFile
+                + " and " + events + " events to " + eventFile);
+    }
+}
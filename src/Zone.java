@@ -1,3 +1,5 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -5,9 +7,10 @@ import java.io.Serializable;
  * Each zone has an identifier and boundary coordinates.
  */
 public class Zone implements Serializable {
-    private int id;
-    private int[] start; // Start coordinates (x, y)
-    private int[] end; // End coordinates (x, y)
+    private final int id;
+    private final int[] start; // Start coordinates (x, y)
+    private final int[] end; // End coordinates (x, y)
+    private transient double centerX, centerY; // Read on every dispatch; not serialized, readObject recomputes them
     private static final long serialVersionUID = 1L;//added for serialization compatibility
 
     /**
@@ -23,6 +26,17 @@ public class Zone implements Serializable {
         this.id = zoneID;
         this.start = new int[]{startX, startY};
         this.end = new int[]{endX, endY};
+        computeCenter();
+    }
+
+    private void computeCenter() {
+        this.centerX = start[0] + (double) (end[0] - start[0]) / 2;
+        this.centerY = start[1] + (double) (end[1] - start[1]) / 2;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        computeCenter();
     }
 
     /**
@@ -52,9 +66,19 @@ public class Zone implements Serializable {
         return end;
     }
 
+    public double getCenterX() {
+        return centerX;
+    }
+
+    public double getCenterY() {
+        return centerY;
+    }
+
+    /**
+     * @return A new array holding the center's x and y; getCenterX and getCenterY
+     * do not allocate.
+     */
     public double[] getCenter() {
-        double zoneX = this.start[0] + (double) (this.end[0] - this.start[0]) /2;
-        double zoneY = this.start[1] + (double) (this.end[1] - this.start[1]) /2;
-        return new double[]{zoneX, zoneY};
+        return new double[]{centerX, centerY};
     }
 }
\ No newline at end of file
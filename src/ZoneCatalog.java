@@ -0,0 +1,512 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The ZoneCatalog class holds every zone of a map in packed primitive arrays, read
+ * only once built, so FireIncident, the Scheduler and the View can share one copy.
+ *
+ * - Zones are sorted by id. When ids are dense (as in zone files numbered from 1)
+ * an id is its own index less the first id; otherwise it is found by binary search.
+ * - Bounds (start x, start y, end x, end y) and centers sit in one int[] and one
+ * double[], four and two values per zone.
+ * - A uniform grid lists the zones overlapping each cell (in one int[], by cell), so
+ * zoneAt, nearest and forEachWithin only look at the zones near the point.
+ * - zone(id) returns the same Zone for an id every time, created when first asked
+ * for, so a catalog of millions of zones only builds objects for the zones in use.
+ *
+ * A zone covers [start, end) on each axis: a point on a shared edge is in the zone
+ * that starts there. Where zones overlap, queries prefer the lowest id.
+ *
+ * Every catalog has a version, a hash of its ids and bounds, so two processes that
+ * read (or were sent) the same zones agree on it. Catalogs registered under their
+ * version let EventCodec turn a zone reference (version and id) back into a Zone,
+ * and a Download rebuilds a catalog sent in chunks.
+ */
+public final class ZoneCatalog {
+    public static final int NONE = -1;
+
+    // Catalogs this process can resolve zone references against, by version
+    private static final Map<Integer, ZoneCatalog> REGISTERED = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int version;
+    private final int[] ids;
+    private final int[] bounds; // startX, startY, endX, endY per zone, with start <= end
+    private final double[] centers; // x, y per zone
+    private final boolean dense; // ids[i] == ids[0] + i
+    private final Zone[] zones; // Created on demand; Zone is immutable, so a race only builds it twice
+
+    // Grid over the zones' extent
+    private final int minX, minY;
+    private final int cellSize;
+    private final int columns, rows;
+    private final int[] cellStart; // cellZones[cellStart[c] .. cellStart[c + 1]) are the zones in cell c
+    private final int[] cellZones; // Zone indexes, ascending within a cell
+
+    /**
+     * Builds a catalog of parsed zone rows; a repeated id keeps its last row.
+     */
+    public ZoneCatalog(IncidentFileParser.Zones zones) {
+        this(zones.size(), zones.ids, zones.startX, zones.startY, zones.endX, zones.endY);
+    }
+
+    /**
+     * Builds a catalog of zones; a repeated id keeps the last one.
+     */
+    public ZoneCatalog(Collection<Zone> zones) {
+        this(zones.size(), new int[zones.size()], new int[zones.size()], new int[zones.size()],
+                new int[zones.size()], new int[zones.size()], zones);
+    }
+
+    private ZoneCatalog(int count, int[] ids, int[] startX, int[] startY, int[] endX, int[] endY,
+                        Collection<Zone> zones) {
+        this(count, fill(zones, ids, startX, startY, endX, endY), startX, startY, endX, endY);
+    }
+
+    private static int[] fill(Collection<Zone> zones, int[] ids, int[] startX, int[] startY, int[] endX, int[] endY) {
+        int i = 0;
+        for (Zone zone : zones) {
+            ids[i] = zone.getId();
+            startX[i] = zone.getStart()[0];
+            startY[i] = zone.getStart()[1];
+            endX[i] = zone.getEnd()[0];
+            endY[i] = zone.getEnd()[1];
+            i++;
+        }
+        return ids;
+    }
+
+    private ZoneCatalog(int count, int[] ids, int[] startX, int[] startY, int[] endX, int[] endY) {
+        // Rows in id order, keeping file order among equal ids; zone files are usually in order already
+        boolean ascending = true;
+        for (int i = 1; i < count && ascending; i++) {
+            ascending = ids[i - 1] < ids[i];
+        }
+        int unique = count;
+        int[] zoneRows = null; // Row of each zone, when not simply its index
+        if (!ascending) {
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = (long) ids[i] << 32 | i;
+            }
+            Arrays.sort(order);
+            unique = 0;
+            zoneRows = new int[count];
+            for (int i = 0; i < count; i++) {
+                if (i + 1 == count || (int) (order[i + 1] >> 32) != (int) (order[i] >> 32)) {
+                    zoneRows[unique++] = (int) order[i]; // The last row of each id
+                }
+            }
+        }
+
+        this.size = unique;
+        this.ids = new int[size];
+        this.bounds = new int[size * 4];
+        this.centers = new double[size * 2];
+        this.zones = new Zone[size];
+        int x1 = Integer.MAX_VALUE, y1 = Integer.MAX_VALUE, x2 = Integer.MIN_VALUE, y2 = Integer.MIN_VALUE;
+        long width = 0, height = 0;
+        for (int i = 0; i < size; i++) {
+            int row = zoneRows == null ? i : zoneRows[i];
+            this.ids[i] = ids[row];
+            int sx = Math.min(startX[row], endX[row]), ex = Math.max(startX[row], endX[row]);
+            int sy = Math.min(startY[row], endY[row]), ey = Math.max(startY[row], endY[row]);
+            bounds[i * 4] = sx;
+            bounds[i * 4 + 1] = sy;
+            bounds[i * 4 + 2] = ex;
+            bounds[i * 4 + 3] = ey;
+            // As Zone.getCenter, from the corners as given
+            centers[i * 2] = startX[row] + (double) (endX[row] - startX[row]) / 2;
+            centers[i * 2 + 1] = startY[row] + (double) (endY[row] - startY[row]) / 2;
+            x1 = Math.min(x1, sx);
+            y1 = Math.min(y1, sy);
+            x2 = Math.max(x2, ex);
+            y2 = Math.max(y2, ey);
+            width += ex - sx;
+            height += ey - sy;
+        }
+        this.dense = size == 0 || (long) this.ids[size - 1] - this.ids[0] == size - 1;
+        this.version = 31 * Arrays.hashCode(this.ids) + Arrays.hashCode(bounds);
+
+        // Cells about the size of an average zone, and no more cells than about four per zone
+        this.minX = size == 0 ? 0 : x1;
+        this.minY = size == 0 ? 0 : y1;
+        long extentX = size == 0 ? 1 : (long) x2 - x1 + 1;
+        long extentY = size == 0 ? 1 : (long) y2 - y1 + 1;
+        double average = size == 0 ? 1 : Math.max(1, (double) (width + height) / (2 * size));
+        double smallest = Math.sqrt((double) extentX * extentY / (4.0 * Math.max(1, size)));
+        long cell = (long) Math.ceil(Math.max(average, smallest));
+        while (((extentX + cell - 1) / cell) * ((extentY + cell - 1) / cell) > 4L * size + 16) {
+            cell *= 2; // A long, thin map
+        }
+        this.cellSize = (int) Math.min(Integer.MAX_VALUE / 2, cell);
+        this.columns = (int) ((extentX + cellSize - 1) / cellSize);
+        this.rows = (int) ((extentY + cellSize - 1) / cellSize);
+
+        // Count the zones overlapping each cell, then place them
+        this.cellStart = new int[columns * rows + 1];
+        for (int i = 0; i < size; i++) {
+            for (int cy = cellY(bounds[i * 4 + 1]); cy <= lastCellY(i); cy++) {
+                for (int cx = cellX(bounds[i * 4]); cx <= lastCellX(i); cx++) {
+                    cellStart[cy * columns + cx + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        this.cellZones = new int[cellStart[columns * rows]];
+        int[] next = Arrays.copyOf(cellStart, columns * rows);
+        for (int i = 0; i < size; i++) {
+            for (int cy = cellY(bounds[i * 4 + 1]); cy <= lastCellY(i); cy++) {
+                for (int cx = cellX(bounds[i * 4]); cx <= lastCellX(i); cx++) {
+                    cellZones[next[cy * columns + cx]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a zone file (see IncidentFileParser); invalid rows are left out.
+     */
+    public static ZoneCatalog read(Path file) throws IOException {
+        return new ZoneCatalog(IncidentFileParser.parseZones(file));
+    }
+
+    // ========== VERSIONS ==========
+
+    /**
+     * @return A hash of the ids and bounds, equal for catalogs of the same zones
+     * however they were built.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Makes a catalog available to decode zone references in this process; one
+     * already registered with the same version is kept.
+     *
+     * @return The catalog now registered under the version.
+     */
+    public static ZoneCatalog register(ZoneCatalog catalog) {
+        ZoneCatalog known = REGISTERED.putIfAbsent(catalog.version, catalog);
+        return known == null ? catalog : known;
+    }
+
+    /**
+     * @return The registered catalog with this version, or null if there is none.
+     */
+    public static ZoneCatalog registered(int version) {
+        return REGISTERED.get(version);
+    }
+
+    /**
+     * Collects a catalog sent in chunks of consecutive zones (see
+     * EventCodec#encodeZones), starting with no version until the first chunk.
+     * A version already registered in this process is complete after that first
+     * chunk, so each process fetches a catalog only once.
+     */
+    public static final class Download {
+        private int version;
+        private int total = -1;
+        private int received;
+        private int[] ids, startX, startY, endX, endY;
+
+        /**
+         * Starts (or checks) the download on a chunk's header.
+         *
+         * @return false if the chunk belongs to another catalog or is not the next one.
+         */
+        boolean start(int version, int total, int first) {
+            if (this.total < 0) {
+                if (total < 0) {
+                    return false;
+                }
+                this.version = version;
+                this.total = total;
+                if (registered(version) == null) {
+                    ids = new int[total];
+                    startX = new int[total];
+                    startY = new int[total];
+                    endX = new int[total];
+                    endY = new int[total];
+                }
+            }
+            return this.version == version && this.total == total && first == received;
+        }
+
+        void add(int id, int sx, int sy, int ex, int ey) {
+            if (ids != null) {
+                ids[received] = id;
+                startX[received] = sx;
+                startY[received] = sy;
+                endX[received] = ex;
+                endY[received] = ey;
+            }
+            received++;
+        }
+
+        public int getVersion() { return version; }
+        public int getTotal() { return total; }
+
+        /**
+         * @return The index of the first zone still to fetch.
+         */
+        public int getReceived() {
+            return received;
+        }
+
+        public boolean isComplete() {
+            return total >= 0 && (received == total || registered(version) != null);
+        }
+
+        /**
+         * Builds the downloaded catalog, or returns the registered one with its version.
+         *
+         * @throws IllegalStateException If the download is incomplete or the zones
+         *                               do not hash to the sender's version.
+         */
+        public ZoneCatalog toCatalog() {
+            ZoneCatalog known = registered(version);
+            if (known != null) {
+                return known;
+            }
+            if (!isComplete()) {
+                throw new IllegalStateException("Zone catalog download incomplete: " + received + " of " + total);
+            }
+            ZoneCatalog catalog = new ZoneCatalog(total, ids, startX, startY, endX, endY);
+            if (catalog.version != version) {
+                throw new IllegalStateException("Zone catalog has version " + catalog.version + ", expected " + version);
+            }
+            return catalog;
+        }
+    }
+
+    // ========== ZONES ==========
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The index of the zone with this id, or NONE.
+     */
+    public int indexOf(int id) {
+        if (size == 0) {
+            return NONE;
+        }
+        if (dense) {
+            long index = (long) id - ids[0];
+            return index >= 0 && index < size ? (int) index : NONE;
+        }
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : NONE;
+    }
+
+    public boolean contains(int id) {
+        return indexOf(id) != NONE;
+    }
+
+    public int id(int index) { return ids[index]; }
+    public int startX(int index) { return bounds[index * 4]; }
+    public int startY(int index) { return bounds[index * 4 + 1]; }
+    public int endX(int index) { return bounds[index * 4 + 2]; }
+    public int endY(int index) { return bounds[index * 4 + 3]; }
+    public double centerX(int index) { return centers[index * 2]; }
+    public double centerY(int index) { return centers[index * 2 + 1]; }
+
+    /**
+     * @return The zone with this id, the same object on every call, or null if there
+     * is none.
+     */
+    public Zone zone(int id) {
+        int index = indexOf(id);
+        if (index == NONE) {
+            return null;
+        }
+        Zone zone = zones[index];
+        if (zone == null) {
+            zone = new Zone(ids[index], bounds[index * 4], bounds[index * 4 + 1], bounds[index * 4 + 2],
+                    bounds[index * 4 + 3]);
+            zones[index] = zone;
+        }
+        return zone;
+    }
+
+    /**
+     * @return Every zone by id, in id order.
+     */
+    public Map<Integer, Zone> toMap() {
+        Map<Integer, Zone> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(ids[i], zone(ids[i]));
+        }
+        return map;
+    }
+
+    // ========== QUERIES ==========
+
+    /**
+     * @return The id of the zone containing the point (the lowest, where zones
+     * overlap), or NONE.
+     */
+    public int zoneAt(double x, double y) {
+        if (size == 0 || x < minX || y < minY) {
+            return NONE;
+        }
+        int cx = cellX(x), cy = cellY(y);
+        if (cx >= columns || cy >= rows) {
+            return NONE;
+        }
+        int cell = cy * columns + cx;
+        for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+            int i = cellZones[k];
+            if (x >= bounds[i * 4] && x < bounds[i * 4 + 2] && y >= bounds[i * 4 + 1] && y < bounds[i * 4 + 3]) {
+                return ids[i];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * @return The id of the zone closest to the point (0 away when it is inside; the
+     * lowest id on a tie), or NONE if the catalog is empty.
+     */
+    public int nearest(double x, double y) {
+        if (size == 0) {
+            return NONE;
+        }
+        int cx = clamp(cellX(x), columns), cy = clamp(cellY(y), rows);
+        int best = NONE;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int ring = 0; ; ring++) {
+            int x0 = cx - ring, x1 = cx + ring, y0 = cy - ring, y1 = cy + ring;
+            // How close the ring's cells inside the grid come to the point
+            double reach = Math.min(Math.min(cellsDistance(x0, x1, y0, y0, x, y), cellsDistance(x0, x1, y1, y1, x, y)),
+                    Math.min(cellsDistance(x0, x0, y0, y1, x, y), cellsDistance(x1, x1, y0, y1, x, y)));
+            if (reach > bestDistance || reach == Double.POSITIVE_INFINITY) {
+                break;
+            }
+            for (int row = Math.max(0, y0); row <= Math.min(rows - 1, y1); row++) {
+                boolean edge = row == y0 || row == y1;
+                int from = edge ? Math.max(0, x0) : x0, to = edge ? Math.min(columns - 1, x1) : x1;
+                for (int column = from; column <= to; column += edge || ring == 0 ? 1 : 2 * ring) {
+                    if (column < 0 || column >= columns) {
+                        continue;
+                    }
+                    int cell = row * columns + column;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int i = cellZones[k];
+                        double distance = distance(i, x, y);
+                        if (distance < bestDistance || (distance == bestDistance && i < best)) {
+                            bestDistance = distance;
+                            best = i;
+                        }
+                    }
+                }
+            }
+        }
+        return ids[best];
+    }
+
+    /**
+     * Passes the id of every zone that comes within `radius` of the point to the
+     * action, once each (in no particular order).
+     */
+    public void forEachWithin(double x, double y, double radius, IntConsumer action) {
+        if (size == 0 || radius < 0) {
+            return;
+        }
+        // A zone ending exactly at x - radius is within reach but not in that cell
+        int fromX = clamp(cellX(Math.nextDown(x - radius)), columns), toX = clamp(cellX(x + radius), columns);
+        int fromY = clamp(cellY(Math.nextDown(y - radius)), rows), toY = clamp(cellY(y + radius), rows);
+        for (int cy = fromY; cy <= toY; cy++) {
+            for (int cx = fromX; cx <= toX; cx++) {
+                int cell = cy * columns + cx;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = cellZones[k];
+                    // A zone in several cells is reported from the first of them the query covers
+                    if (cx == Math.max(fromX, cellX(bounds[i * 4])) && cy == Math.max(fromY, cellY(bounds[i * 4 + 1]))
+                            && distance(i, x, y) <= radius) {
+                        action.accept(ids[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The ids of the zones within `radius` of the point, ascending.
+     */
+    public int[] within(double x, double y, double radius) {
+        IntStream.Builder found = IntStream.builder();
+        forEachWithin(x, y, radius, found);
+        return found.build().sorted().toArray();
+    }
+
+    /**
+     * @return How far the point is from the zone at this index, 0 inside it.
+     */
+    private double distance(int i, double x, double y) {
+        double dx = Math.max(0, Math.max(bounds[i * 4] - x, x - bounds[i * 4 + 2]));
+        double dy = Math.max(0, Math.max(bounds[i * 4 + 1] - y, y - bounds[i * 4 + 3]));
+        return dx == 0 ? dy : dy == 0 ? dx : Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * @return How far the point is from the cells [x0, x1] by [y0, y1] that lie in
+     * the grid, or infinity if none do.
+     */
+    private double cellsDistance(int x0, int x1, int y0, int y1, double x, double y) {
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(columns - 1, x1);
+        y1 = Math.min(rows - 1, y1);
+        if (x0 > x1 || y0 > y1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double dx = Math.max(0, Math.max(minX + (double) x0 * cellSize - x, x - (minX + (double) (x1 + 1) * cellSize)));
+        double dy = Math.max(0, Math.max(minY + (double) y0 * cellSize - y, y - (minY + (double) (y1 + 1) * cellSize)));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private int cellX(int x) {
+        return (int) (((long) x - minX) / cellSize);
+    }
+
+    private int cellY(int y) {
+        return (int) (((long) y - minY) / cellSize);
+    }
+
+    private int cellX(double x) {
+        return (int) Math.max(-1, Math.min(Integer.MAX_VALUE / 2, Math.floor((x - minX) / cellSize)));
+    }
+
+    private int cellY(double y) {
+        return (int) Math.max(-1, Math.min(Integer.MAX_VALUE / 2, Math.floor((y - minY) / cellSize)));
+    }
+
+    /**
+     * The last cell of a zone on each axis; its end is exclusive, but an empty zone
+     * still sits in the cell of its start.
+     */
+    private int lastCellX(int i) {
+        return Math.max(cellX(bounds[i * 4]), Math.min(columns - 1, cellX(bounds[i * 4 + 2] - 1)));
+    }
+
+    private int lastCellY(int i) {
+        return Math.max(cellY(bounds[i * 4 + 1]), Math.min(rows - 1, cellY(bounds[i * 4 + 3] - 1)));
+    }
+
+    private static int clamp(int cell, int cells) {
+        return Math.max(0, Math.min(cells - 1, cell));
+    }
+}
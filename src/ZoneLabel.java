@@ -1,8 +1,8 @@
 import java.awt.*;
-import java.awt.geom.RoundRectangle2D;
 import javax.swing.*;
 
 public class ZoneLabel extends JPanel {
+    private static final long serialVersionUID = 1L;
     private final int zoneNumber;
     private Color zoneColor;
     private final float transparency;
@@ -23,39 +23,45 @@ public class ZoneLabel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g.create();
+        paintZone(g2d, zoneNumber, zoneColor, transparency, getWidth(), getHeight());
+        g2d.dispose();
+    }
 
+    /**
+     * Draws a zone with its top left corner at the origin, as a ZoneLabel of that
+     * size would (also used by MapCanvas, which draws zones without components).
+     */
+    static void paintZone(Graphics2D g2d, int zoneNumber, Color zoneColor, float transparency, int width, int height) {
         // Enable anti-aliasing for smoother edges
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
         // Set composite for transparency
+        Composite composite = g2d.getComposite();
         g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, transparency));
 
-        // Draw semi-transparent rounded rectangle
-        int rectWidth = getWidth() - 10;
-        int rectHeight = getHeight() - 10;
-        RoundRectangle2D rect = new RoundRectangle2D.Float(5, 5, rectWidth, rectHeight, 20, 20);
         g2d.setColor(zoneColor);
-        g2d.fillRect(0,0,getWidth(),getHeight());
+        g2d.fillRect(0, 0, width, height);
         g2d.setColor(Color.BLACK);
-        g2d.drawRect(0, 0, getWidth()-1, getHeight()-1); //border
+        g2d.drawRect(0, 0, width - 1, height - 1); //border
 
         // Draw white circle in center
         g2d.setColor(Color.WHITE);
         // Calculate circle size based on current dimensions
-        int circleSize = Math.min(getWidth(), getHeight()) / 2;
-        g2d.fillOval((getWidth() - circleSize)/2, (getHeight() - circleSize)/2, circleSize, circleSize);
+        int circleSize = Math.min(width, height) / 2;
+        g2d.fillOval((width - circleSize) / 2, (height - circleSize) / 2, circleSize, circleSize);
 
         // Draw number
         g2d.setColor(Color.BLACK);
-        Font font = new Font("Arial", Font.BOLD, circleSize/2);
+        Font font = new Font("Arial", Font.BOLD, circleSize / 2);
         g2d.setFont(font);
-        
+
         String text = Integer.toString(zoneNumber);
         FontMetrics fm = g2d.getFontMetrics();
-        int textX = (getWidth() - fm.stringWidth(text)) / 2;
-        int textY = (getHeight() - fm.getHeight()) / 2 + fm.getAscent();
-        
+        int textX = (width - fm.stringWidth(text)) / 2;
+        int textY = (height - fm.getHeight()) / 2 + fm.getAscent();
+
         g2d.drawString(text, textX, textY);
+        g2d.setComposite(composite);
     }
 
     public static void main(String[] args) {
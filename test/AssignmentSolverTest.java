@@ -0,0 +1,97 @@
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AssignmentSolver and BatchDispatcher classes.
+ * This class checks solved assignments against brute force on small matrices and
+ * the slots and costs a batch plan is built from.
+ */
+public class AssignmentSolverTest {
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(7);
+        AssignmentSolver solver = new AssignmentSolver();
+        for (int round = 0; round < 300; round++) {
+            int rows = 1 + random.nextInt(6);
+            int cols = 1 + random.nextInt(6);
+            double[][] cost = new double[rows][cols];
+            for (double[] row : cost) {
+                for (int j = 0; j < cols; j++) {
+                    row[j] = random.nextInt(100);
+                }
+            }
+
+            int[] matched = solver.solve(cost);
+            assertEquals(rows, matched.length);
+            boolean[] used = new boolean[cols];
+            int pairs = 0;
+            double total = 0;
+            for (int i = 0; i < rows; i++) {
+                if (matched[i] >= 0) {
+                    assertFalse(used[matched[i]]);
+                    used[matched[i]] = true;
+                    total += cost[i][matched[i]];
+                    pairs++;
+                }
+            }
+            assertEquals(Math.min(rows, cols), pairs);
+            assertEquals(bruteForce(cost, 0, new boolean[cols], Math.min(rows, cols), rows - Math.min(rows, cols)), total, 1e-9);
+        }
+    }
+
+    @Test
+    public void testBatchPlan() {
+        // Each fire has a drone next to it; the drone in between tops up the HIGH fire
+        Event high = event(1, Event.Severity.HIGH, new Zone(1, 0, 0, 20, 20));
+        Event moderate = event(2, Event.Severity.MODERATE, new Zone(2, 1000, 0, 1020, 20));
+        List<DroneRegistry.Snapshot> drones = new ArrayList<>();
+        drones.add(new DroneRegistry.Snapshot(0, 500, 10, 15.0, 0, DroneRegistry.Status.IDLE, 0));
+        drones.add(new DroneRegistry.Snapshot(1, 5, 10, 15.0, 0, DroneRegistry.Status.IDLE, 0));
+        drones.add(new DroneRegistry.Snapshot(2, 1010, 10, 15.0, 0, DroneRegistry.Status.IDLE, 0));
+
+        List<Event> events = new ArrayList<>();
+        events.add(high);
+        events.add(moderate);
+        List<BatchDispatcher.Assignment> plan = new BatchDispatcher().plan(events, drones);
+
+        // 30 units for the HIGH fire and 20 for the MODERATE one: two slots each, all three drones used
+        assertEquals(3, plan.size());
+        for (BatchDispatcher.Assignment assignment : plan) {
+            assertEquals(assignment.getDroneId() == 2 ? 2 : 1, assignment.getEventId());
+        }
+    }
+
+    private static Event event(int id, Event.Severity severity, Zone zone) {
+        double required = severity == Event.Severity.HIGH ? 30.0 : 20.0;
+        return new Event(id, LocalTime.of(14, 0), zone, Event.Type.FIRE_DETECTED, severity, required, 0.0, 0.0);
+    }
+
+    /**
+     * Cheapest total over every way of matching the remaining rows, some of which
+     * (`skips` of them) may be left unmatched.
+     */
+    private static double bruteForce(double[][] cost, int row, boolean[] used, int pairsLeft, int skips) {
+        if (row == cost.length) {
+            return pairsLeft == 0 ? 0 : Double.POSITIVE_INFINITY;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        if (skips > 0) {
+            best = bruteForce(cost, row + 1, used, pairsLeft, skips - 1);
+        }
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, used, pairsLeft - 1, skips));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+}
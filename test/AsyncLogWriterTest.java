@@ -0,0 +1,105 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AsyncLogWriter class.
+ * This class checks that lines from many threads all reach the file in each
+ * thread's order, that flush() makes them visible, that the file rotates and
+ * that producers stop waiting once the writer has failed.
+ */
+public class AsyncLogWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testConcurrentAppend() throws Exception {
+        Path file = directory.resolve("logs.txt");
+        int threads = 4;
+        int lines = 20000;
+        // A small ring so producers keep catching up with the writer
+        try (AsyncLogWriter writer = new AsyncLogWriter(file, false, 64, AsyncLogWriter.Overflow.BLOCK,
+                AsyncLogWriter.Fsync.NEVER, 0, 0, 0)) {
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                producers.add(new Thread(() -> {
+                    for (int i = 0; i < lines; i++) {
+                        assertTrue(writer.append(thread + "," + i));
+                    }
+                }));
+            }
+            producers.forEach(Thread::start);
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            writer.flush();
+
+            int[] next = new int[threads];
+            List<String> written = Files.readAllLines(file);
+            assertEquals(threads * lines, written.size());
+            for (String line : written) {
+                String[] parts = line.split(",");
+                int thread = Integer.parseInt(parts[0]);
+                assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+            }
+            assertEquals(0, writer.getDropped());
+        }
+    }
+
+    @Test
+    public void testRotation() throws IOException {
+        Path file = directory.resolve("logs.txt");
+        Files.writeString(file, "from an earlier run\n");
+        AsyncLogWriter writer = new AsyncLogWriter(file, false, 1024, AsyncLogWriter.Overflow.BLOCK,
+                AsyncLogWriter.Fsync.BATCH, 0, 100, 2);
+        for (int i = 0; i < 100; i++) {
+            writer.append(String.format("line %04d", i)); // 10 bytes with the newline, 10 per file
+        }
+        writer.close();
+        assertFalse(writer.append("after close"));
+
+        List<String> live = Files.readAllLines(file);
+        List<String> first = Files.readAllLines(directory.resolve("logs.txt.1"));
+        List<String> second = Files.readAllLines(directory.resolve("logs.txt.2"));
+        assertFalse(Files.exists(directory.resolve("logs.txt.3")));
+        assertEquals(List.of("line 0090", "line 0091", "line 0092", "line 0093", "line 0094",
+                "line 0095", "line 0096", "line 0097", "line 0098", "line 0099"), live);
+        assertEquals("line 0080", first.get(0));
+        assertEquals("line 0070", second.get(0));
+        assertFalse(live.contains("from an earlier run"));
+    }
+
+    @Test
+    public void testAppendAfterWriterFailed() throws IOException {
+        Path file = directory.resolve("logs.txt");
+        // A non-empty directory where the rotated file goes makes the first rotation fail
+        Files.createDirectories(directory.resolve("logs.txt.1"));
+        Files.writeString(directory.resolve("logs.txt.1").resolve("blocker"), "x");
+        AsyncLogWriter writer = new AsyncLogWriter(file, false, 2, AsyncLogWriter.Overflow.BLOCK,
+                AsyncLogWriter.Fsync.NEVER, 0, 10, 1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            int accepted = 0;
+            for (int i = 0; i < 100; i++) {
+                if (writer.append(String.format("line %04d", i))) {
+                    accepted++;
+                }
+            }
+            assertTrue(accepted < 100);
+            assertFalse(writer.append("after the failure"));
+            writer.flush();
+            writer.close();
+        });
+        assertTrue(writer.getDropped() > 0);
+    }
+}
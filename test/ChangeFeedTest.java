@@ -0,0 +1,74 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ChangeFeed class.
+ * This class checks that repeated changes collapse to one entry per id and that
+ * the reader is woken by a change and not otherwise.
+ */
+public class ChangeFeedTest {
+
+    @Test
+    public void testCoalescing() {
+        ChangeFeed feed = new ChangeFeed();
+        for (int i = 0; i < 1000; i++) {
+            feed.droneChanged(i % 3);
+        }
+        feed.eventChanged(7);
+        feed.eventChanged(7);
+
+        List<Integer> drones = new ArrayList<>();
+        feed.drainDrones(drones::add);
+        drones.sort(null);
+        assertEquals(List.of(0, 1, 2), drones);
+
+        List<Integer> events = new ArrayList<>();
+        feed.drainEvents(events::add);
+        assertEquals(List.of(7), events);
+
+        // A change made while draining is kept for the next drain
+        List<Integer> again = new ArrayList<>();
+        feed.droneChanged(4);
+        feed.drainDrones(id -> {
+            again.add(id);
+            if (again.size() == 1) {
+                feed.droneChanged(id);
+            }
+        });
+        feed.drainDrones(again::add);
+        assertEquals(List.of(4, 4), again);
+    }
+
+    @Test
+    public void testAwait() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed();
+        assertFalse(feed.await(20, TimeUnit.MILLISECONDS));
+
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            feed.droneChanged(1);
+        });
+        long start = System.nanoTime();
+        writer.start();
+        assertTrue(feed.await(10, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        writer.join();
+
+        // Woken once per batch of changes, and by a signal with nothing marked
+        feed.droneChanged(2);
+        feed.droneChanged(3);
+        assertTrue(feed.await(0, TimeUnit.MILLISECONDS));
+        assertFalse(feed.await(0, TimeUnit.MILLISECONDS));
+        feed.signal();
+        assertTrue(feed.await(0, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,93 @@
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DroneHost class.
+ * This class runs a small hosted fleet against a Scheduler on ephemeral ports with
+ * reliable delivery over a lossy link, and checks that every reply reaches the
+ * drone it names.
+ */
+public class DroneHostTest {
+    private static final int DRONES = 200;
+    private static final int EVENTS = 3;
+
+    @Test
+    public void testFleetAgainstScheduler() throws Exception {
+        boolean reliable = WireFormat.reliable;
+        WireFormat.reliable = true;
+        try {
+            runFleet();
+        } finally {
+            WireFormat.reliable = reliable;
+        }
+    }
+
+    private void runFleet() throws Exception {
+        // Blocking mode: the dispatch thread races the drone thread that frees a drone
+        Scheduler scheduler = new Scheduler(0, 0, false);
+        Thread schedulerThread = new Thread(scheduler::activeAction);
+        schedulerThread.start();
+
+        InetAddress localhost = InetAddress.getLocalHost();
+        DatagramSocket fireSocket = new DatagramSocket();
+        ReliableChannel fireChannel = new ReliableChannel(fireSocket);
+        try {
+            // Events are queued before any drone is online, so each drone is dispatched
+            // as soon as it is free: its OK must still reach it before the event does
+            Set<Integer> eventIds = new HashSet<>();
+            for (int i = 0; i < EVENTS; i++) {
+                Event event = new Event(LocalTime.now(), new Zone(i + 1, 0, 0, 200, 200),
+                        Event.Type.FIRE_DETECTED, Event.Severity.LOW);
+                eventIds.add(event.getId());
+                fireChannel.send(event.createMessage("NEW_EVENT:"), localhost, scheduler.getFireIncidentPort());
+            }
+
+            // One shared socket carries every hosted drone's sequence numbers. Delayed and
+            // resent frames arrive after many newer ones, and must still be delivered
+            // and acknowledged once they are that far behind
+            DroneHost host = new DroneHost(scheduler.getDronePort(), new LossInjector(0.05, 0.1, 200, 42));
+            for (int i = 0; i < DRONES; i++) {
+                host.addDrone(null);
+            }
+            host.start();
+
+            // Every fire is put out by the hosted drone it was sent to
+            fireSocket.setSoTimeout(30000);
+            DatagramPacket packet = new DatagramPacket(new byte[1024], 1024);
+            while (!eventIds.isEmpty()) {
+                fireChannel.receive(packet);
+                String[] reply = new String(packet.getData(), packet.getOffset(), packet.getLength()).split(":");
+                if (reply[0].equals("SUCCESS")) {
+                    eventIds.remove(Integer.parseInt(reply[2]));
+                }
+            }
+
+            // Lost ONLINEs are resent until every drone has registered
+            long deadline = System.currentTimeMillis() + 10000;
+            while (scheduler.droneRegistry.size() < DRONES && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(DRONES, scheduler.droneRegistry.size());
+
+            // FINISH is routed to every drone, and their FINISHED replies stop the Scheduler
+            byte[] finish = "FINISH".getBytes();
+            fireChannel.send(finish, localhost, scheduler.getFireIncidentPort());
+            assertTimeoutPreemptively(Duration.ofSeconds(30), host::join);
+            assertEquals(0, host.getChannel().getDeliveryFailures());
+            schedulerThread.join(10000);
+            assertFalse(schedulerThread.isAlive());
+        } finally {
+            fireChannel.close();
+            fireSocket.close();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DroneMessage class.
+ * This class tests that both binary and text framing decode to the same
+ * typed message, that text framing matches the legacy strings, that truncated
+ * or garbled input is rejected, which FAULT_EVENTs carry an event id, and the
+ * zone catalog messages.
+ */
+public class DroneMessageTest {
+
+    @Test
+    public void testBinaryRoundTrip() {
+        byte[] data = new DroneMessage().reset(DroneMessage.Opcode.DROPPING_AGENT, 12)
+                .eventId(40).sequence(7).amount(9.5).volume(5.5).binary(true).toBytes();
+
+        DroneMessage decoded = new DroneMessage();
+        assertTrue(decoded.decode(data, 0, data.length));
+        assertTrue(decoded.isBinary());
+        assertEquals(DroneMessage.Opcode.DROPPING_AGENT, decoded.getOpcode());
+        assertEquals(12, decoded.getDroneId());
+        assertEquals(40, decoded.getEventId());
+        assertEquals(7, decoded.getSequence());
+        assertEquals(9.5, decoded.getAmount());
+        assertEquals(5.5, decoded.getVolume());
+    }
+
+    @Test
+    public void testTextFramingMatchesLegacyStrings() {
+        DroneMessage message = new DroneMessage();
+        assertEquals("LOCATION:0:9:7",
+                new String(message.reset(DroneMessage.Opcode.LOCATION, 0).location(9, 7).toBytes()));
+        assertEquals("Fault:1:4:15.00",
+                new String(message.reset(DroneMessage.Opcode.FAULT, 1).eventId(4).volume(15.0).toBytes()));
+        assertEquals("OK", new String(message.reset(DroneMessage.Opcode.OK, 1).toBytes()));
+
+        byte[] text = "Dropping Agent:3:2:10.00:5.00".getBytes();
+        assertTrue(message.decode(text, 0, text.length));
+        assertFalse(message.isBinary());
+        assertEquals(DroneMessage.Opcode.DROPPING_AGENT, message.getOpcode());
+        assertEquals(3, message.getDroneId());
+        assertEquals(2, message.getEventId());
+        assertEquals(10.0, message.getAmount());
+        assertEquals(5.0, message.getVolume());
+
+        byte[] unknown = "HELLO:1".getBytes();
+        assertFalse(message.decode(unknown, 0, unknown.length));
+    }
+
+    @Test
+    public void testMalformedInputRejected() {
+        DroneMessage message = new DroneMessage();
+        byte[] full = new DroneMessage().reset(DroneMessage.Opcode.DROPPING_AGENT, 12)
+                .eventId(40).amount(9.5).volume(5.5).binary(true).toBytes();
+        for (int length = 1; length < full.length; length++) {
+            assertFalse(message.decode(full, 0, length), "binary frame cut to " + length + " bytes");
+            assertNull(message.getOpcode());
+            assertEquals(0, message.getLength());
+        }
+        byte[] badOpcode = full.clone();
+        badOpcode[1] = 100;
+        assertFalse(message.decode(badOpcode, 0, badOpcode.length));
+
+        for (String text : new String[]{"LOCATION:1:abc:3", "LOCATION:1", "LOCATION:1:2:", "En Route:1:2",
+                "Dropping Agent:1:2:x:5.00", "DROP:.", "DROP:-", "ONLINE:", "ZONES_REQUEST:1", "ONLINE:1:z"}) {
+            byte[] data = text.getBytes();
+            assertFalse(message.decode(data, 0, data.length), text);
+            assertNull(message.getOpcode(), text);
+        }
+
+        // Still understood after rejecting garbage
+        byte[] ok = "DROP:-2.5".getBytes();
+        assertTrue(message.decode(ok, 0, ok.length));
+        assertEquals(-2.5, message.getAmount());
+    }
+
+    @Test
+    public void testNewEventPayload() {
+        Zone zone = new Zone(2, 500, 0, 1000, 500);
+        Event event = new Event(LocalTime.now(), zone, Event.Type.FIRE_DETECTED, Event.Severity.HIGH);
+        DroneMessage message = new DroneMessage();
+
+        for (boolean binary : new boolean[]{true, false}) {
+            byte[] data = message.reset(DroneMessage.Opcode.NEW_EVENT, 4).eventId(event.getId())
+                    .payload(event.serializeEvent()).binary(binary).toBytes();
+            DroneMessage decoded = new DroneMessage();
+            assertTrue(decoded.decode(data, 0, data.length));
+            assertEquals(DroneMessage.Opcode.NEW_EVENT, decoded.getOpcode());
+            assertEquals(event.getId(), decoded.getEvent().getId());
+            assertEquals(2, decoded.getEvent().getZone().getId());
+        }
+    }
+
+    @Test
+    public void testFaultEventId() {
+        Zone zone = new Zone(2, 500, 0, 1000, 500);
+        Event event = new Event(LocalTime.now(), zone, Event.Type.FIRE_DETECTED, Event.Severity.HIGH);
+        FaultEvent fault = new FaultEvent(LocalTime.now(), FaultEvent.Type.NOZZLE_JAM, 4, event);
+        DroneMessage message = new DroneMessage();
+
+        for (boolean binary : new boolean[]{true, false}) {
+            byte[] data = message.reset(DroneMessage.Opcode.FAULT_EVENT, 4).eventId(event.getId()).volume(15.0)
+                    .payload(fault.serializeFaultEvent()).binary(binary).toBytes();
+            DroneMessage decoded = new DroneMessage();
+            assertTrue(decoded.decode(data, 0, data.length));
+            assertEquals(event.getId(), decoded.getFaultEvent().getEvent().getId());
+            // Text framing only carries the event inside the fault
+            assertEquals(binary, decoded.hasEventId());
+            if (binary) {
+                assertEquals(event.getId(), decoded.getEventId());
+            }
+        }
+    }
+
+    @Test
+    public void testZoneCatalogMessages() {
+        DroneMessage message = new DroneMessage();
+        assertEquals("ONLINE:3", new String(message.reset(DroneMessage.Opcode.ONLINE, 3).toBytes()));
+        assertEquals("ONLINE:3:1", new String(message.reset(DroneMessage.Opcode.ONLINE, 3).catalog(1).toBytes()));
+        assertEquals("ZONES_REQUEST:3:64",
+                new String(message.reset(DroneMessage.Opcode.ZONES_REQUEST, 3).catalog(64).toBytes()));
+
+        DroneMessage decoded = new DroneMessage();
+        for (boolean binary : new boolean[]{true, false}) {
+            // Drones that predate the catalog field send ONLINE without it
+            byte[] legacy = message.reset(DroneMessage.Opcode.ONLINE, 3).binary(binary).toBytes();
+            assertTrue(decoded.decode(legacy, 0, legacy.length));
+            assertEquals(3, decoded.getDroneId());
+            assertEquals(0, decoded.getCatalog());
+
+            byte[] online = message.reset(DroneMessage.Opcode.ONLINE, 3).catalog(1).binary(binary).toBytes();
+            assertTrue(decoded.decode(online, 0, online.length));
+            assertEquals(1, decoded.getCatalog());
+
+            byte[] loaded = message.reset(DroneMessage.Opcode.ZONES_LOADED, 3).catalog(-123456).binary(binary).toBytes();
+            assertTrue(decoded.decode(loaded, 0, loaded.length));
+            assertEquals(DroneMessage.Opcode.ZONES_LOADED, decoded.getOpcode());
+            assertEquals(-123456, decoded.getCatalog());
+
+            ZoneCatalog zones = new ZoneCatalog(List.of(new Zone(8, 0, 0, 10, 10), new Zone(9, 10, 0, 20, 10)));
+            byte[] chunk = message.reset(DroneMessage.Opcode.ZONES, 3).payload(EventCodec.toBytes(zones, 0))
+                    .binary(binary).toBytes();
+            assertTrue(decoded.decode(chunk, 0, chunk.length));
+            assertEquals(DroneMessage.Opcode.ZONES, decoded.getOpcode());
+            ZoneCatalog.Download download = new ZoneCatalog.Download();
+            assertTrue(decoded.getZones(download));
+            assertTrue(download.isComplete());
+            assertEquals(zones.getVersion(), download.toCatalog().getVersion());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import java.net.InetAddress;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DroneRegistry class.
+ * This class tests registration and lookups, and that drone ids outside the
+ * fleet size limit are rejected before they can size the record array.
+ */
+public class DroneRegistryTest {
+
+    @Test
+    public void testRegisterAndLookup() {
+        DroneRegistry registry = new DroneRegistry(64);
+        InetAddress localhost = InetAddress.getLoopbackAddress();
+        registry.register(3, localhost, 7003, false, 15.0);
+        registry.register(20, localhost, 7020, true, 15.0);
+        registry.register(3, localhost, 7103, false, 15.0); // Replaces the earlier record
+
+        assertEquals(2, registry.size());
+        assertArrayEquals(new int[]{3, 20}, registry.ids());
+        assertEquals(7103, registry.get(3).getPort());
+        assertNull(registry.get(4));
+        assertNull(registry.get(-1));
+        assertNull(registry.get(1000));
+
+        long version = registry.getVersion();
+        registry.setLocation(3, 100, 200);
+        registry.setStatus(99, DroneRegistry.Status.IDLE); // Unknown ids are ignored
+        assertEquals(version + 1, registry.getVersion());
+        assertEquals(100, registry.get(3).snapshot().getX());
+    }
+
+    @Test
+    public void testIdBounds() {
+        DroneRegistry registry = new DroneRegistry(64);
+        InetAddress localhost = InetAddress.getLoopbackAddress();
+        assertTrue(registry.isValidId(0));
+        assertTrue(registry.isValidId(63));
+        assertFalse(registry.isValidId(64));
+        assertFalse(registry.isValidId(-1));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.register(-1, localhost, 7000, false, 15.0));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(2000000000, localhost, 7000, false, 15.0));
+        assertEquals(0, registry.size());
+
+        // The largest id is accepted without growing past the limit
+        registry.register(63, localhost, 7063, false, 15.0);
+        assertNotNull(registry.get(63));
+        assertThrows(IllegalArgumentException.class, () -> new DroneRegistry(0));
+        assertThrows(IllegalArgumentException.class, () -> new FreeDroneIndex().add(-1, 0, 0));
+    }
+}
@@ -24,6 +24,8 @@ public class DroneTest {
     private int workingDronePort, errorDronePort;
     private DatagramSocket workingSocket, errorSocket;
 
+    // Drone and event ids come from static counters that other tests advance too,
+    // so expected messages are built from the ids of the objects created here
     @BeforeAll
     public static void init(){
         workingDrone = new Drone(6500);
@@ -43,7 +45,7 @@ public class DroneTest {
 
                 testSocket.receive(receivePacket);
                 String receivedMessage = new String(receivePacket.getData(), 0, receivePacket.getLength());
-                assertTrue(receivedMessage.equals("ONLINE:0"));
+                assertTrue(receivedMessage.equals("ONLINE:" + workingDrone.getDroneId()));
                 System.out.println("\nExpected: ONLINE, Actual: " +receivedMessage+ "\n");
 
                 InetAddress droneAddr = receivePacket.getAddress();
@@ -67,7 +69,7 @@ public class DroneTest {
 
                 testSocket.receive(receivePacket2);
                 String droneResponse = new String(receivePacket2.getData(), 0, receivePacket2.getLength());
-                assertEquals("LOCATION:0:9:7", droneResponse);
+                assertEquals("LOCATION:" + workingDrone.getDroneId() + ":9:7", droneResponse);
 
 
             } catch (IOException e) {
@@ -92,7 +94,7 @@ public class DroneTest {
             testSocket.receive(receivePacket);
             String droneResponse = new String(receivePacket.getData(), 0, receivePacket.getLength());
 
-            assertEquals(droneResponse, "LOCATION:0:18:15");
+            assertEquals(droneResponse, "LOCATION:" + workingDrone.getDroneId() + ":18:15");
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -116,7 +118,7 @@ public class DroneTest {
             testSocket.receive(receivePacket);
             String droneResponse = new String(receivePacket.getData(), 0, receivePacket.getLength());
 
-            assertEquals(droneResponse, "LOCATION:0:27:23");
+            assertEquals(droneResponse, "LOCATION:" + workingDrone.getDroneId() + ":27:23");
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -140,7 +142,7 @@ public class DroneTest {
             testSocket.receive(receivePacket);
             String droneResponse = new String(receivePacket.getData(), 0, receivePacket.getLength());
 
-            assertEquals(droneResponse, "LOCATION:0:36:31");
+            assertEquals(droneResponse, "LOCATION:" + workingDrone.getDroneId() + ":36:31");
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -159,7 +161,7 @@ public class DroneTest {
 
             testSocket.receive(receivePacket);
             String receivedMessage = new String(receivePacket.getData(), 0, receivePacket.getLength());
-            assertTrue(receivedMessage.equals("ONLINE:1"));
+            assertTrue(receivedMessage.equals("ONLINE:" + errorDrone.getDroneId()));
             System.out.println("\nExpected: ONLINE, Actual: " +receivedMessage+ "\n");
 
             InetAddress droneAddr = receivePacket.getAddress();
@@ -186,7 +188,7 @@ public class DroneTest {
 
             testSocket.receive(receivePacket2);
             String droneResponse = new String(receivePacket2.getData(), 0, receivePacket2.getLength());
-            assertEquals("Fault:1:4:15.00", droneResponse); //assert that drone correctly returns back to base after encountering a fault
+            assertEquals("Fault:" + errorDrone.getDroneId() + ":" + event.getId() + ":15.00", droneResponse); //assert that drone correctly returns back to base after encountering a fault
 
         } catch (IOException e) {
             throw new RuntimeException(e);
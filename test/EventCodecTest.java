@@ -0,0 +1,185 @@
+import java.nio.ByteBuffer;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EventCodec class.
+ * This class tests that events and faults survive a round trip through the
+ * binary codec, whole or naming their zone by id, that a catalog survives being
+ * sent in chunks, that malformed payloads are rejected, and that Java-serialized
+ * payloads are still understood.
+ */
+public class EventCodecTest {
+
+    @AfterEach
+    public void resetFormat() {
+        WireFormat.javaSerialization = false;
+    }
+
+    @Test
+    public void testEventRoundTrip() {
+        Zone zone = new Zone(3, 500, 500, 1000, 1000);
+        Event event = new Event(LocalTime.of(14, 3, 15), zone, Event.Type.DRONE_REQUEST, Event.Severity.MODERATE);
+        event.setAgentSent(15.0);
+        event.setAgentDropping(5.0);
+
+        byte[] data = EventCodec.toBytes(event);
+        assertTrue(data.length < 100, "binary event should be tens of bytes, was " + data.length);
+
+        Event decoded = EventCodec.decodeEvent(data, 0, data.length);
+        assertEquals(event.getId(), decoded.getId());
+        assertEquals(event.getTime(), decoded.getTime());
+        assertEquals(event.getType(), decoded.getType());
+        assertEquals(event.getSeverity(), decoded.getSeverity());
+        assertEquals(20.0, decoded.getAgentRequired());
+        assertEquals(15.0, decoded.getAgentSent());
+        assertEquals(5.0, decoded.getAgentDropping());
+        assertEquals(3, decoded.getZone().getId());
+        assertArrayEquals(new int[]{500, 500}, decoded.getZone().getStart());
+        assertArrayEquals(new int[]{1000, 1000}, decoded.getZone().getEnd());
+    }
+
+    @Test
+    public void testFaultEventRoundTrip() {
+        Zone zone = new Zone(1, 0, 0, 700, 600);
+        Event event = new Event(LocalTime.now(), zone, Event.Type.FIRE_DETECTED, Event.Severity.HIGH);
+        FaultEvent fault = new FaultEvent(LocalTime.of(10, 0, 1, 5000), FaultEvent.Type.NOZZLE_JAM, 7, event);
+
+        byte[] message = fault.createMessage("FAULT_EVENT:7:15.0:");
+        int offset = "FAULT_EVENT:7:15.0:".length();
+        FaultEvent decoded = FaultEvent.deserializeFaultEvent(message, offset, message.length - offset);
+
+        assertEquals(FaultEvent.Type.NOZZLE_JAM, decoded.getFaultType());
+        assertEquals(7, decoded.getDroneID());
+        assertEquals(fault.getTimestamp(), decoded.getTimestamp());
+        assertEquals(event.getId(), decoded.getEvent().getId());
+        assertEquals(1, decoded.getEvent().getZone().getId());
+    }
+
+    @Test
+    public void testMalformedPayloadsRejected() {
+        Zone zone = new Zone(1, 0, 0, 700, 600);
+        Event event = new Event(LocalTime.of(9, 30), zone, Event.Type.FIRE_DETECTED, Event.Severity.HIGH);
+
+        // Second of day follows the header and the event id
+        byte[] data = EventCodec.toBytes(event);
+        ByteBuffer.wrap(data).putInt(7, 86400);
+        byte[] badTime = data;
+        assertThrows(IllegalArgumentException.class, () -> EventCodec.decodeEvent(badTime, 0, badTime.length));
+        assertNull(Event.deserializeEvent(badTime));
+
+        // Nano of day follows the header
+        FaultEvent fault = new FaultEvent(LocalTime.of(10, 0), FaultEvent.Type.NOZZLE_JAM, 7, event);
+        byte[] faultData = EventCodec.toBytes(fault, null);
+        ByteBuffer.wrap(faultData).putLong(3, Long.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> EventCodec.decodeFaultEvent(faultData, 0, faultData.length));
+        assertNull(FaultEvent.deserializeFaultEvent(faultData));
+
+        ByteBuffer zoneData = ByteBuffer.allocate(64);
+        EventCodec.encode(zone, zoneData);
+        assertThrows(IllegalArgumentException.class,
+                () -> EventCodec.decodeZone(zoneData.array(), 0, zoneData.position() - 1));
+    }
+
+    @Test
+    public void testJavaSerializationStillDecodes() {
+        Zone zone = new Zone(2, 500, 0, 1000, 500);
+        Event event = new Event(LocalTime.now(), zone, Event.Type.FIRE_DETECTED, Event.Severity.LOW);
+
+        WireFormat.javaSerialization = true;
+        byte[] legacy = event.createMessage("NEW_EVENT:");
+        WireFormat.javaSerialization = false;
+        byte[] binary = event.createMessage("NEW_EVENT:");
+
+        assertTrue(binary.length < legacy.length);
+        assertEquals(event.getId(), Event.deserializeEvent(legacy, 10, legacy.length - 10).getId());
+        assertEquals(event.getId(), Event.deserializeEvent(binary, 10, binary.length - 10).getId());
+    }
+
+    @Test
+    public void testZoneReferences() {
+        ZoneCatalog zones = ZoneCatalog.register(new ZoneCatalog(List.of(new Zone(1, 0, 0, 700, 600),
+                new Zone(2, 0, 600, 650, 1500), new Zone(4, 900, 900, 950, 950))));
+        Event event = new Event(LocalTime.of(9, 30), zones.zone(2), Event.Type.FIRE_DETECTED, Event.Severity.HIGH);
+
+        byte[] whole = EventCodec.toBytes(event);
+        byte[] ref = EventCodec.toBytes(event, zones);
+        assertEquals(21, ref.length, "a new event is a ref with no agent fields");
+        assertTrue(ref.length < whole.length);
+        Event decoded = EventCodec.decodeEvent(ref, 0, ref.length);
+        assertEquals(event.getId(), decoded.getId());
+        assertEquals(event.getTime(), decoded.getTime());
+        assertEquals(Event.Type.FIRE_DETECTED, decoded.getType());
+        assertEquals(Event.Severity.HIGH, decoded.getSeverity());
+        assertEquals(30.0, decoded.getAgentRequired());
+        assertEquals(0.0, decoded.getAgentSent());
+        assertSame(zones.zone(2), decoded.getZone());
+
+        // Only the agent fields that changed are sent
+        event.setAgentSent(12.5);
+        event.setAgentRequired(25.0);
+        ref = EventCodec.toBytes(event, zones);
+        assertEquals(21 + 2 * Double.BYTES, ref.length);
+        decoded = EventCodec.decodeEvent(ref, 0, ref.length);
+        assertEquals(25.0, decoded.getAgentRequired());
+        assertEquals(12.5, decoded.getAgentSent());
+        assertEquals(0.0, decoded.getAgentDropping());
+
+        // Zones the receiver does not have, or has with other bounds, are sent whole
+        Event elsewhere = new Event(LocalTime.NOON, new Zone(3, 0, 0, 1, 1), Event.Type.DRONE_REQUEST, Event.Severity.LOW);
+        assertArrayEquals(EventCodec.toBytes(elsewhere), EventCodec.toBytes(elsewhere, zones));
+        Event moved = new Event(LocalTime.NOON, new Zone(4, 0, 0, 1, 1), Event.Type.DRONE_REQUEST, Event.Severity.LOW);
+        assertArrayEquals(EventCodec.toBytes(moved), EventCodec.toBytes(moved, zones));
+
+        // A ref to a catalog this process never registered cannot be decoded
+        ZoneCatalog unknown = new ZoneCatalog(List.of(new Zone(2, 0, 600, 650, 1500), new Zone(5, 1, 1, 2, 2)));
+        byte[] unresolved = EventCodec.toBytes(new Event(LocalTime.NOON, unknown.zone(5), Event.Type.FIRE_DETECTED,
+                Event.Severity.LOW), unknown);
+        assertThrows(IllegalArgumentException.class, () -> EventCodec.decodeEvent(unresolved, 0, unresolved.length));
+
+        FaultEvent fault = new FaultEvent(LocalTime.of(9, 31), FaultEvent.Type.STUCK_IN_FLIGHT, 3, event);
+        byte[] faultRef = fault.serializeFaultEvent(zones);
+        assertTrue(faultRef.length < fault.serializeFaultEvent().length);
+        FaultEvent decodedFault = FaultEvent.deserializeFaultEvent(faultRef);
+        assertEquals(event.getId(), decodedFault.getEvent().getId());
+        assertSame(zones.zone(2), decodedFault.getEvent().getZone());
+    }
+
+    @Test
+    public void testZoneChunks() {
+        List<Zone> list = new ArrayList<>();
+        for (int id = 0; id < 150; id++) {
+            list.add(new Zone(id * 2 + 1, id * 10, 7, id * 10 + 10, 100 + id)); // Not registered anywhere else
+        }
+        ZoneCatalog zones = new ZoneCatalog(list);
+
+        ZoneCatalog.Download download = new ZoneCatalog.Download();
+        int chunks = 0;
+        while (!download.isComplete()) {
+            byte[] chunk = EventCodec.toBytes(zones, download.getReceived());
+            assertTrue(EventCodec.decodeZones(chunk, 0, chunk.length, download));
+            assertFalse(EventCodec.decodeZones(chunk, 0, chunk.length, download), "a repeated chunk is ignored");
+            chunks++;
+        }
+        assertEquals(3, chunks);
+        assertEquals(zones.getVersion(), download.getVersion());
+        ZoneCatalog copy = download.toCatalog();
+        assertEquals(zones.getVersion(), copy.getVersion());
+        assertEquals(150, copy.size());
+        assertArrayEquals(zones.zone(299).getEnd(), copy.zone(299).getEnd());
+
+        // Once registered, a process only needs the first chunk
+        ZoneCatalog.register(copy);
+        ZoneCatalog.Download again = new ZoneCatalog.Download();
+        byte[] first = EventCodec.createMessage("ZONES:", zones, 0);
+        assertTrue(EventCodec.decodeZones(first, 6, first.length - 6, again));
+        assertTrue(again.isComplete());
+        assertSame(copy, again.toCatalog());
+    }
+}
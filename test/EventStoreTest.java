@@ -0,0 +1,82 @@
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EventStore class.
+ * This class tests dispatch order, agent accounting and requeueing after a fault.
+ */
+public class EventStoreTest {
+
+    private static Event event(int id, Event.Severity severity) {
+        Zone zone = new Zone(id, 0, 0, 100, 100);
+        double required = severity == Event.Severity.HIGH ? 30.0 : severity == Event.Severity.MODERATE ? 20.0 : 10.0;
+        return new Event(id, LocalTime.of(14, 0), zone, Event.Type.FIRE_DETECTED, severity, required, 0.0, 0.0);
+    }
+
+    @Test
+    public void testPriorityAndSeverityChange() {
+        EventStore store = new EventStore();
+        store.add(event(1, Event.Severity.LOW));
+        store.add(event(2, Event.Severity.MODERATE));
+        store.add(event(3, Event.Severity.MODERATE));
+        assertFalse(store.add(event(3, Event.Severity.HIGH)));
+        assertEquals(1, store.queuedCount(Event.Severity.LOW));
+        assertEquals(2, store.queuedCount(Event.Severity.MODERATE));
+
+        assertEquals(2, store.peekNext().getId()); // Equal severity is served in id order
+        assertTrue(store.setSeverity(1, Event.Severity.HIGH));
+        assertEquals(1, store.peekNext().getId());
+        assertEquals(1, store.queuedCount(Event.Severity.HIGH));
+        assertEquals(0, store.queuedCount(Event.Severity.LOW));
+        assertTrue(store.setSeverity(1, Event.Severity.OUT));
+        assertFalse(store.isQueued(1));
+        assertEquals(2, store.queuedCount());
+        assertEquals(0, store.queuedCount(Event.Severity.HIGH));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    public void testAgentAccounting() {
+        EventStore store = new EventStore();
+        Event event = event(1, Event.Severity.HIGH);
+        store.add(event);
+        double required = event.getAgentRequired();
+
+        // Enough drones to cover the fire take it off the queue
+        double sent = 0;
+        while (store.isQueued(1)) {
+            store.assign(1, 15.0);
+            sent += 15.0;
+        }
+        assertEquals(sent, event.getAgentSent(), 0.0001);
+
+        // A fault before dropping puts it back, once
+        store.release(1, 15.0, 0.0);
+        store.release(1, 0.0, 0.0);
+        assertTrue(store.isQueued(1));
+        assertEquals(1, store.queuedCount());
+        store.assign(1, 15.0);
+        assertFalse(store.isQueued(1));
+
+        // Drops are capped at what is still needed, and the last one puts the fire out
+        double remaining = required;
+        while (remaining > 0.0001) {
+            double amount = store.reserveDrop(1, 15.0);
+            assertTrue(amount <= remaining + 0.0001);
+            remaining -= amount;
+            assertEquals(remaining <= 0.0001, store.recordDrop(1, amount));
+        }
+        assertEquals(Event.Severity.OUT, event.getSeverity());
+        assertFalse(store.recordDrop(1, 1.0));
+        assertNull(store.peekNext());
+
+        // Drones are not assigned to a fire that is out or unknown
+        double agentSent = event.getAgentSent();
+        assertNull(store.assign(1, 15.0));
+        assertNull(store.assign(99, 15.0));
+        assertEquals(agentSent, event.getAgentSent(), 0.0001);
+    }
+}
@@ -10,7 +10,8 @@ import java.util.HashMap;
 /**
  * Unit tests for the FireIncident class.
  * This class tests the functionality of reading zone and event files,
- * as well as the interaction with the Scheduler and Drone classes.
+ * as well as the interaction with the Scheduler and Drone classes, and that
+ * answered events are released.
  */
 public class FireIncidentTest {
     FireIncident fireIncident;
@@ -126,4 +127,36 @@ public class FireIncidentTest {
         fireIncident.readZoneFile();
         fireIncident.readEventFile();
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that events are only held until they are answered, so a long replay
+     * does not keep every event it sent.
+     */
+    @Test
+    public void testAnsweredEventsReleased() throws Exception {
+        try (DatagramSocket schedulerSocket = new DatagramSocket()) {
+            schedulerSocket.setSoTimeout(10000);
+            FireIncident replay = new FireIncident("test/test_Event_File.csv", "test/test_Zone_File.csv",
+                    schedulerSocket.getLocalPort(), IncidentReplay.AS_FAST_AS_POSSIBLE);
+            replay.start();
+
+            // Every fire is put out as soon as it arrives, until FireIncident finishes
+            DatagramPacket packet = new DatagramPacket(new byte[2048], 2048);
+            while (true) {
+                schedulerSocket.receive(packet);
+                byte[] data = Arrays.copyOfRange(packet.getData(), 0, packet.getLength());
+                String text = new String(data);
+                if (text.equals("FINISH")) {
+                    break;
+                }
+                if (text.startsWith("NEW_EVENT:")) {
+                    Event event = Event.deserializeEvent(Arrays.copyOfRange(data, 10, data.length));
+                    byte[] success = ("SUCCESS:1:" + event.getId()).getBytes();
+                    schedulerSocket.send(new DatagramPacket(success, success.length, packet.getSocketAddress()));
+                }
+            }
+            replay.join(10000);
+            assertTrue(replay.getEvents().isEmpty());
+        }
+    }
+}
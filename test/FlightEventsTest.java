@@ -0,0 +1,72 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FlightEvents class and drone-system.jfc.
+ * This class records a Simulation with the profile's settings and checks the
+ * dispatch, drone message and state transition events it produces.
+ */
+public class FlightEventsTest {
+    private static final Path PROFILE = Paths.get("src", "drone-system.jfc");
+
+    @Test
+    public void testProfileEnablesEvents() throws Exception {
+        Map<String, String> settings = Configuration.create(PROFILE).getSettings();
+        for (String name : new String[]{"Dispatch", "BatchPlan", "DroneMessage", "RoundTrip", "DroneState", "SchedulerState"}) {
+            assertEquals("true", settings.get("dronesystem." + name + "#enabled"), name);
+        }
+
+        // Off without the profile
+        FlightEvents.Dispatch dispatch = new FlightEvents.Dispatch();
+        assertFalse(dispatch.isEnabled());
+    }
+
+    @Test
+    public void testSimulationRecorded() throws Exception {
+        Path file = Files.createTempFile("flight", ".jfr");
+        try (Recording recording = new Recording(Configuration.create(PROFILE))) {
+            recording.start();
+            Simulation simulation = new Simulation(2);
+            Zone zone = new Zone(1, 0, 0, 500, 500);
+            simulation.addEvent(0, new Event(LocalTime.of(14, 0), zone, Event.Type.FIRE_DETECTED, Event.Severity.HIGH));
+            assertEquals(1, simulation.run().getExtinguished());
+            FlightEvents.schedulerTransition(SchedulerFSM.getState("Idle"), SchedulerFSM.getState("Active"));
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent dispatch = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("dronesystem.Dispatch"))
+                    .findFirst().orElseThrow();
+            assertEquals("HIGH", dispatch.getString("severity"));
+            assertFalse(dispatch.getBoolean("batch"));
+
+            // Every ONLINE is handled and reported with its drone
+            long online = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("dronesystem.DroneMessage"))
+                    .filter(e -> "ONLINE".equals(e.getString("opcode")))
+                    .map(e -> e.getInt("droneId")).distinct().count();
+            assertEquals(2, online);
+
+            RecordedEvent transition = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("dronesystem.SchedulerState"))
+                    .findFirst().orElseThrow();
+            assertEquals("Idle", transition.getString("from"));
+            assertEquals("Active", transition.getString("to"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FreeDroneIndex class.
+ * This class tests nearest-drone queries against a brute force scan while
+ * drones are added, moved and removed.
+ */
+public class FreeDroneIndexTest {
+
+    @Test
+    public void testNearestToZoneCenter() {
+        FreeDroneIndex index = new FreeDroneIndex(100);
+        index.add(0, 0, 0);
+        index.add(1, 900, 900);
+        index.add(2, 480, 520);
+
+        Zone zone = new Zone(1, 400, 400, 600, 600);
+        double[] center = zone.getCenter();
+        assertEquals(2, index.nearest(center[0], center[1]));
+
+        index.move(1, 510, 500);
+        assertArrayEquals(new int[]{1, 2}, index.nearest(2, center[0], center[1]));
+
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertEquals(2, index.nearest(center[0], center[1]));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(42);
+        int drones = 200;
+        int[] x = new int[drones];
+        int[] y = new int[drones];
+        boolean[] free = new boolean[drones];
+        FreeDroneIndex index = new FreeDroneIndex(150);
+
+        for (int round = 0; round < 2000; round++) {
+            int id = random.nextInt(drones);
+            switch (random.nextInt(3)) {
+                case 0:
+                    x[id] = random.nextInt(2000);
+                    y[id] = random.nextInt(2000);
+                    index.add(id, x[id], y[id]);
+                    free[id] = true;
+                    break;
+                case 1:
+                    x[id] = random.nextInt(2000);
+                    y[id] = random.nextInt(2000);
+                    index.move(id, x[id], y[id]); // Ignored unless free
+                    break;
+                default:
+                    assertEquals(free[id], index.remove(id));
+                    free[id] = false;
+            }
+
+            double targetX = random.nextInt(2000), targetY = random.nextInt(2000);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < drones; i++) {
+                if (free[i]) {
+                    expected.add(i);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(i -> distance(x[i], y[i], targetX, targetY)));
+
+            int[] nearest = index.nearest(3, targetX, targetY);
+            assertEquals(Math.min(3, expected.size()), nearest.length);
+            for (int i = 0; i < nearest.length; i++) {
+                assertEquals(distance(x[expected.get(i)], y[expected.get(i)], targetX, targetY),
+                        distance(x[nearest[i]], y[nearest[i]], targetX, targetY));
+            }
+        }
+    }
+
+    private static double distance(int x, int y, double targetX, double targetY) {
+        return (x - targetX) * (x - targetX) + (y - targetY) * (y - targetY);
+    }
+}
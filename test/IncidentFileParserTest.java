@@ -0,0 +1,132 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IncidentFileParser class.
+ * This class checks zone and event rows, that invalid rows are skipped and reported
+ * by line number, that chunking and the streaming cursor give the same rows, and
+ * the repository's own files.
+ */
+public class IncidentFileParserTest {
+
+    @TempDir
+    Path directory;
+
+    private static final List<String> ZONES = List.of(
+            "Zone ID\tZone Start\tZone End",
+            "1\t(0;0)\t(700;600)",
+            "2\t(0;600)\t(650;1500)\r",
+            "",
+            "3\t(0;600\t(650;1500)",
+            "x\t(0;0)\t(1;1)",
+            "4\t(-10;20)\t(30;40)  ",
+            "5\t(1;2)\t(3;4)\textra");
+
+    private static final List<String> EVENTS = List.of(
+            "Time\tZone ID\tEvent Type\tSeverity",
+            "10:01:02\t1\tFIRE_DETECTED\thigh",
+            "11:22:33\t2\tDRONE_REQUEST\tLow\r",
+            "24:00:00\t1\tFIRE_DETECTED\thigh",
+            "12:00:00\t1\tFIRE\thigh",
+            "   ",
+            "12:00:01\t1\tFIRE_DETECTED\tsevere",
+            "23:59:59\t7\tFIRE_DETECTED\tMODERATE");
+
+    @Test
+    public void testZones() throws Exception {
+        Path file = directory.resolve("zones.csv");
+        Files.write(file, ZONES);
+
+        IncidentFileParser.Zones zones = IncidentFileParser.parseZones(file);
+        assertEquals(3, zones.size());
+        assertEquals(2, zones.id(1));
+        assertEquals(600, zones.startY(1));
+        assertEquals(1500, zones.endY(1));
+        assertEquals(4, zones.id(2));
+        assertEquals(-10, zones.startX(2));
+        assertEquals(40, zones.endY(2));
+        assertEquals(List.of("line 5: bad start coordinates (x;y)", "line 6: bad zone id",
+                "line 8: unexpected text after the last field"), zones.getErrors());
+        assertArrayEquals(new int[]{650, 1500}, zones.toMap().get(2).getEnd());
+    }
+
+    @Test
+    public void testEvents() throws Exception {
+        Path file = directory.resolve("events.csv");
+        Files.write(file, EVENTS);
+
+        IncidentFileParser.Events events = IncidentFileParser.parseEvents(file);
+        assertEquals(3, events.size());
+        assertEquals(10 * 3600 + 62, events.secondOfDay(0));
+        assertEquals(Event.Type.DRONE_REQUEST, events.type(1));
+        assertEquals(Event.Severity.LOW, events.severity(1));
+        assertEquals(7, events.zone(2));
+        assertEquals(Event.Severity.MODERATE, events.severity(2));
+        assertEquals(3, events.getInvalidRows());
+        assertEquals(List.of("line 4: bad time, expected HH:mm:ss", "line 5: unknown event type",
+                "line 7: unknown severity"), events.getErrors());
+    }
+
+    @Test
+    public void testChunkingAndCursor() throws Exception {
+        Path file = directory.resolve("events.csv");
+        WorkloadGenerator generator = new WorkloadGenerator(3, 10, 10, 100, WorkloadGenerator.Arrival.BURSTY, 1.0,
+                1, 1, 1, 0.5, java.time.LocalTime.NOON);
+        generator.writeEvents(file, 2000);
+        Files.writeString(file, "not an event\n", java.nio.file.StandardOpenOption.APPEND);
+
+        IncidentFileParser.Events expected = IncidentFileParser.parseEvents(file);
+        assertEquals(2000, expected.size());
+        assertEquals(List.of("line 2002: bad time, expected HH:mm:ss"), expected.getErrors());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // One line per chunk, chunks ending mid-line, and a single chunk
+            for (long chunkSize : new long[]{1, 333, 1 << 20}) {
+                IncidentFileParser.Events events = IncidentFileParser.parse(file, IncidentFileParser.Events::new,
+                        pool, chunkSize);
+                assertEquals(expected.size(), events.size(), "chunk size " + chunkSize);
+                assertEquals(expected.getErrors(), events.getErrors(), "chunk size " + chunkSize);
+                for (int i = 0; i < events.size(); i++) {
+                    assertEquals(expected.secondOfDay(i), events.secondOfDay(i));
+                    assertEquals(expected.zone(i), events.zone(i));
+                    assertEquals(expected.type(i), events.type(i));
+                    assertEquals(expected.severity(i), events.severity(i));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        try (IncidentFileParser.EventCursor cursor = new IncidentFileParser.EventCursor(file)) {
+            int i = 0;
+            while (cursor.next()) {
+                assertEquals(i + 2, cursor.line());
+                assertEquals(expected.secondOfDay(i), cursor.secondOfDay());
+                assertEquals(expected.zone(i), cursor.zone());
+                assertEquals(expected.type(i), cursor.type());
+                assertEquals(expected.severity(i), cursor.severity());
+                i++;
+            }
+            assertEquals(2000, i);
+            assertEquals(expected.getErrors(), cursor.getErrors());
+        }
+    }
+
+    @Test
+    public void testRepositoryFiles() throws Exception {
+        IncidentFileParser.Zones zones = IncidentFileParser.parseZones(Path.of("test", "test_Zone_File.csv"));
+        assertEquals(0, zones.getInvalidRows());
+        assertTrue(zones.size() > 0);
+        IncidentFileParser.Events events = IncidentFileParser.parseEvents(Path.of("test", "test_Event_File.csv"));
+        assertEquals(0, events.getInvalidRows());
+        assertTrue(events.size() > 0);
+    }
+}
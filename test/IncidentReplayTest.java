@@ -0,0 +1,91 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IncidentReplay class.
+ * This class replays small event files and checks that events keep their recorded
+ * times and spacing (scaled by the speed, across midnight) and that the report
+ * compares the achieved and target rates.
+ */
+public class IncidentReplayTest {
+    private static final Map<Integer, Zone> ZONES = Map.of(1, new Zone(1, 0, 0, 700, 600));
+
+    private static Path eventFile(String... lines) throws IOException {
+        Path file = Files.createTempFile("events", ".csv");
+        file.toFile().deleteOnExit();
+        StringBuilder text = new StringBuilder("Time\tZone ID\tEvent type\tSeverity\n");
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        Files.writeString(file, text);
+        return file;
+    }
+
+    @Test
+    public void testSchedule() throws IOException {
+        Path file = eventFile(
+                "23:59:50\t1\tFIRE_DETECTED\tHigh",
+                "",
+                "23:59:55\t9\tFIRE_DETECTED\tHigh", // Unknown zone
+                "23:59:58\t1\tDRONE_REQUEST\tLow",
+                "00:00:10\t1\tFIRE_DETECTED\tModerate"); // Past midnight
+        try (IncidentReplay replay = new IncidentReplay(file.toString(), ZONES, 60)) {
+            Event first = replay.next();
+            assertEquals(LocalTime.of(23, 59, 50), first.getTime());
+            long start = replay.getDueNanos();
+
+            Event second = replay.next();
+            assertEquals(Event.Type.DRONE_REQUEST, second.getType());
+            assertEquals(8_000_000_000L / 60, replay.getDueNanos() - start);
+
+            Event third = replay.next();
+            assertEquals(LocalTime.of(0, 0, 10), third.getTime());
+            assertEquals(20_000_000_000L / 60, replay.getDueNanos() - start);
+            assertNull(replay.next());
+        }
+    }
+
+    @Test
+    public void testReport() throws IOException {
+        Path file = eventFile(
+                "14:00:00\t1\tFIRE_DETECTED\tHigh",
+                "14:00:01\t1\tFIRE_DETECTED\tLow",
+                "14:00:02\t1\tFIRE_DETECTED\tLow",
+                "14:00:04\t1\tFIRE_DETECTED\tLow");
+        // 4 seconds at 20x take 200 ms
+        try (IncidentReplay replay = new IncidentReplay(file.toString(), ZONES, 20)) {
+            long start = System.nanoTime();
+            while (replay.next() != null) {
+                replay.awaitDue();
+                replay.sent();
+            }
+            assertTrue(System.nanoTime() - start >= 190_000_000L);
+            IncidentReplay.Report report = replay.report();
+            assertEquals(4, report.getEvents());
+            assertEquals(4.0, report.getRecordedSeconds());
+            assertEquals(15.0, report.getTargetRate(), 1e-9); // 3 intervals in 0.2 s
+            assertTrue(report.getAchievedRate() <= report.getTargetRate() * 1.05, report.toString());
+            assertTrue(report.getMaxLagMillis() >= 0);
+        }
+
+        // As fast as possible: nothing waits
+        try (IncidentReplay replay = new IncidentReplay(file.toString(), ZONES, IncidentReplay.AS_FAST_AS_POSSIBLE)) {
+            List<Long> due = new ArrayList<>();
+            while (replay.next() != null) {
+                due.add(replay.getDueNanos());
+                replay.sent();
+            }
+            assertEquals(1, due.stream().distinct().count());
+            assertTrue(Double.isInfinite(replay.report().getTargetRate()));
+        }
+    }
+}
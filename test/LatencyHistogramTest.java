@@ -0,0 +1,87 @@
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LatencyHistogram class.
+ * This class checks percentiles against a sorted copy of the samples, and that
+ * merged histograms and snapshots count the same values.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        Random random = new Random(42);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] samples = new long[100_000];
+        for (int i = 0; i < samples.length; i++) {
+            // Mostly fast round trips with a long tail
+            samples[i] = random.nextInt(100) < 98 ? 200 + random.nextInt(800) : 50_000 + random.nextInt(2_000_000);
+            histogram.record(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = samples[(int) Math.ceil(percentile / 100 * samples.length) - 1];
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact + exact / 64 + 1,
+                    "p" + percentile + ": " + reported + " for " + exact);
+        }
+        assertEquals(samples[samples.length - 1], histogram.getMax());
+        assertEquals(samples[0], histogram.getMin());
+        assertEquals(samples.length, histogram.getCount());
+        assertEquals(Arrays.stream(samples).sum(), histogram.getTotal());
+
+        // Small values are exact
+        LatencyHistogram small = new LatencyHistogram();
+        small.record(3);
+        small.record(5);
+        assertEquals(3, small.getValueAtPercentile(50));
+        assertEquals(5, small.getValueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testMergeAndSnapshot() throws InterruptedException {
+        LatencyHistogram all = new LatencyHistogram();
+        LatencyHistogram[] drones = new LatencyHistogram[4];
+        Thread[] threads = new Thread[drones.length];
+        for (int d = 0; d < drones.length; d++) {
+            LatencyHistogram drone = drones[d] = new LatencyHistogram();
+            long scale = d + 1;
+            threads[d] = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    drone.record(i * scale);
+                }
+            });
+            threads[d].start();
+        }
+        LatencyHistogram running = drones[0].snapshot(); // While the drones record
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int d = 0; d < drones.length; d++) {
+            for (int i = 1; i <= 10_000; i++) {
+                all.record(i * (d + 1L));
+            }
+        }
+
+        LatencyHistogram fleet = new LatencyHistogram();
+        for (LatencyHistogram drone : drones) {
+            fleet.add(drone);
+        }
+        assertEquals(all.getCount(), fleet.getCount());
+        assertEquals(all.getTotal(), fleet.getTotal());
+        assertEquals(all.getMax(), fleet.getMax());
+        assertEquals(all.percentiles("us"), fleet.percentiles("us"));
+
+        LatencyHistogram snapshot = fleet.snapshot();
+        fleet.record(1_000_000);
+        assertEquals(all.getCount(), snapshot.getCount());
+        assertTrue(running.getCount() <= 10_000);
+        assertThrows(IllegalArgumentException.class, () -> fleet.add(new LatencyHistogram(1L << 20, 7)));
+    }
+}
@@ -0,0 +1,74 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LogAnalyzer class.
+ * This class checks the per-drone report on a small log crossing midnight, and that
+ * it comes out the same however the log is split into chunks.
+ */
+public class LogAnalyzerTest {
+
+    @TempDir
+    Path directory;
+
+    private static final List<String> LOG = List.of(
+            "23:59:59.000,[Drone 1], Sent: ONLINE:1",
+            "23:59:59.500,[Drone 1], Sent: En Route:1:0:15.00",
+            "00:00:00.500,[Drone 1], Sent: Dropping Agent:1:0:5.00:10.00",
+            "00:00:01.000,[Scheduler], Received: En Route:1:0:15.00",
+            "00:00:01.250,[FireIncidentSubsystem] Drone 1 successfully extinguished fire: 0",
+            "FLUSH_LOGS_TO_FILE",
+            "00:00:02.000,[Drone 1], Sent: Returning To Base:1",
+            "00:00:03.000,[Drone 1], Sent: En Route:1:1:10.00",
+            "00:00:04.000,[Drone 2], Sent: En Route:2:1:15.00",
+            "00:00:05.000,[Drone 2], Sent: Fault:2:1:15.00");
+
+    @Test
+    public void testReport() throws Exception {
+        Path file = directory.resolve("logs.txt");
+        Files.write(file, LOG);
+
+        List<LogAnalyzer.DroneReport> reports = LogAnalyzer.analyze(file);
+        assertEquals(2, reports.size());
+
+        LogAnalyzer.DroneReport first = reports.get(0);
+        assertEquals(1, first.getDroneId());
+        assertEquals(1, first.getFiresExtinguished());
+        assertEquals(1750, first.getResponseTime());
+        assertEquals(3500, first.getTimeInState(LogAnalyzer.EN_ROUTE));
+        assertEquals(1000, first.getTimeInState(LogAnalyzer.DROPPING_AGENT));
+        assertEquals(2500, first.getTimeInState(LogAnalyzer.RETURNING_TO_BASE));
+        assertEquals(0, first.getTimeInState(LogAnalyzer.IDLE));
+        assertEquals(100.0, first.getUtilization());
+
+        LogAnalyzer.DroneReport second = reports.get(1);
+        assertEquals(2, second.getDroneId());
+        assertEquals(0, second.getFiresExtinguished());
+        assertEquals(0, second.getResponseTime());
+        assertEquals(1000, second.getTimeInState(LogAnalyzer.FAULT));
+    }
+
+    @Test
+    public void testChunking() throws Exception {
+        Path file = directory.resolve("logs.txt");
+        Files.write(file, LOG);
+        String expected = LogAnalyzer.analyze(file).toString();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // One line per chunk, chunks ending mid-line, and a single chunk
+            for (long chunkSize : new long[]{1, 40, 97, 1 << 20}) {
+                assertEquals(expected, LogAnalyzer.analyze(file, pool, chunkSize).toString(), "chunk size " + chunkSize);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
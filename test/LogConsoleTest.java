@@ -0,0 +1,83 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.swing.ListModel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LogConsole class.
+ * This class checks that the console keeps only its last lines and that the lines
+ * shown always match the filter over those lines, as batches arrive and the filter
+ * changes.
+ */
+public class LogConsoleTest {
+
+    private static List<LogEntry> shown(LogConsole console) {
+        ListModel<LogEntry> model = console.getModel();
+        List<LogEntry> lines = new ArrayList<>();
+        for (int i = 0; i < model.getSize(); i++) {
+            lines.add(model.getElementAt(i));
+        }
+        return lines;
+    }
+
+    @Test
+    public void testCapacity() {
+        LogConsole console = new LogConsole(10);
+        console.setFilter(LogEntry.Level.DEBUG, LogEntry.NONE, LogEntry.NONE);
+        List<LogEntry> all = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            all.add(new LogEntry(LogEntry.Level.INFO, i, LogEntry.NONE, "line " + i));
+        }
+        console.append(all.subList(0, 3));
+        assertEquals(all.subList(0, 3), shown(console));
+        console.append(all.subList(3, 25)); // Larger than the console
+        assertEquals(all.subList(15, 25), shown(console));
+
+        // Filtering only looks at the lines kept
+        console.setFilter(LogEntry.Level.DEBUG, 3, LogEntry.NONE);
+        assertTrue(shown(console).isEmpty());
+        console.setFilter(LogEntry.Level.DEBUG, 20, LogEntry.NONE);
+        assertEquals(List.of(all.get(20)), shown(console));
+    }
+
+    @Test
+    public void testFilters() {
+        LogConsole console = new LogConsole(50);
+        List<LogEntry> all = new ArrayList<>();
+        Random random = new Random(7);
+        LogEntry.Level[] levels = LogEntry.Level.values();
+        LogEntry.Level level = LogEntry.Level.INFO;
+        int drone = LogEntry.NONE;
+        int event = LogEntry.NONE;
+
+        for (int round = 0; round < 200; round++) {
+            List<LogEntry> batch = new ArrayList<>();
+            for (int i = random.nextInt(30); i > 0; i--) {
+                batch.add(new LogEntry(levels[random.nextInt(levels.length)],
+                        random.nextInt(4), random.nextInt(3) - 1, "round " + round));
+            }
+            all.addAll(batch);
+            console.append(batch);
+            if (round % 10 == 0) {
+                level = levels[random.nextInt(levels.length)];
+                drone = random.nextInt(5) - 1;
+                event = random.nextInt(3) - 1;
+                console.setFilter(level, drone, event);
+            }
+
+            List<LogEntry> expected = new ArrayList<>();
+            for (LogEntry entry : all.subList(Math.max(0, all.size() - 50), all.size())) {
+                if (entry.getLevel().compareTo(level) >= 0
+                        && (drone == LogEntry.NONE || entry.getDroneId() == drone)
+                        && (event == LogEntry.NONE || entry.getEventId() == event)) {
+                    expected.add(entry);
+                }
+            }
+            assertEquals(expected, shown(console), "round " + round);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MapCanvas class.
+ * This class paints the canvas into an image (no display needed) and checks where
+ * zones and drones are drawn as zones are added and recolored and drones move,
+ * and which zone is under the mouse.
+ */
+public class MapCanvasTest {
+
+    private static BufferedImage paint(MapCanvas canvas) {
+        BufferedImage image = new BufferedImage(canvas.getWidth(), canvas.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setClip(0, 0, canvas.getWidth(), canvas.getHeight());
+        canvas.paint(g);
+        g.dispose();
+        return image;
+    }
+
+    private static boolean differs(BufferedImage a, BufferedImage b, int x, int y, int size) {
+        for (int i = x; i < x + size; i++) {
+            for (int j = y; j < y + size; j++) {
+                if (a.getRGB(i, j) != b.getRGB(i, j)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testZones() {
+        MapCanvas canvas = new MapCanvas();
+        canvas.setSize(1100, 1100);
+        // 1000 x 1000 metres with 10% padding fills the canvas at one pixel a metre
+        canvas.setZone(new Zone(1, 0, 0, 1000, 1000), new Color(255, 0, 0, 150));
+        BufferedImage image = paint(canvas);
+        Color inside = new Color(image.getRGB(60, 60));
+        assertEquals(255, inside.getRed());
+        assertTrue(inside.getGreen() < 200 && inside.getGreen() == inside.getBlue(), inside.toString());
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(20, 20)); // Padding
+
+        // Recolored in place
+        canvas.setZone(new Zone(1, 0, 0, 1000, 1000), new Color(255, 220, 0, 150));
+        assertTrue(new Color(paint(canvas).getRGB(60, 60)).getGreen() > inside.getGreen());
+
+        // A zone outside the others rescales the map, so the first zone shrinks
+        canvas.setZone(new Zone(2, 1000, 1000, 2000, 2000), new Color(0, 100, 0, 150));
+        assertEquals(2, canvas.getZoneCount());
+        image = paint(canvas);
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(20, 20));
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(1000, 100)); // Between the two zones now
+    }
+
+    @Test
+    public void testDrones() {
+        MapCanvas canvas = new MapCanvas();
+        canvas.setSize(1100, 1100);
+        canvas.setZone(new Zone(1, 0, 0, 1000, 1000), new Color(255, 0, 0, 150));
+        BufferedImage empty = paint(canvas);
+
+        for (int id = 0; id < 5000; id++) {
+            canvas.setDrone(id, id % 100, id / 100); // Far from (800, 800)
+        }
+        canvas.setDrone(4000, 800, 800);
+        assertTrue(canvas.hasDrone(4999));
+        assertFalse(canvas.hasDrone(5000));
+        BufferedImage drawn = paint(canvas);
+        // (800, 800) is at 850, 850 on screen; the icon is 30 pixels square around it
+        assertTrue(differs(empty, drawn, 835, 835, MapCanvas.ICON_SIZE));
+
+        // Moved away, the old spot shows the background again
+        canvas.setDrone(4000, 50, 50);
+        canvas.repaintDirty();
+        BufferedImage moved = paint(canvas);
+        assertFalse(differs(empty, moved, 835, 835, MapCanvas.ICON_SIZE));
+        assertNotNull(canvas.getDroneIcon(4000));
+    }
+
+    @Test
+    public void testZoneTooltip() {
+        MapCanvas canvas = new MapCanvas();
+        canvas.setSize(1100, 1100);
+        canvas.setZone(new Zone(1, 0, 0, 1000, 1000), Color.RED);
+        assertEquals(ZoneCatalog.NONE, canvas.zoneAt(850, 850)); // No catalog yet
+
+        canvas.setZoneCatalog(new ZoneCatalog(java.util.List.of(new Zone(1, 0, 0, 500, 1000),
+                new Zone(2, 500, 0, 1000, 1000))));
+        assertEquals(1, canvas.zoneAt(60, 60));
+        assertEquals(2, canvas.zoneAt(850, 850)); // (800, 800) in metres
+        assertEquals(ZoneCatalog.NONE, canvas.zoneAt(20, 20)); // Padding
+    }
+}
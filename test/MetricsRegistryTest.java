@@ -0,0 +1,83 @@
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MetricsRegistry and MetricsExporter classes.
+ * This class checks the Prometheus text output and that the HTTP endpoint and the
+ * snapshot file both serve it.
+ */
+public class MetricsRegistryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testScrape() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LongAdder location = registry.counter("messages_total", "Messages received, by type.", "type", "LOCATION");
+        registry.gauge("free_drones", "Free drones.", () -> 3);
+        LongAdder online = registry.counter("messages_total", "Messages received, by type.", "type", "ONLINE");
+        LatencyHistogram latency = registry.histogram("latency_seconds", "Dispatch latency.", 1e-3);
+        LongAdder busy = registry.counter("busy_seconds_total", "Busy time.", 1e-9);
+
+        location.add(5);
+        online.increment();
+        for (int i = 1; i <= 100; i++) {
+            latency.record(i);
+        }
+        busy.add(1_500_000_000L);
+
+        assertEquals("# HELP messages_total Messages received, by type.\n"
+                + "# TYPE messages_total counter\n"
+                + "messages_total{type=\"LOCATION\"} 5\n"
+                + "messages_total{type=\"ONLINE\"} 1\n"
+                + "# HELP free_drones Free drones.\n"
+                + "# TYPE free_drones gauge\n"
+                + "free_drones 3\n"
+                + "# HELP latency_seconds Dispatch latency.\n"
+                + "# TYPE latency_seconds summary\n"
+                + "latency_seconds{quantile=\"0.5\"} 0.05\n"
+                + "latency_seconds{quantile=\"0.9\"} 0.09\n"
+                + "latency_seconds{quantile=\"0.99\"} 0.099\n"
+                + "latency_seconds{quantile=\"0.999\"} 0.1\n"
+                + "latency_seconds_sum 5.05\n"
+                + "latency_seconds_count 100\n"
+                + "# HELP busy_seconds_total Busy time.\n"
+                + "# TYPE busy_seconds_total counter\n"
+                + "busy_seconds_total 1.5\n", registry.scrape());
+
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("bad name", "Invalid."));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("odd_labels", "Invalid.", "type"));
+    }
+
+    @Test
+    public void testExporter() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("dispatches_total", "Drones dispatched.").add(7);
+        Path file = directory.resolve("metrics.prom");
+
+        MetricsExporter exporter = new MetricsExporter(registry, 0, file, 50);
+        try {
+            HttpURLConnection connection = (HttpURLConnection)
+                    new URL("http://localhost:" + exporter.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain"));
+            try (InputStream in = connection.getInputStream()) {
+                assertEquals(registry.scrape(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        } finally {
+            exporter.close();
+        }
+        assertTrue(Files.readString(file).contains("dispatches_total 7\n"));
+    }
+}
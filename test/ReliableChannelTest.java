@@ -0,0 +1,159 @@
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ReliableChannel class.
+ * This class tests that duplicates are delivered once, that acks are selective,
+ * that frames lost on purpose are retransmitted, and the receive window.
+ */
+public class ReliableChannelTest {
+    private DatagramSocket senderSocket, receiverSocket;
+    private ReliableChannel sender, receiver;
+    private InetAddress loopback;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        loopback = InetAddress.getLoopbackAddress();
+        senderSocket = new DatagramSocket(0, loopback);
+        receiverSocket = new DatagramSocket(0, loopback);
+        sender = new ReliableChannel(senderSocket, true, LossInjector.none());
+        receiver = new ReliableChannel(receiverSocket, true, LossInjector.none());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sender.close();
+        receiver.close();
+    }
+
+    private static ByteBuffer data(int sequence, String payload) {
+        ByteBuffer frame = ByteBuffer.allocate(5 + payload.length());
+        frame.put(ReliableChannel.DATA).putInt(sequence).put(payload.getBytes()).flip();
+        return frame;
+    }
+
+    /**
+     * Hands the receiver a DATA frame as if it came from the sender's socket.
+     */
+    private boolean deliver(int sequence) {
+        return receiver.accept(data(sequence, "x"), loopback, senderSocket.getLocalPort());
+    }
+
+    /**
+     * Reads the next ack the receiver sent to the sender's socket.
+     *
+     * @return The ack base and bitmask.
+     */
+    private long[] nextAck() throws Exception {
+        DatagramPacket packet = new DatagramPacket(new byte[64], 64);
+        senderSocket.setSoTimeout(1000);
+        senderSocket.receive(packet);
+        ByteBuffer ack = ByteBuffer.wrap(packet.getData(), 0, packet.getLength());
+        assertEquals(ReliableChannel.ACK, ack.get());
+        return new long[]{ack.getInt(), ack.getLong()};
+    }
+
+    @Test
+    public void testDuplicatesDeliveredOnce() throws Exception {
+        ByteBuffer frame = data(1, "hello");
+        assertTrue(receiver.accept(frame, loopback, senderSocket.getLocalPort()));
+        assertEquals("hello", new String(frame.array(), frame.position(), frame.remaining()));
+        assertFalse(deliver(1));
+        assertEquals(1, receiver.getDuplicatesSuppressed());
+
+        // Both copies are acknowledged, so a lost ack does not stall the sender
+        assertEquals(1, nextAck()[0]);
+        assertEquals(1, nextAck()[0]);
+
+        // Unframed datagrams from peers without the layer pass through
+        assertTrue(receiver.accept(ByteBuffer.wrap("OK".getBytes()), loopback, senderSocket.getLocalPort()));
+    }
+
+    @Test
+    public void testSelectiveAck() throws Exception {
+        assertTrue(deliver(1));
+        nextAck();
+        assertTrue(deliver(2));
+        nextAck();
+        assertTrue(deliver(4));
+        long[] ack = nextAck();
+        assertEquals(4, ack[0]);
+        assertEquals(0b110, ack[1]); // 2 and 1 received, 3 missing
+
+        // The sender forgets exactly the frames the ack covers
+        DatagramSocket sink = new DatagramSocket(0, loopback);
+        try {
+            for (int i = 0; i < 4; i++) {
+                sender.send(new byte[]{(byte) i}, loopback, sink.getLocalPort());
+            }
+            assertEquals(4, sender.unacknowledged());
+            ByteBuffer frame = ByteBuffer.allocate(13);
+            frame.put(ReliableChannel.ACK).putInt(4).putLong(0b110).flip();
+            assertFalse(sender.accept(frame, loopback, sink.getLocalPort()));
+            assertEquals(1, sender.unacknowledged());
+        } finally {
+            sink.close();
+        }
+    }
+
+    @Test
+    public void testRetransmitAfterForcedDrops() throws Exception {
+        LossInjector loss = LossInjector.none();
+        ReliableChannel lossy = new ReliableChannel(senderSocket, true, loss);
+        loss.dropNext();
+        loss.dropNext();
+        lossy.send("fire".getBytes(), loopback, receiverSocket.getLocalPort());
+
+        receiverSocket.setSoTimeout(5000);
+        DatagramPacket packet = new DatagramPacket(new byte[64], 64);
+        receiver.receive(packet);
+        assertEquals("fire", new String(packet.getData(), packet.getOffset(), packet.getLength()));
+        assertTrue(lossy.getRetransmissions() >= 2);
+
+        // The sender takes in the ack and has nothing left to resend
+        senderSocket.setSoTimeout(100);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lossy.unacknowledged() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                lossy.receive(new DatagramPacket(new byte[64], 64));
+            } catch (SocketTimeoutException e) {
+                // Keep waiting for the ack
+            }
+        }
+        assertEquals(0, lossy.unacknowledged());
+
+        // Later copies of the frame are suppressed, not delivered again
+        receiverSocket.setSoTimeout(300);
+        assertThrows(SocketTimeoutException.class, () -> receiver.receive(new DatagramPacket(new byte[64], 64)));
+        lossy.close();
+    }
+
+    @Test
+    public void testReceiveWindow() throws Exception {
+        int window = 4096; // ReliableChannel.RECEIVE_WINDOW
+        assertTrue(deliver(1));
+        assertTrue(deliver(1 + window)); // Shares a slot with 1, which is no longer remembered
+        assertFalse(deliver(1 + window));
+        assertFalse(deliver(1)); // Too old to tell: treated as a duplicate
+        assertTrue(deliver(2)); // Just inside the window and never received
+        assertFalse(deliver(2));
+
+        // A frame too far behind for the bitmask is acknowledged on its own
+        for (int i = 0; i < 6; i++) {
+            nextAck();
+        }
+        assertTrue(deliver(1000));
+        long[] ack = nextAck();
+        assertEquals(1000, ack[0]);
+        assertEquals(0, ack[1]);
+    }
+}
@@ -1,12 +1,13 @@
 import java.io.IOException;
 import java.net.*;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static java.lang.Thread.sleep;
@@ -14,20 +15,12 @@ import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Unit tests for the Scheduler class.
- * This class tests the functionality of handling fire requests and updates.
+ * This class tests the functionality of handling fire requests and updates,
+ * and that reports from drones that never came online are ignored.
  */
 public class SchedulerTest {
     Scheduler scheduler;
 
-    /**
-     * Sets up the test environment before each test case.
-     * Initializes a new instance of the Scheduler class.
-     */
-    @BeforeEach
-    public void setUp() {
-        scheduler = new Scheduler(5000, 6000);
-    }
-
     /**
      * Tests the newFireRequest method of the Scheduler.
      * This test verifies that an event sent to the scheduler is correctly
@@ -37,6 +30,7 @@ public class SchedulerTest {
      */
     @Test
     public void testRun() throws InterruptedException {
+        scheduler = new Scheduler(5000, 6000);
         Zone zone = new Zone (1, 0,0,700,600);
         Event event = new Event(LocalTime.now(), zone, Event.Type.FIRE_DETECTED, Event.Severity.HIGH);
         Drone drone = new Drone(6000);
@@ -83,14 +77,15 @@ public class SchedulerTest {
             System.out.println("severity: Expected: "+event.getSeverity()+", Actual: " +returnedEvent.getSeverity());
             System.out.println();
 
-            byte[] sendMessage = "En Route:0:0:15.00".getBytes();
+            // Ids come from static counters that other tests advance too
+            byte[] sendMessage = ("En Route:" + drone.getDroneId() + ":" + event.getId() + ":15.00").getBytes();
             socket.send(new DatagramPacket(sendMessage, sendMessage.length, InetAddress.getLocalHost(), 6000));
 
             socket.receive(receivePacket);
             String receiveMessage = new String(receivePacket.getData(), 0, receivePacket.getLength());
 
             System.out.println("\nCheck if Scheduler passed the right event to Drone: ");
-            assertEquals(receiveMessage, "DROP:15.00");
+            assertEquals("DROP:15.00", receiveMessage);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -98,4 +93,150 @@ public class SchedulerTest {
         //Lets threads finish
         sleep(1000);
     }
+
+    /**
+     * Tests that the non-blocking event loop drops messages it cannot handle and
+     * keeps serving both ports afterwards.
+     */
+    @Test
+    public void testEventLoopSurvivesBadMessages() throws Exception {
+        scheduler = new Scheduler(0, 0, true);
+        Thread loop = new Thread(() -> scheduler.activeAction());
+        loop.start();
+
+        InetAddress localhost = InetAddress.getLocalHost();
+        try (DatagramSocket fireSocket = new DatagramSocket(); DatagramSocket droneSocket = new DatagramSocket()) {
+            droneSocket.setSoTimeout(5000);
+            byte[][] badFireMessages = {
+                    "NEW_EVENT:not an event".getBytes(),
+                    "ZONES_OFFER:abc".getBytes(),
+            };
+            for (byte[] bad : badFireMessages) {
+                fireSocket.send(new DatagramPacket(bad, bad.length, localhost, scheduler.getFireIncidentPort()));
+            }
+            byte[][] badDroneMessages = {
+                    {DroneMessage.MAGIC, 0x01},
+                    "LOCATION:1:abc:3".getBytes(),
+                    "En Route:99:0:15.00".getBytes(),
+                    "ONLINE:-1".getBytes(),
+                    "ONLINE:2000000000".getBytes(),
+            };
+            for (byte[] bad : badDroneMessages) {
+                droneSocket.send(new DatagramPacket(bad, bad.length, localhost, scheduler.getDronePort()));
+            }
+
+            // The loop is still running: a drone can come online and gets its OK
+            byte[] online = "ONLINE:1".getBytes();
+            droneSocket.send(new DatagramPacket(online, online.length, localhost, scheduler.getDronePort()));
+            DatagramPacket reply = new DatagramPacket(new byte[1024], 1024);
+            droneSocket.receive(reply);
+            assertTrue(new String(reply.getData(), 0, reply.getLength()).startsWith("OK"));
+
+            // FINISH from FireIncident reaches the drone, and its reply ends the loop
+            byte[] finish = "FINISH".getBytes();
+            fireSocket.send(new DatagramPacket(finish, finish.length, localhost, scheduler.getFireIncidentPort()));
+            droneSocket.receive(reply);
+            assertEquals("FINISH", new String(reply.getData(), 0, reply.getLength()));
+            byte[] finished = "FINISHED:1".getBytes();
+            droneSocket.send(new DatagramPacket(finished, finished.length, localhost, scheduler.getDronePort()));
+        }
+        loop.join(5000);
+        assertFalse(loop.isAlive());
+    }
+
+    /**
+     * Tests that a drone loading the zone catalog becomes free once, when it
+     * confirms the catalog, and that zone messages from unknown drones are ignored.
+     */
+    @Test
+    public void testZonesLoadedFreesDroneOnce() throws IOException {
+        List<String> sent = new ArrayList<>();
+        scheduler = new Scheduler(new Scheduler.Transport() {
+            @Override
+            public void toDrone(int droneId, byte[] message) {
+                sent.add(droneId + ">" + new String(message).split(":")[0]);
+            }
+
+            @Override
+            public void toFireIncident(byte[] message) {
+            }
+        });
+        InetAddress localhost = InetAddress.getLoopbackAddress();
+        DroneMessage message = new DroneMessage();
+
+        // Drone 7 never came online
+        for (String text : new String[]{"ZONES_REQUEST:7:0", "ZONES_LOADED:7:0"}) {
+            assertTrue(message.decode(text.getBytes(), 0, text.length()));
+            scheduler.handleDroneMessage(message, localhost, 7007);
+        }
+        assertEquals(List.of(), sent);
+
+        Event event = new Event(LocalTime.now(), new Zone(1, 0, 0, 700, 600), Event.Type.FIRE_DETECTED, Event.Severity.HIGH);
+        byte[] newEvent = event.createMessage("NEW_EVENT:");
+        scheduler.handleFireIncidentMessage(newEvent, 0, newEvent.length, localhost, 7000);
+
+        String online = "ONLINE:1:1";
+        assertTrue(message.decode(online.getBytes(), 0, online.length()));
+        scheduler.handleDroneMessage(message, localhost, 7001);
+        assertEquals(0, scheduler.dispatch()); // Not free before it has the catalog
+
+        String loaded = "ZONES_LOADED:1:0";
+        assertTrue(message.decode(loaded.getBytes(), 0, loaded.length()));
+        scheduler.handleDroneMessage(message, localhost, 7001);
+        assertEquals(1, scheduler.dispatch());
+
+        // A repeated confirmation is answered but does not free the busy drone again
+        assertTrue(message.decode(loaded.getBytes(), 0, loaded.length()));
+        scheduler.handleDroneMessage(message, localhost, 7001);
+        assertEquals(0, scheduler.dispatch());
+        assertEquals(List.of("1>OK", "1>OK", "1>NEW_EVENT", "1>OK"), sent);
+    }
+
+    /**
+     * Tests that EN_ROUTE and FAULT_EVENT from a drone that never came online
+     * change nothing, and that a fault with no event is still answered.
+     */
+    @Test
+    public void testUnknownDroneReportsIgnored() throws IOException {
+        List<String> sent = new ArrayList<>();
+        scheduler = new Scheduler(new Scheduler.Transport() {
+            @Override
+            public void toDrone(int droneId, byte[] message) {
+                sent.add(droneId + ">" + new String(message).split(":")[0]);
+            }
+
+            @Override
+            public void toFireIncident(byte[] message) {
+            }
+        });
+        InetAddress localhost = InetAddress.getLoopbackAddress();
+        DroneMessage message = new DroneMessage();
+
+        Event event = new Event(LocalTime.now(), new Zone(1, 0, 0, 700, 600), Event.Type.FIRE_DETECTED, Event.Severity.HIGH);
+        byte[] newEvent = event.createMessage("NEW_EVENT:");
+        scheduler.handleFireIncidentMessage(newEvent, 0, newEvent.length, localhost, 7000);
+
+        // Drone 7 never came online: no agent is reserved for it and its fault is not answered
+        String enRoute = "En Route:7:" + event.getId() + ":15.00";
+        assertTrue(message.decode(enRoute.getBytes(), 0, enRoute.length()));
+        scheduler.handleDroneMessage(message, localhost, 7007);
+        byte[] fault = message.reset(DroneMessage.Opcode.FAULT_EVENT, 7).volume(15.0)
+                .payload(new FaultEvent(LocalTime.now(), FaultEvent.Type.NOZZLE_JAM, 7, event).serializeFaultEvent())
+                .toBytes();
+        assertTrue(message.decode(fault, 0, fault.length));
+        scheduler.handleDroneMessage(message, localhost, 7007);
+        assertEquals(0.0, scheduler.eventStore.get(event.getId()).getAgentDropping());
+        assertEquals(List.of(), sent);
+
+        // A drone that faults with no event assigned is answered without touching any event
+        String online = "ONLINE:1";
+        assertTrue(message.decode(online.getBytes(), 0, online.length()));
+        scheduler.handleDroneMessage(message, localhost, 7001);
+        fault = message.reset(DroneMessage.Opcode.FAULT_EVENT, 1).volume(15.0)
+                .payload(new FaultEvent(LocalTime.now(), FaultEvent.Type.STUCK_IN_FLIGHT, 1, null).serializeFaultEvent())
+                .toBytes();
+        assertTrue(message.decode(fault, 0, fault.length));
+        scheduler.handleDroneMessage(message, localhost, 7001);
+        assertEquals(List.of("1>OK", "1>OK"), sent);
+    }
 }
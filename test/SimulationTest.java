@@ -0,0 +1,44 @@
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Simulation and SimDrone classes.
+ * This class runs small fleets against a virtual clock and checks that every fire
+ * is put out, every drone finishes and runs are reproducible.
+ */
+public class SimulationTest {
+
+    private static Simulation.Result run(int drones) {
+        Simulation simulation = new Simulation(drones);
+        Zone near = new Zone(1, 0, 0, 500, 500);
+        Zone far = new Zone(2, 2000, 2000, 2500, 2500);
+        simulation.addEvent(0, new Event(LocalTime.of(14, 0), near, Event.Type.FIRE_DETECTED, Event.Severity.HIGH));
+        simulation.addEvent(30, new Event(LocalTime.of(14, 0, 30), far, Event.Type.FIRE_DETECTED, Event.Severity.LOW));
+        simulation.addEvent(30, new Event(LocalTime.of(14, 0, 30), near, Event.Type.DRONE_REQUEST, Event.Severity.MODERATE));
+        return simulation.run();
+    }
+
+    @Test
+    public void testAllFiresOutAndDronesFinish() {
+        Simulation.Result result = run(3);
+        assertEquals(3, result.getFires());
+        assertEquals(3, result.getExtinguished());
+        assertEquals(3, result.getDronesFinished());
+
+        // The far fire alone needs a flight of about 2500 units at 12 units per second
+        assertTrue(result.getTimeToExtinguish(1.0) > 2000 / 12.0);
+        assertTrue(result.getVirtualSeconds() > result.getTimeToExtinguish(1.0));
+    }
+
+    @Test
+    public void testReproducible() {
+        Simulation.Result first = run(2);
+        Simulation.Result second = run(2);
+        assertEquals(first.getSteps(), second.getSteps());
+        assertEquals(first.getVirtualSeconds(), second.getVirtualSeconds());
+        assertEquals(first.getMeanTimeToExtinguish(), second.getMeanTimeToExtinguish());
+    }
+}
@@ -0,0 +1,132 @@
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Subscription class and Scheduler.subscribe.
+ * This class runs simulations with subscribers that read late, never or slowly, and
+ * checks that each still ends with the final state of every drone and event, a
+ * bounded log, and a run that was not held up.
+ */
+public class SubscriptionTest {
+
+    /**
+     * Keeps the latest snapshot of each drone and event.
+     */
+    private static class Recorder implements SchedulerObserver {
+        final Map<Integer, DroneRegistry.Snapshot> drones = new HashMap<>();
+        final Map<Integer, EventStore.Snapshot> events = new HashMap<>();
+        final List<LogEntry> logs = new ArrayList<>();
+        int finished;
+
+        @Override
+        public void droneChanged(DroneRegistry.Snapshot drone) {
+            drones.put(drone.getId(), drone);
+        }
+
+        @Override
+        public void eventChanged(EventStore.Snapshot event) {
+            events.put(event.getId(), event);
+        }
+
+        @Override
+        public void logged(LogEntry entry) {
+            logs.add(entry);
+        }
+
+        @Override
+        public void finished() {
+            finished++;
+        }
+    }
+
+    private static Simulation simulation() {
+        Simulation simulation = new Simulation(3);
+        Zone zone = new Zone(1, 0, 0, 500, 500);
+        for (int i = 0; i < 5; i++) {
+            simulation.addEvent(i * 10, new Event(LocalTime.of(14, 0, i), zone, Event.Type.FIRE_DETECTED, Event.Severity.HIGH));
+        }
+        return simulation;
+    }
+
+    private static void assertFinalState(Recorder recorder) {
+        assertEquals(3, recorder.drones.size());
+        for (DroneRegistry.Snapshot drone : recorder.drones.values()) {
+            assertEquals(DroneRegistry.Status.FINISHED, drone.getStatus());
+        }
+        assertEquals(5, recorder.events.size());
+        for (EventStore.Snapshot event : recorder.events.values()) {
+            assertEquals(Event.Severity.OUT, event.getSeverity());
+            assertFalse(event.isQueued());
+        }
+        assertEquals(1, recorder.finished);
+    }
+
+    @Test
+    public void testUnreadSubscriptionStaysBounded() {
+        Simulation simulation = simulation();
+        Subscription subscription = simulation.getScheduler().subscribe(8);
+        simulation.run(); // Nobody reads during the run
+        assertTrue(subscription.isFinished());
+
+        Recorder recorder = new Recorder();
+        subscription.poll(recorder);
+        assertFinalState(recorder);
+        assertEquals(8, recorder.logs.size()); // Only the newest lines were kept
+        assertTrue(subscription.getDroppedLogs() > 0);
+
+        // Everything was delivered once
+        Recorder again = new Recorder();
+        subscription.poll(again);
+        assertTrue(again.drones.isEmpty() && again.events.isEmpty() && again.logs.isEmpty());
+        assertEquals(0, again.finished);
+
+        // A late subscriber starts from the current state
+        Subscription late = simulation.getScheduler().subscribe(8);
+        Recorder lateRecorder = new Recorder();
+        late.poll(lateRecorder);
+        assertFinalState(lateRecorder);
+        assertTrue(lateRecorder.logs.isEmpty());
+        late.close();
+    }
+
+    @Test
+    public void testSlowObserverDoesNotBlockRun() throws InterruptedException {
+        Simulation simulation = simulation();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Recorder recorder = new Recorder() {
+            @Override
+            public void logged(LogEntry entry) {
+                try {
+                    release.await(); // Stalls its thread until the run is over
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.logged(entry);
+            }
+
+            @Override
+            public void finished() {
+                super.finished();
+                done.countDown();
+            }
+        };
+        simulation.getScheduler().subscribe(recorder);
+
+        Simulation.Result result = simulation.run();
+        assertEquals(5, result.getExtinguished());
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertFinalState(recorder);
+        assertTrue(recorder.logs.size() <= Subscription.DEFAULT_LOG_CAPACITY + 1);
+    }
+}
@@ -0,0 +1,108 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TelemetryLog and TelemetryDecoder classes.
+ * This class checks that every record type survives the binary round trip and
+ * that records from many threads all reach the file.
+ */
+public class TelemetryLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Path file = directory.resolve("telemetry.bin");
+        long start = TelemetryLog.now();
+        try (TelemetryLog log = new TelemetryLog(file, 16)) {
+            log.state(TelemetryLog.Source.SCHEDULER, 1, DroneRegistry.Status.EN_ROUTE);
+            log.roundTrip(2, DroneMessage.Opcode.EN_ROUTE, DroneMessage.Opcode.DROP, 7, 1_234_567);
+            log.location(TelemetryLog.Source.DRONE, 3, -40, 250);
+            log.move(3, 100, 200, 5_000_000_000L);
+            log.idle(4, 42);
+            log.dispatch(5, 8, 12.5);
+            log.fault(TelemetryLog.Source.DRONE, 6, FaultEvent.Type.NOZZLE_JAM, 9);
+            log.extinguished(7, 10);
+        }
+        assertEquals(TelemetryLog.HEADER_SIZE + 8 * TelemetryLog.RECORD_SIZE, Files.size(file));
+
+        List<String> rows = new ArrayList<>();
+        List<TelemetryLog.Type> types = new ArrayList<>();
+        long[] last = {start};
+        long count = TelemetryDecoder.read(file, record -> {
+            assertTrue(record.getTimestamp() >= last[0]);
+            last[0] = record.getTimestamp();
+            types.add(record.getType());
+            rows.add(record.toCsv());
+            switch (record.getType()) {
+                case STATE:
+                    assertEquals(TelemetryLog.Source.SCHEDULER, record.getSource());
+                    assertEquals(DroneRegistry.Status.EN_ROUTE, record.getStatus());
+                    break;
+                case RTT:
+                    assertEquals(DroneMessage.Opcode.EN_ROUTE, record.getSent());
+                    assertEquals(DroneMessage.Opcode.DROP, record.getReceived());
+                    assertEquals(7, record.getEventId());
+                    assertEquals(1_234_567, record.getNanos());
+                    break;
+                case LOCATION:
+                    assertEquals(-40, record.getX());
+                    assertEquals(250, record.getY());
+                    break;
+                case MOVE:
+                    assertEquals(5_000_000_000L, record.getNanos());
+                    break;
+                case DISPATCH:
+                    assertEquals(8, record.getEventId());
+                    assertEquals(12.5, record.getVolume());
+                    break;
+                case FAULT:
+                    assertEquals(FaultEvent.Type.NOZZLE_JAM, record.getFault());
+                    assertEquals(9, record.getEventId());
+                    break;
+                default:
+                    break;
+            }
+        });
+        assertEquals(8, count);
+        assertEquals(List.of(TelemetryLog.Type.values()), types);
+        assertTrue(rows.get(2).endsWith(",DRONE,LOCATION,3,,-40,250,,,,,,"), rows.get(2));
+    }
+
+    @Test
+    public void testConcurrentRecords() throws Exception {
+        Path file = directory.resolve("telemetry.bin");
+        int threads = 4;
+        int records = 20000;
+        TelemetryLog log = new TelemetryLog(file, 1 << 17);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int drone = t;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < records; i++) {
+                    log.location(TelemetryLog.Source.DRONE, drone, i, 0);
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        log.flush();
+        assertEquals(0, log.getDropped());
+
+        // Each drone's locations are in the order it recorded them
+        int[] next = new int[threads];
+        long count = TelemetryDecoder.read(file, record -> assertEquals(next[record.getDroneId()]++, record.getX()));
+        assertEquals(threads * records, count);
+        log.close();
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the WorkloadGenerator class.
+ * This class checks that workloads are reproducible from their seed, that each
+ * arrival process has the rate and shape asked for, and that written files replay
+ * through IncidentReplay.
+ */
+public class WorkloadGeneratorTest {
+
+    private static WorkloadGenerator generator(long seed, WorkloadGenerator.Arrival arrival) {
+        return new WorkloadGenerator(seed, 20, 30, 100, arrival, 2.0, 1, 0, 3, 0.2, LocalTime.MIDNIGHT);
+    }
+
+    /**
+     * @return The variance of the counts of incidents per minute over their mean:
+     * about 1 for Poisson arrivals, well above for clustered ones.
+     */
+    private static double dispersion(WorkloadGenerator generator, int count) {
+        Map<Integer, Integer> perMinute = new HashMap<>();
+        double last = 0;
+        for (int i = 0; i < count; i++) {
+            last = generator.next().getOffsetSeconds();
+            perMinute.merge((int) (last / 60), 1, Integer::sum);
+        }
+        int minutes = (int) (last / 60);
+        double mean = (double) count / (minutes + 1);
+        double variance = 0;
+        for (int minute = 0; minute <= minutes; minute++) {
+            double difference = perMinute.getOrDefault(minute, 0) - mean;
+            variance += difference * difference;
+        }
+        return variance / (minutes + 1) / mean;
+    }
+
+    @Test
+    public void testReproducibleMix() {
+        WorkloadGenerator a = generator(42, WorkloadGenerator.Arrival.POISSON);
+        WorkloadGenerator b = generator(42, WorkloadGenerator.Arrival.POISSON);
+        WorkloadGenerator other = generator(43, WorkloadGenerator.Arrival.POISSON);
+        assertEquals(600, a.getZones().size());
+
+        int high = 0, moderate = 0, requests = 0, differ = 0;
+        double last = 0;
+        int count = 20000;
+        for (int i = 0; i < count; i++) {
+            WorkloadGenerator.Incident x = a.next();
+            WorkloadGenerator.Incident y = b.next();
+            assertEquals(x.getOffsetSeconds(), y.getOffsetSeconds());
+            assertEquals(x.getZone(), y.getZone());
+            assertEquals(x.getSeverity(), y.getSeverity());
+            assertEquals(x.getType(), y.getType());
+            if (other.next().getZone() != x.getZone()) {
+                differ++;
+            }
+            assertTrue(x.getOffsetSeconds() >= last);
+            last = x.getOffsetSeconds();
+            high += x.getSeverity() == Event.Severity.HIGH ? 1 : 0;
+            moderate += x.getSeverity() == Event.Severity.MODERATE ? 1 : 0;
+            requests += x.getType() == Event.Type.DRONE_REQUEST ? 1 : 0;
+        }
+        assertTrue(differ > count / 2);
+        assertEquals(0, moderate);
+        assertEquals(0.25, (double) high / count, 0.02);
+        assertEquals(0.2, (double) requests / count, 0.02);
+        assertEquals(count / 2.0, last, count / 2.0 * 0.05); // 2 a second
+    }
+
+    @Test
+    public void testArrivalShapes() {
+        assertEquals(1.0, dispersion(generator(1, WorkloadGenerator.Arrival.POISSON), 20000), 0.3);
+        assertTrue(dispersion(generator(1, WorkloadGenerator.Arrival.BURSTY), 20000) > 3);
+
+        // Fronts spread to neighbouring zones; at this rate they rarely overlap
+        WorkloadGenerator bursty = new WorkloadGenerator(1, 20, 30, 100, WorkloadGenerator.Arrival.BURSTY, 0.01,
+                1, 1, 1, 0, LocalTime.MIDNIGHT);
+        int neighbours = 0;
+        WorkloadGenerator.Incident previous = bursty.next();
+        for (int i = 0; i < 1000; i++) {
+            WorkloadGenerator.Incident incident = bursty.next();
+            int rows = Math.abs((incident.getZone() - 1) / 30 - (previous.getZone() - 1) / 30);
+            int columns = Math.abs((incident.getZone() - 1) % 30 - (previous.getZone() - 1) % 30);
+            neighbours += rows <= 2 && columns <= 2 ? 1 : 0;
+            previous = incident;
+        }
+        assertTrue(neighbours > 500, neighbours + " of 1000");
+
+        // Busiest around the peak hour, quietest twelve hours away
+        WorkloadGenerator diurnal = generator(1, WorkloadGenerator.Arrival.DIURNAL);
+        int[] perHour = new int[24];
+        WorkloadGenerator.Incident incident;
+        while ((incident = diurnal.next()).getOffsetSeconds() < 24 * 3600) {
+            perHour[(int) (incident.getOffsetSeconds() / 3600)]++;
+        }
+        assertTrue(perHour[WorkloadGenerator.PEAK_HOUR] > 5 * perHour[WorkloadGenerator.PEAK_HOUR - 12]);
+        assertEquals(2.0 * 24 * 3600, Arrays.stream(perHour).sum(), 2.0 * 24 * 3600 * 0.05);
+    }
+
+    @Test
+    public void testFilesReplay() throws IOException {
+        Path zoneFile = Files.createTempFile("zones", ".csv");
+        Path eventFile = Files.createTempFile("events", ".csv");
+        zoneFile.toFile().deleteOnExit();
+        eventFile.toFile().deleteOnExit();
+        WorkloadGenerator generator = generator(7, WorkloadGenerator.Arrival.BURSTY);
+        generator.writeZones(zoneFile);
+        generator.writeEvents(eventFile, 500);
+
+        Map<Integer, Zone> zones = IncidentFileParser.parseZones(zoneFile).toMap();
+        assertEquals(600, zones.size());
+        assertArrayEquals(new int[]{2900, 1900}, zones.get(600).getStart());
+
+        int replayed = 0;
+        try (IncidentReplay replay = new IncidentReplay(eventFile.toString(), zones, IncidentReplay.AS_FAST_AS_POSSIBLE)) {
+            while (replay.next() != null) {
+                replay.sent();
+                replayed++;
+            }
+        }
+        assertEquals(500, replayed);
+
+        // Generated replays keep sub-second timing
+        try (IncidentReplay replay = new IncidentReplay(generator(7, WorkloadGenerator.Arrival.POISSON), 3, 1)) {
+            replay.next();
+            long first = replay.getDueNanos();
+            replay.next();
+            assertTrue(replay.getDueNanos() > first);
+            assertNotNull(replay.next());
+            assertNull(replay.next());
+        }
+    }
+}
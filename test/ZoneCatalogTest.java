@@ -0,0 +1,119 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ZoneCatalog class.
+ * This class checks lookups by id, versions, and zoneAt, nearest and within
+ * against a brute-force scan of random zones, on grids and on overlapping maps.
+ */
+public class ZoneCatalogTest {
+
+    private static double distance(Zone zone, double x, double y) {
+        double dx = Math.max(0, Math.max(zone.getStart()[0] - x, x - zone.getEnd()[0]));
+        double dy = Math.max(0, Math.max(zone.getStart()[1] - y, y - zone.getEnd()[1]));
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static void assertMatchesScan(List<Zone> zones, long seed) {
+        ZoneCatalog catalog = new ZoneCatalog(zones);
+        Random random = new Random(seed);
+        for (int q = 0; q < 2000; q++) {
+            double x = random.nextInt(12000) - 1000 + (q % 2 == 0 ? 0 : random.nextDouble());
+            double y = random.nextInt(12000) - 1000 + (q % 2 == 0 ? 0 : random.nextDouble());
+            double radius = random.nextInt(800);
+
+            int inside = ZoneCatalog.NONE, nearest = ZoneCatalog.NONE;
+            double best = Double.POSITIVE_INFINITY;
+            List<Integer> within = new ArrayList<>();
+            for (Zone zone : zones) {
+                boolean contains = x >= zone.getStart()[0] && x < zone.getEnd()[0]
+                        && y >= zone.getStart()[1] && y < zone.getEnd()[1];
+                if (contains && (inside == ZoneCatalog.NONE || zone.getId() < inside)) {
+                    inside = zone.getId();
+                }
+                double d = distance(zone, x, y);
+                if (d < best || (d == best && zone.getId() < nearest)) {
+                    best = d;
+                    nearest = zone.getId();
+                }
+                if (d <= radius) {
+                    within.add(zone.getId());
+                }
+            }
+            String where = "(" + x + ", " + y + ")";
+            assertEquals(inside, catalog.zoneAt(x, y), where);
+            assertEquals(best, distance(catalog.zone(catalog.nearest(x, y)), x, y), 1e-9, where);
+            assertArrayEquals(within.stream().sorted().mapToInt(Integer::intValue).toArray(),
+                    catalog.within(x, y, radius), where + " within " + radius);
+        }
+    }
+
+    @Test
+    public void testLookups() {
+        ZoneCatalog catalog = new ZoneCatalog(List.of(new Zone(3, 0, 0, 100, 100), new Zone(1, 100, 0, 200, 100),
+                new Zone(2, 700, 600, 500, 400), new Zone(1, 0, 100, 100, 200)));
+        assertEquals(3, catalog.size());
+        assertEquals(0, catalog.indexOf(1));
+        assertEquals(ZoneCatalog.NONE, catalog.indexOf(4));
+        assertEquals(ZoneCatalog.NONE, catalog.indexOf(-2));
+        assertEquals(100, catalog.startY(0)); // The last zone with id 1 wins
+        assertEquals(500, catalog.startX(1)); // Corners given end first are ordered
+        assertEquals(600.0, catalog.centerX(1));
+        assertEquals(500.0, catalog.centerY(1));
+        assertSame(catalog.zone(3), catalog.zone(3));
+        assertNull(catalog.zone(7));
+        assertEquals(List.of(1, 2, 3), new ArrayList<>(catalog.toMap().keySet()));
+
+        // Edges belong to the zone starting there
+        assertEquals(1, catalog.zoneAt(50, 100));
+        assertEquals(3, catalog.zoneAt(50, 99.5));
+        assertEquals(ZoneCatalog.NONE, catalog.zoneAt(100, 150));
+        assertEquals(2, catalog.nearest(1000, 1000));
+
+        // Sparse ids are found by binary search
+        ZoneCatalog sparse = new ZoneCatalog(List.of(new Zone(10, 0, 0, 1, 1), new Zone(1000, 5, 5, 6, 6)));
+        assertEquals(1, sparse.indexOf(1000));
+        assertEquals(ZoneCatalog.NONE, sparse.indexOf(11));
+        assertEquals(ZoneCatalog.NONE, new ZoneCatalog(List.of()).nearest(0, 0));
+    }
+
+    @Test
+    public void testVersion() {
+        ZoneCatalog catalog = new ZoneCatalog(List.of(new Zone(1, 0, 0, 100, 100), new Zone(2, 100, 0, 200, 100)));
+        // The same zones in another order, or with corners given end first, have the same version
+        assertEquals(catalog.getVersion(), new ZoneCatalog(List.of(new Zone(2, 200, 100, 100, 0),
+                new Zone(1, 0, 0, 100, 100))).getVersion());
+        assertNotEquals(catalog.getVersion(), new ZoneCatalog(List.of(new Zone(1, 0, 0, 100, 100),
+                new Zone(2, 100, 0, 200, 101))).getVersion());
+
+        assertNull(ZoneCatalog.registered(catalog.getVersion() + 1));
+        ZoneCatalog copy = new ZoneCatalog(catalog.toMap().values());
+        assertSame(catalog, ZoneCatalog.register(catalog));
+        assertSame(catalog, ZoneCatalog.register(copy)); // The first one registered is kept
+        assertSame(catalog, ZoneCatalog.registered(copy.getVersion()));
+    }
+
+    @Test
+    public void testGridMatchesScan() {
+        List<Zone> grid = new ArrayList<>(new WorkloadGenerator(1, 40, 50, 200, WorkloadGenerator.Arrival.POISSON,
+                1, 1, 1, 1, 0, java.time.LocalTime.MIDNIGHT).getZones().values());
+        assertMatchesScan(grid, 1);
+    }
+
+    @Test
+    public void testOverlappingMatchesScan() {
+        Random random = new Random(5);
+        List<Zone> zones = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            int x = random.nextInt(10000), y = random.nextInt(10000);
+            int size = random.nextInt(10) == 0 ? 3000 : 1 + random.nextInt(400); // A few large zones
+            zones.add(new Zone(id * 3, x, y, x + size, y + random.nextInt(size + 1)));
+        }
+        assertMatchesScan(zones, 2);
+    }
+}
@@ -0,0 +1,53 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Zone class.
+ * This class checks the zone's center, and that it survives Java serialization
+ * without changing the serialized form older peers send.
+ */
+public class ZoneTest {
+
+    @Test
+    public void testCenter() {
+        Zone zone = new Zone(1, 100, 200, 301, 400);
+        assertEquals(200.5, zone.getCenterX());
+        assertEquals(300.0, zone.getCenterY());
+        assertArrayEquals(new double[]{200.5, 300.0}, zone.getCenter());
+    }
+
+    @Test
+    public void testSerializationRoundTrip() throws Exception {
+        Zone zone = new Zone(7, 100, 200, 300, 600);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(zone);
+        }
+        Zone copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Zone) in.readObject();
+        }
+        assertEquals(7, copy.getId());
+        assertArrayEquals(new int[]{100, 200}, copy.getStart());
+        assertArrayEquals(new int[]{300, 600}, copy.getEnd());
+        assertEquals(200.0, copy.getCenterX());
+        assertEquals(400.0, copy.getCenterY());
+    }
+
+    @Test
+    public void testSerializedFieldsUnchanged() {
+        // Zones from peers built before the center was cached carry only these fields
+        String[] names = Arrays.stream(ObjectStreamClass.lookup(Zone.class).getFields())
+                .map(ObjectStreamField::getName).sorted().toArray(String[]::new);
+        assertArrayEquals(new String[]{"end", "id", "start"}, names);
+    }
+}